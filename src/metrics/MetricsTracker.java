@@ -1,5 +1,12 @@
 package metrics;
 
+import model.Clock;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -33,6 +40,24 @@ public class MetricsTracker {
     // stores metrics for each drone
     private final Map<Integer, DroneMetrics> droneMetrics = new ConcurrentHashMap<>();
 
+    // time source for every timestamp
+    private final Clock clock;
+
+    /**
+     * creates a tracker that measures time on the system clock
+     */
+    public MetricsTracker() {
+        this(Clock.SYSTEM);
+    }
+
+    /**
+     * creates a tracker that measures time on the given clock
+     * @param clock time source
+     */
+    public MetricsTracker(Clock clock) {
+        this.clock = clock;
+    }
+
     /**
      * tracks metrics for a single drone
      */
@@ -46,6 +71,7 @@ public class MetricsTracker {
 
         private long lastStateChangeTime;
         private String currentState;
+        private final Clock clock;
 
         // position for distance calculation
         private double lastX = 0.0;
@@ -56,8 +82,18 @@ public class MetricsTracker {
          * @param droneId id of the drone
          */
         public DroneMetrics(int droneId) {
+            this(droneId, Clock.SYSTEM);
+        }
+
+        /**
+         * creates a new DroneMetrics instance that times states on the given clock
+         * @param droneId id of the drone
+         * @param clock time source
+         */
+        public DroneMetrics(int droneId, Clock clock) {
             this.droneId = droneId;
-            this.lastStateChangeTime = System.currentTimeMillis();
+            this.clock = clock;
+            this.lastStateChangeTime = clock.millis();
             this.currentState = "IDLE";
         }
 
@@ -65,8 +101,8 @@ public class MetricsTracker {
          * updates the drone's state and records the time spent in the previous state.
          * @param newState the new state of the drone
          */
-        public void updateState(String newState) {
-            long now = System.currentTimeMillis();
+        public synchronized void updateState(String newState) {
+            long now = clock.millis();
             long duration = now - lastStateChangeTime;
 
             // adding time based on previous state
@@ -88,7 +124,7 @@ public class MetricsTracker {
          * @param newX new x coordinate
          * @param newY new y coordinate
          */
-        public void updateLocation(double newX, double newY) {
+        public synchronized void updateLocation(double newX, double newY) {
             double dx = newX - lastX;
             double dy = newY - lastY;
             totalDistanceTravelled += Math.sqrt(dx * dx + dy * dy);
@@ -97,13 +133,56 @@ public class MetricsTracker {
             lastY = newY;
         }
 
+        /**
+         * updates drone position and adds a distance that was already measured along its path
+         * @param newX     new x coordinate
+         * @param newY     new y coordinate
+         * @param distance distance travelled since the last location
+         */
+        public synchronized void addMovement(double newX, double newY, double distance) {
+            totalDistanceTravelled += distance;
+
+            lastX = newX;
+            lastY = newY;
+        }
+
         /**
          * finalize timing calculations by updating current state
          */
-        public void finalizeTime() {
+        public synchronized void finalizeTime() {
             updateState(currentState);
         }
 
+        /**
+         * writes the drone's accumulated distance and times
+         * @param out destination
+         * @throws IOException if the destination cannot be written
+         */
+        public synchronized void writeState(DataOutput out) throws IOException {
+            out.writeInt(droneId);
+            out.writeDouble(totalDistanceTravelled);
+            out.writeLong(totalFlightTime);
+            out.writeLong(totalIdleTime);
+            out.writeUTF(currentState);
+            out.writeDouble(lastX);
+            out.writeDouble(lastY);
+        }
+
+        /**
+         * reads the drone's accumulated distance and times, the current state is timed from now
+         * @param in source, positioned after the drone ID
+         * @throws IOException if the source cannot be read
+         */
+        synchronized void readState(DataInput in) throws IOException {
+            totalDistanceTravelled = in.readDouble();
+            totalFlightTime = in.readLong();
+            totalIdleTime = in.readLong();
+            currentState = in.readUTF();
+            lastX = in.readDouble();
+            lastY = in.readDouble();
+            lastStateChangeTime = clock.millis();
+        }
+
         /**
          * @return total distance travelled
          */
@@ -146,7 +225,7 @@ public class MetricsTracker {
      */
     public void markSimulationStart() {
         if (simulationStartTime == -1) {
-            simulationStartTime = System.currentTimeMillis();
+            simulationStartTime = clock.millis();
         }
     }
 
@@ -154,7 +233,7 @@ public class MetricsTracker {
      * marks the end of the simulation
      */
     public void markSimulationEnd() {
-        simulationEndTime = System.currentTimeMillis();
+        simulationEndTime = clock.millis();
     }
 
     /**
@@ -162,7 +241,7 @@ public class MetricsTracker {
      * @param droneId id of the drone
      */
     public void registerDrone(int droneId) {
-        droneMetrics.computeIfAbsent(droneId, DroneMetrics::new);
+        droneMetrics.computeIfAbsent(droneId, id -> new DroneMetrics(id, clock));
     }
 
     /**
@@ -173,7 +252,7 @@ public class MetricsTracker {
         markSimulationStart();
 
         if (!fireStartTimes.containsKey(zoneId)) {
-            fireStartTimes.put(zoneId, System.currentTimeMillis());
+            fireStartTimes.put(zoneId, clock.millis());
             totalFireEvents.incrementAndGet();
         }
     }
@@ -188,7 +267,7 @@ public class MetricsTracker {
 
         Long startTime = fireStartTimes.get(zoneId);
         if (startTime != null && !fireResponseTimes.containsKey(zoneId)) {
-            long responseTime = System.currentTimeMillis() - startTime;
+            long responseTime = clock.millis() - startTime;
             fireResponseTimes.put(zoneId, responseTime);
             totalResponseTime += responseTime;
             responseTimeCount++;
@@ -202,7 +281,7 @@ public class MetricsTracker {
     public void recordFireExtinguished(int zoneId) {
         Long startTime = fireStartTimes.get(zoneId);
         if (startTime != null) {
-            long extinguishTime = System.currentTimeMillis() - startTime;
+            long extinguishTime = clock.millis() - startTime;
             fireExtinguishTimes.put(zoneId, extinguishTime);
             totalExtinguishTime += extinguishTime;
             extinguishTimeCount++;
@@ -231,6 +310,18 @@ public class MetricsTracker {
         droneMetrics.get(droneId).updateLocation(x, y);
     }
 
+    /**
+     * records drone location update when several reports were combined into one
+     * @param droneId id of the drone
+     * @param x x coordinate
+     * @param y y coordinate
+     * @param distance path length travelled through every combined report
+     */
+    public void recordDroneMovement(int droneId, double x, double y, double distance) {
+        registerDrone(droneId);
+        droneMetrics.get(droneId).addMovement(x, y, distance);
+    }
+
     /**
      * finalize all drone timers before printing
      */
@@ -240,6 +331,79 @@ public class MetricsTracker {
         }
     }
 
+    /**
+     * writes every accumulator, so a restarted scheduler can carry on from them
+     * @param out destination
+     * @throws IOException if the destination cannot be written
+     */
+    public void writeState(DataOutput out) throws IOException {
+        out.writeInt(totalFireEvents.get());
+        out.writeInt(totalExtinguishedFires.get());
+        out.writeLong(simulationStartTime);
+        out.writeLong(simulationEndTime);
+        out.writeLong(totalResponseTime);
+        out.writeLong(totalExtinguishTime);
+        out.writeInt(responseTimeCount);
+        out.writeInt(extinguishTimeCount);
+        writeTimes(out, fireStartTimes);
+        writeTimes(out, fireResponseTimes);
+        writeTimes(out, fireExtinguishTimes);
+
+        List<DroneMetrics> drones = new ArrayList<>(droneMetrics.values());
+        out.writeInt(drones.size());
+        for (DroneMetrics metrics : drones) {
+            metrics.writeState(out);
+        }
+    }
+
+    /**
+     * replaces every accumulator with the ones written by writeState
+     * @param in source
+     * @throws IOException if the source cannot be read
+     */
+    public void readState(DataInput in) throws IOException {
+        totalFireEvents.set(in.readInt());
+        totalExtinguishedFires.set(in.readInt());
+        simulationStartTime = in.readLong();
+        simulationEndTime = in.readLong();
+        totalResponseTime = in.readLong();
+        totalExtinguishTime = in.readLong();
+        responseTimeCount = in.readInt();
+        extinguishTimeCount = in.readInt();
+        readTimes(in, fireStartTimes);
+        readTimes(in, fireResponseTimes);
+        readTimes(in, fireExtinguishTimes);
+
+        droneMetrics.clear();
+        for (int i = in.readInt(); i > 0; i--) {
+            DroneMetrics metrics = new DroneMetrics(in.readInt(), clock);
+            metrics.readState(in);
+            droneMetrics.put(metrics.droneId, metrics);
+        }
+    }
+
+    /**
+     * writes a map of zone timestamps
+     */
+    private static void writeTimes(DataOutput out, Map<Integer, Long> times) throws IOException {
+        List<Map.Entry<Integer, Long>> entries = new ArrayList<>(times.entrySet());
+        out.writeInt(entries.size());
+        for (Map.Entry<Integer, Long> entry : entries) {
+            out.writeInt(entry.getKey());
+            out.writeLong(entry.getValue());
+        }
+    }
+
+    /**
+     * replaces a map of zone timestamps
+     */
+    private static void readTimes(DataInput in, Map<Integer, Long> times) throws IOException {
+        times.clear();
+        for (int i = in.readInt(); i > 0; i--) {
+            times.put(in.readInt(), in.readLong());
+        }
+    }
+
     /**
      * @return average response time
      */
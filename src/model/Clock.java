@@ -0,0 +1,37 @@
+package model;
+
+/**
+ * Clock is the time source for the Scheduler, the drones and the metrics. Every timestamp, sleep and
+ * timed wait goes through it, so the same code runs in real time, sped up, or in virtual time that a
+ * test or simulation advances by hand.
+ *
+ * Times are in the system's usual milliseconds, where 10 milliseconds is one simulated second.
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public interface Clock {
+
+    /** The real time clock */
+    Clock SYSTEM = new SystemClock();
+
+    /**
+     * @return the current time in milliseconds
+     */
+    long millis();
+
+    /**
+     * Blocks the calling thread for a duration of clock time
+     * @param millis duration in milliseconds
+     * @throws InterruptedException if the thread is interrupted while sleeping
+     */
+    void sleep(long millis) throws InterruptedException;
+
+    /**
+     * Waits on a monitor the caller holds until it is notified or the clock reaches the deadline, like
+     * Object.wait(timeout). It can also return early, so callers check their condition in a loop.
+     * @param monitor  the monitor to wait on, held by the caller
+     * @param deadline clock time to wait until, in milliseconds
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    void waitUntil(Object monitor, long deadline) throws InterruptedException;
+}
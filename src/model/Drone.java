@@ -11,13 +11,30 @@ public class Drone {
      * represents the possible states of a drone during simulation
      */
     public enum DroneState {
-        IDLE,
-        EN_ROUTE,
-        EXTINGUISHING,
-        EN_ROUTE_NEXT_MISSION,
-        RETURNING,
-        REFILLING,
-        FAULTED
+        IDLE(0),
+        EN_ROUTE(1),
+        EXTINGUISHING(2),
+        EN_ROUTE_NEXT_MISSION(3),
+        RETURNING(4),
+        REFILLING(5),
+        FAULTED(6);
+
+        /** Byte the state is encoded as, fixed so reordering the constants keeps the encoding */
+        public final byte code;
+
+        DroneState(int code) {
+            this.code = (byte) code;
+        }
+
+        private static final DroneState[] BY_CODE = EnumCodes.byCode(values(), c -> c.code);
+
+        /**
+         * @param code an encoded code
+         * @return the constant with the code, or null if there is none
+         */
+        public static DroneState fromCode(int code) {
+            return EnumCodes.lookup(BY_CODE, code);
+        }
     }
 
     private final int id;
@@ -33,6 +50,10 @@ public class Drone {
     public static final double NOZZLE_DOORS = 0.5;
     public static final double DROP_RATE = 2.0;
 
+    // time spent at base refilling and recovering from a fault, in seconds
+    public static final double REFILL_TIME = 150.0;
+    public static final double RECOVERY_TIME = 500.0;
+
     // simulation volumes
     public static final double LOW_VOLUME = 10.0;
     public static final double MODERATE_VOLUME = 20.0;
@@ -0,0 +1,51 @@
+package model;
+
+import java.util.Arrays;
+import java.util.function.ToIntFunction;
+
+/**
+ * EnumCodes builds the lookup table of an enum whose constants carry an explicit byte code. Enums that
+ * travel in binary messages, the journal or snapshots are written as their code rather than their
+ * ordinal, so reordering or inserting a constant does not change what is on the wire or on disk.
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public final class EnumCodes {
+
+    private EnumCodes() {
+    }
+
+    /**
+     * @param constants every constant of the enum
+     * @param code      the code of a constant, from 0 to 255
+     * @param <E>       the enum
+     * @return table indexed by code, null where no constant has the code
+     * @throws IllegalStateException if two constants share a code or a code is out of range
+     */
+    public static <E extends Enum<E>> E[] byCode(E[] constants, ToIntFunction<E> code) {
+        int size = 0;
+        for (E constant : constants) {
+            size = Math.max(size, code.applyAsInt(constant) + 1);
+        }
+        E[] table = Arrays.copyOf(constants, size);
+        Arrays.fill(table, null);
+        for (E constant : constants) {
+            int c = code.applyAsInt(constant);
+            if (c < 0 || c > 255 || table[c] != null) {
+                throw new IllegalStateException("Bad or repeated code " + c + " for " + constant);
+            }
+            table[c] = constant;
+        }
+        return table;
+    }
+
+    /**
+     * @param table table built by byCode
+     * @param code  a code read from the wire or disk
+     * @param <E>   the enum
+     * @return the constant with the code, or null if there is none
+     */
+    public static <E extends Enum<E>> E lookup(E[] table, int code) {
+        return code >= 0 && code < table.length ? table[code] : null;
+    }
+}
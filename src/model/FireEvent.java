@@ -13,20 +13,79 @@ public class FireEvent {
      * The different event types
      */
     public enum Type {
-        FIRE_DETECTED,
-        DRONE_REQUEST
+        FIRE_DETECTED(0),
+        DRONE_REQUEST(1);
+
+        /** Byte the type is encoded as, fixed so reordering the constants keeps the encoding */
+        public final byte code;
+
+        Type(int code) {
+            this.code = (byte) code;
+        }
+
+        private static final Type[] BY_CODE = EnumCodes.byCode(values(), c -> c.code);
+
+        /**
+         * @param code an encoded code
+         * @return the constant with the code, or null if there is none
+         */
+        public static Type fromCode(int code) {
+            return EnumCodes.lookup(BY_CODE, code);
+        }
     }
 
     /**
      * The different severity of the event
      */
     public enum Severity {
-        Low,
-        Moderate,
-        High
+        Low(0),
+        Moderate(1),
+        High(2);
+
+        /** Byte the severity is encoded as, fixed so reordering the constants keeps the encoding */
+        public final byte code;
+
+        Severity(int code) {
+            this.code = (byte) code;
+        }
+
+        private static final Severity[] BY_CODE = EnumCodes.byCode(values(), c -> c.code);
+
+        /**
+         * @param code an encoded code
+         * @return the constant with the code, or null if there is none
+         */
+        public static Severity fromCode(int code) {
+            return EnumCodes.lookup(BY_CODE, code);
+        }
     }
 
-    public enum FaultType { NONE, NOZZLE_JAMMED, STUCK_IN_FLIGHT, COMMUNICATION_LOST }
+    /**
+     * The fault a fire event injects into the drone sent to it
+     */
+    public enum FaultType {
+        NONE(0),
+        NOZZLE_JAMMED(1),
+        STUCK_IN_FLIGHT(2),
+        COMMUNICATION_LOST(3);
+
+        /** Byte the fault is encoded as, fixed so reordering the constants keeps the encoding */
+        public final byte code;
+
+        FaultType(int code) {
+            this.code = (byte) code;
+        }
+
+        private static final FaultType[] BY_CODE = EnumCodes.byCode(values(), c -> c.code);
+
+        /**
+         * @param code an encoded code
+         * @return the constant with the code, or null if there is none
+         */
+        public static FaultType fromCode(int code) {
+            return EnumCodes.lookup(BY_CODE, code);
+        }
+    }
 
     private final String time;
     private final int zoneID;
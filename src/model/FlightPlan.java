@@ -0,0 +1,105 @@
+package model;
+
+/**
+ * FlightPlan describes a drone flying from a start point to a target at a constant speed. Drones fly
+ * along the x axis first and then along the y axis, so the drone's position at any moment of the flight
+ * can be worked out from the time since the plan started.
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class FlightPlan {
+
+    // clock milliseconds per simulated second, the same scale the drones sleep at
+    public static final double MILLIS_PER_SECOND = 10.0;
+
+    private final Drone.DroneState state;
+    private final double startX, startY;
+    private final double targetX, targetY;
+    private final double speed;
+    private final long startMillis;
+
+    /**
+     * Constructor for FlightPlan
+     * @param state       drone state during the flight
+     * @param startX      x coordinate the flight starts from
+     * @param startY      y coordinate the flight starts from
+     * @param targetX     x coordinate of the target
+     * @param targetY     y coordinate of the target
+     * @param speed       cruise speed in meters per simulated second
+     * @param startMillis clock time the flight starts, in milliseconds
+     */
+    public FlightPlan(Drone.DroneState state, double startX, double startY, double targetX, double targetY,
+                      double speed, long startMillis) {
+        this.state = state;
+        this.startX = startX;
+        this.startY = startY;
+        this.targetX = targetX;
+        this.targetY = targetY;
+        this.speed = speed;
+        this.startMillis = startMillis;
+    }
+
+    /**
+     * Length of the path a drone flies between two points, x axis first and then y axis
+     * @param x1 x coordinate of the first point
+     * @param y1 y coordinate of the first point
+     * @param x2 x coordinate of the second point
+     * @param y2 y coordinate of the second point
+     * @return path length in meters
+     */
+    public static double pathLength(double x1, double y1, double x2, double y2) {
+        return Math.abs(x2 - x1) + Math.abs(y2 - y1);
+    }
+
+    /**
+     * Get the drone's position at a given time, the drone stays at the target once it gets there
+     * @param nowMillis clock time in milliseconds
+     * @return {x, y} of the drone
+     */
+    public double[] positionAt(long nowMillis) {
+        double flown = Math.max(0, speed * (nowMillis - startMillis) / MILLIS_PER_SECOND);
+        double legX = Math.abs(targetX - startX);
+
+        if (flown <= legX) {
+            return new double[]{startX + Math.signum(targetX - startX) * flown, startY};
+        }
+        double legY = Math.min(flown - legX, Math.abs(targetY - startY));
+        return new double[]{targetX, startY + Math.signum(targetY - startY) * legY};
+    }
+
+    /**
+     * @param nowMillis clock time in milliseconds
+     * @return true if the drone has reached the target by the given time
+     */
+    public boolean isComplete(long nowMillis) {
+        return speed * (nowMillis - startMillis) / MILLIS_PER_SECOND >= pathLength(startX, startY, targetX, targetY);
+    }
+
+    /**
+     * @return drone state during the flight
+     */
+    public Drone.DroneState getState() {
+        return state;
+    }
+
+    /**
+     * @return x coordinate of the target
+     */
+    public double getTargetX() {
+        return targetX;
+    }
+
+    /**
+     * @return y coordinate of the target
+     */
+    public double getTargetY() {
+        return targetY;
+    }
+
+    /**
+     * @return cruise speed in meters per simulated second
+     */
+    public double getSpeed() {
+        return speed;
+    }
+}
@@ -0,0 +1,88 @@
+package model;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * ManualClock only moves when it is advanced. Threads sleeping or waiting on it stay blocked until a test
+ * or simulation moves the clock past their deadline, so timed behaviour runs without real delays.
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class ManualClock implements Clock {
+
+    private long now;
+
+    // monitors with a thread in waitUntil, woken every time the clock moves
+    private final List<Object> waiting = new CopyOnWriteArrayList<>();
+
+    /**
+     * Constructs a clock stopped at 0
+     */
+    public ManualClock() {
+        this(0);
+    }
+
+    /**
+     * Constructs a clock stopped at the given time
+     * @param millis starting time in milliseconds
+     */
+    public ManualClock(long millis) {
+        this.now = millis;
+    }
+
+    @Override
+    public synchronized long millis() {
+        return now;
+    }
+
+    @Override
+    public void sleep(long millis) throws InterruptedException {
+        synchronized (this) {
+            long until = now + millis;
+            while (now < until) {
+                wait();
+            }
+        }
+    }
+
+    @Override
+    public void waitUntil(Object monitor, long deadline) throws InterruptedException {
+        // registered before the time check, so an advance in between still wakes this thread
+        waiting.add(monitor);
+        try {
+            if (millis() < deadline) {
+                monitor.wait();
+            }
+        } finally {
+            waiting.remove(monitor);
+        }
+    }
+
+    /**
+     * Moves the clock forward and wakes every thread whose sleep or wait may have ended
+     * @param millis milliseconds to move forward
+     */
+    public void advance(long millis) {
+        setMillis(millis() + millis);
+    }
+
+    /**
+     * Moves the clock to the given time, a time in the past is ignored
+     * @param millis new time in milliseconds
+     */
+    public void setMillis(long millis) {
+        synchronized (this) {
+            if (millis <= now) {
+                return;
+            }
+            now = millis;
+            notifyAll();
+        }
+        for (Object monitor : waiting) {
+            synchronized (monitor) {
+                monitor.notifyAll();
+            }
+        }
+    }
+}
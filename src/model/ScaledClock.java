@@ -0,0 +1,60 @@
+package model;
+
+/**
+ * ScaledClock runs a fixed number of times faster than the wall clock. A flight that sleeps 100 ms on
+ * the system clock takes 10 ms of real time on a clock scaled by 10.
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class ScaledClock implements Clock {
+
+    private final double scale;
+    private final long origin;
+
+    /**
+     * Constructs a clock that starts at the current wall clock time
+     * @param scale clock milliseconds per real millisecond, greater than 0
+     */
+    public ScaledClock(double scale) {
+        if (scale <= 0) {
+            throw new IllegalArgumentException("scale must be greater than 0");
+        }
+        this.scale = scale;
+        this.origin = System.currentTimeMillis();
+    }
+
+    @Override
+    public long millis() {
+        return origin + (long) ((System.currentTimeMillis() - origin) * scale);
+    }
+
+    @Override
+    public void sleep(long millis) throws InterruptedException {
+        if (millis > 0) {
+            Thread.sleep(toRealMillis(millis));
+        }
+    }
+
+    @Override
+    public void waitUntil(Object monitor, long deadline) throws InterruptedException {
+        long remaining = deadline - millis();
+        if (remaining > 0) {
+            monitor.wait(toRealMillis(remaining));
+        }
+    }
+
+    /**
+     * @return clock milliseconds per real millisecond
+     */
+    public double getScale() {
+        return scale;
+    }
+
+    /**
+     * @param millis duration in clock milliseconds
+     * @return the duration in real milliseconds, rounded up so a wait never ends before its deadline
+     */
+    private long toRealMillis(long millis) {
+        return Math.max(1, (long) Math.ceil(millis / scale));
+    }
+}
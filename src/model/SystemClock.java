@@ -0,0 +1,27 @@
+package model;
+
+/**
+ * SystemClock follows the wall clock, sleeping and waiting for real.
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class SystemClock implements Clock {
+
+    @Override
+    public long millis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public void sleep(long millis) throws InterruptedException {
+        Thread.sleep(millis);
+    }
+
+    @Override
+    public void waitUntil(Object monitor, long deadline) throws InterruptedException {
+        long remaining = deadline - millis();
+        if (remaining > 0) {
+            monitor.wait(remaining);
+        }
+    }
+}
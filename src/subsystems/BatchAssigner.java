@@ -0,0 +1,103 @@
+package subsystems;
+
+import java.util.Arrays;
+
+/**
+ * BatchAssigner solves the assignment problem between a batch of queued fire events and the drones
+ * waiting for work, so that the total ETA of every drone to its assigned zone is as small as possible.
+ *
+ * It uses the Hungarian algorithm (shortest augmenting paths with potentials) which runs in
+ * O(events^2 * drones) time. The Scheduler only ever batches up to one event per waiting drone, so the
+ * matrix always has at least as many columns as rows.
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class BatchAssigner {
+
+    /**
+     * Assigns every row (event) to a distinct column (drone) with the minimum total cost
+     * @param cost cost[i][j] is the cost of assigning event i to drone j, with rows <= columns
+     * @return for each event, the index of the drone it is assigned to
+     */
+    public static int[] solve(double[][] cost) {
+        int n = cost.length;
+        if (n == 0) {
+            return new int[0];
+        }
+        int m = cost[0].length;
+        if (n > m) {
+            throw new IllegalArgumentException("More events (" + n + ") than drones (" + m + ") in batch");
+        }
+
+        // 1-indexed potentials and matching as in the classic formulation, column 0 is a sentinel
+        double[] u = new double[n + 1];
+        double[] v = new double[m + 1];
+        int[] match = new int[m + 1]; // match[j] = row assigned to column j
+        int[] way = new int[m + 1];
+
+        for (int i = 1; i <= n; i++) {
+            match[0] = i;
+            int j0 = 0;
+            double[] minv = new double[m + 1];
+            boolean[] used = new boolean[m + 1];
+            Arrays.fill(minv, Double.POSITIVE_INFINITY);
+
+            do {
+                used[j0] = true;
+                int i0 = match[j0];
+                double delta = Double.POSITIVE_INFINITY;
+                int j1 = 0;
+                for (int j = 1; j <= m; j++) {
+                    if (!used[j]) {
+                        double cur = cost[i0 - 1][j - 1] - u[i0] - v[j];
+                        if (cur < minv[j]) {
+                            minv[j] = cur;
+                            way[j] = j0;
+                        }
+                        if (minv[j] < delta) {
+                            delta = minv[j];
+                            j1 = j;
+                        }
+                    }
+                }
+                for (int j = 0; j <= m; j++) {
+                    if (used[j]) {
+                        u[match[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minv[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (match[j0] != 0);
+
+            // walk the augmenting path back to the sentinel
+            do {
+                int j1 = way[j0];
+                match[j0] = match[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+
+        int[] assignment = new int[n];
+        for (int j = 1; j <= m; j++) {
+            if (match[j] != 0) {
+                assignment[match[j] - 1] = j - 1;
+            }
+        }
+        return assignment;
+    }
+
+    /**
+     * @param cost cost matrix
+     * @param assignment event to drone assignment
+     * @return total cost of the assignment
+     */
+    public static double totalCost(double[][] cost, int[] assignment) {
+        double total = 0;
+        for (int i = 0; i < assignment.length; i++) {
+            total += cost[i][assignment[i]];
+        }
+        return total;
+    }
+}
@@ -0,0 +1,176 @@
+package subsystems;
+
+import model.Clock;
+
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * DeadlineTimer keeps at most one deadline per int key in a priority queue and calls back its listener
+ * the moment a deadline passes without being cancelled. What a key and an expiry mean is up to the owner.
+ *
+ * The timer thread sleeps until the earliest deadline instead of polling, so an expiry is delivered
+ * within milliseconds and each arm, cancel or expiry costs O(log n) in the number of pending deadlines.
+ * Arming a key again replaces its deadline, and cancelled or replaced deadlines are dropped lazily when
+ * they come due. Deadlines are measured on a Clock, so they expire in virtual time when it is one.
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class DeadlineTimer {
+
+    /**
+     * Receives deadlines that expired without being cancelled
+     */
+    public interface Listener {
+        /**
+         * @param key      key the deadline was armed for
+         * @param deadline the deadline that expired, in clock milliseconds
+         */
+        void deadlineExpired(int key, long deadline);
+    }
+
+    /**
+     * A single armed deadline
+     */
+    private static class Deadline implements Comparable<Deadline> {
+        final int key;
+        final long deadline;
+
+        Deadline(int key, long deadline) {
+            this.key = key;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public int compareTo(Deadline other) {
+            return Long.compare(deadline, other.deadline);
+        }
+    }
+
+    private final PriorityQueue<Deadline> deadlines = new PriorityQueue<>(); // guarded by this
+    private final Map<Integer, Deadline> armed = new ConcurrentHashMap<>();
+    private final String name;
+    private final Listener listener;
+    private final Clock clock;
+    private Thread thread;
+    private volatile boolean running = false;
+
+    /**
+     * Constructs a timer on the system clock, call start() to begin watching deadlines
+     * @param name     name of the timer thread
+     * @param listener callback for expired deadlines
+     */
+    public DeadlineTimer(String name, Listener listener) {
+        this(name, listener, Clock.SYSTEM);
+    }
+
+    /**
+     * Constructs a timer, call start() to begin watching deadlines
+     * @param name     name of the timer thread
+     * @param listener callback for expired deadlines
+     * @param clock    clock the deadlines are measured on
+     */
+    public DeadlineTimer(String name, Listener listener, Clock clock) {
+        this.name = name;
+        this.listener = listener;
+        this.clock = clock;
+    }
+
+    /**
+     * Starts the timer thread
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::watch, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the timer thread and drops every pending deadline
+     */
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+        armed.clear();
+        deadlines.clear();
+        notifyAll();
+    }
+
+    /**
+     * Arms the deadline of a key, replacing any deadline it already had
+     * @param key      key of the deadline
+     * @param deadline deadline in clock milliseconds
+     */
+    public void arm(int key, long deadline) {
+        Deadline d = new Deadline(key, deadline);
+        armed.put(key, d);
+        synchronized (this) {
+            deadlines.add(d);
+            if (deadlines.peek() == d) {
+                notifyAll(); // the timer thread is waiting for a later deadline
+            }
+        }
+    }
+
+    /**
+     * Cancels the deadline of a key
+     * @param key key of the deadline
+     * @return true if the key had an armed deadline
+     */
+    public boolean cancel(int key) {
+        return armed.remove(key) != null;
+    }
+
+    /**
+     * @param key key of the deadline
+     * @return true if the key has an armed deadline
+     */
+    public boolean isArmed(int key) {
+        return armed.containsKey(key);
+    }
+
+    /**
+     * @return number of armed deadlines
+     */
+    public int size() {
+        return armed.size();
+    }
+
+    /**
+     * Timer thread body, blocks until the earliest deadline is due
+     */
+    private void watch() {
+        while (running) {
+            try {
+                Deadline d;
+                synchronized (this) {
+                    d = deadlines.peek();
+                    if (d == null) {
+                        wait();
+                        continue;
+                    }
+                    if (clock.millis() < d.deadline) {
+                        clock.waitUntil(this, d.deadline);
+                        continue;
+                    }
+                    deadlines.poll();
+                }
+                // skip deadlines that were cancelled or replaced since they were armed, the listener is
+                // called without holding the timer lock since it may take its owner's lock
+                if (armed.remove(d.key, d)) {
+                    listener.deadlineExpired(d.key, d.deadline);
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,478 @@
+package subsystems;
+
+import model.*;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * DiscreteEventSimulation runs the drone swarm in virtual time. Instead of sleeping through every flight
+ * step, drop and refill, the clock jumps straight to the next moment something happens, so a simulated
+ * day finishes as fast as the CPU can work through it.
+ *
+ * The drones are real DroneSubsystems that talk to a real Scheduler through an InMemoryTransport, and
+ * both keep time on the simulation's ManualClock. Each drone runs on its own thread, but only one thread
+ * runs at a time. A drone that sleeps or waits for a reply parks and hands its turn back to the
+ * simulation, which notes when the drone has to wake. Waking a drone, at its deadline or when a reply
+ * reaches its mailbox, is an action in a priority queue ordered by virtual time, next to the fires that
+ * arrive at the time of day written in the event file. Actions run one at a time and the clock moves to
+ * each in turn, so runs are repeatable.
+ *
+ * The Scheduler's UDP server is never started, fires are handed to it in process with Scheduler.deliver().
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class DiscreteEventSimulation {
+
+    /**
+     * A step scheduled at a virtual time, actions at the same time run in the order they were scheduled
+     */
+    private static final class Action implements Comparable<Action> {
+        private final long time;
+        private final long sequence;
+        private final Runnable task;
+
+        private Action(long time, long sequence, Runnable task) {
+            this.time = time;
+            this.sequence = sequence;
+            this.task = task;
+        }
+
+        @Override
+        public int compareTo(Action other) {
+            int byTime = Long.compare(time, other.time);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    // the fire incident subsystem has no reply port
+    private static final int FIRE_INCIDENT_PORT = 0;
+
+    private final Scheduler scheduler;
+    private final VirtualClock clock = new VirtualClock();
+    private final InetAddress address = InetAddress.getLoopbackAddress();
+    private final PriorityQueue<Action> agenda = new PriorityQueue<>(); // touched only by the thread holding the turn
+    private final Map<Integer, SimulatedDrone> drones = new HashMap<>(); // keyed by drone ID, which is also its port
+
+    // guards handing the turn between the simulation's thread and the drone threads
+    private final Object turnLock = new Object();
+    // drone whose thread holds the turn, null while the simulation's own thread does
+    private volatile SimulatedDrone current = null;
+
+    private long now = 0; // virtual time in clock milliseconds
+    private long sequence = 0;
+    private long processedActions = 0;
+    private long lastFireTime = 0;
+    private int fireEvents = 0;
+    private int completedEvents = 0;
+
+    /**
+     * Constructs a simulation of a fleet of drones working for a new scheduler
+     * @param zoneFilePath path to CSV file containing zones
+     * @param droneCount   number of drones, with IDs 1 to droneCount
+     */
+    public DiscreteEventSimulation(String zoneFilePath, int droneCount) {
+        this.scheduler = new Scheduler(zoneFilePath, null, clock);
+        scheduler.setBatchWindowMillis(0); // the batch window is closed by a timer thread, match immediately instead
+        InMemoryTransport hub = new InMemoryTransport(scheduler);
+        scheduler.setReplyListener((message, replyAddress, port) -> {
+            hub.reply(message, replyAddress, port);
+            replied(port);
+        });
+
+        for (int id = 1; id <= droneCount; id++) {
+            SimulatedDrone drone = new SimulatedDrone(id, hub.connect()); // the id-th connection gets port id
+            drones.put(id, drone);
+            schedule(0, drone::start);
+        }
+    }
+
+    /**
+     * Runs the simulation in virtual time from the zone and event files
+     * @param args optional drone count, event file and zone file
+     */
+    public static void main(String[] args) {
+        int droneCount = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        String eventFilePath = args.length > 1 ? args[1] : "Final_event_file_w26.csv";
+        String zoneFilePath = args.length > 2 ? args[2] : "Final_zone_file_w26.csv";
+
+        DiscreteEventSimulation simulation = new DiscreteEventSimulation(zoneFilePath, droneCount);
+        simulation.loadEvents(eventFilePath);
+
+        long start = System.currentTimeMillis();
+        long end = simulation.run();
+        long seconds = end / 1000;
+        System.out.printf("[Simulation] %d of %d fires extinguished by %d drones. Simulated %d:%02d:%02d in %d ms (%d actions)\n",
+                simulation.getCompletedEventCount(), simulation.getFireEventCount(), droneCount,
+                seconds / 3600, seconds / 60 % 60, seconds % 60, System.currentTimeMillis() - start,
+                simulation.getProcessedActionCount());
+    }
+
+    /**
+     * Schedules every fire in a CSV event file, followed by ALL_EVENTS_DONE after the last one
+     * @param filePath the path to the CSV event file
+     */
+    public void loadEvents(String filePath) {
+        String line;
+        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
+            while ((line = br.readLine()) != null) {
+                if (!line.isBlank()) {
+                    addFireEvent(FireIncidentSubsystem.parseEvent(line));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+        }
+        allEventsAdded();
+    }
+
+    /**
+     * Schedules a fire to be reported to the scheduler at the event's time of day
+     * @param event the fire event
+     */
+    public void addFireEvent(FireEvent event) {
+        long time = parseTime(event.getTime());
+        lastFireTime = Math.max(lastFireTime, time);
+        fireEvents++;
+        String message = "FIRE_DETECTED," + event.getTime() + "," + event.getZoneID() + "," +
+                event.getSeverity() + "," + event.getFaultType();
+        schedule(time, () -> scheduler.deliver(message, address, FIRE_INCIDENT_PORT));
+    }
+
+    /**
+     * Schedules ALL_EVENTS_DONE after the last fire added so far
+     */
+    public void allEventsAdded() {
+        schedule(lastFireTime, () -> scheduler.deliver("ALL_EVENTS_DONE", address, FIRE_INCIDENT_PORT));
+    }
+
+    /**
+     * Runs actions in virtual time order until none are left, then stops the drones still waiting for
+     * something that will never come
+     * @return the virtual time of the last action, in simulated milliseconds
+     */
+    public long run() {
+        Action action;
+        while ((action = agenda.poll()) != null) {
+            now = action.time;
+            clock.setMillis(now);
+            processedActions++;
+            action.task.run();
+        }
+        for (SimulatedDrone drone : drones.values()) {
+            drone.stop();
+        }
+        return getVirtualTime();
+    }
+
+    /**
+     * @return the scheduler the drones work for
+     */
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * @return current virtual time in simulated milliseconds
+     */
+    public long getVirtualTime() {
+        return Math.round(now * 1000 / FlightPlan.MILLIS_PER_SECOND);
+    }
+
+    /**
+     * @return number of actions run so far
+     */
+    public long getProcessedActionCount() {
+        return processedActions;
+    }
+
+    /**
+     * @return number of fires added to the simulation
+     */
+    public int getFireEventCount() {
+        return fireEvents;
+    }
+
+    /**
+     * @return number of fires the drones reported extinguished
+     */
+    public int getCompletedEventCount() {
+        return completedEvents;
+    }
+
+    /**
+     * @param droneID id of the drone
+     * @return state of the drone, or null if there is no such drone
+     */
+    public Drone.DroneState getDroneState(int droneID) {
+        SimulatedDrone drone = drones.get(droneID);
+        return drone != null ? drone.subsystem.getState() : null;
+    }
+
+    /**
+     * @param droneID id of the drone
+     * @return true if the drone was still taking missions when nothing was left to happen
+     */
+    public boolean isDroneRunning(int droneID) {
+        SimulatedDrone drone = drones.get(droneID);
+        if (drone == null) {
+            return false;
+        }
+        synchronized (turnLock) {
+            return drone.stopped || !drone.finished;
+        }
+    }
+
+    /**
+     * Adds an action to the agenda
+     * @param time virtual time to run it at in clock milliseconds, never earlier than now
+     * @param task the action
+     */
+    private void schedule(long time, Runnable task) {
+        agenda.add(new Action(Math.max(time, now), sequence++, task));
+    }
+
+    /**
+     * Called for every reply the scheduler puts in a drone's mailbox, the drone gets a turn to read it.
+     * A drone that holds the turn reads its mailbox before it parks again.
+     * @param port the port of the drone, which is its ID
+     */
+    private void replied(int port) {
+        SimulatedDrone drone = drones.get(port);
+        if (drone != null && drone != current && !drone.replyPending) {
+            drone.replyPending = true;
+            schedule(now, () -> {
+                drone.replyPending = false;
+                drone.resume(0);
+            });
+        }
+    }
+
+    /**
+     * @param time time of day written as HH:MM:SS
+     * @return clock milliseconds since midnight, or the time of the last fire if the time cannot be read
+     */
+    private long parseTime(String time) {
+        try {
+            return Math.round(LocalTime.parse(time).toSecondOfDay() * FlightPlan.MILLIS_PER_SECOND);
+        } catch (DateTimeParseException e) {
+            return lastFireTime;
+        }
+    }
+
+    /**
+     * The simulation's clock. A drone thread that sleeps or waits on it parks until the simulation gives
+     * it the turn again, any other thread waits as on a plain ManualClock.
+     */
+    private final class VirtualClock extends ManualClock {
+
+        @Override
+        public void sleep(long millis) throws InterruptedException {
+            SimulatedDrone drone = runningDrone();
+            if (drone == null) {
+                super.sleep(millis);
+                return;
+            }
+            long until = millis() + millis;
+            synchronized (drone) {
+                while (!drone.released && millis() < until) {
+                    drone.park(drone, until);
+                }
+            }
+        }
+
+        @Override
+        public void waitUntil(Object monitor, long deadline) throws InterruptedException {
+            SimulatedDrone drone = runningDrone();
+            if (drone == null) {
+                super.waitUntil(monitor, deadline);
+            } else if (!drone.released && millis() < deadline) {
+                drone.park(monitor, deadline);
+            }
+        }
+
+        /**
+         * @return the drone whose thread is calling, or null if it is not a drone thread
+         */
+        private SimulatedDrone runningDrone() {
+            SimulatedDrone drone = current;
+            return drone != null && drone.thread == Thread.currentThread() ? drone : null;
+        }
+    }
+
+    /**
+     * One drone of the fleet, a DroneSubsystem on a thread that only runs while it holds the turn
+     */
+    private final class SimulatedDrone {
+        private final DroneSubsystem subsystem;
+        private final Thread thread;
+
+        // guarded by turnLock
+        private Object monitor;           // what the drone waits on while parked
+        private boolean parked = false;
+        private long parks = 0;           // a wake-up scheduled for an earlier park is stale
+        private boolean finished = false;
+        private boolean stopped = false;  // stopped by the simulation after the last action
+        private volatile boolean released = false; // once stopped, sleeps and waits return at once
+
+        private boolean granted = false;  // guarded by monitor
+        private boolean replyPending = false; // touched only by the thread holding the turn
+
+        private SimulatedDrone(int id, Transport transport) {
+            this.subsystem = new DroneSubsystem(scheduler, id, clock, new DroneLink(transport));
+            this.thread = new Thread(this::fly, "Drone-" + id);
+            thread.setDaemon(true);
+        }
+
+        private void fly() {
+            try {
+                subsystem.run();
+            } finally {
+                synchronized (turnLock) {
+                    finished = true;
+                    current = null;
+                    turnLock.notifyAll();
+                }
+            }
+        }
+
+        /**
+         * Starts the drone's thread with the turn and waits until it parks
+         */
+        private void start() {
+            current = this;
+            thread.start();
+            awaitTurn();
+        }
+
+        /**
+         * Parks the drone's thread until the simulation gives it the turn again. Called on the drone's
+         * thread, which holds the monitor.
+         * @param monitor  what the drone waits on
+         * @param deadline clock time to wake at, Long.MAX_VALUE to wake only for a reply
+         * @throws InterruptedException if the thread is interrupted while parked
+         */
+        private void park(Object monitor, long deadline) throws InterruptedException {
+            synchronized (turnLock) {
+                this.monitor = monitor;
+                parked = true;
+                long park = ++parks;
+                if (deadline != Long.MAX_VALUE) {
+                    schedule(deadline, () -> resume(park));
+                }
+                current = null;
+                turnLock.notifyAll();
+            }
+            while (!granted) {
+                monitor.wait();
+            }
+            granted = false;
+        }
+
+        /**
+         * Gives the drone the turn if it is parked, and waits until it parks again or its thread ends
+         * @param park the park to end, 0 to end whichever park the drone is in
+         */
+        private void resume(long park) {
+            Object waitingOn;
+            synchronized (turnLock) {
+                if (!parked || (park != 0 && park != parks)) {
+                    return;
+                }
+                parked = false;
+                current = this;
+                waitingOn = monitor;
+            }
+            synchronized (waitingOn) {
+                granted = true;
+                waitingOn.notifyAll();
+            }
+            awaitTurn();
+        }
+
+        /**
+         * Waits on the simulation's thread until the drone gives the turn back
+         */
+        private void awaitTurn() {
+            boolean interrupted = false;
+            synchronized (turnLock) {
+                while (current == this) {
+                    try {
+                        turnLock.wait();
+                    } catch (InterruptedException e) {
+                        interrupted = true; // the drone still holds the turn, only one thread may run
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Stops a drone that is still waiting and lets its thread run to the end
+         */
+        private void stop() {
+            synchronized (turnLock) {
+                if (finished) {
+                    return;
+                }
+                stopped = true;
+                released = true;
+            }
+            subsystem.stop();
+            resume(0);
+        }
+    }
+
+    /**
+     * A drone's connection to the InMemoryTransport, counting the fires the drone reports extinguished
+     */
+    private final class DroneLink implements Transport {
+        private final Transport transport;
+
+        private DroneLink(Transport transport) {
+            this.transport = transport;
+        }
+
+        @Override
+        public void send(String message) throws IOException {
+            if (message.startsWith("DRONE_COMPLETE_EVENT")) {
+                completedEvents++;
+            }
+            transport.send(message);
+        }
+
+        @Override
+        public void send(byte[] data, int length) throws IOException {
+            transport.send(data, length);
+        }
+
+        @Override
+        public String receive(long timeoutMillis) throws IOException {
+            return transport.receive(timeoutMillis);
+        }
+
+        @Override
+        public boolean supportsBinary() {
+            return transport.supportsBinary();
+        }
+
+        @Override
+        public boolean isLossless() {
+            return transport.isLossless();
+        }
+
+        @Override
+        public void close() {
+            transport.close();
+        }
+    }
+}
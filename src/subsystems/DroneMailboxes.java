@@ -0,0 +1,128 @@
+package subsystems;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * DroneMailboxes holds the replies for each drone behind a transport that many drones share, such as a
+ * SharedDroneSocket or a SharedMemoryTransport. The transport's receiver thread routes every reply by
+ * the drone ID the Scheduler addressed it to, see SharedDroneSocket, and each drone takes its replies
+ * from its own mailbox.
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+final class DroneMailboxes {
+
+    // handed to a drone whose mailbox is closed, so a blocked receive returns
+    private static final byte[] CLOSED = new byte[0];
+
+    private final Map<Integer, BlockingQueue<byte[]>> mailboxes = new ConcurrentHashMap<>();
+    private final AtomicLong unroutedMessages = new AtomicLong();
+
+    /**
+     * Opens a mailbox for a drone, replies for it are held there until it receives them
+     * @param droneID id of the drone
+     */
+    void open(int droneID) {
+        mailboxes.putIfAbsent(droneID, new LinkedBlockingQueue<>());
+    }
+
+    /**
+     * Closes a drone's mailbox, dropping any replies it still holds and waking a pending receive
+     * @param droneID id of the drone
+     */
+    void close(int droneID) {
+        BlockingQueue<byte[]> mailbox = mailboxes.remove(droneID);
+        if (mailbox != null) {
+            mailbox.clear();
+            mailbox.offer(CLOSED);
+        }
+    }
+
+    /**
+     * Closes every mailbox
+     */
+    void closeAll() {
+        for (Integer droneID : mailboxes.keySet()) {
+            close(droneID);
+        }
+    }
+
+    /**
+     * Waits for the next reply addressed to a drone
+     * @param droneID       id of the drone
+     * @param timeoutMillis longest time to wait, 0 to wait until a reply arrives
+     * @return the reply without its address, or null if the wait timed out
+     * @throws IOException if the drone has no open mailbox or the mailbox was closed while waiting
+     */
+    byte[] receive(int droneID, long timeoutMillis) throws IOException {
+        BlockingQueue<byte[]> mailbox = mailboxes.get(droneID);
+        if (mailbox == null) {
+            throw new IOException("No mailbox open for drone " + droneID);
+        }
+        byte[] reply;
+        try {
+            reply = timeoutMillis > 0 ? mailbox.poll(timeoutMillis, TimeUnit.MILLISECONDS) : mailbox.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while receiving", e);
+        }
+        if (reply == CLOSED) {
+            throw new IOException("Mailbox closed for drone " + droneID);
+        }
+        return reply;
+    }
+
+    /**
+     * Copies a reply into the mailbox of the drone it is addressed to
+     * @param data   reply payload
+     * @param length payload length
+     */
+    void route(byte[] data, int length) {
+        int droneID;
+        int offset = 0;
+        if (length > 0 && data[0] == SharedDroneSocket.ADDRESS_PREFIX) {
+            droneID = 0;
+            int i = 1;
+            while (i < length && data[i] >= '0' && data[i] <= '9' && i < 10) {
+                droneID = droneID * 10 + (data[i] - '0');
+                i++;
+            }
+            if (i == 1 || i >= length || data[i] != ',') {
+                unroutedMessages.incrementAndGet();
+                return;
+            }
+            offset = i + 1;
+        } else {
+            // binary headers carry the drone ID, as does the second field of REGISTERED_DRONE
+            droneID = UDPIngestPipeline.laneKey(data, length, -1);
+        }
+
+        BlockingQueue<byte[]> mailbox = mailboxes.get(droneID);
+        if (mailbox == null) {
+            unroutedMessages.incrementAndGet();
+            return;
+        }
+        mailbox.offer(Arrays.copyOfRange(data, offset, length));
+    }
+
+    /**
+     * @return number of drones with an open mailbox
+     */
+    int size() {
+        return mailboxes.size();
+    }
+
+    /**
+     * @return number of replies dropped because they named no drone with an open mailbox
+     */
+    long getUnroutedMessageCount() {
+        return unroutedMessages.get();
+    }
+}
@@ -0,0 +1,251 @@
+package subsystems;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DroneSpatialIndex keeps the positions of drones that are available for dispatch in a uniform grid,
+ * so the Scheduler can find the drone closest to a zone without scanning every drone.
+ *
+ * A nearest query searches the grid in square rings around the target cell, and stops as soon as the
+ * closest drone found is nearer than anything in the next ring could be. For a fleet spread across the
+ * map this only touches a handful of cells, no matter how many drones are indexed.
+ *
+ * This class is not thread safe, the Scheduler only accesses it while holding its own lock.
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class DroneSpatialIndex {
+
+    /** Default width and height of a grid cell in meters */
+    public static final double DEFAULT_CELL_SIZE = 250.0;
+
+    /**
+     * Position of a single indexed drone
+     */
+    private static class Entry {
+        final int droneID;
+        double x;
+        double y;
+        long cell;
+
+        Entry(int droneID) {
+            this.droneID = droneID;
+        }
+    }
+
+    private final double cellSize;
+    private final Map<Long, List<Entry>> cells = new HashMap<>();
+    private final Map<Integer, Entry> entries = new HashMap<>();
+
+    // bounds of the occupied cells, used to stop the ring search
+    private int minCellX = Integer.MAX_VALUE;
+    private int maxCellX = Integer.MIN_VALUE;
+    private int minCellY = Integer.MAX_VALUE;
+    private int maxCellY = Integer.MIN_VALUE;
+
+    /**
+     * Constructs an empty index using the default cell size
+     */
+    public DroneSpatialIndex() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * Constructs an empty index
+     * @param cellSize width and height of a grid cell in meters
+     */
+    public DroneSpatialIndex(double cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * Adds a drone to the index, or moves it if it is already indexed
+     * @param droneID id of the drone
+     * @param x x coordinate of the drone
+     * @param y y coordinate of the drone
+     */
+    public void update(int droneID, double x, double y) {
+        Entry entry = entries.get(droneID);
+        int cx = cellOf(x);
+        int cy = cellOf(y);
+        long cell = key(cx, cy);
+
+        if (entry == null) {
+            entry = new Entry(droneID);
+            entries.put(droneID, entry);
+        } else if (entry.cell != cell) {
+            removeFromCell(entry);
+        } else {
+            entry.x = x;
+            entry.y = y;
+            return;
+        }
+
+        entry.x = x;
+        entry.y = y;
+        entry.cell = cell;
+        cells.computeIfAbsent(cell, k -> new ArrayList<>()).add(entry);
+
+        minCellX = Math.min(minCellX, cx);
+        maxCellX = Math.max(maxCellX, cx);
+        minCellY = Math.min(minCellY, cy);
+        maxCellY = Math.max(maxCellY, cy);
+    }
+
+    /**
+     * Moves a drone only if it is already indexed
+     * @param droneID id of the drone
+     * @param x x coordinate of the drone
+     * @param y y coordinate of the drone
+     */
+    public void move(int droneID, double x, double y) {
+        if (entries.containsKey(droneID)) {
+            update(droneID, x, y);
+        }
+    }
+
+    /**
+     * Removes a drone from the index
+     * @param droneID id of the drone
+     * @return true if the drone was indexed
+     */
+    public boolean remove(int droneID) {
+        Entry entry = entries.remove(droneID);
+        if (entry == null) {
+            return false;
+        }
+        removeFromCell(entry);
+        if (entries.isEmpty()) {
+            minCellX = minCellY = Integer.MAX_VALUE;
+            maxCellX = maxCellY = Integer.MIN_VALUE;
+        }
+        return true;
+    }
+
+    /**
+     * @param droneID id of the drone
+     * @return true if the drone is indexed
+     */
+    public boolean contains(int droneID) {
+        return entries.containsKey(droneID);
+    }
+
+    /**
+     * @return number of indexed drones
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return ids of every indexed drone, in ascending order
+     */
+    public List<Integer> getDroneIDs() {
+        List<Integer> ids = new ArrayList<>(entries.keySet());
+        ids.sort(null);
+        return ids;
+    }
+
+    /**
+     * @return true if no drones are indexed
+     */
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    /**
+     * Finds the indexed drone closest to a point. Ties are broken by the lowest drone ID.
+     * @param x target x coordinate
+     * @param y target y coordinate
+     * @return id of the closest drone, or -1 if the index is empty
+     */
+    public int nearest(double x, double y) {
+        if (entries.isEmpty()) {
+            return -1;
+        }
+        int cx = cellOf(x);
+        int cy = cellOf(y);
+        int maxRing = Math.max(Math.max(Math.abs(cx - minCellX), Math.abs(maxCellX - cx)),
+                Math.max(Math.abs(cy - minCellY), Math.abs(maxCellY - cy)));
+
+        Entry[] best = new Entry[1];
+        double[] bestDist = {Double.MAX_VALUE};
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // every cell in this ring is at least (ring - 1) full cells away from the target
+            if (best[0] != null && (ring - 1) * cellSize > Math.sqrt(bestDist[0])) {
+                break;
+            }
+            if (ring == 0) {
+                scanCell(cx, cy, x, y, best, bestDist);
+                continue;
+            }
+            for (int i = cx - ring; i <= cx + ring; i++) {
+                scanCell(i, cy - ring, x, y, best, bestDist);
+                scanCell(i, cy + ring, x, y, best, bestDist);
+            }
+            for (int j = cy - ring + 1; j <= cy + ring - 1; j++) {
+                scanCell(cx - ring, j, x, y, best, bestDist);
+                scanCell(cx + ring, j, x, y, best, bestDist);
+            }
+        }
+        return best[0] == null ? -1 : best[0].droneID;
+    }
+
+    /**
+     * Checks every drone in one grid cell against the closest drone found so far
+     * @param cx grid column
+     * @param cy grid row
+     * @param x target x coordinate
+     * @param y target y coordinate
+     * @param best closest drone found so far
+     * @param bestDist squared distance to the closest drone found so far
+     */
+    private void scanCell(int cx, int cy, double x, double y, Entry[] best, double[] bestDist) {
+        List<Entry> bucket = cells.get(key(cx, cy));
+        if (bucket == null) {
+            return;
+        }
+        for (Entry e : bucket) {
+            double dx = e.x - x;
+            double dy = e.y - y;
+            double d = dx * dx + dy * dy;
+            if (d < bestDist[0] || (d == bestDist[0] && e.droneID < best[0].droneID)) {
+                best[0] = e;
+                bestDist[0] = d;
+            }
+        }
+    }
+
+    /**
+     * Removes an entry from the grid cell it is stored in
+     * @param entry indexed drone
+     */
+    private void removeFromCell(Entry entry) {
+        List<Entry> bucket = cells.get(entry.cell);
+        if (bucket != null) {
+            bucket.remove(entry);
+            if (bucket.isEmpty()) {
+                cells.remove(entry.cell);
+            }
+        }
+    }
+
+    /**
+     * @param coordinate x or y coordinate
+     * @return grid column or row containing the coordinate
+     */
+    private int cellOf(double coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    /**
+     * @return single key for a grid cell
+     */
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xffffffffL);
+    }
+}
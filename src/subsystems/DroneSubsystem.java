@@ -3,8 +3,12 @@ package subsystems;
 import model.*;
 import java.io.IOException;
 import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
 import java.time.LocalTime;
-import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
 
 /**
  * DroneSubsystem class handles the network communication and thread execution
@@ -16,17 +20,57 @@ public class DroneSubsystem implements Runnable {
 
     private final Scheduler scheduler;
     private final Drone drone; // Uses our new data model!
+    private final Clock clock;
 
-    private boolean running = true;
+    private volatile boolean running = true;
 
-    // Networking
-    private DatagramPacket sendPacket, receivePacket;
-    private DatagramSocket sendReceiveSocket;
-    private final int SCHEDULER_PORT = 6000;
-    private final String SCHEDULER_HOST = "localhost";
+    // Networking, a UDP socket of its own unless the drone is given another transport
+    private Transport transport;
+
+    // REGISTER_DRONE is sent again if the scheduler has not answered in time, a burst of registrations
+    // from a large fleet can overflow the scheduler's receive buffer
+    private static final int REGISTER_RETRY_MILLIS = 1000;
+    private Runnable registrationListener;
+    private boolean registering = false;
+    private long failovers = 0;
+
+    // Binary wire format, offered at registration and used once the scheduler accepts it
+    private boolean binaryWire = true;
+    private boolean binaryNegotiated = false;
+    private final ByteBuffer binaryBuffer = ByteBuffer.allocate(UDPIngestPipeline.MAX_PACKET_SIZE);
+
+    // Reliable control messages, offered at registration over a transport that can lose messages. Control
+    // messages in both directions are acknowledged and sent again until they are, telemetry is not.
+    private boolean reliableControl = true;
+    private ReliableLink link;
+
+    // Requests that expect a reply carry an ID once the scheduler accepts them, so several can be in
+    // flight and each reply reaches the request it answers
+    private final RequestCorrelator calls = new RequestCorrelator();
+    public static final long REPLY_TIMEOUT_MILLIS = 20000;
+
+    // Commands the scheduler pushes while the drone is in the air. The receive loop queues them and the
+    // drone follows them between movement steps, a command that arrives while it is not flying is rejected.
+    private final ArrayDeque<String> commands = new ArrayDeque<>();
+    private volatile boolean inFlight = false;
+    private long commandsApplied = 0;
+    private long commandsRejected = 0;
+
+    // replies are parsed in place, malformed ones are counted and treated as no reply
+    private final MessageParser parser = new MessageParser();
+    private long rejectedMessages = 0;
+    private static final FireEvent.Severity[] SEVERITIES = FireEvent.Severity.values();
+    private static final FireEvent.FaultType[] EVENT_FAULTS = FireEvent.FaultType.values();
     
+    // Dead reckoning, in flight the drone reports its flight plan instead of every step and only reports
+    // again when the heartbeat is due or it drifts away from the plan
+    private boolean deadReckoning = true;
+    private long heartbeatMillis = 1000;
+    public static final double DEVIATION_THRESHOLD = 100.0;
+    private long telemetrySent = 0;
+
     // Timing for fault detection
-    private Instant travelStartTime;
+    private long travelStartTime;
     private long expectedTravelTimeSeconds;
     
     // Hard fault tracking
@@ -38,11 +82,37 @@ public class DroneSubsystem implements Runnable {
      * @param droneID drone ID
      */
     public DroneSubsystem(Scheduler scheduler, int droneID) {
+        this(scheduler, droneID, scheduler.getClock());
+    }
+
+    /**
+     * constructs a dronesubsystem that flies on the given clock
+     * @param scheduler scheduler
+     * @param droneID drone ID
+     * @param clock time source for flights, drops and fault detection
+     */
+    public DroneSubsystem(Scheduler scheduler, int droneID, Clock clock) {
+        this(scheduler, droneID, clock, null);
+    }
+
+    /**
+     * constructs a dronesubsystem that talks to the scheduler through the given transport
+     * @param scheduler scheduler
+     * @param droneID drone ID
+     * @param clock time source for flights, drops and fault detection
+     * @param transport connection to the scheduler, or null to open a UDP socket for this drone
+     */
+    public DroneSubsystem(Scheduler scheduler, int droneID, Clock clock, Transport transport) {
         this.scheduler = scheduler;
         this.drone = new Drone(droneID);
+        this.clock = clock;
+        this.transport = transport;
 
+        if (transport != null) {
+            return;
+        }
         try {
-            sendReceiveSocket = new DatagramSocket();
+            this.transport = new UdpTransport();
         } catch (SocketException e) {
             e.printStackTrace();
             System.exit(1);
@@ -50,7 +120,7 @@ public class DroneSubsystem implements Runnable {
     }
 
     /**
-     * @param args command-line arguments to specify drone ID
+     * @param args command-line arguments to specify drone ID and an optional ring file
      */
     public static void main(String[] args) {
         int id = 1;
@@ -63,7 +133,16 @@ public class DroneSubsystem implements Runnable {
         }
 
         Scheduler scheduler = new Scheduler("Final_zone_file_w26.csv");
-        DroneSubsystem subsystem = new DroneSubsystem(scheduler, id);
+        Transport transport = null;
+        if (args.length > 1) {
+            // a ring file shared with a scheduler on this host replaces the UDP socket
+            try {
+                transport = new SharedMemoryTransport(Paths.get(args[1])).connect(id);
+            } catch (IOException e) {
+                System.out.println("Could not map " + args[1] + ", using UDP: " + e.getMessage());
+            }
+        }
+        DroneSubsystem subsystem = new DroneSubsystem(scheduler, id, scheduler.getClock(), transport);
         Thread droneThread = new Thread(subsystem);
         droneThread.start();
     }
@@ -76,64 +155,436 @@ public class DroneSubsystem implements Runnable {
 
     /**
      * sends a message to scheduler and waits for response
-     * @param message message to send
-     * @return response from scheduler
+     * @param message       message to send
+     * @param timeoutMillis longest time to wait for the response, 0 to wait for as long as it takes
+     * @return response from scheduler, empty if none arrived in time
      */
-    private String sendAndReceive(String message) {
-        sendOnly(message);
-        return receiveOnly();
+    private String sendAndReceive(String message, long timeoutMillis) {
+        return await(call(message, timeoutMillis));
     }
 
     /**
-     * sends UDP message to scheduler without waiting for response
+     * sends a request to the scheduler without waiting for its response, the receive loop completes the
+     * returned future whenever the drone next waits for something
+     * @param message       request to send
+     * @param timeoutMillis longest time to wait for the response, 0 to wait for as long as it takes
+     * @return future completed with the response, or failed once the timeout passes
+     */
+    private CompletableFuture<String> call(String message, long timeoutMillis) {
+        int requestID = calls.begin(timeoutMillis > 0 ? clock.millis() + timeoutMillis : Long.MAX_VALUE);
+        CompletableFuture<String> reply = calls.reply(requestID);
+        transmit(calls.tag(requestID, message));
+        return reply;
+    }
+
+    /**
+     * runs the receive loop until a request is answered
+     * @param reply future of the request
+     * @return response from scheduler, empty if the request timed out, failed or the drone stopped
+     */
+    private String await(CompletableFuture<String> reply) {
+        receiveUntil(reply::isDone);
+        return reply.isDone() && !reply.isCompletedExceptionally() ? reply.join() : "";
+    }
+
+    /**
+     * sends UDP message to scheduler without waiting for response. A control message sent reliably
+     * waits for its acknowledgement, so a lost one is sent again right away instead of on the next request.
      * @param message message to send
      */
     private void sendOnly(String message) {
-        byte[] bytes = message.getBytes();
+        if (transmit(message)) {
+            awaitAcknowledgements();
+        }
+    }
+
+    /**
+     * runs the receive loop until the scheduler acknowledged every control message sent reliably, or the
+     * link gave up on them
+     */
+    private void awaitAcknowledgements() {
+        if (link != null) {
+            receiveUntil(() -> link.getUnacknowledgedCount() == 0);
+        }
+    }
+
+    /**
+     * sends a message to the scheduler, as a reliable frame if it is a control message and the scheduler
+     * accepted reliable control messages
+     * @param message message to send
+     * @return true if the message was sent as a frame that is waiting to be acknowledged
+     */
+    private boolean transmit(String message) {
+        if (link != null && isControlMessage(message)) {
+            try {
+                transport.send(link.frame(message, clock.millis()));
+            } catch (IOException e) {
+                if (running) {
+                    e.printStackTrace();
+                }
+            }
+            return true;
+        }
+        if (binaryNegotiated) {
+            binaryBuffer.clear();
+            if (WireCodec.fromText(message, binaryBuffer)) {
+                sendBinary();
+                return false;
+            }
+        }
         try {
-            sendPacket = new DatagramPacket(bytes, bytes.length, InetAddress.getByName(SCHEDULER_HOST), SCHEDULER_PORT);
-            sendReceiveSocket.send(sendPacket);
+            transport.send(message);
         } catch (IOException e) {
-            e.printStackTrace();
+            if (running) {
+                e.printStackTrace();
+            }
         }
+        return false;
     }
 
     /**
-     * receives UDP message from scheduler
-     * @return message as string
+     * @param message a message to the scheduler
+     * @return true if the message changes the scheduler's view of the drone's mission, telemetry and
+     * registration are not control messages
      */
-    private String receiveOnly() {
-        receivePacket = new DatagramPacket(new byte[1024], 1024);
+    private static boolean isControlMessage(String message) {
+        return !message.startsWith("STATUS_UPDATE") && !message.startsWith("FLIGHT_PLAN")
+                && !message.startsWith("REGISTER_DRONE") && !message.startsWith(ReliableLink.ACK);
+    }
+
+    /**
+     * sends a frame again that the scheduler has not acknowledged in time
+     * @param frame the frame
+     */
+    private void resend(String frame) {
         try {
-            sendReceiveSocket.receive(receivePacket);
+            transport.send(frame);
         } catch (IOException e) {
-            System.err.printf("[%s] [Drone %d] COMMUNICATION ERROR: Failed to receive packet.\n", ts(), drone.getId());
-            e.printStackTrace();
-            return ""; // Return empty string to signal error
+            if (running) {
+                e.printStackTrace();
+            }
         }
-        return new String(receivePacket.getData(), 0, receivePacket.getLength()).trim();
     }
 
     /**
-     * moves and updates drone position
+     * sends the message held in the binary buffer
+     */
+    private void sendBinary() {
+        try {
+            transport.send(binaryBuffer.array(), binaryBuffer.position());
+        } catch (IOException e) {
+            if (running) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * sends the drone's current state, position and agent level to the scheduler
+     */
+    private void sendStatusUpdate() {
+        telemetrySent++;
+        if (binaryNegotiated) {
+            binaryBuffer.clear();
+            WireCodec.encodeStatus(binaryBuffer, drone.getId(), drone.getState(), drone.getX(), drone.getY(), drone.getAgentLevel());
+            sendBinary();
+        } else {
+            sendOnly("STATUS_UPDATE," + drone.getId() + "," + drone.getState() + "," +
+                    drone.getX() + "," + drone.getY() + "," + drone.getAgentLevel());
+        }
+    }
+
+    /**
+     * sends the drone's position together with where it is flying and how fast, the scheduler works out
+     * the drone's position from this until the next report
+     * @param targetX target x coordinate
+     * @param targetY target y coordinate
+     * @param speed   movement speed
+     * @return the plan the scheduler will follow
+     */
+    private FlightPlan sendFlightPlan(double targetX, double targetY, double speed) {
+        telemetrySent++;
+        sendOnly("FLIGHT_PLAN," + drone.getId() + "," + drone.getState() + "," + drone.getX() + "," + drone.getY() + "," +
+                drone.getAgentLevel() + "," + targetX + "," + targetY + "," + speed);
+        return new FlightPlan(drone.getState(), drone.getX(), drone.getY(), targetX, targetY, speed, clock.millis());
+    }
+
+    /**
+     * receive loop, handles messages from the scheduler until a condition holds
+     * @param done the condition
+     */
+    private void receiveUntil(BooleanSupplier done) {
+        receiveUntil(done, Long.MAX_VALUE);
+    }
+
+    /**
+     * receive loop, handles messages from the scheduler until a condition holds or the clock reaches a
+     * deadline. Each reply completes the request it answers and each command is queued, and the loop
+     * wakes to fail requests that ran out of time and to send again control messages the scheduler has
+     * not acknowledged.
+     * @param done  the condition
+     * @param until clock time to stop waiting at, Long.MAX_VALUE to wait for the condition only
+     */
+    private void receiveUntil(BooleanSupplier done, long until) {
+        while (!done.getAsBoolean() && running) {
+            long now = clock.millis();
+            calls.expire(now);
+            if (done.getAsBoolean() || now >= until) {
+                return;
+            }
+            long wake = Math.min(Math.min(calls.nextDeadline(), until), link == null ? Long.MAX_VALUE : link.nextDue());
+            long timeout = wake == Long.MAX_VALUE ? 0 : Math.max(1, wake - now);
+
+            String message;
+            try {
+                message = transport.receive(timeout);
+            } catch (Transport.MalformedMessageException e) {
+                rejectedMessages++;
+                System.err.printf("[%s] [Drone %d] COMMUNICATION ERROR: Malformed binary packet.\n", ts(), drone.getId());
+                continue;
+            } catch (IOException e) {
+                if (running) { // otherwise the transport was closed by stop()
+                    System.err.printf("[%s] [Drone %d] COMMUNICATION ERROR: Failed to receive packet.\n", ts(), drone.getId());
+                    e.printStackTrace();
+                }
+                calls.failAll(e);
+                return;
+            }
+
+            if (message == null) {
+                if (link != null) {
+                    link.retransmitDue(clock.millis(), this::resend);
+                }
+                continue;
+            }
+            message = unwrap(message);
+            if (message != null && parser.reset(message).nextType() == MessageParser.Type.FAILOVER) {
+                failOver();
+            } else if (message != null && isCommand(message)) {
+                queueCommand(message);
+            } else if (message != null && !calls.complete(message)) {
+                System.err.printf("[%s] [Drone %d] COMMUNICATION ERROR: Dropped message that answers no request: %s\n",
+                        ts(), drone.getId(), message);
+            }
+        }
+    }
+
+    /**
+     * handles the reliable delivery of a message from the scheduler: frames are acknowledged and
+     * unwrapped, repeated frames skipped and acknowledgements consumed
+     * @param message the received message
+     * @return the message without its frame, or null if there is nothing to hand on
+     */
+    private String unwrap(String message) {
+        if (link == null) {
+            return message;
+        }
+        if (ReliableLink.isFrame(message)) {
+            long sequence = ReliableLink.sequenceOf(message);
+            if (sequence < 0) {
+                rejectedMessages++;
+                return null;
+            }
+            // acknowledged every time, the scheduler sends the frame again if the first ack was lost
+            resend(ReliableLink.ACK + "," + drone.getId() + "," + sequence);
+            return link.accept(sequence) ? ReliableLink.payloadOf(message) : null;
+        }
+        if (parser.reset(message).nextType() == MessageParser.Type.ACK) {
+            int sequence = parser.nextInt();
+            if (parser.ok()) {
+                link.acknowledge(sequence);
+            } else {
+                rejectedMessages++;
+            }
+            return null;
+        }
+        return message;
+    }
+
+    /**
+     * moves to the standby scheduler that announced it took over from a lost primary and registers with
+     * it. Requests still waiting for the old scheduler fail, so the drone asks the new one again.
+     */
+    private void failOver() {
+        if (!transport.failOver()) {
+            return; // the transport knows no other scheduler
+        }
+        failovers++;
+        System.out.printf("[%s] [Drone %d] Scheduler failed over, registering again\n", ts(), drone.getId());
+        calls.failAll(new IOException("Scheduler failed over"));
+        if (!registering) { // a registration in progress sends its next attempt to the new scheduler
+            register();
+        }
+    }
+
+    /**
+     * @param message a message from the scheduler without its frame and reply ID
+     * @return true if it is a command rather than a reply
+     */
+    private boolean isCommand(String message) {
+        MessageParser.Type type = parser.reset(message).nextType();
+        return type == MessageParser.Type.REROUTE || type == MessageParser.Type.ABORT_AND_RETURN
+                || type == MessageParser.Type.HOLD || type == MessageParser.Type.RESUME;
+    }
+
+    /**
+     * keeps a command for the next movement step, or rejects it if the drone is not flying
+     * @param command the command
+     */
+    private void queueCommand(String command) {
+        if (inFlight) {
+            commands.add(command);
+        } else {
+            rejectCommand(command);
+        }
+    }
+
+    /**
+     * tells the scheduler a command was carried out, it updates the drone's mission to match
+     * @param command the command
+     */
+    private void applyCommand(String command) {
+        commandsApplied++;
+        transmit("COMMAND_APPLIED," + drone.getId() + "," + parser.reset(command).nextType());
+    }
+
+    /**
+     * tells the scheduler a command was not carried out, the drone keeps its mission
+     * @param command the command
+     */
+    private void rejectCommand(String command) {
+        commandsRejected++;
+        System.out.printf("[%s] [Drone %d] Rejected command %s in state %s\n", ts(), drone.getId(), command, drone.getState());
+        transmit("COMMAND_REJECTED," + drone.getId() + "," + parser.reset(command).nextType());
+    }
+
+    /**
+     * follows the queued commands, hovering in place from HOLD until another command arrives
+     * @return true if the drone was re-tasked and must stop flying to its current target
+     * @throws InterruptedException
+     */
+    private boolean followCommands() throws InterruptedException {
+        long holdStart = -1;
+        while (running) {
+            String command = commands.poll();
+            if (command == null) {
+                if (holdStart < 0) {
+                    return false;
+                }
+                pause(heartbeatMillis);
+                continue;
+            }
+            MessageParser.Type type = parser.reset(command).nextType();
+            if (drone.getState() == Drone.DroneState.FAULTED) {
+                rejectCommand(command); // a faulted drone flies home for inspection whatever it is told
+                continue;
+            }
+            switch (type) {
+                case HOLD:
+                    if (holdStart < 0) {
+                        holdStart = clock.millis();
+                        System.out.printf("[%s] [Drone %d] Holding at (%.1f, %.1f)\n", ts(), drone.getId(), drone.getX(), drone.getY());
+                        sendStatusUpdate(); // ends the flight plan, the scheduler sees the drone hover
+                    }
+                    applyCommand(command);
+                    break;
+                case RESUME:
+                    if (holdStart < 0) {
+                        rejectCommand(command);
+                        break;
+                    }
+                    travelStartTime += clock.millis() - holdStart; // hovering is not stuck in flight
+                    holdStart = -1;
+                    System.out.printf("[%s] [Drone %d] Resuming flight\n", ts(), drone.getId());
+                    applyCommand(command);
+                    break;
+                case REROUTE:
+                    FireEvent event = parseAssignment();
+                    if (event == null || scheduler.getZones().get(event.getZoneID()) == null
+                            || drone.getAgentLevel() < Drone.LOW_VOLUME) {
+                        rejectCommand(command);
+                        break;
+                    }
+                    System.out.printf("[%s] [Drone %d] Rerouted to Zone %d\n", ts(), drone.getId(), event.getZoneID());
+                    drone.setCurrentMission(event);
+                    drone.setState(Drone.DroneState.EN_ROUTE);
+                    applyCommand(command);
+                    return true;
+                case ABORT_AND_RETURN:
+                    System.out.printf("[%s] [Drone %d] Mission aborted. Returning to base.\n", ts(), drone.getId());
+                    applyCommand(command);
+                    if (drone.getState() == Drone.DroneState.RETURNING) {
+                        break; // already on its way home
+                    }
+                    drone.setCurrentMission(null);
+                    drone.setState(Drone.DroneState.RETURNING);
+                    travelStartTime = clock.millis();
+                    expectedTravelTimeSeconds = (long) Math.ceil(drone.computeTravelTime(0, 0, false));
+                    return true;
+                default:
+                    break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * waits out a movement step, listening for commands from the scheduler. A command ends the wait early
+     * @param millis length of the step in clock milliseconds
+     * @throws InterruptedException
+     */
+    private void pause(long millis) throws InterruptedException {
+        long end = clock.millis() + millis;
+        receiveUntil(() -> !commands.isEmpty(), end);
+        long left = end - clock.millis();
+        if (left > 0 && commands.isEmpty()) {
+            clock.sleep(left); // the transport failed or the drone is stopping, keep the flight's pace
+        }
+    }
+
+    /**
+     * moves and updates drone position, following commands from the scheduler between steps
      * @param targetX target x coordinate
      * @param targetY target y coordinate
      * @param speed movement speed (loade or unloaded)
+     * @return true if the drone reached the target, false if it faulted or was re-tasked on the way
      * @throws InterruptedException
      */
-    private void moveToTargetStepByStep(double targetX, double targetY, double speed) throws InterruptedException {
+    private boolean moveToTargetStepByStep(double targetX, double targetY, double speed) throws InterruptedException {
+        inFlight = true;
+        try {
+            return fly(targetX, targetY, speed);
+        } finally {
+            inFlight = false;
+            while (!commands.isEmpty()) {
+                rejectCommand(commands.poll()); // arrived before following it
+            }
+        }
+    }
+
+    /**
+     * flies to the target step by step
+     * @param targetX target x coordinate
+     * @param targetY target y coordinate
+     * @param speed movement speed
+     * @return true if the drone reached the target
+     * @throws InterruptedException
+     */
+    private boolean fly(double targetX, double targetY, double speed) throws InterruptedException {
         double stepDistance = 100.0;
+        FlightPlan plan = deadReckoning ? sendFlightPlan(targetX, targetY, speed) : null;
+        long lastReport = clock.millis();
 
         while (drone.getX() != targetX || drone.getY() != targetY) {
 
-            long elapsedSeconds = Instant.now().getEpochSecond() - travelStartTime.getEpochSecond();
+            long elapsedSeconds = (clock.millis() - travelStartTime) / 1000;
             
             // STUCK_IN_FLIGHT: Check if travel time exceeds expected time
             if (elapsedSeconds > expectedTravelTimeSeconds * 1.5) {
                 System.err.printf("[%s] [Drone %d] FAULT: Stuck mid-flight at (%.1f, %.1f)! Travel time exceeded limit (%.0fs > %.0fs).\n",
                         ts(), drone.getId(), drone.getX(), drone.getY(), (double)elapsedSeconds, expectedTravelTimeSeconds);
                 drone.setState(Drone.DroneState.FAULTED);
-                return; // Abort movement
+                return false; // Abort movement
             }
 
             double diffX = targetX - drone.getX();
@@ -143,40 +594,63 @@ public class DroneSubsystem implements Runnable {
             if (Math.abs(diffX) > 0) {
                 double step = Math.min(stepDistance, Math.abs(diffX));
                 drone.setLocation(drone.getX() + (Math.signum(diffX) * step), drone.getY());
-                Thread.sleep((long) ((step / speed) * 10));
+                pause((long) ((step / speed) * 10));
 
             // moving y axis
             } else if (Math.abs(diffY) > 0) {
                 double step = Math.min(stepDistance, Math.abs(diffY));
                 drone.setLocation(drone.getX(), drone.getY() + (Math.signum(diffY) * step));
-                Thread.sleep((long) ((step / speed) * 10));
+                pause((long) ((step / speed) * 10));
             }
 
-            sendOnly("STATUS_UPDATE," + drone.getId() + "," + drone.getState() + "," +
-                    drone.getX() + "," + drone.getY() + "," + drone.getAgentLevel());
+            if (!commands.isEmpty()) {
+                if (followCommands()) {
+                    return false;
+                }
+                if (plan != null) {
+                    plan = sendFlightPlan(targetX, targetY, speed); // the drone may have held in place
+                    lastReport = clock.millis();
+                }
+            }
+
+            if (plan == null) {
+                sendStatusUpdate();
+                continue;
+            }
+            long now = clock.millis();
+            double[] expected = plan.positionAt(now);
+            double deviation = Math.hypot(expected[0] - drone.getX(), expected[1] - drone.getY());
+            if (now - lastReport >= heartbeatMillis || deviation > DEVIATION_THRESHOLD) {
+                plan = sendFlightPlan(targetX, targetY, speed);
+                lastReport = now;
+            }
         }
+
+        if (plan != null) {
+            sendStatusUpdate(); // exact position on arrival, ends the plan on the scheduler
+        }
+        return true;
     }
 
     /**
      * handles drone events
      * @throws InterruptedException
      */
-    private synchronized void handleEvent() throws InterruptedException {
+    private void handleEvent() throws InterruptedException {
         switch (drone.getState()) {
             case IDLE:
-                String message = sendAndReceive("DRONE_READY," + drone.getId());
-                String[] parts = message.split(",");
-
-                if (parts[0].trim().equals("ASSIGN_EVENT")) {
-                    String time = parts[1].trim();
-                    int zoneID = Integer.parseInt(parts[2].trim());
-                    FireEvent.Severity severity = FireEvent.Severity.valueOf(parts[3].trim());
-                    FireEvent.FaultType faultType = parts.length > 4 ? FireEvent.FaultType.valueOf(parts[4].trim()) : FireEvent.FaultType.NONE;
+                // no timeout, the scheduler answers once there is an event for the drone
+                String message = sendAndReceive("DRONE_READY," + drone.getId(), 0);
+                MessageParser.Type type = parser.reset(message).nextType();
 
-                    FireEvent event = new FireEvent(time, zoneID, FireEvent.Type.FIRE_DETECTED, severity, faultType);
+                if (type == MessageParser.Type.ASSIGN_EVENT) {
+                    FireEvent event = parseAssignment();
+                    if (event == null) {
+                        break; // malformed assignment, ask again
+                    }
                     drone.setCurrentMission(event);
 
-                    System.out.printf("[%s] [Drone %d] Dispatched to Zone %d\n", ts(), drone.getId(), zoneID);
+                    System.out.printf("[%s] [Drone %d] Dispatched to Zone %d\n", ts(), drone.getId(), event.getZoneID());
 
                     if (drone.getAgentLevel() < Drone.LOW_VOLUME) {
                         System.out.printf("[%s] [Drone %d] Insufficient agent. Must refill.\n", ts(), drone.getId());
@@ -185,7 +659,7 @@ public class DroneSubsystem implements Runnable {
                     } else {
                         drone.setState(Drone.DroneState.EN_ROUTE);
                     }
-                } else if(parts[0].equals("ALL_EVENTS_COMPLETE")) {
+                } else if (type == MessageParser.Type.ALL_EVENTS_COMPLETE) {
                     running = false;
                 }
                 break;
@@ -199,10 +673,10 @@ public class DroneSubsystem implements Runnable {
                         ts(), drone.getId(), currentEvent.getZoneID(), travelTime);
 
                 // START TIMER for fault detection
-                travelStartTime = Instant.now();
+                travelStartTime = clock.millis();
                 expectedTravelTimeSeconds = (long) Math.ceil(travelTime);
 
-                moveToTargetStepByStep(target.getCenterX(), target.getCenterY(), Drone.CRUISE_SPEED_LOADED);
+                boolean arrived = moveToTargetStepByStep(target.getCenterX(), target.getCenterY(), Drone.CRUISE_SPEED_LOADED);
 
                 // Check if the drone died during transit.
                 if (drone.getState() == Drone.DroneState.FAULTED) {
@@ -210,6 +684,9 @@ public class DroneSubsystem implements Runnable {
                     reportFault(faultType, currentEvent);
                     return; // Return to let handleEvent process FAULTED state
                 }
+                if (!arrived) {
+                    return; // re-tasked on the way, handleEvent follows the new mission
+                }
 
                 // CHECK FOR STUCK_IN_FLIGHT FAULT
                 if (currentEvent.getFaultType() == FireEvent.FaultType.STUCK_IN_FLIGHT) {
@@ -239,10 +716,10 @@ public class DroneSubsystem implements Runnable {
                         ts(), drone.getId(), missionEvent.getZoneID(), missionTravelTime);
 
                 // START TIMER for fault detection
-                travelStartTime = Instant.now();
+                travelStartTime = clock.millis();
                 expectedTravelTimeSeconds = (long) Math.ceil(missionTravelTime);
 
-                moveToTargetStepByStep(missionTarget.getCenterX(), missionTarget.getCenterY(), Drone.CRUISE_SPEED_LOADED);
+                boolean arrivedNext = moveToTargetStepByStep(missionTarget.getCenterX(), missionTarget.getCenterY(), Drone.CRUISE_SPEED_LOADED);
 
                 // Check if the drone died during transit.
                 if (drone.getState() == Drone.DroneState.FAULTED) {
@@ -250,6 +727,9 @@ public class DroneSubsystem implements Runnable {
                     reportFault(faultType, missionEvent);
                     return; // Return to let handleEvent process FAULTED state
                 }
+                if (!arrivedNext) {
+                    return; // re-tasked on the way, handleEvent follows the new mission
+                }
 
                 // CHECK FOR STUCK_IN_FLIGHT FAULT
                 if (missionEvent.getFaultType() == FireEvent.FaultType.STUCK_IN_FLIGHT) {
@@ -285,39 +765,36 @@ public class DroneSubsystem implements Runnable {
                 double dropTime = volumeToDrop / Drone.DROP_RATE;
 
                 System.out.printf("[%s] [Drone %d] Opening nozzle doors... (%.1fs)\n", ts(), drone.getId(), Drone.NOZZLE_DOORS);
-                Thread.sleep((long) (Drone.NOZZLE_DOORS * 10));
+                clock.sleep((long) (Drone.NOZZLE_DOORS * 10));
 
                 System.out.printf("[%s] [Drone %d] Dropping %.1f%% agent on Zone %d... (%.1fs)\n",
                         ts(), drone.getId(), volumeToDrop, ev.getZoneID(), dropTime);
-                Thread.sleep((long) (dropTime * 10));
+                clock.sleep((long) (dropTime * 10));
 
                 drone.consumeAgent(volumeToDrop);
-                sendOnly("STATUS_UPDATE," + drone.getId() + "," + drone.getState() + "," +
-                        drone.getX() + "," + drone.getY() + "," + drone.getAgentLevel());
+                sendStatusUpdate();
 
                 System.out.printf("[%s] [Drone %d] Closing nozzle doors... (%.1fs)\n", ts(), drone.getId(), Drone.NOZZLE_DOORS);
-                Thread.sleep((long) (Drone.NOZZLE_DOORS * 10));
+                clock.sleep((long) (Drone.NOZZLE_DOORS * 10));
 
                 if (volumeToDrop >= requiredVolume) {
                     System.out.printf("[%s] [Drone %d] Successfully extinguished fire in Zone %d!\n", ts(), drone.getId(), ev.getZoneID());
-                    sendOnly("DRONE_COMPLETE_EVENT," + drone.getId() + "," + ev.getTime() + "," + ev.getZoneID() + "," + ev.getSeverity());
+                    // the report and the request are in flight together, neither waits for the other
+                    transmit("DRONE_COMPLETE_EVENT," + drone.getId() + "," + ev.getTime() + "," + ev.getZoneID() + "," + ev.getSeverity());
                     
                     // Optimization: Check if drone can take another mission
-                    String nextMissionResponse = sendAndReceive("REQUEST_NEXT_MISSION," + drone.getId() + "," + drone.getAgentLevel());
-                    String[] nextParts = nextMissionResponse.split(",");
-                    
-                    if (nextParts[0].trim().equals("ASSIGN_EVENT")) {
+                    String nextMissionResponse = sendAndReceive("REQUEST_NEXT_MISSION," + drone.getId() + "," + drone.getAgentLevel(),
+                            REPLY_TIMEOUT_MILLIS);
+                    awaitAcknowledgements();
+                    FireEvent nextEvent = parser.reset(nextMissionResponse).nextType() == MessageParser.Type.ASSIGN_EVENT
+                            ? parseAssignment() : null;
+
+                    if (nextEvent != null) {
                         // Drone can handle another mission
-                        String nextTime = nextParts[1].trim();
-                        int nextZoneID = Integer.parseInt(nextParts[2].trim());
-                        FireEvent.Severity nextSeverity = FireEvent.Severity.valueOf(nextParts[3].trim());
-                        FireEvent.FaultType nextFaultType = nextParts.length > 4 ? FireEvent.FaultType.valueOf(nextParts[4].trim()) : FireEvent.FaultType.NONE;
-                        
-                        FireEvent nextEvent = new FireEvent(nextTime, nextZoneID, FireEvent.Type.FIRE_DETECTED, nextSeverity, nextFaultType);
                         drone.setCurrentMission(nextEvent);
                         drone.setState(Drone.DroneState.EN_ROUTE_NEXT_MISSION);
                         
-                        System.out.printf("[%s] [Drone %d] Proceeding directly to next Zone %d (remaining agent: %.1f%%)\n", ts(), drone.getId(), nextZoneID, drone.getAgentLevel());
+                        System.out.printf("[%s] [Drone %d] Proceeding directly to next Zone %d (remaining agent: %.1f%%)\n", ts(), drone.getId(), nextEvent.getZoneID(), drone.getAgentLevel());
                     } else {
                         // No suitable mission, return to base
                         drone.setState(Drone.DroneState.RETURNING);
@@ -336,19 +813,19 @@ public class DroneSubsystem implements Runnable {
                 double returnTime = drone.computeTravelTime(0, 0, false);
                 System.out.printf("[%s] [Drone %d] Returning to base. Expected return time: %.1f seconds\n", ts(), drone.getId(), returnTime);
 
-                moveToTargetStepByStep(0, 0, Drone.CRUISE_SPEED_UNLOADED);
-                drone.setState(Drone.DroneState.REFILLING);
+                if (moveToTargetStepByStep(0, 0, Drone.CRUISE_SPEED_UNLOADED) || drone.getState() != Drone.DroneState.EN_ROUTE) {
+                    drone.setState(Drone.DroneState.REFILLING);
+                }
                 break;
 
             case REFILLING:
                 System.out.printf("[%s] [Drone %d] Refilling agent at base...\n", ts(), drone.getId());
-                Thread.sleep(1500);
+                clock.sleep((long) (Drone.REFILL_TIME * 10));
 
                 drone.setAgentLevel(100.0);
-                sendOnly("STATUS_UPDATE," + drone.getId() + "," + drone.getState() + "," +
-                        drone.getX() + "," + drone.getY() + "," + drone.getAgentLevel());
+                sendStatusUpdate();
 
-                String reply = sendAndReceive("DRONE_RETURN_TO_BASE," + drone.getId());
+                String reply = sendAndReceive("DRONE_RETURN_TO_BASE," + drone.getId(), REPLY_TIMEOUT_MILLIS);
 
                 if (reply.startsWith("ALL_EVENTS_COMPLETE")) {
                     System.out.printf("[%s] [Drone %d] All events complete. Shutting down.\n", ts(), drone.getId());
@@ -366,6 +843,23 @@ public class DroneSubsystem implements Runnable {
     }
 
 
+    /**
+     * Reads the fields of an ASSIGN_EVENT reply, the parser must be positioned after the message type
+     * @return the assigned event, or null if the reply is malformed
+     */
+    private FireEvent parseAssignment() {
+        String time = parser.nextString();
+        int zoneID = parser.nextInt();
+        FireEvent.Severity severity = parser.nextEnum(SEVERITIES);
+        FireEvent.FaultType faultType = parser.nextEnum(EVENT_FAULTS, FireEvent.FaultType.NONE);
+        if (!parser.ok()) {
+            rejectedMessages++;
+            System.err.printf("[%s] [Drone %d] COMMUNICATION ERROR: Dropped malformed assignment (%s).\n", ts(), drone.getId(), parser.getError());
+            return null;
+        }
+        return new FireEvent(time, zoneID, FireEvent.Type.FIRE_DETECTED, severity, faultType);
+    }
+
     /**
      * Reports a fault to the scheduler and initiates recovery procedures
      * @param faultType the type of fault that occurred (e.g., STUCK_IN_FLIGHT, NOZZLE_JAMMED)
@@ -387,7 +881,7 @@ public class DroneSubsystem implements Runnable {
         // Sleep to simulate restart/recovery
         try {
             System.out.printf("[%s] [Drone %d] Initiating recovery sequence...\n", ts(), drone.getId());
-            Thread.sleep(5000);
+            clock.sleep((long) (Drone.RECOVERY_TIME * 10));
         } catch (InterruptedException e) {
             e.printStackTrace();
         }
@@ -431,7 +925,7 @@ public class DroneSubsystem implements Runnable {
         
         // Simulate restart/recovery delay
         System.out.printf("[%s] [Drone %d] Drone recovery sequence initiated. Waiting 5 seconds...\n", ts(), drone.getId());
-        Thread.sleep(5000);
+        clock.sleep((long) (Drone.RECOVERY_TIME * 10));
         
         // Reset agent and transition to IDLE
         drone.setAgentLevel(100.0);
@@ -441,20 +935,185 @@ public class DroneSubsystem implements Runnable {
         drone.setState(Drone.DroneState.IDLE);
         
         // Send status update to scheduler
-        sendOnly("STATUS_UPDATE," + drone.getId() + "," + Drone.DroneState.IDLE + "," +
-                drone.getX() + "," + drone.getY() + "," + drone.getAgentLevel());
+        sendStatusUpdate();
     }
 
     @Override
     public void run() {
-        sendAndReceive("REGISTER_DRONE," + drone.getId());
+        register();
         while(running) {
             try {
                 handleEvent();
             } catch (Exception e) {
-                e.printStackTrace();
+                if (running) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * Registers with the scheduler, sending REGISTER_DRONE again until the scheduler answers
+     */
+    private void register() {
+        boolean offerBinary = binaryWire && transport.supportsBinary();
+        boolean offerReliable = reliableControl && !transport.isLossless();
+        String request = "REGISTER_DRONE," + drone.getId() + (offerBinary ? "," + WireCodec.CAPABILITY : "")
+                + (offerReliable ? "," + ReliableLink.CAPABILITY : "") + "," + RequestCorrelator.CAPABILITY
+                + (transport.isMultiplexed() ? "," + SharedDroneSocket.CAPABILITY : "");
+        String registered = "";
+        // a scheduler taking over negotiates everything again, and registration is never framed or tagged
+        link = null;
+        binaryNegotiated = false;
+        calls.setCorrelated(false);
+        registering = true;
+        try {
+            while (running && !registered.startsWith("REGISTERED_DRONE")) {
+                registered = sendAndReceive(request, REGISTER_RETRY_MILLIS);
             }
+        } finally {
+            registering = false;
+        }
+        if (!running) {
+            return;
+        }
+        // the scheduler echoes every capability it accepted
+        boolean binary = false;
+        boolean reliable = false;
+        boolean correlated = false;
+        parser.reset(registered).nextType();
+        parser.nextInt();
+        while (parser.hasNext()) {
+            String capability = parser.nextString();
+            binary |= WireCodec.CAPABILITY.equals(capability);
+            reliable |= ReliableLink.CAPABILITY.equals(capability);
+            correlated |= RequestCorrelator.CAPABILITY.equals(capability);
         }
+        binaryNegotiated = offerBinary && binary;
+        link = offerReliable && reliable ? new ReliableLink() : null;
+        calls.setCorrelated(correlated);
+        if (registrationListener != null) {
+            registrationListener.run();
+        }
+    }
+
+    /**
+     * Stops the drone after its current step and closes its transport, which unblocks a pending receive
+     */
+    public void stop() {
+        running = false;
+        transport.close();
+    }
+
+    /**
+     * Sets a task to run once the scheduler answers REGISTER_DRONE, must be called before run()
+     * @param registrationListener task to run on the drone's thread
+     */
+    public void setRegistrationListener(Runnable registrationListener) {
+        this.registrationListener = registrationListener;
+    }
+
+    /**
+     * Sets whether the drone offers the binary wire format when it registers, must be called before run()
+     * @param binaryWire true to offer the binary format
+     */
+    public void setBinaryWire(boolean binaryWire) {
+        this.binaryWire = binaryWire;
+    }
+
+    /**
+     * Sets whether the drone offers reliable control messages when it registers, must be called before run().
+     * They are never offered over a lossless transport.
+     * @param reliableControl true to offer reliable control messages
+     */
+    public void setReliableControl(boolean reliableControl) {
+        this.reliableControl = reliableControl;
+    }
+
+    /**
+     * Sets whether the drone reports flight plans in flight instead of every movement step
+     * @param deadReckoning true to report flight plans
+     */
+    public void setDeadReckoning(boolean deadReckoning) {
+        this.deadReckoning = deadReckoning;
+    }
+
+    /**
+     * Sets the longest time between reports while the drone follows its flight plan
+     * @param heartbeatMillis heartbeat interval in milliseconds
+     */
+    public void setHeartbeatMillis(long heartbeatMillis) {
+        this.heartbeatMillis = heartbeatMillis;
+    }
+
+    /**
+     * @return number of STATUS_UPDATE and FLIGHT_PLAN messages sent
+     */
+    public long getTelemetryMessageCount() {
+        return telemetrySent;
+    }
+
+    /**
+     * @return number of replies from the scheduler dropped because they could not be parsed
+     */
+    public long getRejectedMessageCount() {
+        return rejectedMessages;
+    }
+
+    /**
+     * @return true if the scheduler accepted the binary wire format at registration
+     */
+    public boolean isBinaryNegotiated() {
+        return binaryNegotiated;
+    }
+
+    /**
+     * @return true if the scheduler accepted reliable control messages at registration
+     */
+    public boolean isReliableNegotiated() {
+        return link != null;
+    }
+
+    /**
+     * @return number of control messages the drone sent again because the scheduler did not acknowledge them
+     */
+    public long getRetransmissionCount() {
+        return link == null ? 0 : link.getRetransmissionCount();
+    }
+
+    /**
+     * @return true if the scheduler accepted request IDs at registration
+     */
+    public boolean isCorrelated() {
+        return calls.isCorrelated();
+    }
+
+    /**
+     * @return number of messages from the scheduler dropped because they answered no pending request
+     */
+    public long getStrayMessageCount() {
+        return calls.getStrayMessageCount();
+    }
+
+    /**
+     * @return number of commands from the scheduler the drone carried out
+     */
+    public long getAppliedCommandCount() {
+        return commandsApplied;
+    }
+
+    /**
+     * @return number of commands from the scheduler the drone turned down, most arrived after it landed
+     */
+    public long getRejectedCommandCount() {
+        return commandsRejected;
+    }
+
+    /**
+     * @return number of times the drone moved to a standby scheduler that took over
+     */
+    public long getFailoverCount() {
+        return failovers;
     }
 
     /**
@@ -464,4 +1123,11 @@ public class DroneSubsystem implements Runnable {
         return drone.getState();
     }
 
+    /**
+     * @return true while the drone is flying towards a target and listening for commands
+     */
+    public boolean isInFlight() {
+        return inFlight;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,328 @@
+package subsystems;
+
+import model.FireEvent;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * FireEventQueue is the Scheduler's dispatch queue for incomplete fire events. Events are ordered by
+ * severity, by how long they have been waiting since they were queued, and by an optional boost given
+ * to missions that were re-queued after a drone fault or ran out of agent.
+ *
+ * The priority of an event is measured in milliseconds of waiting time:
+ *     priority = severityRank * SEVERITY_WEIGHT_MS + boost + age
+ * Since every queued event ages at the same rate, the ordering between two events never changes while
+ * they wait, so each event is stored in an indexed binary heap keyed on (severity + boost - enqueue time).
+ * The index lets a queued event be boosted or removed in O(log n) without rebuilding the heap.
+ *
+ * This class is not thread safe, the Scheduler only accesses it while holding its own lock.
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class FireEventQueue {
+
+    /** Waiting time a fire is worth per severity level (Low = 0, Moderate = 1, High = 2) */
+    public static final long SEVERITY_WEIGHT_MS = 30_000;
+
+    /** Boost given to a mission that failed and had to be put back in the queue */
+    public static final long REQUEUE_BOOST_MS = 15_000;
+
+    /**
+     * A queued event along with its heap key and position in the heap
+     */
+    private static class Entry {
+        final FireEvent event;
+        final long enqueuedAt;
+        final long sequence;
+        long key;
+        int index;
+
+        Entry(FireEvent event, long enqueuedAt, long sequence, long key) {
+            this.event = event;
+            this.enqueuedAt = enqueuedAt;
+            this.sequence = sequence;
+            this.key = key;
+        }
+    }
+
+    private final List<Entry> heap = new ArrayList<>();
+    private final Map<FireEvent, Entry> index = new IdentityHashMap<>();
+    private final LongSupplier clock;
+    private long nextSequence = 0;
+
+    /**
+     * Constructs an empty queue that ages events using the system clock
+     */
+    public FireEventQueue() {
+        this(System::currentTimeMillis);
+    }
+
+    /**
+     * Constructs an empty queue that ages events using the given time source
+     * @param clock supplies the current time in milliseconds
+     */
+    public FireEventQueue(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Adds a newly detected fire event to the queue
+     * @param event event to add
+     * @return true if the event was added, false if it is already queued
+     */
+    public boolean add(FireEvent event) {
+        return add(event, 0);
+    }
+
+    /**
+     * Adds a fire event that was previously dispatched and has to be serviced again.
+     * The event gets REQUEUE_BOOST_MS on top of its severity so it is not starved by newer fires.
+     * @param event event to re-queue
+     * @return true if the event was added, false if it is already queued
+     */
+    public boolean requeue(FireEvent event) {
+        return add(event, REQUEUE_BOOST_MS);
+    }
+
+    /**
+     * Adds a fire event with the given priority boost
+     * @param event event to add
+     * @param boostMillis extra waiting time credited to the event
+     * @return true if the event was added, false if it is already queued
+     */
+    public boolean add(FireEvent event, long boostMillis) {
+        if (event == null || index.containsKey(event)) {
+            return false;
+        }
+        long now = clock.getAsLong();
+        Entry entry = new Entry(event, now, nextSequence++, severityWeight(event) + boostMillis - now);
+        entry.index = heap.size();
+        heap.add(entry);
+        index.put(event, entry);
+        siftUp(entry.index);
+        return true;
+    }
+
+    /**
+     * Raises the priority of an event that is already queued
+     * @param event queued event
+     * @param extraMillis additional waiting time credited to the event
+     * @return true if the event was found and boosted
+     */
+    public boolean boost(FireEvent event, long extraMillis) {
+        Entry entry = index.get(event);
+        if (entry == null) {
+            return false;
+        }
+        entry.key += extraMillis;
+        if (extraMillis >= 0) {
+            siftUp(entry.index);
+        } else {
+            siftDown(entry.index);
+        }
+        return true;
+    }
+
+    /**
+     * Removes a specific event from the queue
+     * @param event queued event
+     * @return true if the event was found and removed
+     */
+    public boolean remove(FireEvent event) {
+        Entry entry = index.get(event);
+        if (entry == null) {
+            return false;
+        }
+        removeAt(entry.index);
+        return true;
+    }
+
+    /**
+     * @return highest priority event without removing it, or null if the queue is empty
+     */
+    public FireEvent peek() {
+        return heap.isEmpty() ? null : heap.get(0).event;
+    }
+
+    /**
+     * Removes and returns the highest priority event
+     * @return highest priority event, or null if the queue is empty
+     */
+    public FireEvent poll() {
+        if (heap.isEmpty()) {
+            return null;
+        }
+        return removeAt(0).event;
+    }
+
+    /**
+     * @param event queued event
+     * @return true if the event is currently queued
+     */
+    public boolean contains(FireEvent event) {
+        return index.containsKey(event);
+    }
+
+    /**
+     * Current priority of a queued event, in milliseconds of effective waiting time
+     * @param event queued event
+     * @return priority of the event, or -1 if it is not queued
+     */
+    public long getPriority(FireEvent event) {
+        return getPriority(event, clock.getAsLong());
+    }
+
+    /**
+     * Priority of a queued event at a given time, so several events can be compared at the same instant
+     * @param event queued event
+     * @param now   time on the queue's clock
+     * @return priority of the event, or -1 if it is not queued
+     */
+    public long getPriority(FireEvent event, long now) {
+        Entry entry = index.get(event);
+        return entry == null ? -1 : entry.key + now;
+    }
+
+    /**
+     * Waiting credit of a queued event: its boost plus its age, without the severity weight. Adding the
+     * event to a queue with add(event, credit) gives it the same place it has in this one.
+     * @param event queued event
+     * @param now   time on the queue's clock
+     * @return waiting credit of the event, or -1 if it is not queued
+     */
+    public long getWaitingCredit(FireEvent event, long now) {
+        Entry entry = index.get(event);
+        return entry == null ? -1 : entry.key + now - severityWeight(event);
+    }
+
+    /**
+     * @param event queued event
+     * @return time the event was added to the queue, or -1 if it is not queued
+     */
+    public long getEnqueuedAt(FireEvent event) {
+        Entry entry = index.get(event);
+        return entry == null ? -1 : entry.enqueuedAt;
+    }
+
+    /**
+     * @return true if there are no queued events
+     */
+    public boolean isEmpty() {
+        return heap.isEmpty();
+    }
+
+    /**
+     * @return number of queued events
+     */
+    public int size() {
+        return heap.size();
+    }
+
+    /**
+     * Removes every event from the queue
+     */
+    public void clear() {
+        heap.clear();
+        index.clear();
+    }
+
+    /**
+     * @return queued events from highest to lowest priority
+     */
+    public List<FireEvent> toList() {
+        List<Entry> sorted = new ArrayList<>(heap);
+        sorted.sort((a, b) -> a == b ? 0 : (higher(a, b) ? -1 : 1));
+        List<FireEvent> events = new ArrayList<>(sorted.size());
+        for (Entry entry : sorted) {
+            events.add(entry.event);
+        }
+        return events;
+    }
+
+    /**
+     * @param event fire event
+     * @return waiting time the severity of the event is worth
+     */
+    private static long severityWeight(FireEvent event) {
+        return event.getSeverity().ordinal() * SEVERITY_WEIGHT_MS;
+    }
+
+    /**
+     * @return true if entry a should be dispatched before entry b
+     */
+    private static boolean higher(Entry a, Entry b) {
+        if (a.key != b.key) {
+            return a.key > b.key;
+        }
+        return a.sequence < b.sequence; // FIFO among equal priorities
+    }
+
+    /**
+     * Removes the entry at a heap position and restores the heap order
+     * @param i heap position
+     * @return removed entry
+     */
+    private Entry removeAt(int i) {
+        Entry removed = heap.get(i);
+        Entry last = heap.remove(heap.size() - 1);
+        index.remove(removed.event);
+        if (last != removed) {
+            heap.set(i, last);
+            last.index = i;
+            siftDown(i);
+            siftUp(last.index);
+        }
+        return removed;
+    }
+
+    /**
+     * Moves an entry towards the root until its parent has a higher priority
+     * @param i heap position
+     */
+    private void siftUp(int i) {
+        Entry entry = heap.get(i);
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            Entry p = heap.get(parent);
+            if (!higher(entry, p)) {
+                break;
+            }
+            heap.set(i, p);
+            p.index = i;
+            i = parent;
+        }
+        heap.set(i, entry);
+        entry.index = i;
+    }
+
+    /**
+     * Moves an entry towards the leaves until both children have a lower priority
+     * @param i heap position
+     */
+    private void siftDown(int i) {
+        Entry entry = heap.get(i);
+        int size = heap.size();
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && higher(heap.get(child + 1), heap.get(child))) {
+                child++;
+            }
+            Entry c = heap.get(child);
+            if (!higher(c, entry)) {
+                break;
+            }
+            heap.set(i, c);
+            c.index = i;
+            i = child;
+        }
+        heap.set(i, entry);
+        entry.index = i;
+    }
+}
@@ -6,9 +6,6 @@ import model.*;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
-import java.net.InetAddress;
 
 /**
  * FireIncidentSubsystem class reads the fire events from the given CSV event file and sends to
@@ -21,10 +18,7 @@ public class FireIncidentSubsystem implements Runnable {
     // private final Scheduler scheduler;
     private final String filePath;
 
-    private DatagramPacket sendPacket;
-    private DatagramSocket sendReceiveSocket;
-    int SCHEDULER_PORT = 6000;
-    String SCHEDULER_HOST = "localhost";
+    private Transport transport;
 
 
     /**
@@ -32,13 +26,25 @@ public class FireIncidentSubsystem implements Runnable {
      * @param filePath the path to the CSV event file
      */
     public FireIncidentSubsystem(String filePath) {
+        this(filePath, null);
+    }
+
+    /**
+     * Constructor for FireIncidentSubsystem that sends through the given transport
+     * @param filePath  the path to the CSV event file
+     * @param transport connection to the scheduler, or null to open a UDP socket
+     */
+    public FireIncidentSubsystem(String filePath, Transport transport) {
         // this.scheduler = scheduler;
         this.filePath = filePath;
+        this.transport = transport;
 
-        try {
-            sendReceiveSocket = new DatagramSocket();
-        } catch (IOException e) {
-            e.printStackTrace();
+        if (transport == null) {
+            try {
+                this.transport = new UdpTransport();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
         }
     }
 
@@ -51,27 +57,9 @@ public class FireIncidentSubsystem implements Runnable {
 
         try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
             while((line = br.readLine()) != null) {
-                String[] row = line.split(",");
-
                 Thread.sleep((int) (Math.random() * 2000));
 
-                String time = row[0].trim();
-                int zoneID = Integer.parseInt(row[1].trim());
-                FireEvent.Type type = FireEvent.Type.valueOf(row[2].trim());
-                FireEvent.Severity severity = FireEvent.Severity.valueOf(row[3].trim());
-
-                // Read optional fault type
-                FireEvent.FaultType faultType = FireEvent.FaultType.NONE;
-                if (row.length > 4) {
-                    try {
-                        faultType = FireEvent.FaultType.valueOf(row[4].trim());
-                    } catch (IllegalArgumentException e) {
-                    }
-                }
-
-                FireEvent event = new FireEvent(time, zoneID, type, severity, faultType);
-
-                sendFireEvent(event);
+                sendFireEvent(parseEvent(line));
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -80,14 +68,38 @@ public class FireIncidentSubsystem implements Runnable {
     }
 
     /**
-     * Send a single fire event to the scheduler as a UDP message
+     * Parses one row of the CSV event file
+     * @param line the row, Time,ZoneID,Type,Severity and an optional FaultType
+     * @return the fire event
+     * @throws IllegalArgumentException if a required field is malformed
+     */
+    static FireEvent parseEvent(String line) {
+        String[] row = line.split(",");
+        String time = row[0].trim();
+        int zoneID = Integer.parseInt(row[1].trim());
+        FireEvent.Type type = FireEvent.Type.valueOf(row[2].trim());
+        FireEvent.Severity severity = FireEvent.Severity.valueOf(row[3].trim());
+
+        // Read optional fault type
+        FireEvent.FaultType faultType = FireEvent.FaultType.NONE;
+        if (row.length > 4) {
+            try {
+                faultType = FireEvent.FaultType.valueOf(row[4].trim());
+            } catch (IllegalArgumentException e) {
+            }
+        }
+
+        return new FireEvent(time, zoneID, type, severity, faultType);
+    }
+
+    /**
+     * Send a single fire event to the scheduler
      * @param event the fire event to send
      */
     private void sendFireEvent(FireEvent event) {
-        String message = "FIRE_DETECTED," + event.getTime() + "," + event.getZoneID() + "," + event.getSeverity() + "," + event.getFaultType();        byte[] bytes = message.getBytes();
+        String message = "FIRE_DETECTED," + event.getTime() + "," + event.getZoneID() + "," + event.getSeverity() + "," + event.getFaultType();
         try {
-            sendPacket = new DatagramPacket(bytes, bytes.length, InetAddress.getByName(SCHEDULER_HOST), SCHEDULER_PORT);
-            sendReceiveSocket.send(sendPacket);
+            transport.send(message);
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -100,12 +112,9 @@ public class FireIncidentSubsystem implements Runnable {
      * Sends the final message to the scheduler to indicate all events from CSV file have been submitted
      */
     private void sendOnly() {
-        byte[] bytes = "ALL_EVENTS_DONE".getBytes();
-
         try {
             System.out.println("SENDING");
-            sendPacket = new DatagramPacket(bytes, bytes.length, InetAddress.getByName(SCHEDULER_HOST), SCHEDULER_PORT);
-            sendReceiveSocket.send(sendPacket);
+            transport.send("ALL_EVENTS_DONE");
             System.out.println("SENT");
         } catch (IOException e) {
             e.printStackTrace();
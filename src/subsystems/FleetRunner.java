@@ -0,0 +1,224 @@
+package subsystems;
+
+import java.io.IOException;
+import java.net.SocketException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * FleetRunner starts a range of drone IDs in one process, each DroneSubsystem on its own virtual thread,
+ * so thousands of drones can be pointed at one Scheduler to stress test it on a single machine.
+ *
+ * The drones run unchanged: their blocking receives and sleeps park the virtual thread instead of holding
+ * a platform thread. Virtual threads need Java 21, on older runtimes each drone gets a platform thread
+ * with a small stack instead. By default every drone sends and receives through one SharedDroneSocket,
+ * so the fleet holds a single socket however many drones it runs. With setSharedMemory() they talk to a
+ * scheduler process on the same host through a SharedMemoryTransport instead.
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class FleetRunner {
+
+    // stack size of the platform threads used when virtual threads are not available
+    private static final long FALLBACK_STACK_SIZE = 256 * 1024;
+
+    private final Scheduler scheduler;
+    private final int firstID;
+    private final int lastID;
+    private final List<DroneSubsystem> drones;
+    private final CountDownLatch registered;
+    private final AtomicInteger unregistered;
+    private ExecutorService executor;
+    private boolean shareSocket = true;
+    private SharedDroneSocket sharedSocket;
+    private SharedMemoryTransport sharedMemory;
+    private boolean virtualThreads;
+    private long startNanos;
+    private volatile long registeredNanos = -1;
+
+    /**
+     * Constructs a fleet of drones with consecutive IDs
+     * @param scheduler scheduler the drones read zones and the clock from
+     * @param firstID   ID of the first drone
+     * @param lastID    ID of the last drone, inclusive
+     */
+    public FleetRunner(Scheduler scheduler, int firstID, int lastID) {
+        if (lastID < firstID) {
+            throw new IllegalArgumentException("lastID must not be less than firstID");
+        }
+        this.scheduler = scheduler;
+        this.firstID = firstID;
+        this.lastID = lastID;
+        this.drones = new ArrayList<>(lastID - firstID + 1);
+        this.registered = new CountDownLatch(lastID - firstID + 1);
+        this.unregistered = new AtomicInteger(lastID - firstID + 1);
+    }
+
+    /**
+     * Starts a fleet against a scheduler running in another process and reports how long registration took
+     * @param args first drone ID, last drone ID, an optional zone file and an optional ring file shared
+     *             with the scheduler
+     */
+    public static void main(String[] args) throws InterruptedException, IOException {
+        int firstID = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        int lastID = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        String zoneFilePath = args.length > 2 ? args[2] : "Final_zone_file_w26.csv";
+
+        FleetRunner fleet = new FleetRunner(new Scheduler(zoneFilePath), firstID, lastID);
+        if (args.length > 3) {
+            fleet.setSharedMemory(new SharedMemoryTransport(Paths.get(args[3])));
+        }
+        fleet.start();
+        long millis = fleet.awaitRegistration(5, TimeUnit.MINUTES);
+        if (millis < 0) {
+            System.out.printf("[Fleet] Only %d of %d drones registered\n", fleet.getRegisteredCount(), fleet.size());
+        } else {
+            System.out.printf("[Fleet] %d drones registered in %d ms on %s threads\n", fleet.size(), millis,
+                    fleet.isUsingVirtualThreads() ? "virtual" : "platform");
+        }
+    }
+
+    /**
+     * Creates and starts every drone, each one registers on its own thread
+     */
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        if (shareSocket && sharedMemory == null) {
+            try {
+                sharedSocket = new SharedDroneSocket();
+            } catch (SocketException e) {
+                System.err.println("[Fleet] Could not open a shared socket, each drone opens its own: " + e.getMessage());
+            }
+        }
+        executor = newDroneExecutor();
+        startNanos = System.nanoTime();
+        for (int id = firstID; id <= lastID; id++) {
+            int droneID = id;
+            executor.execute(() -> {
+                Thread.currentThread().setName("Drone-" + droneID);
+                Transport transport = sharedMemory != null ? sharedMemory.connect(droneID)
+                        : sharedSocket != null ? sharedSocket.connect(droneID) : null;
+                DroneSubsystem drone = new DroneSubsystem(scheduler, droneID, scheduler.getClock(), transport);
+                drone.setRegistrationListener(this::droneRegistered);
+                synchronized (drones) {
+                    drones.add(drone);
+                }
+                drone.run();
+            });
+        }
+    }
+
+    /**
+     * Waits for every drone in the fleet to receive REGISTERED_DRONE
+     * @param timeout longest time to wait
+     * @param unit    unit of the timeout
+     * @return milliseconds from start() until the last drone registered, or -1 if the wait timed out
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public long awaitRegistration(long timeout, TimeUnit unit) throws InterruptedException {
+        if (!registered.await(timeout, unit)) {
+            return -1;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(registeredNanos - startNanos);
+    }
+
+    /**
+     * Stops every drone and its thread
+     */
+    public synchronized void stop() {
+        synchronized (drones) {
+            for (DroneSubsystem drone : drones) {
+                drone.stop();
+            }
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        if (sharedSocket != null) {
+            sharedSocket.close();
+        }
+    }
+
+    /**
+     * Sets whether the drones share one socket or each open their own, must be called before start()
+     * @param shareSocket true to share one socket
+     */
+    public synchronized void setShareSocket(boolean shareSocket) {
+        this.shareSocket = shareSocket;
+    }
+
+    /**
+     * Connects the drones to the scheduler through a ring file instead of a socket, must be called before
+     * start(). The fleet does not close it.
+     * @param sharedMemory the ring file shared with the scheduler's process
+     */
+    public synchronized void setSharedMemory(SharedMemoryTransport sharedMemory) {
+        this.sharedMemory = sharedMemory;
+    }
+
+    /**
+     * @return the socket the drones share, or null if each drone has its own or the fleet has not started
+     */
+    public synchronized SharedDroneSocket getSharedSocket() {
+        return sharedSocket;
+    }
+
+    /**
+     * @return number of drones in the fleet
+     */
+    public int size() {
+        return lastID - firstID + 1;
+    }
+
+    /**
+     * @return number of drones that have received REGISTERED_DRONE
+     */
+    public int getRegisteredCount() {
+        return size() - (int) registered.getCount();
+    }
+
+    /**
+     * @return true if the drones run on virtual threads
+     */
+    public synchronized boolean isUsingVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Called on a drone's thread when it registers
+     */
+    private void droneRegistered() {
+        if (unregistered.decrementAndGet() == 0) {
+            registeredNanos = System.nanoTime(); // set before the latch opens
+        }
+        registered.countDown();
+    }
+
+    /**
+     * @return an executor that runs every drone on a new virtual thread, or on a new small stack platform
+     * thread before Java 21
+     */
+    private ExecutorService newDroneExecutor() {
+        try {
+            ExecutorService virtual = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            virtualThreads = true;
+            return virtual;
+        } catch (ReflectiveOperationException e) {
+            virtualThreads = false;
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(null, task, "Drone", FALLBACK_STACK_SIZE);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
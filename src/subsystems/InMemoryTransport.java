@@ -0,0 +1,173 @@
+package subsystems;
+
+import model.Clock;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * InMemoryTransport connects drones and the FireIncidentSubsystem to a Scheduler running in the same
+ * process without any sockets.
+ *
+ * A message sent through one of its transports is handed to Scheduler.deliver() on the sender's own
+ * thread, so it is handled before send() returns, and the Scheduler's replies are put straight into the
+ * mailbox of the transport they are for. Messages stay String objects the whole way and are never
+ * encoded to bytes, and a WireCodec message sent to it anyway is decoded back to text. Each transport gets its own port number, which is only meaningful to this class.
+ * Ports are numbered from 1 in the order the transports are opened. Receive timeouts are measured on the
+ * Scheduler's clock, so a drone waiting for a reply in virtual time waits in virtual time too.
+ *
+ * Creating one takes over the Scheduler's replies, so every subsystem talking to that Scheduler has to
+ * connect through it.
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class InMemoryTransport implements Scheduler.ReplyListener {
+
+    // handed to a transport that is closed, so a blocked receive returns
+    private static final String CLOSED = new String("");
+
+    private final Scheduler scheduler;
+    private final Clock clock;
+    private final InetAddress address = InetAddress.getLoopbackAddress();
+    private final Map<Integer, BlockingQueue<String>> mailboxes = new ConcurrentHashMap<>();
+    private final AtomicInteger nextPort = new AtomicInteger(1);
+    private final AtomicLong undeliveredReplies = new AtomicLong();
+
+    /**
+     * Sends every reply of the Scheduler to this transport's mailboxes instead of over UDP
+     * @param scheduler the scheduler, its UDP server is not needed
+     */
+    public InMemoryTransport(Scheduler scheduler) {
+        this.scheduler = scheduler;
+        this.clock = scheduler.getClock();
+        scheduler.setReplyListener(this);
+    }
+
+    /**
+     * Opens a new connection to the Scheduler
+     * @return the transport
+     */
+    public Transport connect() {
+        int port = nextPort.getAndIncrement();
+        mailboxes.put(port, new LinkedBlockingQueue<>());
+        return new Connection(port);
+    }
+
+    /**
+     * Called by the Scheduler for every reply
+     * @param message the reply
+     * @param address ignored, every connection shares one address
+     * @param port    the port of the connection the reply is for
+     */
+    @Override
+    public void reply(String message, InetAddress address, int port) {
+        BlockingQueue<String> mailbox = mailboxes.get(port);
+        if (mailbox == null) {
+            undeliveredReplies.incrementAndGet();
+            return;
+        }
+        mailbox.offer(message);
+        synchronized (mailbox) {
+            mailbox.notifyAll();
+        }
+    }
+
+    /**
+     * @return number of open connections
+     */
+    public int getConnectionCount() {
+        return mailboxes.size();
+    }
+
+    /**
+     * @return number of replies dropped because their connection was closed or never opened
+     */
+    public long getUndeliveredReplyCount() {
+        return undeliveredReplies.get();
+    }
+
+    /**
+     * One connection to the Scheduler
+     */
+    private class Connection implements Transport {
+        private final int port;
+        private final WireCodec.Message decoded = new WireCodec.Message();
+
+        Connection(int port) {
+            this.port = port;
+        }
+
+        @Override
+        public void send(String message) throws IOException {
+            if (!mailboxes.containsKey(port)) {
+                throw new IOException("Transport closed");
+            }
+            scheduler.deliver(message, address, port);
+        }
+
+        @Override
+        public void send(byte[] data, int length) throws IOException {
+            // supportsBinary() is false so drones never negotiate the codec, but the bytes are still a message
+            if (!WireCodec.decode(ByteBuffer.wrap(data, 0, length), decoded)) {
+                throw new MalformedMessageException("Not a WireCodec message");
+            }
+            send(WireCodec.toText(decoded));
+        }
+
+        @Override
+        public String receive(long timeoutMillis) throws IOException {
+            BlockingQueue<String> mailbox = mailboxes.get(port);
+            if (mailbox == null) {
+                throw new IOException("Transport closed");
+            }
+            long deadline = timeoutMillis > 0 ? clock.millis() + timeoutMillis : Long.MAX_VALUE;
+            String reply;
+            synchronized (mailbox) {
+                while ((reply = mailbox.poll()) == null) {
+                    if (clock.millis() >= deadline) {
+                        return null;
+                    }
+                    try {
+                        clock.waitUntil(mailbox, deadline);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Interrupted while receiving", e);
+                    }
+                }
+            }
+            if (reply == CLOSED) {
+                throw new IOException("Transport closed");
+            }
+            return reply;
+        }
+
+        @Override
+        public boolean supportsBinary() {
+            return false;
+        }
+
+        @Override
+        public boolean isLossless() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+            BlockingQueue<String> mailbox = mailboxes.remove(port);
+            if (mailbox != null) {
+                mailbox.clear();
+                mailbox.offer(CLOSED);
+                synchronized (mailbox) {
+                    mailbox.notifyAll();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package subsystems;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * MappedRingBuffer is a single producer, single consumer queue of variable length messages laid out in
+ * a region of memory, normally part of a memory mapped file so the producer and the consumer can be in
+ * different processes.
+ *
+ * The region starts with the consumer's read position and the producer's write position, each a
+ * running byte count on its own cache line, followed by the data area. Each message is a 4 byte length
+ * and the message bytes, padded to a multiple of 4. A message that does not fit before the end of the
+ * data area is preceded by a PADDING marker and written at the start instead. The producer publishes a
+ * message by storing its write position with release semantics after the bytes, and the consumer frees
+ * space the same way with its read position, so neither side ever takes a lock or makes a system call.
+ *
+ * Both positions are read from the region when the ring is attached, so either side can attach to a
+ * ring the other side has been using. A ring has exactly one producer thread and one consumer thread
+ * at a time, callers with several threads on one side serialize them.
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public final class MappedRingBuffer {
+
+    /** Bytes before the data area: the read position and the write position on separate cache lines */
+    public static final int HEADER_SIZE = 128;
+
+    private static final int READ_OFFSET = 0;
+    private static final int WRITE_OFFSET = 64;
+    private static final int LENGTH_SIZE = 4;
+    private static final int PADDING = -1;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final ByteBuffer region;
+    private final int capacity;
+    private final int mask;
+
+    /**
+     * Attaches to a ring laid out in a region of direct memory
+     * @param region the ring's memory, HEADER_SIZE bytes plus a power of two data area, from position 0
+     *               to the limit, starting on an 8 byte boundary
+     */
+    public MappedRingBuffer(ByteBuffer region) {
+        this.region = region.slice().order(ByteOrder.nativeOrder());
+        this.capacity = this.region.capacity() - HEADER_SIZE;
+        if (capacity < 2 * LENGTH_SIZE || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Data area must be a power of two, was " + capacity);
+        }
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * @param capacity size of the data area, a power of two
+     * @return bytes of memory a ring with this data area needs
+     */
+    public static int regionSize(int capacity) {
+        return HEADER_SIZE + capacity;
+    }
+
+    /**
+     * Appends a message if there is room for it
+     * @param message the message between position and limit, the position is not changed
+     * @return false if the ring is too full, nothing is written in that case
+     * @throws IllegalArgumentException if the message could never fit
+     */
+    public boolean offer(ByteBuffer message) {
+        int length = message.remaining();
+        int size = align(LENGTH_SIZE + length);
+        if (size > capacity / 2) {
+            throw new IllegalArgumentException("Message of " + length + " bytes is too large for the ring");
+        }
+        long write = (long) LONGS.getOpaque(region, WRITE_OFFSET);
+        long read = (long) LONGS.getAcquire(region, READ_OFFSET);
+        int index = (int) (write & mask);
+        int toEnd = capacity - index;
+        int needed = size > toEnd ? toEnd + size : size;
+        if (write + needed - read > capacity) {
+            return false;
+        }
+        if (size > toEnd) {
+            region.putInt(HEADER_SIZE + index, PADDING);
+            write += toEnd;
+            index = 0;
+        }
+        region.put(HEADER_SIZE + index + LENGTH_SIZE, message, message.position(), length);
+        region.putInt(HEADER_SIZE + index, length);
+        LONGS.setRelease(region, WRITE_OFFSET, write + size);
+        return true;
+    }
+
+    /**
+     * Removes the oldest message
+     * @param out destination, the message is written from its position, which is advanced past it
+     * @return length of the message, or -1 if the ring is empty
+     * @throws IllegalArgumentException if out does not have room for the message, which stays in the ring
+     */
+    public int poll(ByteBuffer out) {
+        long read = (long) LONGS.getOpaque(region, READ_OFFSET);
+        long write = (long) LONGS.getAcquire(region, WRITE_OFFSET);
+        if (read == write) {
+            return -1;
+        }
+        int index = (int) (read & mask);
+        int length = region.getInt(HEADER_SIZE + index);
+        if (length == PADDING) {
+            read += capacity - index;
+            index = 0;
+            length = region.getInt(HEADER_SIZE);
+        }
+        if (length > out.remaining()) {
+            throw new IllegalArgumentException("Message of " + length + " bytes does not fit the buffer");
+        }
+        out.put(out.position(), region, HEADER_SIZE + index + LENGTH_SIZE, length);
+        out.position(out.position() + length);
+        LONGS.setRelease(region, READ_OFFSET, read + align(LENGTH_SIZE + length));
+        return length;
+    }
+
+    /**
+     * @return true if there is no message to poll
+     */
+    public boolean isEmpty() {
+        return (long) LONGS.getAcquire(region, READ_OFFSET) == (long) LONGS.getAcquire(region, WRITE_OFFSET);
+    }
+
+    /**
+     * @return size of the data area in bytes
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return size rounded up to a multiple of the length field
+     */
+    private static int align(int size) {
+        return (size + LENGTH_SIZE - 1) & -LENGTH_SIZE;
+    }
+}
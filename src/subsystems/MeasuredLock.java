@@ -0,0 +1,189 @@
+package subsystems;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * MeasuredLock is a ReentrantLock that keeps count of how it is used, so the time threads spend waiting
+ * for the Scheduler lock and the time they hold it can be compared before and after a change.
+ *
+ * Every way of taking the lock is counted. An acquisition is contended when the lock was held by another
+ * thread at the time, only those are timed while waiting. Hold time runs from the outermost lock() to the matching unlock(), minus the time
+ * spent in await(), during which the lock is released. Waiting on a Condition must go through await()
+ * here, a Condition awaited directly counts its wait as hold time.
+ *
+ * The counters are only written by the thread holding the lock and are read without it, so a reading
+ * taken while the lock is busy may be one acquisition behind.
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public final class MeasuredLock extends ReentrantLock {
+
+    private static final long serialVersionUID = 1L;
+
+    private volatile long acquisitions = 0;
+    private volatile long contendedAcquisitions = 0;
+    private volatile long waitNanos = 0;
+    private volatile long holdNanos = 0;
+    private volatile long maxHoldNanos = 0;
+    private long heldSince; // only touched by the owner
+
+    @Override
+    public void lock() {
+        if (super.tryLock()) {
+            acquired();
+            return;
+        }
+        long start = System.nanoTime();
+        super.lock();
+        acquiredAfterWaiting(start);
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        if (super.tryLock()) {
+            acquired();
+            return;
+        }
+        long start = System.nanoTime();
+        super.lockInterruptibly();
+        acquiredAfterWaiting(start);
+    }
+
+    @Override
+    public boolean tryLock() {
+        if (!super.tryLock()) {
+            return false;
+        }
+        acquired();
+        return true;
+    }
+
+    @Override
+    public boolean tryLock(long timeout, TimeUnit unit) throws InterruptedException {
+        if (super.tryLock()) {
+            acquired();
+            return true;
+        }
+        long start = System.nanoTime();
+        if (!super.tryLock(timeout, unit)) {
+            return false;
+        }
+        acquiredAfterWaiting(start);
+        return true;
+    }
+
+    @Override
+    public void unlock() {
+        if (getHoldCount() == 1) {
+            endHold();
+        }
+        super.unlock();
+    }
+
+    /**
+     * Waits on a condition of this lock without counting the wait as hold time
+     * @param condition a condition created by this lock
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public void await(Condition condition) throws InterruptedException {
+        endHold();
+        try {
+            condition.await();
+        } finally {
+            heldSince = System.nanoTime();
+        }
+    }
+
+    /**
+     * @return times the lock was taken, reentrant acquisitions included
+     */
+    public long getAcquisitions() {
+        return acquisitions;
+    }
+
+    /**
+     * @return times a thread had to wait because another thread held the lock
+     */
+    public long getContendedAcquisitions() {
+        return contendedAcquisitions;
+    }
+
+    /**
+     * @return total nanoseconds threads waited to take the lock
+     */
+    public long getWaitNanos() {
+        return waitNanos;
+    }
+
+    /**
+     * @return total nanoseconds the lock was held
+     */
+    public long getHoldNanos() {
+        return holdNanos;
+    }
+
+    /**
+     * @return longest time in nanoseconds the lock was held at once
+     */
+    public long getMaxHoldNanos() {
+        return maxHoldNanos;
+    }
+
+    /**
+     * Starts the counters over, called with the lock held so no hold is cut in two
+     */
+    public void resetCounters() {
+        lock();
+        try {
+            acquisitions = 0;
+            contendedAcquisitions = 0;
+            waitNanos = 0;
+            holdNanos = 0;
+            maxHoldNanos = 0;
+            heldSince = System.nanoTime();
+        } finally {
+            unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        long count = acquisitions;
+        return String.format("%d acquisitions, %d contended (%.1f%%), %.1f ms waiting, %.1f ms held, longest hold %.3f ms",
+                count, contendedAcquisitions, count == 0 ? 0.0 : 100.0 * contendedAcquisitions / count,
+                waitNanos / 1e6, holdNanos / 1e6, maxHoldNanos / 1e6);
+    }
+
+    /**
+     * Counts an acquisition that had to wait for another thread, called with the lock just taken
+     * @param start System.nanoTime() when the thread started waiting
+     */
+    private void acquiredAfterWaiting(long start) {
+        contendedAcquisitions++;
+        waitNanos += System.nanoTime() - start;
+        acquired();
+    }
+
+    /**
+     * Counts an acquisition and starts timing the hold if it is not a reentrant one
+     */
+    private void acquired() {
+        acquisitions++;
+        if (getHoldCount() == 1) {
+            heldSince = System.nanoTime();
+        }
+    }
+
+    /**
+     * Adds the time since the lock was taken or the last await() returned to the hold time
+     */
+    private void endHold() {
+        long held = System.nanoTime() - heldSince;
+        holdNanos += held;
+        if (held > maxHoldNanos) {
+            maxHoldNanos = held;
+        }
+    }
+}
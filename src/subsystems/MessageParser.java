@@ -0,0 +1,470 @@
+package subsystems;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * MessageParser reads the fields of a comma separated text message in place, without splitting it into
+ * a String[] or trimming each field into a new String.
+ *
+ * The parser is a cursor: reset() points it at a message, nextType() reads the message type and the
+ * next methods each consume one field, ignoring surrounding whitespace. Ints, doubles and enums are
+ * parsed straight from the characters. Nothing throws on bad input, the first problem is recorded as an
+ * Error and every later read returns a default, so callers read all their fields and check ok() once.
+ *
+ * A parser is reusable but not thread safe, keep one per thread.
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public final class MessageParser {
+
+    /**
+     * Every text message type exchanged by the subsystems
+     */
+    public enum Type {
+        REGISTER_DRONE,
+        REGISTERED_DRONE,
+        FIRE_DETECTED,
+        ALL_EVENTS_DONE,
+        STATUS_UPDATE,
+        FLIGHT_PLAN,
+        DRONE_ARRIVE_TO_ZONE,
+        DRONE_RETURN_TO_BASE,
+        DRONE_READY,
+        DRONE_COMPLETE_EVENT,
+        HARD_FAULT,
+        DRONE_SHUTDOWN,
+        REQUEST_NEXT_MISSION,
+        REQUEUE_EVENT,
+        ASSIGN_EVENT,
+        RETURN_TO_BASE,
+        RETURN_CONFIRMED,
+        ALL_EVENTS_COMPLETE,
+        ACK,
+        REROUTE,
+        ABORT_AND_RETURN,
+        HOLD,
+        RESUME,
+        COMMAND_APPLIED,
+        COMMAND_REJECTED,
+        FAILOVER
+    }
+
+    /**
+     * Why a message could not be parsed
+     */
+    public enum Error {
+        NONE,
+        UNKNOWN_TYPE,
+        MISSING_FIELD,
+        BAD_NUMBER,
+        BAD_ENUM
+    }
+
+    private static final Type[] TYPES = Type.values();
+
+    // exact powers of ten, every one of them is representable as a double
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final AsciiView bytes = new AsciiView();
+    private CharSequence text;
+    private int pos;
+    private int end;
+    private Error error = Error.NONE;
+
+    /**
+     * Points the parser at a text message
+     * @param message the message
+     * @return this parser
+     */
+    public MessageParser reset(CharSequence message) {
+        return reset(message, 0);
+    }
+
+    /**
+     * Points the parser at a text message that starts part way into a string, after a prefix such as a
+     * request ID
+     * @param message the text holding the message
+     * @param start   index of the message's first character
+     * @return this parser
+     */
+    public MessageParser reset(CharSequence message, int start) {
+        text = message;
+        pos = start;
+        end = message.length();
+        error = Error.NONE;
+        return this;
+    }
+
+    /**
+     * Points the parser at an ASCII message held in a buffer, the buffer's position is not changed
+     * @param message the message between position and limit
+     * @return this parser
+     */
+    public MessageParser reset(ByteBuffer message) {
+        bytes.buffer = message;
+        bytes.offset = message.position();
+        bytes.length = message.remaining();
+        return reset(bytes);
+    }
+
+    /**
+     * Reads the message type, which is always the first field
+     * @return the type, or null with UNKNOWN_TYPE recorded
+     */
+    public Type nextType() {
+        Type type = nextEnum(TYPES);
+        if (type == null && error == Error.BAD_ENUM) {
+            error = Error.UNKNOWN_TYPE;
+        }
+        return type;
+    }
+
+    /**
+     * @return true if there is another non-blank field
+     */
+    public boolean hasNext() {
+        if (error != Error.NONE) {
+            return false;
+        }
+        for (int i = pos; i < end; i++) {
+            if (!Character.isWhitespace(text.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads an int field
+     * @return the value, or 0 if the field is missing or not an int
+     */
+    public int nextInt() {
+        if (!nextField()) {
+            return 0;
+        }
+        int i = fieldStart;
+        boolean negative = text.charAt(i) == '-';
+        if (negative || text.charAt(i) == '+') {
+            i++;
+        }
+        if (i == fieldEnd) {
+            return fail(Error.BAD_NUMBER);
+        }
+        long value = 0;
+        for (; i < fieldEnd; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return fail(Error.BAD_NUMBER);
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                return fail(Error.BAD_NUMBER);
+            }
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            return fail(Error.BAD_NUMBER);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Reads the next int field without moving past it. A malformed field is not recorded as an error,
+     * it is reported again when the field is actually read.
+     * @return the value, or 0 if the field is missing or not an int
+     */
+    public int peekInt() {
+        int savedPos = pos;
+        int value = nextInt();
+        pos = savedPos;
+        if (error != Error.NONE) {
+            error = Error.NONE;
+            return 0;
+        }
+        return value;
+    }
+
+    /**
+     * Reads a double field in the plain or exponent form written by Double.toString. Values with more
+     * than 15 significant digits fall back to Double.parseDouble so the result is always exact.
+     * @return the value, or 0 if the field is missing or not a number
+     */
+    public double nextDouble() {
+        if (!nextField()) {
+            return 0;
+        }
+        int i = fieldStart;
+        boolean negative = text.charAt(i) == '-';
+        if (negative || text.charAt(i) == '+') {
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;       // significant digits in the mantissa
+        int scale = 0;        // power of ten applied to the mantissa
+        boolean seenDigit = false;
+        boolean seenPoint = false;
+        for (; i < fieldEnd; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                seenDigit = true;
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (mantissa != 0) {
+                        digits++;
+                    }
+                    if (seenPoint) {
+                        scale--;
+                    }
+                } else {
+                    digits++;
+                    if (!seenPoint) {
+                        scale++;
+                    }
+                }
+            } else if (c == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                break;
+            }
+        }
+        if (!seenDigit) {
+            return fail(Error.BAD_NUMBER);
+        }
+
+        if (i < fieldEnd) {
+            char c = text.charAt(i);
+            if ((c != 'e' && c != 'E') || ++i == fieldEnd) {
+                return fail(Error.BAD_NUMBER);
+            }
+            boolean negativeExponent = text.charAt(i) == '-';
+            if (negativeExponent || text.charAt(i) == '+') {
+                i++;
+            }
+            if (i == fieldEnd) {
+                return fail(Error.BAD_NUMBER);
+            }
+            int exponent = 0;
+            for (; i < fieldEnd; i++) {
+                int digit = text.charAt(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    return fail(Error.BAD_NUMBER);
+                }
+                exponent = Math.min(exponent * 10 + digit, 1000);
+            }
+            scale += negativeExponent ? -exponent : exponent;
+        }
+
+        double value;
+        if (mantissa == 0) {
+            value = 0;
+        } else if (digits <= 15 && Math.abs(scale) < POWERS_OF_TEN.length) {
+            // both operands are exact, so the single multiply or divide rounds correctly
+            value = scale >= 0 ? mantissa * POWERS_OF_TEN[scale] : mantissa / POWERS_OF_TEN[-scale];
+        } else {
+            value = Double.parseDouble(text.subSequence(negative ? fieldStart + 1 : fieldStart, fieldEnd).toString());
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Reads an enum field by constant name
+     * @param values the enum's values()
+     * @return the matching constant, or null if the field is missing or matches none of them
+     */
+    public <E extends Enum<E>> E nextEnum(E[] values) {
+        if (!nextField()) {
+            return null;
+        }
+        for (E value : values) {
+            if (fieldEquals(value.name())) {
+                return value;
+            }
+        }
+        fail(Error.BAD_ENUM);
+        return null;
+    }
+
+    /**
+     * Reads an optional trailing enum field
+     * @param values       the enum's values()
+     * @param defaultValue returned when there are no more fields
+     * @return the matching constant, the default if absent, or null if present but unknown
+     */
+    public <E extends Enum<E>> E nextEnum(E[] values, E defaultValue) {
+        return hasNext() ? nextEnum(values) : defaultValue;
+    }
+
+    /**
+     * Reads an event time in HH:MM:SS form without turning it into a String
+     * @return seconds since midnight, or -1 if the field is missing or not a time of day
+     */
+    public int nextTimeOfDay() {
+        if (!nextField()) {
+            return -1;
+        }
+        if (fieldEnd - fieldStart != 8 || text.charAt(fieldStart + 2) != ':' || text.charAt(fieldStart + 5) != ':') {
+            fail(Error.BAD_NUMBER);
+            return -1;
+        }
+        int h = twoDigits(fieldStart);
+        int m = twoDigits(fieldStart + 3);
+        int s = twoDigits(fieldStart + 6);
+        if (h < 0 || h > 23 || m < 0 || m > 59 || s < 0 || s > 59) {
+            fail(Error.BAD_NUMBER);
+            return -1;
+        }
+        return h * 3600 + m * 60 + s;
+    }
+
+    /**
+     * Reads a field that has to be kept as text, such as an event time
+     * @return the trimmed field, or null if it is missing
+     */
+    public String nextString() {
+        if (!nextField()) {
+            return null;
+        }
+        return text.subSequence(fieldStart, fieldEnd).toString();
+    }
+
+    /**
+     * Reads a field and compares it to an expected value
+     * @param expected the expected text
+     * @return true if the field is present and equal to expected
+     */
+    public boolean nextEquals(CharSequence expected) {
+        if (!hasNext()) {
+            return false;
+        }
+        return nextField() && fieldEquals(expected);
+    }
+
+    /**
+     * @return true if nothing went wrong since the last reset
+     */
+    public boolean ok() {
+        return error == Error.NONE;
+    }
+
+    /**
+     * @return the first problem found since the last reset
+     */
+    public Error getError() {
+        return error;
+    }
+
+    // bounds of the field read by the last nextField(), trimmed
+    private int fieldStart;
+    private int fieldEnd;
+
+    /**
+     * Moves the cursor past the next field and records its trimmed bounds
+     * @return false if there is no such field or the field is blank
+     */
+    private boolean nextField() {
+        if (error != Error.NONE) {
+            return false;
+        }
+        if (pos > end) {
+            fail(Error.MISSING_FIELD);
+            return false;
+        }
+        int comma = pos;
+        while (comma < end && text.charAt(comma) != ',') {
+            comma++;
+        }
+        int start = pos;
+        int stop = comma;
+        while (start < stop && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (stop > start && Character.isWhitespace(text.charAt(stop - 1))) {
+            stop--;
+        }
+        pos = comma + 1;
+        if (start == stop) {
+            fail(Error.MISSING_FIELD);
+            return false;
+        }
+        fieldStart = start;
+        fieldEnd = stop;
+        return true;
+    }
+
+    /**
+     * @return true if the current field is exactly the given text
+     */
+    private boolean fieldEquals(CharSequence expected) {
+        int length = fieldEnd - fieldStart;
+        if (expected.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (text.charAt(fieldStart + i) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return value of two decimal digits at an index, or -1 if they are not digits
+     */
+    private int twoDigits(int index) {
+        char a = text.charAt(index);
+        char b = text.charAt(index + 1);
+        if (a < '0' || a > '9' || b < '0' || b > '9') {
+            return -1;
+        }
+        return (a - '0') * 10 + (b - '0');
+    }
+
+    /**
+     * Records the first error
+     * @return 0, for use as the failed value
+     */
+    private int fail(Error reason) {
+        if (error == Error.NONE) {
+            error = reason;
+        }
+        return 0;
+    }
+
+    /**
+     * Reusable character view over ASCII bytes in a buffer
+     */
+    private static final class AsciiView implements CharSequence {
+        private ByteBuffer buffer;
+        private int offset;
+        private int length;
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (buffer.get(offset + index) & 0xff);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            byte[] copy = new byte[end - start];
+            for (int i = 0; i < copy.length; i++) {
+                copy[i] = buffer.get(offset + start + i);
+            }
+            return new String(copy, StandardCharsets.ISO_8859_1);
+        }
+
+        @Override
+        public String toString() {
+            return subSequence(0, length).toString();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package subsystems;
+
+import model.Drone;
+import model.FireEvent;
+import model.Zone;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PreemptionPolicy decides whether a High severity fire that found every drone busy should take a drone
+ * off a less severe mission it is flying to.
+ *
+ * Without preemption the fire waits for the first busy drone that can get to it: a drone on its way to
+ * a mission flies there, drops its agent and flies on, refilling at base first if it would run short,
+ * and a drone without a mission flies home, refills and flies out. That earliest time is compared with
+ * the travel time of the closest drone that is flying to a less severe mission and carries enough agent
+ * for the fire. The drone is diverted only if it saves at least the minimum gain, since the mission it
+ * leaves waits in the queue again. Every time is worked out with Drone.computeTravelTime, in simulated
+ * seconds.
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class PreemptionPolicy {
+
+    /** Simulated seconds a diversion must save before a mission is displaced for it */
+    public static final double DEFAULT_MIN_GAIN_SECONDS = 30.0;
+
+    private final double minGainSeconds;
+
+    /**
+     * Constructs a policy that diverts a drone whenever it saves at least the default gain
+     */
+    public PreemptionPolicy() {
+        this(DEFAULT_MIN_GAIN_SECONDS);
+    }
+
+    /**
+     * Constructs a policy with the given minimum gain
+     * @param minGainSeconds simulated seconds a diversion must save, not negative
+     */
+    public PreemptionPolicy(double minGainSeconds) {
+        if (minGainSeconds < 0) {
+            throw new IllegalArgumentException("minGainSeconds must not be negative");
+        }
+        this.minGainSeconds = minGainSeconds;
+    }
+
+    /**
+     * Picks the drone to divert to a fire
+     * @param fire  the fire that is waiting for a drone
+     * @param busy  every busy drone, with its estimated position, agent, mission and state. EN_ROUTE
+     *              drones are flying to their mission and can be diverted, drones in any other state
+     *              only count towards how soon the fire would be reached without preemption
+     * @param zones zones by ID
+     * @return the drone to divert, or null if the fire is not High severity or no diversion saves enough
+     */
+    public Drone choose(FireEvent fire, List<Drone> busy, Map<Integer, Zone> zones) {
+        Zone fireZone = zones.get(fire.getZoneID());
+        if (fire.getSeverity() != FireEvent.Severity.High || fireZone == null) {
+            return null;
+        }
+        double waitWithout = Double.POSITIVE_INFINITY;
+        Drone best = null;
+        double bestDivert = Double.POSITIVE_INFINITY;
+        for (Drone drone : busy) {
+            waitWithout = Math.min(waitWithout, timeToReachAfterMission(drone, fire, fireZone, zones));
+
+            FireEvent mission = drone.getCurrentMission();
+            if (drone.getState() != Drone.DroneState.EN_ROUTE || mission == null
+                    || mission.getSeverity().ordinal() >= fire.getSeverity().ordinal()
+                    || drone.getAgentLevel() < drone.getRequiredVolume(fire)) {
+                continue;
+            }
+            double divert = drone.computeTravelTime(fireZone.getCenterX(), fireZone.getCenterY(), true);
+            if (divert < bestDivert) {
+                bestDivert = divert;
+                best = drone;
+            }
+        }
+        return best != null && waitWithout - bestDivert >= minGainSeconds ? best : null;
+    }
+
+    /**
+     * @param drone a busy drone
+     * @param fire  the waiting fire
+     * @param fireZone zone of the fire
+     * @param zones zones by ID
+     * @return simulated seconds until the drone could reach the fire if it finishes what it is doing first
+     */
+    public static double timeToReachAfterMission(Drone drone, FireEvent fire, Zone fireZone, Map<Integer, Zone> zones) {
+        FireEvent mission = drone.getCurrentMission();
+        Zone missionZone = mission == null ? null : zones.get(mission.getZoneID());
+        if (missionZone == null) {
+            // on its way home or refilling
+            return drone.computeTravelTime(0, 0, false) + Drone.REFILL_TIME + travelTime(0, 0, fireZone);
+        }
+        double time = drone.computeTravelTime(missionZone.getCenterX(), missionZone.getCenterY(), true)
+                + dropTime(drone, mission);
+        if (drone.getAgentLevel() - drone.getRequiredVolume(mission) >= drone.getRequiredVolume(fire)) {
+            return time + travelTime(missionZone.getCenterX(), missionZone.getCenterY(), fireZone);
+        }
+        Drone atZone = new Drone(drone.getId());
+        atZone.setLocation(missionZone.getCenterX(), missionZone.getCenterY());
+        return time + atZone.computeTravelTime(0, 0, false) + Drone.REFILL_TIME + travelTime(0, 0, fireZone);
+    }
+
+    /**
+     * @param drone   the drone
+     * @param mission its mission
+     * @return simulated seconds to open the nozzle doors, drop the agent for the mission and close them
+     */
+    private static double dropTime(Drone drone, FireEvent mission) {
+        return Drone.NOZZLE_DOORS * 2 + drone.getRequiredVolume(mission) / Drone.DROP_RATE;
+    }
+
+    /**
+     * @param x    start x coordinate
+     * @param y    start y coordinate
+     * @param zone destination zone
+     * @return simulated seconds a loaded drone takes from the start to the zone center
+     */
+    private static double travelTime(double x, double y, Zone zone) {
+        Drone drone = new Drone(0);
+        drone.setLocation(x, y);
+        return drone.computeTravelTime(zone.getCenterX(), zone.getCenterY(), true);
+    }
+}
@@ -0,0 +1,224 @@
+package subsystems;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * ReliableLink makes the control messages between the Scheduler and one drone survive lost datagrams.
+ * Each side keeps one link per peer.
+ *
+ * A reliable message travels as a frame: FRAME_PREFIX, a sequence number, a comma and the text message.
+ * The receiver answers every frame, including repeats, with ACK and the sequence number, and only hands
+ * a sequence number to the application the first time it arrives. The sender keeps every frame until it
+ * is acknowledged and sends it again when its retransmit timer runs out, doubling the timeout each time
+ * up to MAX_TIMEOUT_MILLIS, and gives up after MAX_ATTEMPTS sends.
+ *
+ * Frames are always text. Telemetry keeps using plain, unreliable messages in either wire format, a
+ * lost report is replaced by the next one anyway. Both sides offer CAPABILITY at registration and only
+ * frame messages if the other side offered it too. Sequence numbers start at 1 again when a drone
+ * registers.
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public final class ReliableLink {
+
+    /** Token added to REGISTER_DRONE and REGISTERED_DRONE to negotiate reliable control messages */
+    public static final String CAPABILITY = "REL1";
+    /** First character of a reliable frame */
+    public static final char FRAME_PREFIX = '#';
+    /** Message type of an acknowledgement */
+    public static final String ACK = "ACK";
+    /** Retransmit timeout of the first send */
+    public static final long INITIAL_TIMEOUT_MILLIS = 250;
+    /** Longest retransmit timeout */
+    public static final long MAX_TIMEOUT_MILLIS = 4000;
+    /** Sends of one frame, the first included, before the link gives up on it */
+    public static final int MAX_ATTEMPTS = 8;
+
+    /**
+     * Sends a frame again
+     */
+    public interface Resender {
+        /**
+         * @param frame the frame
+         */
+        void resend(String frame);
+    }
+
+    /**
+     * A frame waiting to be acknowledged
+     */
+    private static final class Pending {
+        final String frame;
+        int attempts = 1;
+        long timeout = INITIAL_TIMEOUT_MILLIS;
+        long due;
+
+        Pending(String frame, long due) {
+            this.frame = frame;
+            this.due = due;
+        }
+    }
+
+    private long nextSequence = 1;
+    private final Map<Long, Pending> unacknowledged = new TreeMap<>();
+    private long receivedThrough = 0;            // every sequence number up to here has arrived
+    private final TreeSet<Long> receivedAhead = new TreeSet<>();
+
+    private long retransmissions = 0;
+    private long duplicates = 0;
+    private long abandoned = 0;
+
+    /**
+     * Numbers a control message and keeps it until it is acknowledged
+     * @param message the text message
+     * @param now     current clock time in milliseconds
+     * @return the frame to send
+     */
+    public synchronized String frame(String message, long now) {
+        long sequence = nextSequence++;
+        String frame = FRAME_PREFIX + (sequence + "," + message);
+        unacknowledged.put(sequence, new Pending(frame, now + INITIAL_TIMEOUT_MILLIS));
+        return frame;
+    }
+
+    /**
+     * Stops retransmitting an acknowledged frame
+     * @param sequence the acknowledged sequence number
+     * @return false if the frame was already acknowledged or abandoned
+     */
+    public synchronized boolean acknowledge(long sequence) {
+        return unacknowledged.remove(sequence) != null;
+    }
+
+    /**
+     * Records a received frame
+     * @param sequence its sequence number
+     * @return true the first time the sequence number arrives, false for a repeat
+     */
+    public synchronized boolean accept(long sequence) {
+        if (sequence <= receivedThrough || !receivedAhead.add(sequence)) {
+            duplicates++;
+            return false;
+        }
+        while (receivedAhead.remove(receivedThrough + 1)) {
+            receivedThrough++;
+        }
+        return true;
+    }
+
+    /**
+     * Sends every frame whose retransmit timer ran out again, and drops those that ran out of attempts
+     * @param now      current clock time in milliseconds
+     * @param resender sends a frame again
+     */
+    public void retransmitDue(long now, Resender resender) {
+        List<String> due = null;
+        synchronized (this) {
+            for (Iterator<Pending> it = unacknowledged.values().iterator(); it.hasNext(); ) {
+                Pending pending = it.next();
+                if (pending.due > now) {
+                    continue;
+                }
+                if (pending.attempts >= MAX_ATTEMPTS) {
+                    it.remove();
+                    abandoned++;
+                    continue;
+                }
+                pending.attempts++;
+                pending.timeout = Math.min(pending.timeout * 2, MAX_TIMEOUT_MILLIS);
+                pending.due = now + pending.timeout;
+                retransmissions++;
+                if (due == null) {
+                    due = new ArrayList<>(2);
+                }
+                due.add(pending.frame);
+            }
+        }
+        if (due != null) {
+            // send outside the lock, a send may block on a full transport
+            for (String frame : due) {
+                resender.resend(frame);
+            }
+        }
+    }
+
+    /**
+     * @return clock time of the next retransmission, or Long.MAX_VALUE if nothing is waiting for an ack
+     */
+    public synchronized long nextDue() {
+        long next = Long.MAX_VALUE;
+        for (Pending pending : unacknowledged.values()) {
+            next = Math.min(next, pending.due);
+        }
+        return next;
+    }
+
+    /**
+     * @return number of frames waiting to be acknowledged
+     */
+    public synchronized int getUnacknowledgedCount() {
+        return unacknowledged.size();
+    }
+
+    /**
+     * @return number of frames sent again
+     */
+    public synchronized long getRetransmissionCount() {
+        return retransmissions;
+    }
+
+    /**
+     * @return number of repeated frames that were not handed to the application
+     */
+    public synchronized long getDuplicateCount() {
+        return duplicates;
+    }
+
+    /**
+     * @return number of frames given up on after MAX_ATTEMPTS sends
+     */
+    public synchronized long getAbandonedCount() {
+        return abandoned;
+    }
+
+    /**
+     * @param message a received message
+     * @return true if the message is a reliable frame
+     */
+    public static boolean isFrame(CharSequence message) {
+        return message.length() > 0 && message.charAt(0) == FRAME_PREFIX;
+    }
+
+    /**
+     * @param frame a reliable frame
+     * @return its sequence number, or -1 if the frame is malformed
+     */
+    public static long sequenceOf(CharSequence frame) {
+        long sequence = 0;
+        int i = 1;
+        for (; i < frame.length() && i < 19; i++) {
+            char c = frame.charAt(i);
+            if (c == ',') {
+                break;
+            }
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            sequence = sequence * 10 + (c - '0');
+        }
+        return i > 1 && i < frame.length() && frame.charAt(i) == ',' ? sequence : -1;
+    }
+
+    /**
+     * @param frame a well formed reliable frame
+     * @return the message it carries
+     */
+    public static String payloadOf(String frame) {
+        return frame.substring(frame.indexOf(',') + 1);
+    }
+}
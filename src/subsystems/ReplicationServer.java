@@ -0,0 +1,288 @@
+package subsystems;
+
+import model.FireEvent;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * ReplicationServer streams a primary Scheduler's state changes to a standby SchedulerReplica over TCP,
+ * so the standby can take over with the same queue when the primary is lost.
+ *
+ * A standby that connects first receives a snapshot of the state, taken while the Scheduler holds its
+ * lock, followed by the address of every registered drone. After that every state change the Scheduler
+ * would write to its journal is sent as a record in the journal's own encoding, numbered from the
+ * snapshot on, along with the address of each drone that registers. When there is nothing to send a
+ * heartbeat goes out every HEARTBEAT_MILLIS, which is how the standby tells a quiet primary from a lost
+ * one.
+ *
+ * Publishing only encodes the change and queues it, a sender thread writes the frames, so a slow
+ * standby never holds up the Scheduler. A standby that falls MAX_BACKLOG frames behind is disconnected
+ * and starts over from a new snapshot. One standby is served at a time, a new connection replaces the
+ * old one.
+ *
+ * Every frame is a type byte, the payload length and the payload.
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public final class ReplicationServer implements AutoCloseable {
+
+    /** Time between heartbeats while there is nothing else to send */
+    public static final long HEARTBEAT_MILLIS = 100;
+    /** Frames queued for the standby before it is considered too slow and disconnected */
+    public static final int MAX_BACKLOG = 100_000;
+
+    /** Frame holding the replication sequence number of the snapshot and the snapshot's state */
+    static final byte SNAPSHOT = 'S';
+    /** Frame holding a sequence number and a journal record payload */
+    static final byte RECORD = 'R';
+    /** Frame holding a drone ID, its address, UDP port and whether it shares its socket */
+    static final byte DRONE = 'D';
+    /** Frame without a payload, sent while the primary has nothing else to send */
+    static final byte HEARTBEAT = 'H';
+
+    private final Scheduler scheduler;
+    private final ServerSocket server;
+    private final Thread acceptor;
+    private final ByteBuffer scratch = ByteBuffer.allocate(SchedulerJournal.MAX_PAYLOAD + 16);
+    private volatile boolean running = true;
+
+    // guarded by this
+    private long sequence = 0;
+    private Socket standby;
+    private final ArrayDeque<byte[]> backlog = new ArrayDeque<>();
+    private long framesSent = 0;
+
+    /**
+     * Listens for a standby and starts the thread that accepts it
+     * @param scheduler the primary Scheduler
+     * @param port      TCP port to listen on, 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    ReplicationServer(Scheduler scheduler, int port) throws IOException {
+        this.scheduler = scheduler;
+        this.server = new ServerSocket();
+        server.setReuseAddress(true);
+        server.bind(new InetSocketAddress(port));
+        acceptor = new Thread(this::acceptLoop, "Replication-" + server.getLocalPort());
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * @return TCP port the server listens on
+     */
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * @return sequence number of the last state change published
+     */
+    public synchronized long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return true if a standby is connected
+     */
+    public synchronized boolean hasStandby() {
+        return standby != null;
+    }
+
+    /**
+     * @return frames written to standbys so far, heartbeats included
+     */
+    public synchronized long getFramesSent() {
+        return framesSent;
+    }
+
+    /**
+     * Queues a state change for the standby, called by the Scheduler with its lock held
+     * @param op      the state change
+     * @param droneID id of the drone, 0 if the change is not about one drone
+     * @param event   the fire event, or null
+     * @param fault   the drone's fault
+     */
+    synchronized void publish(SchedulerJournal.Op op, int droneID, FireEvent event, Scheduler.FaultType fault) {
+        sequence++;
+        if (standby == null) {
+            return;
+        }
+        ByteBuffer out = scratch.clear();
+        out.put(RECORD).putInt(0).putLong(sequence);
+        SchedulerJournal.encode(out, op, droneID, event, fault);
+        enqueue(out);
+    }
+
+    /**
+     * Queues the address of a drone for the standby, which tells the drones it took over
+     * @param droneID     id of the drone
+     * @param address     address of the drone
+     * @param port        UDP port of the drone
+     * @param multiplexed true if the drone shares its socket with other drones
+     */
+    synchronized void publishDrone(int droneID, InetAddress address, int port, boolean multiplexed) {
+        if (standby == null) {
+            return;
+        }
+        byte[] host = address.getAddress();
+        ByteBuffer out = scratch.clear();
+        out.put(DRONE).putInt(0).putInt(droneID).put((byte) host.length).put(host).putInt(port).put((byte) (multiplexed ? 1 : 0));
+        enqueue(out);
+    }
+
+    /**
+     * Starts streaming to a standby from a snapshot, called by the Scheduler with its lock held so that
+     * no state change falls between the snapshot and the first record
+     * @param socket   connection to the standby
+     * @param snapshot state of the Scheduler, its LSN is replaced by the replication sequence number
+     */
+    synchronized void attach(Socket socket, SchedulerSnapshot snapshot) {
+        disconnect();
+        standby = socket;
+        byte[] state = new byte[snapshot.getSize()];
+        try {
+            snapshot.open().readFully(state);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // reading a byte array does not fail
+        }
+        ByteBuffer frame = ByteBuffer.allocate(13 + state.length);
+        frame.put(SNAPSHOT).putInt(8 + state.length).putLong(sequence).put(state);
+        backlog.add(frame.array());
+        notifyAll();
+        Thread sender = new Thread(() -> sendLoop(socket), "Replication-Sender");
+        sender.setDaemon(true);
+        sender.start();
+    }
+
+    /**
+     * Stops listening and disconnects the standby without telling it, to the standby this looks the same
+     * as the primary being lost
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            server.close();
+        } catch (IOException e) {
+            // already closed
+        }
+        synchronized (this) {
+            disconnect();
+        }
+    }
+
+    /**
+     * Accepts standbys until the server is closed
+     */
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = server.accept();
+                socket.setTcpNoDelay(true);
+                System.out.println("[Replication] Standby connected from " + socket.getRemoteSocketAddress());
+                scheduler.attachStandby(this, socket);
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("[Replication] Accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes queued frames to one standby, and heartbeats while there are none, until it is disconnected
+     * @param socket connection to the standby
+     */
+    private void sendLoop(Socket socket) {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 64 * 1024))) {
+            while (true) {
+                byte[] frame;
+                synchronized (this) {
+                    if (standby != socket) {
+                        return;
+                    }
+                    frame = backlog.poll();
+                    if (frame != null) {
+                        framesSent++;
+                    }
+                }
+                if (frame != null) {
+                    out.write(frame);
+                    continue;
+                }
+                out.flush(); // the socket is only written without the lock, publish never waits for it
+                boolean idle;
+                synchronized (this) {
+                    if (backlog.isEmpty()) {
+                        wait(HEARTBEAT_MILLIS);
+                    }
+                    if (standby != socket) {
+                        return;
+                    }
+                    idle = backlog.isEmpty();
+                    if (idle) {
+                        framesSent++;
+                    }
+                }
+                if (idle) {
+                    out.writeByte(HEARTBEAT);
+                    out.writeInt(0);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("[Replication] Standby lost: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            synchronized (this) {
+                if (standby == socket) {
+                    disconnect();
+                }
+            }
+        }
+    }
+
+    /**
+     * Queues the frame held in the scratch buffer, disconnecting the standby if it fell too far behind
+     * @param out the scratch buffer, positioned after the frame
+     */
+    private void enqueue(ByteBuffer out) {
+        out.putInt(1, out.position() - 5);
+        if (backlog.size() >= MAX_BACKLOG) {
+            System.err.println("[Replication] Standby fell " + MAX_BACKLOG + " frames behind, disconnecting it");
+            disconnect();
+            return;
+        }
+        backlog.add(Arrays.copyOf(out.array(), out.position()));
+        if (backlog.size() == 1) {
+            notifyAll();
+        }
+    }
+
+    /**
+     * Drops the standby and its backlog, called with this lock held
+     */
+    private void disconnect() {
+        if (standby == null) {
+            return;
+        }
+        try {
+            standby.close();
+        } catch (IOException e) {
+            // already closed
+        }
+        standby = null;
+        backlog.clear();
+        notifyAll();
+    }
+}
@@ -0,0 +1,199 @@
+package subsystems;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * RequestCorrelator matches the Scheduler's replies to the requests a drone has in flight, so a drone can
+ * have several requests outstanding and a stray message no longer answers the wrong one.
+ *
+ * Each request that expects a reply gets an ID and travels as REQUEST_PREFIX, the ID, a comma and the
+ * message. The Scheduler prefixes its reply with REPLY_PREFIX and the same ID, and complete() hands the
+ * reply to the future of that request. Every request has its own deadline, and expire() fails the
+ * future of a request whose deadline passed with a TimeoutException.
+ *
+ * Both sides offer CAPABILITY at registration. Until the Scheduler accepts it replies carry no ID, and
+ * each reply answers the oldest pending request, as the protocol did before. A correlator belongs to
+ * one drone and is used by its thread only.
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public final class RequestCorrelator {
+
+    /** Token added to REGISTER_DRONE and REGISTERED_DRONE to negotiate request IDs */
+    public static final String CAPABILITY = "RPC1";
+    /** First character of a request that carries an ID */
+    public static final char REQUEST_PREFIX = '?';
+    /** First character of a reply that carries the ID of its request */
+    public static final char REPLY_PREFIX = '=';
+
+    /**
+     * A request waiting for its reply
+     */
+    private static final class Call {
+        final CompletableFuture<String> reply = new CompletableFuture<>();
+        final long deadline;
+
+        Call(long deadline) {
+            this.deadline = deadline;
+        }
+    }
+
+    private final Map<Integer, Call> pending = new LinkedHashMap<>(); // oldest first
+    private boolean correlated = false;
+    private int nextRequestID = 1;
+
+    private long strayMessages = 0;
+    private long timedOut = 0;
+
+    /**
+     * Registers a request that expects a reply
+     * @param deadline clock time the reply must arrive by, Long.MAX_VALUE to wait for as long as it takes
+     * @return the request ID, pass it to tag() and reply()
+     */
+    public int begin(long deadline) {
+        int requestID = nextRequestID++;
+        if (nextRequestID <= 0) {
+            nextRequestID = 1; // IDs stay positive, 0 means no request
+        }
+        pending.put(requestID, new Call(deadline));
+        return requestID;
+    }
+
+    /**
+     * @param requestID a pending request
+     * @return the future completed with the reply, or failed with a TimeoutException at its deadline
+     */
+    public CompletableFuture<String> reply(int requestID) {
+        Call call = pending.get(requestID);
+        return call == null ? CompletableFuture.failedFuture(new IllegalStateException("No request " + requestID)) : call.reply;
+    }
+
+    /**
+     * @param requestID the request ID
+     * @param message   the request
+     * @return the request as it is sent, with its ID if the Scheduler accepted request IDs
+     */
+    public String tag(int requestID, String message) {
+        return correlated ? REQUEST_PREFIX + (requestID + "," + message) : message;
+    }
+
+    /**
+     * Hands a message from the Scheduler to the request it answers
+     * @param message the message, with its reply ID if it has one
+     * @return false if the message answers no pending request
+     */
+    public boolean complete(String message) {
+        Call call;
+        if (message.length() > 0 && message.charAt(0) == REPLY_PREFIX) {
+            long requestID = idOf(message);
+            call = requestID < 0 ? null : pending.remove((int) requestID);
+            message = call == null ? message : payloadOf(message);
+        } else if (!correlated && !pending.isEmpty()) {
+            Iterator<Call> oldest = pending.values().iterator();
+            call = oldest.next();
+            oldest.remove();
+        } else {
+            call = null;
+        }
+        if (call == null) {
+            strayMessages++;
+            return false;
+        }
+        call.reply.complete(message);
+        return true;
+    }
+
+    /**
+     * Fails every request whose deadline has passed
+     * @param now current clock time in milliseconds
+     */
+    public void expire(long now) {
+        for (Iterator<Map.Entry<Integer, Call>> it = pending.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Integer, Call> entry = it.next();
+            if (entry.getValue().deadline <= now) {
+                it.remove();
+                timedOut++;
+                entry.getValue().reply.completeExceptionally(new TimeoutException("No reply to request " + entry.getKey()));
+            }
+        }
+    }
+
+    /**
+     * Fails every pending request, used when the drone stops or its transport fails
+     * @param cause why the requests failed
+     */
+    public void failAll(Throwable cause) {
+        for (Call call : pending.values()) {
+            call.reply.completeExceptionally(cause);
+        }
+        pending.clear();
+    }
+
+    /**
+     * @return the earliest deadline of a pending request, or Long.MAX_VALUE if none has one
+     */
+    public long nextDeadline() {
+        long next = Long.MAX_VALUE;
+        for (Call call : pending.values()) {
+            next = Math.min(next, call.deadline);
+        }
+        return next;
+    }
+
+    /**
+     * Sets whether the Scheduler accepted request IDs at registration
+     * @param correlated true to send request IDs and expect them on replies
+     */
+    public void setCorrelated(boolean correlated) {
+        this.correlated = correlated;
+    }
+
+    /**
+     * @return true if requests and replies carry request IDs
+     */
+    public boolean isCorrelated() {
+        return correlated;
+    }
+
+    /**
+     * @param message a request or reply that carries an ID
+     * @return the ID, or -1 if the message is malformed
+     */
+    public static long idOf(String message) {
+        long requestID = ReliableLink.sequenceOf(message); // same layout as a frame, a prefix, digits and a comma
+        return requestID <= Integer.MAX_VALUE ? requestID : -1;
+    }
+
+    /**
+     * @param message a well formed request or reply that carries an ID
+     * @return the message without its ID
+     */
+    public static String payloadOf(String message) {
+        return message.substring(message.indexOf(',') + 1);
+    }
+
+    /**
+     * @return number of requests waiting for their reply
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * @return number of messages that answered no pending request
+     */
+    public long getStrayMessageCount() {
+        return strayMessages;
+    }
+
+    /**
+     * @return number of requests whose deadline passed without a reply
+     */
+    public long getTimedOutCount() {
+        return timedOut;
+    }
+}
@@ -10,11 +10,27 @@ import java.io.IOException;
 import java.net.DatagramPacket;
 import java.net.DatagramSocket;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
 import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
 
 /**
  * Scheduler class communicates and synchronizes the FireIncidentSubsystem and the DroneSubsystem.
@@ -33,14 +49,40 @@ public class Scheduler implements Runnable {
         DRONE_ACTIVE
     }
 
+    /**
+     * How the scheduler picks which drone services a queued event
+     */
+    public enum DispatchMode {
+        FIRST_READY,   // the next event goes to whichever drone asks first
+        NEAREST_DRONE, // the next event goes to the waiting drone with the lowest ETA to the zone
+        BATCH_OPTIMAL  // events and waiting drones are batched and matched for the lowest total ETA
+    }
+
     /**
      * Possibly fault conditions a drone may report
      */
     public enum FaultType {
-        NONE,
-        COMMUNICATION_LOST,
-        NOZZLE_JAMMED,
-        STUCK_IN_FLIGHT
+        NONE(0),
+        COMMUNICATION_LOST(1),
+        NOZZLE_JAMMED(2),
+        STUCK_IN_FLIGHT(3);
+
+        /** Byte the fault is encoded as, fixed so reordering the constants keeps the encoding */
+        public final byte code;
+
+        FaultType(int code) {
+            this.code = (byte) code;
+        }
+
+        private static final FaultType[] BY_CODE = EnumCodes.byCode(values(), c -> c.code);
+
+        /**
+         * @param code an encoded code
+         * @return the constant with the code, or null if there is none
+         */
+        public static FaultType fromCode(int code) {
+            return EnumCodes.lookup(BY_CODE, code);
+        }
     }
 
     /**
@@ -48,17 +90,31 @@ public class Scheduler implements Runnable {
      */
     public static class DroneStatus {
         public int droneID;
-        public double currentX;
-        public double currentY;
-        public double agentRemaining;
-        public FaultType currentFault;
-        public FireEvent currentMission;
+        // telemetry fields are written by ingest workers without holding the Scheduler lock
+        public volatile double currentX;
+        public volatile double currentY;
+        public volatile double agentRemaining;
+        public volatile FaultType currentFault;
+        public volatile FireEvent currentMission;
         public long expectedArrivalTime = 0; // Timer threshold for STUCK_IN_FLIGHT detection
 
         public InetAddress address;
         public int port;
+        // address and port together, kept so that sending to the drone does not build one per message
+        public volatile InetSocketAddress socketAddress;
 
-        public boolean waitingForEvent;
+        public volatile boolean waitingForEvent;
+
+        // requests the drone sent with an ID and has not had a reply to, oldest first, guarded by the Scheduler lock
+        final ArrayDeque<PendingRequest> pendingRequests = new ArrayDeque<>(MAX_PENDING_REQUESTS);
+
+        // set while the drone flies on a reported flight plan, its position is extrapolated from it
+        public volatile FlightPlan flightPlan;
+
+        // command sent to the drone that it has not reported as applied or rejected yet
+        public volatile MessageParser.Type pendingCommand;
+        // mission a pending REROUTE or ABORT_AND_RETURN takes the drone off, queued again once it is applied
+        public volatile FireEvent displacedMission;
 
         /**
          * Constructs a new DroneStatus with default values
@@ -77,30 +133,234 @@ public class Scheduler implements Runnable {
 
             this.waitingForEvent = false;
         }
+
+        /**
+         * Records where the drone is reached
+         * @param address the ip address of the drone
+         * @param port    the UDP port of the drone
+         */
+        public void setAddress(InetAddress address, int port) {
+            InetSocketAddress current = socketAddress;
+            if (current == null || current.getPort() != port || !current.getAddress().equals(address)) {
+                socketAddress = new InetSocketAddress(address, port);
+            }
+            this.address = address;
+            this.port = port;
+        }
+    }
+
+    /**
+     * A request a drone sent with an ID, waiting for the reply that will carry the ID back
+     */
+    static final class PendingRequest {
+        final MessageParser.Type type;
+        final int requestID;
+
+        PendingRequest(MessageParser.Type type, int requestID) {
+            this.type = type;
+            this.requestID = requestID;
+        }
     }
 
+    // a drone waits for one reply at a time, a few more cover a retry that crossed a late reply
+    private static final int MAX_PENDING_REQUESTS = 4;
+
     private State currentState = State.WAITING;
 
-    // fire events to be completed
-    private final Queue<FireEvent> incompleteEvents = new LinkedList<>();
+    // guards the queues, the dispatch pool and the drones' missions, telemetry is applied without it
+    private final MeasuredLock lock = new MeasuredLock();
+    // only the state machine waits here, for the queue or the number of active drones to change
+    private final Condition stateChange = lock.newCondition();
+    // callers of getNextFireEvent wait here, one is woken per queued event
+    private final Condition eventAvailable = lock.newCondition();
+    // callers of getCompletedEvent wait here, one is woken per completed event
+    private final Condition completionAvailable = lock.newCondition();
+
+    // fire events to be completed, ordered by severity, age and re-queue boost
+    private final FireEventQueue incompleteEvents;
     // completed fire events
     private final Queue<FireEvent> completeEvents = new LinkedList<>();
 
     // Track statuses of all drones
-    private final Map<Integer, DroneStatus> droneStatuses = new HashMap<>();
+    private final Map<Integer, DroneStatus> droneStatuses = new ConcurrentHashMap<>();
     private boolean allEventsDone = false;
     private int activeDroneCount = 0; // Tracks how many drones are currently active
 
+    // Positions of drones waiting for an assignment, used for nearest drone dispatch
+    private final DroneSpatialIndex availableDrones = new DroneSpatialIndex();
+    // waiting drones that reported a new position, moved in the index on the next dispatch so that telemetry
+    // never takes the Scheduler lock
+    private final Set<Integer> movedWhileWaiting = ConcurrentHashMap.newKeySet();
+    private DispatchMode dispatchMode = DispatchMode.NEAREST_DRONE;
+
+    // BATCH_OPTIMAL collects ready drones and events for this long before matching them
+    private long batchWindowMillis = 200;
+    private boolean batchPending = false;
+    // closes the batch window, one timer thread reused for every window
+    private final DeadlineTimer batchTimer;
+    private static final int BATCH_WINDOW_KEY = 0;
+
+    // STUCK_IN_FLIGHT arrival deadlines keyed by drone ID, armed on assignment and cancelled on arrival
+    private final DeadlineTimer arrivalTimer;
+
+    // A High fire that finds every drone busy may take a drone off a less severe mission, null to only queue it
+    private PreemptionPolicy preemptionPolicy = new PreemptionPolicy();
+    private long preemptions = 0;
+
+    // write-ahead log of state changes, replayed at startup to recover from a crash, null if not kept
+    private SchedulerJournal journal;
+    // snapshots the state every so many journal records and rebuilds it from a snapshot and the records after it
+    private final SchedulerPersistence persistence = new SchedulerPersistence(new PersistentState());
+    // the recovery a standby applies the primary's stream to, null until it receives a snapshot
+    private SchedulerPersistence.Recovery replicaRecovery;
+    // streams every state change to a standby Scheduler, null if there is none
+    private ReplicationServer replication;
+    // drones told to register again after this Scheduler took over from a lost primary, until they do
+    private final Set<Integer> failoverPending = new HashSet<>();
+    // runs after every ASSIGN_EVENT sent, used to time a takeover
+    private volatile Runnable assignmentListener;
+    // cluster this Scheduler is a shard of, it routes reported fires to the shard owning their zone, null if none
+    private volatile SchedulerCluster cluster;
+
     private final Map<Integer, Zone> zones = new HashMap<>();
     private final DroneSwarmMonitor monitor;
 
     // UDP
     public int schedulerPort = 6000;
-    private DatagramSocket socket;
-    private boolean udpRunning = true;
+    // assigned on the server thread and closed by shutdown() on any thread
+    private volatile DatagramSocket socket;
+    private volatile boolean udpRunning = true;
+    private int ingestWorkers = Runtime.getRuntime().availableProcessors();
+    private volatile UDPIngestPipeline ingest;
+
+    // optional NIO transport, receives and sends through pooled direct buffers
+    private boolean nioTransport = false;
+    private volatile DatagramChannel channel;
+    private final ByteBufferPool receiveBuffers = new ByteBufferPool(UDPIngestPipeline.MAX_PACKET_SIZE, 256);
+    private final ByteBufferPool sendBuffers = new ByteBufferPool(UDPIngestPipeline.MAX_PACKET_SIZE, 32);
+
+    // drones that negotiated the binary WireCodec format at registration
+    private boolean binaryWire = true;
+    private final Set<InetSocketAddress> binaryPeers = ConcurrentHashMap.newKeySet();
+
+    // sockets shared by many drones, every reply sent to one is addressed to its drone
+    private final Set<InetSocketAddress> multiplexedPeers = ConcurrentHashMap.newKeySet();
+
+    // drones that negotiated reliable control messages, their replies are acknowledged and retransmitted
+    private final Map<Integer, ReliableLink> reliableLinks = new ConcurrentHashMap<>();
+    private final DeadlineTimer retransmitTimer; // keyed by drone ID
+    private static final ThreadLocal<WireCodec.Message> DECODED = ThreadLocal.withInitial(WireCodec.Message::new);
+
+    // text messages are parsed in place, one parser per ingest worker
+    private static final ThreadLocal<MessageParser> PARSER = ThreadLocal.withInitial(MessageParser::new);
+    private final AtomicLong rejectedMessages = new AtomicLong();
+    private static final Drone.DroneState[] DRONE_STATES = Drone.DroneState.values();
+    private static final FireEvent.Severity[] SEVERITIES = FireEvent.Severity.values();
+    private static final FireEvent.FaultType[] EVENT_FAULTS = FireEvent.FaultType.values();
+    private static final FaultType[] DRONE_FAULTS = FaultType.values();
+    private static final MessageParser.Type[] MESSAGE_TYPES = MessageParser.Type.values();
+
+    // newest STATUS_UPDATE per drone, applied once per tick
+    private long telemetryTickMillis = 50;
+    private final TelemetryCoalescer telemetry;
 
     // metrics
-    private final MetricsTracker metrics = new MetricsTracker();
+    private final MetricsTracker metrics;
+
+    // time source for timestamps, deadlines and timers
+    private final Clock clock;
+
+    // replies go here instead of the socket when messages are delivered in process
+    private volatile ReplyListener replyListener;
+
+    // peers reached through another transport than the UDP socket, such as a shared memory ring
+    private final Map<InetSocketAddress, Route> routes = new ConcurrentHashMap<>();
+
+    /**
+     * Receives the replies the Scheduler would otherwise send over UDP, such as an InMemoryTransport
+     */
+    public interface ReplyListener {
+        /**
+         * @param message the reply
+         * @param address the ip address of the recipient
+         * @param port    the UDP port of the recipient
+         */
+        void reply(String message, InetAddress address, int port);
+    }
+
+    /**
+     * Carries encoded replies to a peer that is not reached over the UDP socket
+     */
+    public interface Route {
+        /**
+         * @param message the encoded reply between position and limit, only valid during the call
+         * @throws IOException if the reply cannot be sent
+         */
+        void send(ByteBuffer message) throws IOException;
+    }
+
+    /**
+     * A queued fire handed to another shard of a SchedulerCluster, with the waiting credit it had here
+     */
+    static final class Loan {
+        final FireEvent event;
+        final long creditMillis; // boost plus age, so the event keeps its place in the other shard's queue
+
+        Loan(FireEvent event, long creditMillis) {
+            this.event = event;
+            this.creditMillis = creditMillis;
+        }
+    }
+
+    /**
+     * The state SchedulerPersistence snapshots and rebuilds, only touched while holding the lock
+     */
+    private final class PersistentState implements SchedulerPersistence.State {
+        @Override
+        public FireEventQueue getQueue() {
+            return incompleteEvents;
+        }
+
+        @Override
+        public Collection<FireEvent> getCompleted() {
+            return completeEvents;
+        }
+
+        @Override
+        public Map<Integer, DroneStatus> getDrones() {
+            return droneStatuses;
+        }
+
+        @Override
+        public MetricsTracker getMetrics() {
+            return metrics;
+        }
+
+        @Override
+        public long now() {
+            return clock.millis();
+        }
+
+        @Override
+        public boolean isAllEventsDone() {
+            return allEventsDone;
+        }
+
+        @Override
+        public void setAllEventsDone(boolean done) {
+            allEventsDone = done;
+        }
+
+        @Override
+        public int getActiveDroneCount() {
+            return activeDroneCount;
+        }
+
+        @Override
+        public void setActiveDroneCount(int count) {
+            activeDroneCount = count;
+        }
+    }
 
     /**
      * Constructs a Scheduler with provided zone CSV file path
@@ -116,7 +376,25 @@ public class Scheduler implements Runnable {
      * @param monitor monitor for simulation
      */
     public Scheduler(String zoneFilePath, DroneSwarmMonitor monitor) {
+        this(zoneFilePath, monitor, Clock.SYSTEM);
+    }
+
+    /**
+     * Constructs a Scheduler that keeps time on the given clock
+     * @param zoneFilePath path for CSV file containing zones
+     * @param monitor monitor for simulation, or null
+     * @param clock time source for timestamps, deadlines and timers
+     */
+    public Scheduler(String zoneFilePath, DroneSwarmMonitor monitor, Clock clock) {
         this.monitor = monitor;
+        this.clock = clock;
+        incompleteEvents = new FireEventQueue(clock::millis);
+        arrivalTimer = new DeadlineTimer("Scheduler-Arrival", this::arrivalDeadlineExpired, clock);
+        retransmitTimer = new DeadlineTimer("Scheduler-Retransmit", this::retransmitDue, clock);
+        batchTimer = new DeadlineTimer("Scheduler-Batch", (key, deadline) -> closeBatchWindow(), clock);
+        telemetry = new TelemetryCoalescer(this::applyStatusUpdate, clock);
+        metrics = new MetricsTracker(clock);
+        telemetry.setTickListener(this::refreshFlightPositions);
         loadZonesCSV(zoneFilePath);
     }
 
@@ -133,12 +411,55 @@ public class Scheduler implements Runnable {
 
     /**
      * Starts the scheduler as separate process
-     * @param args command line arguments
+     * @param args ring files shared with drone processes on this host, if any
      */
     public static void main(String[] args) {
         String zonesFilePath = "Final_zone_file_w26.csv";
+        // -Dscheduler.standby=<host>:<port> follows the primary replicating to that port and takes over
+        // on UDP port -Dscheduler.port (6001 by default) once it is lost
+        String primary = System.getProperty("scheduler.standby");
+        if (primary != null) {
+            int colon = primary.lastIndexOf(':');
+            SchedulerReplica replica = new SchedulerReplica(zonesFilePath, primary.substring(0, colon),
+                    Integer.parseInt(primary.substring(colon + 1)),
+                    Integer.getInteger("scheduler.port", SchedulerReplica.DEFAULT_STANDBY_PORT));
+            replica.run();
+            return;
+        }
+        // -Dscheduler.shards=<n> splits the zones across n shards on UDP ports 6000 to 6000 + n - 1
+        int shardCount = Integer.getInteger("scheduler.shards", 1);
+        if (shardCount > 1) {
+            new SchedulerCluster(zonesFilePath, shardCount).run();
+            return;
+        }
         DroneSwarmMonitor monitor = new DroneSwarmMonitor();
         Scheduler scheduler = new Scheduler(zonesFilePath, monitor);
+        // -Dscheduler.journal=<directory> keeps a journal there and recovers from it on restart
+        String journalDirectory = System.getProperty("scheduler.journal");
+        if (journalDirectory != null) {
+            try {
+                scheduler.setJournal(new SchedulerJournal(Paths.get(journalDirectory)));
+            } catch (IOException e) {
+                System.err.println("[Scheduler] Could not open the journal in " + journalDirectory + ": " + e.getMessage());
+            }
+        }
+        // -Dscheduler.replication=<port> streams every state change to a standby that connects there
+        Integer replicationPort = Integer.getInteger("scheduler.replication");
+        if (replicationPort != null) {
+            try {
+                scheduler.startReplication(replicationPort);
+            } catch (IOException e) {
+                System.err.println("[Scheduler] Could not listen for a standby on port " + replicationPort + ": " + e.getMessage());
+            }
+        }
+        // drone processes on this host can connect through the ring files given as arguments
+        for (String ringFile : args) {
+            try {
+                new SharedMemoryTransport(Paths.get(ringFile)).serve(scheduler);
+            } catch (IOException e) {
+                System.err.println("[Scheduler] Could not map " + ringFile + ": " + e.getMessage());
+            }
+        }
         scheduler.run();
     }
 
@@ -146,44 +467,40 @@ public class Scheduler implements Runnable {
      * Starts the UDP server used to receive messages from drones and fire incident subsystem
      */
     public void startUDPServer() {
+        if (!udpRunning) {
+            return; // shut down before the server thread got here
+        }
         try {
-            socket = new DatagramSocket(schedulerPort);
+            if (nioTransport) {
+                channel = DatagramChannel.open();
+                channel.bind(new InetSocketAddress(schedulerPort));
+                socket = channel.socket(); // closing the adaptor closes the channel
+            } else {
+                socket = new DatagramSocket(schedulerPort);
+            }
             if (monitor != null){
                 monitor.addLog("Scheduler", "UDP Server listening on port " + schedulerPort);
             }
             System.out.println("UDP Server listening on port " +  schedulerPort);
 
-            new Thread(() -> {
-                while(udpRunning) {
-                    long now = System.currentTimeMillis();
-                    synchronized(this) {
-                        for (DroneStatus status : droneStatuses.values()) {
-                            if (status.currentMission != null && status.expectedArrivalTime > 0 && now > status.expectedArrivalTime) {
-                                System.err.println("[" + java.time.LocalTime.now() + "] [Scheduler] TIMER EXPIRED! Drone " + status.droneID + " hasn't arrived. Assuming STUCK_IN_FLIGHT.");
-                                reportFault(status.droneID, FaultType.STUCK_IN_FLIGHT);
-                                status.expectedArrivalTime = 0; // stop timer
-                                if (monitor != null) monitor.updateDroneStatus(status.droneID, "FAULT: STUCK", "N/A", "N/A", status.agentRemaining, status.currentFault.toString(), status.currentX, status.currentY);
-                            }
-                        }
-                    }
-                    try { Thread.sleep(1000); } catch (InterruptedException e) {}
-                }
-            }).start();
-
-            while(udpRunning) {
-                byte[] buffer = new byte[1024];
-                DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
-                socket.receive(packet);
-
-                String message = new String(packet.getData(), 0, packet.getLength());
-                if (monitor != null){
-                    monitor.addLog("Scheduler", "Received: " + message);
-                }
-
-                handleUDPMessage(message, packet.getAddress(), packet.getPort());
-
+            arrivalTimer.start();
+            telemetry.start(telemetryTickMillis);
 
+            if (nioTransport) {
+                ingest = new UDPIngestPipeline(channel, receiveBuffers, ingestWorkers, this::routeUDPMessage);
+                ingest.setTextHandler(this::routeUDPBuffer);
+            } else {
+                ingest = new UDPIngestPipeline(socket, ingestWorkers, this::routeUDPMessage);
+            }
+            ingest.setBinaryHandler(this::routeBinaryMessage);
+            if (!udpRunning) {
+                // shutdown() may have run before the fields above were assigned and missed them
+                arrivalTimer.stop();
+                telemetry.stop();
+                closeServer();
+                return;
             }
+            ingest.run();
 
         } catch (SocketException e) {
             if(udpRunning) {
@@ -197,150 +514,398 @@ public class Scheduler implements Runnable {
     }
 
     /**
-     * Handles incoming UDP message and routes it to the appropriate scheduler behaviour based on message type
+     * Called by the ingest workers for every received message. Telemetry is applied without taking the
+     * Scheduler lock so that a flood of STATUS_UPDATE messages never delays faults or assignments.
      * @param message the received message contents
      * @param address the ip address
      * @param port    the UDP port
      */
-    private synchronized void handleUDPMessage(String message, InetAddress address, int port) {
+    private void routeUDPMessage(String message, InetAddress address, int port) {
+        if (monitor != null){
+            monitor.addLog("Scheduler", "Received: " + message);
+        }
+        if (ReliableLink.isFrame(message)) {
+            message = acceptFrame(message, address, port);
+            if (message == null) {
+                return;
+            }
+        }
+        int requestID = 0;
+        if (message.length() > 0 && message.charAt(0) == RequestCorrelator.REQUEST_PREFIX) {
+            long id = RequestCorrelator.idOf(message);
+            requestID = (int) id;
+            message = id < 0 ? "" : RequestCorrelator.payloadOf(message);
+        }
+        routeParsedMessage(PARSER.get().reset(message), requestID, address, port);
+    }
+
+    /**
+     * Called by the ingest workers in channel mode for every text message, which is parsed straight from
+     * the pooled receive buffer. Reliable frames and tagged requests are unwrapped as Strings by
+     * routeUDPMessage, as is everything while the monitor logs messages.
+     * @param buffer  the message between position and limit, only valid during the call
+     * @param address the ip address
+     * @param port    the UDP port
+     */
+    private void routeUDPBuffer(ByteBuffer buffer, InetAddress address, int port) {
+        byte first = buffer.hasRemaining() ? buffer.get(buffer.position()) : 0;
+        if (monitor != null || first == ReliableLink.FRAME_PREFIX || first == RequestCorrelator.REQUEST_PREFIX) {
+            byte[] data = new byte[buffer.remaining()];
+            buffer.get(buffer.position(), data);
+            routeUDPMessage(new String(data, StandardCharsets.ISO_8859_1), address, port);
+            return;
+        }
+        routeParsedMessage(PARSER.get().reset(buffer), 0, address, port);
+    }
+
+    /**
+     * Routes a text message whose reliable frame and request ID, if any, were already removed
+     * @param parser    parser pointed at the message
+     * @param requestID ID of the drone's request the message carried, 0 if none
+     * @param address   the ip address
+     * @param port      the UDP port
+     */
+    private void routeParsedMessage(MessageParser parser, int requestID, InetAddress address, int port) {
+        MessageParser.Type type = parser.nextType();
+        if (type == MessageParser.Type.STATUS_UPDATE || type == MessageParser.Type.FLIGHT_PLAN) {
+            handleStatusUpdate(type, parser, port);
+        } else if (type == MessageParser.Type.ACK) {
+            handleAck(parser, port);
+        } else if (cluster != null && (type == MessageParser.Type.FIRE_DETECTED || type == MessageParser.Type.ALL_EVENTS_DONE)) {
+            // handed to the cluster without this shard's lock, the owning shard takes its own
+            if (type == MessageParser.Type.ALL_EVENTS_DONE) {
+                cluster.updateAllEventsDone();
+            } else {
+                FireEvent event = parseFireEvent(parser);
+                if (event != null) {
+                    cluster.newFireEvent(event);
+                } else {
+                    rejectMessage(parser, port);
+                }
+            }
+        } else if (type != null) {
+            if (type != MessageParser.Type.FIRE_DETECTED && type != MessageParser.Type.ALL_EVENTS_DONE) {
+                // drone messages act on the drone's position, so apply its latest telemetry first
+                int droneID = parser.peekInt();
+                if (parser.ok()) {
+                    telemetry.flush(droneID);
+                }
+            }
+            handleUDPMessage(type, parser, requestID, address, port);
+        } else {
+            rejectMessage(parser, port);
+        }
+    }
+
+    /**
+     * Acknowledges a reliable frame from a drone and unwraps it. A frame whose sequence number already
+     * arrived is acknowledged again, its first ack may have been lost, but not handled twice.
+     * @param frame   the received frame
+     * @param address the ip address
+     * @param port    the UDP port
+     * @return the message the frame carries, or null if it is a repeat or malformed
+     */
+    private String acceptFrame(String frame, InetAddress address, int port) {
+        long sequence = ReliableLink.sequenceOf(frame);
+        String message = sequence < 0 ? "" : ReliableLink.payloadOf(frame);
+        boolean request = message.length() > 0 && message.charAt(0) == RequestCorrelator.REQUEST_PREFIX;
+        MessageParser parser = PARSER.get().reset(request ? RequestCorrelator.payloadOf(message) : message);
+        parser.nextType();
+        int droneID = parser.peekInt();
+        if (!parser.ok()) {
+            rejectMessage(parser, port);
+            return null;
+        }
+        transmit(ReliableLink.ACK + "," + sequence, droneID, address, port, false);
+
+        // a drone that registered before the Scheduler started has no link, its frames are handled as they come
+        ReliableLink link = reliableLinks.get(droneID);
+        return link == null || link.accept(sequence) ? message : null;
+    }
+
+    /**
+     * Stops retransmitting a control message the drone acknowledged
+     * @param parser parser positioned after the message type
+     * @param port   the UDP port of the sender
+     */
+    private void handleAck(MessageParser parser, int port) {
+        int droneID = parser.nextInt();
+        int sequence = parser.nextInt();
+        if (!parser.ok()) {
+            rejectMessage(parser, port);
+            return;
+        }
+        ReliableLink link = reliableLinks.get(droneID);
+        if (link != null && link.acknowledge(sequence) && link.getUnacknowledgedCount() == 0) {
+            retransmitTimer.cancel(droneID);
+        }
+    }
+
+    /**
+     * Called by the retransmit timer, sends a drone's unacknowledged control messages again and arms the
+     * timer for the next one
+     * @param droneID  id of the drone
+     * @param deadline the retransmit time that came due
+     */
+    private void retransmitDue(int droneID, long deadline) {
+        ReliableLink link = reliableLinks.get(droneID);
+        DroneStatus status = droneStatuses.get(droneID);
+        if (link == null || status == null || status.address == null) {
+            return;
+        }
         try {
-            String[] messageParts = message.split(",");
-            switch (messageParts[0].trim()) {
-                case "REGISTER_DRONE":
-                    int droneID = Integer.parseInt(messageParts[1].trim());
-                    registerDrone(droneID, address, port);
-                    sendUDPMessage("REGISTERED_DRONE," + droneID, address, port);
-                    break;
-                case "FIRE_DETECTED":
-                    try {
-                        String fireTime =  messageParts[1].trim();
-                        int fireZoneID = Integer.parseInt(messageParts[2].trim());
-                        FireEvent.Severity fireSeverity = FireEvent.Severity.valueOf(messageParts[3].trim());
-                        FireEvent.FaultType fault = messageParts.length > 4 ? FireEvent.FaultType.valueOf(messageParts[4].trim()) : FireEvent.FaultType.NONE;
-
-                        FireEvent newEvent = new FireEvent(fireTime, fireZoneID, FireEvent.Type.FIRE_DETECTED, fireSeverity, fault);
-                        newFireEvent(newEvent);
-                    } catch (Exception e) {
-                        System.err.println("[" + java.time.LocalTime.now() + "] [Scheduler] Packet Error: Dropped corrupted or malformed message.");
-                        e.printStackTrace(); // Show us exactly why it failed!
-                    }
-                    break;
-                case "ALL_EVENTS_DONE":
-                    System.out.println("[Scheduler] All events done");
-                    updateAllEventsDone();
-                    System.out.println("[Scheduler] FireIncidentSubsystem reported all events done");
-                    break;
-                case "STATUS_UPDATE":
-                    int statusDroneID = Integer.parseInt(messageParts[1].trim());
-                    String statusDroneState =  messageParts[2].trim();
-                    double statusX = Double.parseDouble(messageParts[3].trim());
-                    double statusY = Double.parseDouble(messageParts[4].trim());
-                    double statusAgent = Double.parseDouble(messageParts[5].trim());
+            link.retransmitDue(clock.millis(), frame -> transmit(frame, droneID, status.address, status.port, false));
+        } catch (RuntimeException e) {
+            System.err.println("[Scheduler] Failed to retransmit to drone " + droneID + ": " + e.getMessage());
+        }
+        long next = link.nextDue();
+        if (next != Long.MAX_VALUE) {
+            retransmitTimer.arm(droneID, next);
+        }
+    }
+
+    /**
+     * Handles a text message without the UDP server, exactly as if it had been received from the given sender.
+     * Used with a ReplyListener to run the Scheduler in process, such as in the discrete event simulation.
+     * @param message the message contents
+     * @param address the ip address of the sender
+     * @param port    the UDP port of the sender
+     */
+    public void deliver(String message, InetAddress address, int port) {
+        routeUDPMessage(message, address, port);
+    }
 
-                    updateDroneStatus(statusDroneID, statusX, statusY, statusAgent);
+    /**
+     * Handles an encoded message received by another transport than the UDP server, exactly as if it
+     * had arrived as a datagram from the given sender
+     * @param message the text or binary message between position and limit
+     * @param address the ip address of the sender
+     * @param port    the UDP port of the sender
+     */
+    public void deliver(ByteBuffer message, InetAddress address, int port) {
+        if (WireCodec.isBinary(message)) {
+            routeBinaryMessage(message, address, port);
+        } else {
+            byte[] text = new byte[message.remaining()];
+            message.get(text);
+            routeUDPMessage(new String(text, StandardCharsets.US_ASCII).trim(), address, port);
+        }
+    }
 
-                    // track movement metrics
-                    metrics.recordDroneLocation(statusDroneID, statusX, statusY);
+    /**
+     * Sends every reply for a peer through a route instead of the UDP socket
+     * @param peer  address and port the peer's messages are delivered from
+     * @param route the route
+     */
+    public void addRoute(InetSocketAddress peer, Route route) {
+        routes.put(peer, route);
+    }
 
-                    // track time spent in states
-                    metrics.recordDroneStateChange(statusDroneID, statusDroneState);
+    /**
+     * Sends replies for a peer over the UDP socket again
+     * @param peer address and port the peer's messages are delivered from
+     */
+    public void removeRoute(InetSocketAddress peer) {
+        routes.remove(peer);
+    }
 
-                    DroneStatus statusPtr = droneStatuses.get(statusDroneID);
-                    if (monitor != null && statusPtr != null) {
-                        String zoneStr = statusPtr.currentMission != null ? String.valueOf(statusPtr.currentMission.getZoneID()) : "N/A";
-                        String sevStr = statusPtr.currentMission != null ? statusPtr.currentMission.getSeverity().toString() : "N/A";
-                        String faultStr = statusPtr.currentFault != null ? statusPtr.currentFault.toString() : "NONE";
+    /**
+     * Counts a message that could not be parsed and logs a single line instead of a stack trace
+     * @param parser parser holding the error
+     * @param port   the UDP port of the sender
+     */
+    private void rejectMessage(MessageParser parser, int port) {
+        rejectedMessages.incrementAndGet();
+        System.err.println("[" + java.time.LocalTime.now() + "] [Scheduler] Packet Error: Dropped malformed message from port "
+                + port + " (" + parser.getError() + ")");
+    }
 
-                        monitor.updateDroneStatus(statusDroneID, statusDroneState, zoneStr, sevStr, statusAgent, faultStr, statusX, statusY);
+    /**
+     * Handles incoming UDP message and routes it to the appropriate scheduler behaviour based on message type.
+     * Fields are read in place by the parser, a message with a missing or malformed field is rejected
+     * before it changes any state.
+     * @param type      the message type, already read by the parser
+     * @param parser    parser positioned after the message type
+     * @param requestID ID of the drone's request the message carried, 0 if none
+     * @param address   the ip address
+     * @param port      the UDP port
+     */
+    private void handleUDPMessage(MessageParser.Type type, MessageParser parser, int requestID, InetAddress address, int port) {
+        lock.lock();
+        try {
+            if (requestID > 0) {
+                expectReply(type, parser.peekInt(), requestID);
+            }
+            int droneID;
+            switch (type) {
+                case REGISTER_DRONE:
+                    droneID = parser.nextInt();
+                    // the drone may offer the binary codec, accepted if enabled, reliable control messages and
+                    // request IDs, and say it shares its socket
+                    boolean binary = false;
+                    boolean reliable = false;
+                    boolean correlated = false;
+                    boolean multiplexed = false;
+                    while (parser.hasNext()) {
+                        String capability = parser.nextString();
+                        binary |= WireCodec.CAPABILITY.equals(capability);
+                        reliable |= ReliableLink.CAPABILITY.equals(capability);
+                        correlated |= RequestCorrelator.CAPABILITY.equals(capability);
+                        multiplexed |= SharedDroneSocket.CAPABILITY.equals(capability);
                     }
-                    if (monitor != null && statusDroneState.equals("IDLE")) {
-                        String faultStr = statusPtr != null && statusPtr.currentFault != null ? statusPtr.currentFault.toString() : "NONE";
+                    binary &= binaryWire;
+                    if (!parser.ok()) {
+                        rejectMessage(parser, port);
+                        break;
+                    }
+                    registerDrone(droneID, address, port);
 
-                        monitor.updateDroneStatus(statusDroneID, statusDroneState, "N/A", "N/A", statusAgent, faultStr, statusX, statusY);
+                    InetSocketAddress peer = new InetSocketAddress(address, port);
+                    if (multiplexed) {
+                        multiplexedPeers.add(peer);
+                    } else {
+                        multiplexedPeers.remove(peer);
+                    }
+                    if (replication != null) {
+                        replication.publishDrone(droneID, address, port, multiplexed);
+                    }
+                    // a drone that registers again starts its sequence numbers over
+                    retransmitTimer.cancel(droneID);
+                    if (reliable) {
+                        reliableLinks.put(droneID, new ReliableLink());
+                        retransmitTimer.start();
+                    } else {
+                        reliableLinks.remove(droneID);
+                    }
+                    binaryPeers.remove(peer);
+                    String registered = "REGISTERED_DRONE," + droneID;
+                    if (binary) {
+                        registered += "," + WireCodec.CAPABILITY;
+                    }
+                    if (reliable) {
+                        registered += "," + ReliableLink.CAPABILITY;
+                    }
+                    if (correlated) {
+                        registered += "," + RequestCorrelator.CAPABILITY;
+                    }
+                    sendUDPMessage(registered, droneID, address, port);
+                    if (binary) {
+                        binaryPeers.add(peer);
                     }
                     break;
-                case "DRONE_ARRIVE_TO_ZONE":
-                    droneID = Integer.parseInt(messageParts[1].trim());
+                case FIRE_DETECTED:
+                    FireEvent newEvent = parseFireEvent(parser);
+                    if (newEvent == null) {
+                        rejectMessage(parser, port);
+                        break;
+                    }
+                    newFireEvent(newEvent);
+                    break;
+                case ALL_EVENTS_DONE:
+                    System.out.println("[Scheduler] All events done");
+                    updateAllEventsDone();
+                    System.out.println("[Scheduler] FireIncidentSubsystem reported all events done");
+                    break;
+                case STATUS_UPDATE:
+                case FLIGHT_PLAN:
+                    handleStatusUpdate(type, parser, port);
+                    break;
+                case DRONE_ARRIVE_TO_ZONE:
+                    droneID = parser.nextInt();
+                    String arriveTime = parser.nextString();
+                    int arriveZoneID = parser.nextInt();
+                    FireEvent.Severity arriveSeverity = parser.nextEnum(SEVERITIES);
+                    if (!parser.ok()) {
+                        rejectMessage(parser, port);
+                        break;
+                    }
 
                     if (droneStatuses.containsKey(droneID)) {
                         droneStatuses.get(droneID).expectedArrivalTime = 0;
                     }
-
-                    String arriveTime = messageParts[2].trim();
-                    int arriveZoneID = Integer.parseInt(messageParts[3].trim());
-                    FireEvent.Severity arriveSeverity = FireEvent.Severity.valueOf(messageParts[4].trim());
+                    arrivalTimer.cancel(droneID);
 
                     FireEvent arrivedEvent = new FireEvent(
                             arriveTime, arriveZoneID, FireEvent.Type.FIRE_DETECTED, arriveSeverity, FireEvent.FaultType.NONE
                     );
                     droneArrivedAtZone(droneID, arrivedEvent);
                     break;
-                case "DRONE_RETURN_TO_BASE":
-                    droneID = Integer.parseInt(messageParts[1].trim());
+                case DRONE_RETURN_TO_BASE:
+                    droneID = parser.nextInt();
+                    if (!parser.ok()) {
+                        rejectMessage(parser, port);
+                        break;
+                    }
                     boolean finished = droneReturnToBase(droneID);
 
                     if (finished) {
-                        sendUDPMessage("ALL_EVENTS_COMPLETE,", address, port);
+                        sendUDPMessage("ALL_EVENTS_COMPLETE,", droneID, address, port);
                     } else {
-                        sendUDPMessage("RETURN_CONFIRMED,", address, port);
+                        sendUDPMessage("RETURN_CONFIRMED,", droneID, address, port);
                     }
                     break;
-                case "DRONE_READY":
-                    droneID = Integer.parseInt(messageParts[1].trim());
+                case DRONE_READY:
+                    droneID = parser.nextInt();
+                    if (!parser.ok()) {
+                        rejectMessage(parser, port);
+                        break;
+                    }
                     DroneStatus readyStatus = droneStatuses.get(droneID);
                     if (readyStatus != null) {
-                        readyStatus.address = address;
-                        readyStatus.port = port;
+                        readyStatus.setAddress(address, port);
                     }
 
-                    if (!incompleteEvents.isEmpty()) {
-                        FireEvent event = incompleteEvents.poll();
-                        if (readyStatus != null) {
-                            readyStatus.currentMission = event;
-                            readyStatus.waitingForEvent = false;
-
-                            Zone z = zones.get(event.getZoneID());
-                            double distance = Math.sqrt(Math.pow(z.getCenterX() - readyStatus.currentX, 2) + Math.pow(z.getCenterY() - readyStatus.currentY, 2));
-                            long expectedTravelMillis = (long) ((distance / 10.0) * 10);
-
-                            readyStatus.expectedArrivalTime = System.currentTimeMillis() + expectedTravelMillis + 3000;
+                    if (dispatchMode != DispatchMode.FIRST_READY && readyStatus != null) {
+                        if (!incompleteEvents.isEmpty() || !allEventsDone) {
+                            // Join the pool of waiting drones, the closest one takes the next event
+                            readyStatus.waitingForEvent = true;
+                            availableDrones.update(droneID, readyStatus.currentX, readyStatus.currentY);
+                            assignPendingEvents();
+                        } else {
+                            sendUDPMessage("ALL_EVENTS_COMPLETE,", droneID, address, port);
                         }
-                        activeDroneCount++;
-
-                        // metrics tracker
-                        metrics.recordDroneAssignment(event.getZoneID(), droneID);
-                        metrics.recordDroneStateChange(droneID, "EN_ROUTE");
-
-                        String newMessage = "ASSIGN_EVENT," + event.getTime() + "," + event.getZoneID() + "," + event.getSeverity() + "," + event.getFaultType();
-                        sendUDPMessage(newMessage, address, port);
+                    } else if (!incompleteEvents.isEmpty()) {
+                        FireEvent event = incompleteEvents.poll();
+                        dispatchEvent(droneID, readyStatus, event, address, port);
                         System.out.println("[Scheduler] Assigned event to drone " + droneID);
-                        notifyAll();
                     } else if (!allEventsDone) {
                         if (readyStatus != null) readyStatus.waitingForEvent = true;
                     } else {
-                        sendUDPMessage("ALL_EVENTS_COMPLETE,", address, port);
+                        sendUDPMessage("ALL_EVENTS_COMPLETE,", droneID, address, port);
                     }
                     break;
-                case "DRONE_COMPLETE_EVENT":
-                    droneID = Integer.parseInt(messageParts[1].trim());
-                    String completeTime = messageParts[2].trim();
-                    int completeZoneID = Integer.parseInt(messageParts[3].trim());
-                    FireEvent.Severity completeSeverity = FireEvent.Severity.valueOf(messageParts[4].trim());
+                case DRONE_COMPLETE_EVENT:
+                    parser.nextInt(); // drone ID
+                    String completeTime = parser.nextString();
+                    int completeZoneID = parser.nextInt();
+                    FireEvent.Severity completeSeverity = parser.nextEnum(SEVERITIES);
+                    if (!parser.ok()) {
+                        rejectMessage(parser, port);
+                        break;
+                    }
 
                     FireEvent completedEvent = new FireEvent(
                             completeTime, completeZoneID, FireEvent.Type.FIRE_DETECTED, completeSeverity, FireEvent.FaultType.NONE
                     );
                     completeFireEvent(completedEvent);
                     break;
-                case "HARD_FAULT":
-                    droneID = Integer.parseInt(messageParts[1].trim());
-                    FaultType fType = FaultType.valueOf(messageParts[2].trim());
+                case HARD_FAULT:
+                    droneID = parser.nextInt();
+                    FaultType fType = parser.nextEnum(DRONE_FAULTS);
+                    if (!parser.ok()) {
+                        rejectMessage(parser, port);
+                        break;
+                    }
                     reportFault(droneID, fType);
                     break;
-                case "REQUEST_NEXT_MISSION":
-                    droneID = Integer.parseInt(messageParts[1].trim());
-                    double agentRemaining = Double.parseDouble(messageParts[2].trim());
-                    
+                case REQUEST_NEXT_MISSION:
+                    droneID = parser.nextInt();
+                    double agentRemaining = parser.nextDouble();
+                    if (!parser.ok()) {
+                        rejectMessage(parser, port);
+                        break;
+                    }
+
                     if (!incompleteEvents.isEmpty()) {
                         DroneStatus requestingDrone = droneStatuses.get(droneID);
                         FireEvent nextEvent = incompleteEvents.peek();
@@ -349,7 +914,8 @@ public class Scheduler implements Runnable {
                         if (requestingDrone != null && nextZone != null) {
                             // Use Drone helper methods for calculations
                             Drone tempDrone = new Drone(droneID);
-                            tempDrone.setLocation(requestingDrone.currentX, requestingDrone.currentY);
+                            double[] position = estimatePosition(requestingDrone);
+                            tempDrone.setLocation(position[0], position[1]);
                             
                             double distToZone = tempDrone.distanceTo(nextZone.getCenterX(), nextZone.getCenterY());
                             
@@ -369,39 +935,45 @@ public class Scheduler implements Runnable {
                                     requestingDrone.currentMission = assignedEvent;
                                     requestingDrone.waitingForEvent = false;
                                     activeDroneCount++;
+                                    journal(SchedulerJournal.Op.ASSIGNED, droneID, assignedEvent);
+                                    signalStateChange();
                                     
                                     // Set timeout timer for new assignment
-                                    long expectedTravelMillis = (long) ((distToZone / Drone.CRUISE_SPEED_LOADED) * 10);
-                                    requestingDrone.expectedArrivalTime = System.currentTimeMillis() + expectedTravelMillis + 3000;
+                                    armArrivalTimer(requestingDrone, distToZone);
                                     
                                     String assignMessage = "ASSIGN_EVENT," + assignedEvent.getTime() + "," + 
                                                           assignedEvent.getZoneID() + "," + assignedEvent.getSeverity() + "," + 
                                                           assignedEvent.getFaultType();
-                                    sendUDPMessage(assignMessage, address, port);
+                                    sendUDPMessage(assignMessage, droneID, address, port);
+                                    assigned();
                                     System.out.println("[Scheduler] Drone " + droneID + " approved to continue to next zone (agent: " + agentRemaining + "%, required: " + minimumAgentForContinuation + "%)");
                                 } else {
                                     // Mission was taken by another drone - return to base
-                                    sendUDPMessage("RETURN_TO_BASE,", address, port);
+                                    sendUDPMessage("RETURN_TO_BASE,", droneID, address, port);
                                     System.out.println("[Scheduler] Drone " + droneID + " requested mission but it was taken by another drone. Sending to base.");
                                 }
                             } else {
                                 // Insufficient agent - drone must return to base
-                                sendUDPMessage("RETURN_TO_BASE,", address, port);
+                                sendUDPMessage("RETURN_TO_BASE,", droneID, address, port);
                                 System.out.println("[Scheduler] Drone " + droneID + " has insufficient agent (" + agentRemaining + "%) for next mission. Sending to base.");
                             }
                         } else {
-                            sendUDPMessage("RETURN_TO_BASE,", address, port);
+                            sendUDPMessage("RETURN_TO_BASE,", droneID, address, port);
                         }
                     } else {
                         // No more events in queue - return to base
-                        sendUDPMessage("RETURN_TO_BASE,", address, port);
+                        sendUDPMessage("RETURN_TO_BASE,", droneID, address, port);
                     }
                     break;
-                case "REQUEUE_EVENT":
-                    droneID = Integer.parseInt(messageParts[1].trim());
-                    String requeueTime = messageParts[2].trim();
-                    int requeueZoneID = Integer.parseInt(messageParts[3].trim());
-                    FireEvent.Severity requeueSeverity = FireEvent.Severity.valueOf(messageParts[4].trim());
+                case REQUEUE_EVENT:
+                    droneID = parser.nextInt();
+                    String requeueTime = parser.nextString();
+                    int requeueZoneID = parser.nextInt();
+                    FireEvent.Severity requeueSeverity = parser.nextEnum(SEVERITIES);
+                    if (!parser.ok()) {
+                        rejectMessage(parser, port);
+                        break;
+                    }
 
                     System.out.println("[Scheduler] Drone " + droneID + " ran out of agent. Re-queuing Zone " + requeueZoneID);
 
@@ -414,150 +986,769 @@ public class Scheduler implements Runnable {
                             FireEvent.FaultType.NONE
                     );
 
-                    incompleteEvents.add(requeuedEvent);
-                    notifyAll();
+                    incompleteEvents.requeue(requeuedEvent);
+                    journal(SchedulerJournal.Op.REQUEUED, droneID, requeuedEvent);
+                    signalEventsQueued(1);
                     assignPendingEvents(); // Instantly hand off to an idle drone
                     break;
+                case COMMAND_APPLIED:
+                case COMMAND_REJECTED:
+                    droneID = parser.nextInt();
+                    MessageParser.Type command = parser.nextEnum(MESSAGE_TYPES);
+                    if (!parser.ok()) {
+                        rejectMessage(parser, port);
+                        break;
+                    }
+                    commandOutcome(droneID, command, type == MessageParser.Type.COMMAND_APPLIED);
+                    break;
+                default:
+                    break;
             }
         } catch (Exception e) {
             e.printStackTrace();
+        } finally {
+            lock.unlock();
         }
     }
 
     /**
-     * Sends a UDP message to the specified address and port
-     * @param message the message to send
-     * @param address the ip address
-     * @param port    the UDP port
+     * Reads the fields of a FIRE_DETECTED message
+     * @param parser parser positioned after the message type
+     * @return the fire event, or null if a field is missing or malformed
      */
-    private void sendUDPMessage(String message, InetAddress address, int port) {
-        try {
-            if (socket == null || socket.isClosed()) return;
-
-            byte[] data =  message.getBytes();
-            DatagramPacket packet = new DatagramPacket(data, data.length, address, port);
-            socket.send(packet);
-
-            if (monitor != null){
-                monitor.addLog("Scheduler", "Sent: " + message);
-            }
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+    private FireEvent parseFireEvent(MessageParser parser) {
+        String fireTime = parser.nextString();
+        int fireZoneID = parser.nextInt();
+        FireEvent.Severity fireSeverity = parser.nextEnum(SEVERITIES);
+        FireEvent.FaultType fault = parser.nextEnum(EVENT_FAULTS, FireEvent.FaultType.NONE);
+        if (!parser.ok()) {
+            return null;
         }
+        return new FireEvent(fireTime, fireZoneID, FireEvent.Type.FIRE_DETECTED, fireSeverity, fault);
     }
 
     /**
-     * Helper method to assign any pending events in the queue to drones
-     * that are currently stuck waiting for an assignment.
+     * Passes a STATUS_UPDATE or FLIGHT_PLAN message to the telemetry coalescer, which applies the newest
+     * one per drone. A FLIGHT_PLAN also carries the drone's target and speed, which are kept so its
+     * position can be extrapolated until the next report.
+     * @param type   STATUS_UPDATE or FLIGHT_PLAN
+     * @param parser parser positioned after the message type
+     * @param port   the UDP port of the sender
      */
-    private synchronized void assignPendingEvents() {
-        for (DroneStatus status : droneStatuses.values()) {
-            if (status.waitingForEvent && status.currentMission == null && status.address != null) {
+    private void handleStatusUpdate(MessageParser.Type type, MessageParser parser, int port) {
+        int statusDroneID = parser.nextInt();
+        Drone.DroneState statusDroneState = parser.nextEnum(DRONE_STATES);
+        double statusX = parser.nextDouble();
+        double statusY = parser.nextDouble();
+        double statusAgent = parser.nextDouble();
+        FlightPlan plan = null;
+        if (type == MessageParser.Type.FLIGHT_PLAN) {
+            double targetX = parser.nextDouble();
+            double targetY = parser.nextDouble();
+            double speed = parser.nextDouble();
+            plan = new FlightPlan(statusDroneState, statusX, statusY, targetX, targetY, speed, clock.millis());
+        }
+        if (!parser.ok()) {
+            rejectMessage(parser, port);
+            return;
+        }
+        submitTelemetry(statusDroneID, statusDroneState, statusX, statusY, statusAgent, plan);
+    }
 
-                FireEvent event = incompleteEvents.poll();
-                if (event == null) {
-                    break; // No more events in the queue
-                }
+    /**
+     * Records the drone's flight plan and hands its reported telemetry to the coalescer
+     * @param droneID id of the drone
+     * @param state   reported drone state
+     * @param x       x coordinate
+     * @param y       y coordinate
+     * @param agent   remaining agent
+     * @param plan    the drone's flight plan, or null if it reports every position itself
+     */
+    private void submitTelemetry(int droneID, Drone.DroneState state, double x, double y, double agent, FlightPlan plan) {
+        DroneStatus status = droneStatuses.get(droneID);
+        if (status != null) {
+            status.flightPlan = plan;
+        }
+        telemetry.submit(droneID, state, x, y, agent);
+    }
 
-                status.currentMission = event;
-                status.waitingForEvent = false;
-                activeDroneCount++;
+    /**
+     * @return the clock the scheduler keeps time on, drones in the same process share it
+     */
+    public Clock getClock() {
+        return clock;
+    }
 
-                // Set the timeout timer for this newly assigned drone
-                Zone z = zones.get(event.getZoneID());
-                double distance = Math.sqrt(Math.pow(z.getCenterX() - status.currentX, 2) + Math.pow(z.getCenterY() - status.currentY, 2));
-                long expectedTravelMillis = (long) ((distance / 10.0) * 10);
-                status.expectedArrivalTime = System.currentTimeMillis() + expectedTravelMillis + 3000;
+    /**
+     * Sends every reply to the listener instead of over UDP
+     * @param replyListener the listener, or null to send replies over UDP again
+     */
+    public void setReplyListener(ReplyListener replyListener) {
+        this.replyListener = replyListener;
+    }
 
-                String message = "ASSIGN_EVENT," +
-                        event.getTime() + "," +
-                        event.getZoneID() + "," +
-                        event.getSeverity() + "," +
-                        event.getFaultType();
+    /**
+     * Gets where a drone is now, extrapolated from its flight plan while it flies on one
+     * @param status status of the drone
+     * @return {x, y} of the drone
+     */
+    private double[] estimatePosition(DroneStatus status) {
+        FlightPlan plan = status.flightPlan;
+        if (plan != null) {
+            return plan.positionAt(clock.millis());
+        }
+        return new double[]{status.currentX, status.currentY};
+    }
 
-                sendUDPMessage(message, status.address, status.port);
-                System.out.println("[Scheduler] Assigned RE-QUEUED event to waiting drone " + status.droneID);
+    /**
+     * Called on every telemetry tick, moves the drones that fly on a flight plan along on the monitor
+     */
+    private void refreshFlightPositions() {
+        if (monitor == null) {
+            return;
+        }
+        long now = clock.millis();
+        for (DroneStatus status : droneStatuses.values()) {
+            FlightPlan plan = status.flightPlan;
+            if (plan != null) {
+                double[] position = plan.positionAt(now);
+                updateMonitor(status, plan.getState().name(), status.agentRemaining, position[0], position[1]);
             }
         }
     }
 
     /**
-     * Active state machine loop managing the Scheduler's states.
+     * Called by the ingest workers for every binary message. STATUS_UPDATE is applied straight from the
+     * decoded fields, the rarer control messages are turned back into text and handled as usual.
+     * @param buffer  the datagram
+     * @param address the ip address
+     * @param port    the UDP port
      */
-    @Override
-    public void run() {
-        boolean running = true;
+    private void routeBinaryMessage(ByteBuffer buffer, InetAddress address, int port) {
+        WireCodec.Message decoded = DECODED.get();
+        if (!WireCodec.decode(buffer, decoded)) {
+            rejectedMessages.incrementAndGet();
+            System.err.println("[Scheduler] Dropped malformed binary message from port " + port);
+            return;
+        }
+        if (decoded.opcode == WireCodec.Opcode.STATUS_UPDATE) {
+            if (monitor != null) {
+                monitor.addLog("Scheduler", "Received: " + WireCodec.toText(decoded));
+            }
+            submitTelemetry(decoded.droneID, decoded.state, decoded.x, decoded.y, decoded.agent, null);
+        } else {
+            routeUDPMessage(WireCodec.toText(decoded), address, port);
+        }
+    }
 
-        // Start UDP server in separate thread
-        new Thread(this::startUDPServer).start();
+    /**
+     * Applies a drone's reported telemetry once it survives coalescing. Only touches the drone's own
+     * status, its metrics and the monitor, so it never takes the Scheduler lock. A waiting drone is moved
+     * in the spatial index by the next dispatch.
+     * @param statusDroneID id of the drone
+     * @param state         reported drone state
+     * @param statusX       x coordinate
+     * @param statusY       y coordinate
+     * @param statusAgent   remaining agent
+     * @param distance      path length travelled since the last applied update
+     */
+    private void applyStatusUpdate(int statusDroneID, Drone.DroneState state, double statusX, double statusY, double statusAgent, double distance) {
+        String statusDroneState = state.name();
+        updateDroneStatus(statusDroneID, statusX, statusY, statusAgent);
 
-        while (running) {
-            synchronized (this) {
+        // track movement metrics
+        metrics.recordDroneMovement(statusDroneID, statusX, statusY, distance);
+
+        // track time spent in states
+        metrics.recordDroneStateChange(statusDroneID, statusDroneState);
+
+        DroneStatus statusPtr = droneStatuses.get(statusDroneID);
+        if (monitor != null && statusPtr != null) {
+            updateMonitor(statusPtr, statusDroneState, statusAgent, statusX, statusY);
+        }
+        if (monitor != null && statusDroneState.equals("IDLE")) {
+            String faultStr = statusPtr != null && statusPtr.currentFault != null ? statusPtr.currentFault.toString() : "NONE";
+
+            monitor.updateDroneStatus(statusDroneID, statusDroneState, "N/A", "N/A", statusAgent, faultStr, statusX, statusY);
+        }
+    }
+
+    /**
+     * Shows a drone's state, mission and position on the monitor
+     * @param status status of the drone
+     * @param state  drone state to show
+     * @param agent  remaining agent
+     * @param x      x coordinate
+     * @param y      y coordinate
+     */
+    private void updateMonitor(DroneStatus status, String state, double agent, double x, double y) {
+        FireEvent mission = status.currentMission;
+        String zoneStr = mission != null ? String.valueOf(mission.getZoneID()) : "N/A";
+        String sevStr = mission != null ? mission.getSeverity().toString() : "N/A";
+        String faultStr = status.currentFault != null ? status.currentFault.toString() : "NONE";
+
+        monitor.updateDroneStatus(status.droneID, state, zoneStr, sevStr, agent, faultStr, x, y);
+    }
+
+    /**
+     * Sends a message in the binary format to a drone that negotiated it
+     * @param message the text form of the message
+     * @param droneID id of the drone the message is for, carried in the header
+     * @param peer    address and port of the drone
+     * @param route   route to the peer, or null to send over the socket
+     * @return false if the message has no binary form and still has to be sent as text
+     * @throws IOException if sending fails
+     */
+    private boolean sendBinary(String message, int droneID, InetSocketAddress peer, Route route) throws IOException {
+        ByteBuffer buffer = sendBuffers.acquire();
+        try {
+            if (!WireCodec.fromText(message, droneID, buffer)) {
+                return false;
+            }
+            buffer.flip();
+            if (route != null) {
+                route.send(buffer);
+            } else if (channel != null) {
+                channel.send(buffer, peer);
+            } else {
+                byte[] data = new byte[buffer.remaining()];
+                buffer.get(data);
+                socket.send(new DatagramPacket(data, data.length, peer));
+            }
+        } finally {
+            sendBuffers.release(buffer);
+        }
+        if (monitor != null){
+            monitor.addLog("Scheduler", "Sent: " + message);
+        }
+        return true;
+    }
+
+    /**
+     * Sends a reply to a drone at the specified address and port. A reply to a request that carried an ID
+     * carries the same ID.
+     * @param message the message to send
+     * @param droneID id of the drone the message is for
+     * @param address the ip address
+     * @param port    the UDP port
+     */
+    private void sendUDPMessage(String message, int droneID, InetAddress address, int port) {
+        int requestID = message.startsWith("REGISTERED_DRONE") ? 0 : takeRequestID(droneID, message);
+        if (requestID != 0) {
+            // the reply carries the ID of the request it answers
+            message = RequestCorrelator.REPLY_PREFIX + (requestID + "," + message);
+        }
+        sendToDrone(message, droneID, address, port);
+    }
+
+    /**
+     * Remembers the ID of a request the drone will get a reply to, after any it is already waiting on
+     * @param type      the request type, only requests answered by a reply are remembered
+     * @param droneID   id of the drone
+     * @param requestID ID the drone gave the request
+     */
+    private void expectReply(MessageParser.Type type, int droneID, int requestID) {
+        if (type != MessageParser.Type.DRONE_READY && type != MessageParser.Type.REQUEST_NEXT_MISSION
+                && type != MessageParser.Type.DRONE_RETURN_TO_BASE) {
+            return;
+        }
+        DroneStatus status = droneStatuses.get(droneID);
+        if (status == null) {
+            return;
+        }
+        if (status.pendingRequests.size() == MAX_PENDING_REQUESTS) {
+            status.pendingRequests.poll(); // the drone gave up on its oldest request long ago
+        }
+        status.pendingRequests.add(new PendingRequest(type, requestID));
+    }
+
+    /**
+     * Takes the ID of the oldest pending request a reply answers. RETURN_CONFIRMED answers
+     * DRONE_RETURN_TO_BASE. ASSIGN_EVENT and RETURN_TO_BASE answer DRONE_READY or REQUEST_NEXT_MISSION, and
+     * ALL_EVENTS_COMPLETE answers any of the three.
+     * @param droneID id of the drone the reply is for
+     * @param reply   the reply
+     * @return the request ID, or 0 if the reply answers no request that carried one
+     */
+    private int takeRequestID(int droneID, String reply) {
+        lock.lock();
+        try {
+            DroneStatus status = droneStatuses.get(droneID);
+            if (status == null || status.pendingRequests.isEmpty()) {
+                return 0;
+            }
+            boolean toReturn = reply.startsWith("RETURN_CONFIRMED") || reply.startsWith("ALL_EVENTS_COMPLETE");
+            boolean toMission = reply.startsWith("ASSIGN_EVENT") || reply.startsWith("RETURN_TO_BASE")
+                    || reply.startsWith("ALL_EVENTS_COMPLETE");
+            for (Iterator<PendingRequest> it = status.pendingRequests.iterator(); it.hasNext(); ) {
+                PendingRequest request = it.next();
+                boolean returnRequest = request.type == MessageParser.Type.DRONE_RETURN_TO_BASE;
+                if (returnRequest ? toReturn : toMission) {
+                    it.remove();
+                    return request.requestID;
+                }
+            }
+            return 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sends a message to a drone at the specified address and port. Control messages to a drone that
+     * negotiated reliable delivery go as numbered frames that are retransmitted until it acknowledges them.
+     * @param message the message to send
+     * @param droneID id of the drone the message is for
+     * @param address the ip address
+     * @param port    the UDP port
+     */
+    private void sendToDrone(String message, int droneID, InetAddress address, int port) {
+        ReplyListener listener = replyListener;
+        if (listener != null) {
+            listener.reply(message, address, port);
+            return;
+        }
+        ReliableLink link = reliableLinks.isEmpty() || message.startsWith("REGISTERED_DRONE")
+                ? null : reliableLinks.get(droneID);
+        if (link == null) {
+            transmit(message, droneID, address, port, true);
+            return;
+        }
+        // frames are text, control messages are rare and telemetry is what the binary codec is for
+        transmit(link.frame(message, clock.millis()), droneID, address, port, false);
+        retransmitTimer.arm(droneID, link.nextDue());
+    }
+
+    /**
+     * Sends a message to a drone at the specified address and port. A text message sent to a socket
+     * shared by several drones is prefixed with the drone ID so the socket can hand it to the right drone.
+     * @param message     the message to send
+     * @param droneID     id of the drone the message is for
+     * @param address     the ip address
+     * @param port        the UDP port
+     * @param allowBinary false to send the message as text even to a drone that negotiated the binary codec
+     */
+    private void transmit(String message, int droneID, InetAddress address, int port, boolean allowBinary) {
+        try {
+            InetSocketAddress peer = binaryPeers.isEmpty() && multiplexedPeers.isEmpty() && routes.isEmpty() && channel == null
+                    ? null : peerOf(droneID, address, port);
+            Route route = peer != null && !routes.isEmpty() ? routes.get(peer) : null;
+            if (route == null && (socket == null || socket.isClosed())) return;
+
+            if (allowBinary && peer != null && binaryPeers.contains(peer) && sendBinary(message, droneID, peer, route)) {
+                return;
+            }
+            if (peer != null && multiplexedPeers.contains(peer)) {
+                message = SharedDroneSocket.ADDRESS_PREFIX + (droneID + "," + message);
+            }
+
+            if (channel != null || route != null) {
+                // encode straight into a pooled direct buffer, messages are plain ASCII
+                ByteBuffer buffer = sendBuffers.acquire();
                 try {
-                    switch (currentState) {
-                        case WAITING:
-                            // Wait until an event is added or the simulation is completely done
-                            while (incompleteEvents.isEmpty() && !allEventsDone) {
-                                wait();
-                            }
+                    if (message.length() > buffer.capacity()) {
+                        // a cut off datagram would be parsed as a different message, so it is not sent at all
+                        System.err.println("[Scheduler] Dropped a " + message.length() + " byte reply to drone " + droneID
+                                + ", larger than a datagram: " + message.substring(0, 40) + "...");
+                        return;
+                    }
+                    for (int i = 0; i < message.length(); i++) {
+                        buffer.put((byte) message.charAt(i));
+                    }
+                    buffer.flip();
+                    if (route != null) {
+                        route.send(buffer);
+                    } else {
+                        channel.send(buffer, peer);
+                    }
+                } finally {
+                    sendBuffers.release(buffer);
+                }
+            } else {
+                byte[] data =  message.getBytes();
+                DatagramPacket packet = new DatagramPacket(data, data.length, address, port);
+                socket.send(packet);
+            }
 
-                            if (allEventsDone && incompleteEvents.isEmpty() && activeDroneCount == 0) {
-                                for (DroneStatus status : droneStatuses.values()) {
-                                    if (status.address != null) {
-                                        sendUDPMessage("ALL_EVENTS_COMPLETE,", status.address, status.port);
-                                    }
-                                }
-                                try { Thread.sleep(200); } catch (InterruptedException e) {}
+            if (monitor != null){
+                monitor.addLog("Scheduler", "Sent: " + message);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
 
-                                // final metrics
-                                metrics.finalizeMetrics();
-                                metrics.markSimulationEnd();
-                                metrics.printSummary();
+    /**
+     * @param droneID id of the drone a message is for
+     * @param address the ip address
+     * @param port    the UDP port
+     * @return the drone's own socket address if it is still reached there, a new one otherwise
+     */
+    private InetSocketAddress peerOf(int droneID, InetAddress address, int port) {
+        DroneStatus status = droneStatuses.get(droneID);
+        InetSocketAddress cached = status == null ? null : status.socketAddress;
+        if (cached != null && cached.getPort() == port && cached.getAddress().equals(address)) {
+            return cached;
+        }
+        return new InetSocketAddress(address, port);
+    }
+
+    /**
+     * Helper method to assign any pending events in the queue to drones
+     * that are currently stuck waiting for an assignment.
+     * In NEAREST_DRONE mode each event, highest priority first, goes to the waiting drone
+     * closest to its zone center. Every drone flies at the same speed, so the closest drone
+     * is also the one with the lowest ETA. In BATCH_OPTIMAL mode this only opens the batch window.
+     */
+    private void assignPendingEvents() {
+        lock.lock();
+        try {
+            if (dispatchMode == DispatchMode.BATCH_OPTIMAL) {
+                scheduleBatchAssignment();
+                return;
+            }
+            if (dispatchMode == DispatchMode.NEAREST_DRONE) {
+                moveWaitingDrones();
+                while (!incompleteEvents.isEmpty() && !availableDrones.isEmpty()) {
+                    FireEvent event = incompleteEvents.peek();
+                    Zone z = zones.get(event.getZoneID());
+                    int droneID = z != null ? availableDrones.nearest(z.getCenterX(), z.getCenterY()) : availableDrones.nearest(0, 0);
+
+                    DroneStatus status = droneStatuses.get(droneID);
+                    if (status == null || status.address == null || status.currentMission != null) {
+                        availableDrones.remove(droneID); // stale entry, drone is no longer waiting
+                        continue;
+                    }
+
+                    incompleteEvents.poll();
+                    dispatchEvent(droneID, status, event, status.address, status.port);
+                    System.out.println("[Scheduler] Assigned event to nearest waiting drone " + droneID);
+                }
+                return;
+            }
+
+            for (DroneStatus status : droneStatuses.values()) {
+                if (status.waitingForEvent && status.currentMission == null && status.address != null) {
+
+                    FireEvent event = incompleteEvents.poll();
+                    if (event == null) {
+                        break; // No more events in the queue
+                    }
+
+                    dispatchEvent(status.droneID, status, event, status.address, status.port);
+                    System.out.println("[Scheduler] Assigned RE-QUEUED event to waiting drone " + status.droneID);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves the waiting drones that reported a new position since the last dispatch to that position in
+     * the spatial index, called with the lock held
+     */
+    private void moveWaitingDrones() {
+        for (Iterator<Integer> moved = movedWhileWaiting.iterator(); moved.hasNext(); ) {
+            DroneStatus status = droneStatuses.get(moved.next());
+            moved.remove();
+            if (status != null) {
+                availableDrones.move(status.droneID, status.currentX, status.currentY);
+            }
+        }
+    }
+
+    /**
+     * Starts the batch window if there is work to match and no window is already open.
+     * When the window closes every waiting drone and queued event seen so far is matched at once.
+     */
+    private void scheduleBatchAssignment() {
+        lock.lock();
+        try {
+            if (batchPending || incompleteEvents.isEmpty() || availableDrones.isEmpty()) {
+                return;
+            }
+            if (batchWindowMillis <= 0) {
+                assignBatch();
+                return;
+            }
+            batchPending = true;
+            if (udpRunning) {
+                batchTimer.start();
+            }
+            batchTimer.arm(BATCH_WINDOW_KEY, clock.millis() + batchWindowMillis);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Called by the batch timer when the window closes, matches everything seen during the window
+     */
+    private void closeBatchWindow() {
+        lock.lock();
+        try {
+            batchPending = false;
+            assignBatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Matches the highest priority queued events to the waiting drones so that the total ETA
+     * of the batch is minimal, then dispatches each pair. At most one event per waiting drone is
+     * taken from the queue, so priority still decides which fires are serviced first.
+     */
+    private void assignBatch() {
+        lock.lock();
+        try {
+            List<DroneStatus> drones = new ArrayList<>();
+            for (int droneID : availableDrones.getDroneIDs()) {
+                DroneStatus status = droneStatuses.get(droneID);
+                if (status == null || status.address == null || status.currentMission != null) {
+                    availableDrones.remove(droneID); // stale entry, drone is no longer waiting
+                } else {
+                    drones.add(status);
+                }
+            }
+
+            int batchSize = Math.min(incompleteEvents.size(), drones.size());
+            if (batchSize == 0) {
+                return;
+            }
+            List<FireEvent> events = new ArrayList<>(batchSize);
+            for (int i = 0; i < batchSize; i++) {
+                events.add(incompleteEvents.poll());
+            }
+
+            // cost is the ETA in seconds of each drone to each event's zone center
+            double[][] eta = new double[batchSize][drones.size()];
+            for (int i = 0; i < batchSize; i++) {
+                Zone z = zones.get(events.get(i).getZoneID());
+                for (int j = 0; j < drones.size(); j++) {
+                    if (z != null) {
+                        double[] position = estimatePosition(drones.get(j));
+                        double distance = Math.sqrt(Math.pow(z.getCenterX() - position[0], 2) + Math.pow(z.getCenterY() - position[1], 2));
+                        eta[i][j] = distance / Drone.CRUISE_SPEED_LOADED;
+                    }
+                }
+            }
+
+            int[] assignment = BatchAssigner.solve(eta);
+            for (int i = 0; i < batchSize; i++) {
+                DroneStatus status = drones.get(assignment[i]);
+                dispatchEvent(status.droneID, status, events.get(i), status.address, status.port);
+            }
+            System.out.printf("[Scheduler] Batch assigned %d events to %d waiting drones (total ETA %.1fs)\n",
+                    batchSize, drones.size(), BatchAssigner.totalCost(eta, assignment));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Assigns an event to a drone, starts its arrival timer and sends it the ASSIGN_EVENT message
+     * @param droneID the id of the drone
+     * @param status  status of the drone, or null if the drone never registered
+     * @param event   the event being assigned
+     * @param address the ip address of the drone
+     * @param port    the UDP port of the drone
+     */
+    private void dispatchEvent(int droneID, DroneStatus status, FireEvent event, InetAddress address, int port) {
+        if (status != null) {
+            status.currentMission = event;
+            status.waitingForEvent = false;
+
+            // Set the timeout timer for this newly assigned drone
+            Zone z = zones.get(event.getZoneID());
+            if (z != null) {
+                double[] position = estimatePosition(status);
+                double distance = Math.sqrt(Math.pow(z.getCenterX() - position[0], 2) + Math.pow(z.getCenterY() - position[1], 2));
+                armArrivalTimer(status, distance);
+            }
+        }
+        availableDrones.remove(droneID);
+        activeDroneCount++;
+        journal(SchedulerJournal.Op.ASSIGNED, droneID, event);
+
+        // metrics tracker
+        metrics.recordDroneAssignment(event.getZoneID(), droneID);
+        metrics.recordDroneStateChange(droneID, "EN_ROUTE");
+
+        String message = "ASSIGN_EVENT," +
+                event.getTime() + "," +
+                event.getZoneID() + "," +
+                event.getSeverity() + "," +
+                event.getFaultType();
+
+        sendUDPMessage(message, droneID, address, port);
+        assigned();
+        signalStateChange();
+    }
 
-                                running = false; // Simulation is finished
-                                udpRunning = false;
-                                if (socket != null && !socket.isClosed()) {
-                                    socket.close();
+    /**
+     * Wakes the state machine after the queue or the number of active drones changed. Once no more
+     * events will come and the queue is empty, callers waiting for an event or a completion are woken
+     * too so they can return. Called with the lock held.
+     */
+    private void signalStateChange() {
+        stateChange.signal();
+        if (allEventsDone && incompleteEvents.isEmpty()) {
+            eventAvailable.signalAll();
+            completionAvailable.signalAll();
+        }
+    }
+
+    /**
+     * Wakes one caller of getNextFireEvent per event queued, and the state machine. Called with the lock held.
+     * @param count number of events queued
+     */
+    private void signalEventsQueued(int count) {
+        for (int i = 0; i < count; i++) {
+            eventAvailable.signal();
+        }
+        stateChange.signal();
+    }
+
+    /**
+     * Wakes every waiting thread, for changes every one of them has to see such as ALL_EVENTS_DONE or a
+     * shutdown. Called with the lock held.
+     */
+    private void signalAll() {
+        stateChange.signalAll();
+        eventAvailable.signalAll();
+        completionAvailable.signalAll();
+    }
+
+    /**
+     * Tells the assignment listener, if there is one, that an ASSIGN_EVENT was sent
+     */
+    private void assigned() {
+        Runnable listener = assignmentListener;
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Arms the STUCK_IN_FLIGHT timer of a drone that was just sent to a zone
+     * @param status   status of the drone
+     * @param distance distance from the drone to the zone center
+     */
+    private void armArrivalTimer(DroneStatus status, double distance) {
+        long expectedTravelMillis = (long) ((distance / Drone.CRUISE_SPEED_LOADED) * 10);
+        status.expectedArrivalTime = clock.millis() + expectedTravelMillis + 3000;
+        arrivalTimer.arm(status.droneID, status.expectedArrivalTime);
+    }
+
+    /**
+     * Called by the arrival timer thread when a drone misses its arrival deadline
+     * @param droneID  id of the drone
+     * @param deadline the deadline that expired
+     */
+    private void arrivalDeadlineExpired(int droneID, long deadline) {
+        lock.lock();
+        try {
+            DroneStatus status = droneStatuses.get(droneID);
+            // ignore deadlines that were superseded while the timer waited for the lock
+            if (status == null || status.currentMission == null || status.expectedArrivalTime != deadline) {
+                return;
+            }
+            System.err.println("[" + java.time.LocalTime.now() + "] [Scheduler] TIMER EXPIRED! Drone " + droneID + " hasn't arrived. Assuming STUCK_IN_FLIGHT.");
+            reportFault(droneID, FaultType.STUCK_IN_FLIGHT);
+            status.expectedArrivalTime = 0; // stop timer
+            if (monitor != null) monitor.updateDroneStatus(droneID, "FAULT: STUCK", "N/A", "N/A", status.agentRemaining, status.currentFault.toString(), status.currentX, status.currentY);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Active state machine loop managing the Scheduler's states.
+     */
+    @Override
+    public void run() {
+        boolean running = true;
+
+        if (replyListener == null) {
+            // Start UDP server in separate thread
+            new Thread(this::startUDPServer).start();
+        } else {
+            // messages are delivered in process, only the timers the server would start are needed
+            arrivalTimer.start();
+            telemetry.start(telemetryTickMillis);
+        }
+
+        while (running) {
+            lock.lock();
+            try {
+                switch (currentState) {
+                    case WAITING:
+                        // Wait until an event is added or the simulation is completely done
+                        while (incompleteEvents.isEmpty() && !allEventsDone) {
+                            lock.await(stateChange);
+                        }
+
+                        if (allEventsDone && incompleteEvents.isEmpty() && activeDroneCount == 0) {
+                            for (DroneStatus status : droneStatuses.values()) {
+                                if (status.address != null) {
+                                    sendUDPMessage("ALL_EVENTS_COMPLETE,", status.droneID, status.address, status.port);
                                 }
-                            } else if (!incompleteEvents.isEmpty()) {
-                                transitionTo(State.EVENT_QUEUED);
                             }
-                            break;
+                            try { clock.sleep(200); } catch (InterruptedException e) {}
+
+                            // final metrics
+                            metrics.finalizeMetrics();
+                            metrics.markSimulationEnd();
+                            metrics.printSummary();
+
+                            running = false; // Simulation is finished
+                            udpRunning = false;
+                            arrivalTimer.stop();
+                            telemetry.stop();
+                            closeServer();
+                        } else if (!incompleteEvents.isEmpty()) {
+                            transitionTo(State.EVENT_QUEUED);
+                        }
+                        break;
 
-                        case EVENT_QUEUED:
-                            // We have events in the queue. Notify drones so they can pick them up.
-                            notifyAll();
+                    case EVENT_QUEUED:
+                        // We have events in the queue. Every queued event woke one caller of getNextFireEvent,
+                        // wake one more in case that caller found the event already taken.
+                        eventAvailable.signal();
 
-                            // Wait until a drone takes an event or the queue empties
-                            while (!incompleteEvents.isEmpty() && activeDroneCount == 0) {
-                                wait();
-                            }
+                        // Wait until a drone takes an event or the queue empties
+                        while (!incompleteEvents.isEmpty() && activeDroneCount == 0) {
+                            lock.await(stateChange);
+                        }
 
-                            if (activeDroneCount > 0) {
-                                transitionTo(State.DRONE_ACTIVE);
-                            } else if (incompleteEvents.isEmpty()) {
-                                transitionTo(State.WAITING);
-                            }
-                            break;
+                        if (activeDroneCount > 0) {
+                            transitionTo(State.DRONE_ACTIVE);
+                        } else if (incompleteEvents.isEmpty()) {
+                            transitionTo(State.WAITING);
+                        }
+                        break;
 
-                        case DRONE_ACTIVE:
-                            // Wait while drones are actively working on events
-                            while (activeDroneCount > 0) {
-                                wait();
-                            }
+                    case DRONE_ACTIVE:
+                        // Wait while drones are actively working on events
+                        while (activeDroneCount > 0) {
+                            lock.await(stateChange);
+                        }
 
-                            // Once all active drones return, check if more events are pending
-                            if (!incompleteEvents.isEmpty()) {
-                                transitionTo(State.EVENT_QUEUED);
-                            } else {
-                                transitionTo(State.WAITING);
-                            }
-                            break;
-                    }
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                    running = false;
+                        // Once all active drones return, check if more events are pending
+                        if (!incompleteEvents.isEmpty()) {
+                            transitionTo(State.EVENT_QUEUED);
+                        } else {
+                            transitionTo(State.WAITING);
+                        }
+                        break;
                 }
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+                running = false;
+            } finally {
+                lock.unlock();
             }
         }
     }
@@ -568,32 +1759,84 @@ public class Scheduler implements Runnable {
      * @param address the ip address of the drone
      * @param port    the UDP port used by the drone
      */
-    public synchronized void registerDrone(int droneID, InetAddress address, int port) {
-        droneStatuses.putIfAbsent(droneID, new DroneStatus(droneID));
+    public void registerDrone(int droneID, InetAddress address, int port) {
+        lock.lock();
+        try {
+            droneStatuses.putIfAbsent(droneID, new DroneStatus(droneID));
 
-        DroneStatus status = droneStatuses.get(droneID);
-        status.address = address;
-        status.port = port;
+            DroneStatus status = droneStatuses.get(droneID);
+            status.setAddress(address, port);
+            status.pendingRequests.clear();
+            dropPendingCommand(status);
+            failoverPending.remove(droneID);
 
-        metrics.registerDrone(droneID);
+            metrics.registerDrone(droneID);
 
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
      * Adds a new fire event from the CSV file to the priority queue
      * @param fireEvent event to add
      */
-    public synchronized void newFireEvent(FireEvent fireEvent) {
-        // metrics tracker for fire detected
-        metrics.recordFireStart(fireEvent.getZoneID());
+    public void newFireEvent(FireEvent fireEvent) {
+        lock.lock();
+        try {
+            // metrics tracker for fire detected
+            metrics.recordFireStart(fireEvent.getZoneID());
 
-        if (monitor != null) {
-            monitor.addActiveFire(fireEvent.getZoneID());
+            if (monitor != null) {
+                monitor.addActiveFire(fireEvent.getZoneID());
+            }
+            incompleteEvents.add(fireEvent);
+            journal(SchedulerJournal.Op.FIRE_DETECTED, 0, fireEvent);
+            updateMonitorCounts();
+            signalEventsQueued(1);
+            assignPendingEvents();
+            preemptFor(fireEvent);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Diverts a drone to a fire that is still queued because every drone is busy, if the preemption
+     * policy finds one that reaches it soon enough to be worth displacing its mission
+     * @param fire the fire
+     */
+    private void preemptFor(FireEvent fire) {
+        if (preemptionPolicy == null || fire.getSeverity() != FireEvent.Severity.High || !incompleteEvents.contains(fire)) {
+            return;
+        }
+        List<Drone> busy = new ArrayList<>();
+        for (DroneStatus status : droneStatuses.values()) {
+            if (status.waitingForEvent) {
+                return; // a waiting drone takes the fire, now or when the batch window closes
+            }
+            if (status.address == null || status.currentFault != FaultType.NONE || status.pendingCommand != null) {
+                continue;
+            }
+            Drone drone = new Drone(status.droneID);
+            double[] position = estimatePosition(status);
+            drone.setLocation(position[0], position[1]);
+            drone.setAgentLevel(status.agentRemaining);
+            drone.setCurrentMission(status.currentMission);
+            // the arrival deadline is set from assignment until the drone reports it arrived
+            drone.setState(status.currentMission == null ? Drone.DroneState.RETURNING
+                    : status.expectedArrivalTime != 0 ? Drone.DroneState.EN_ROUTE : Drone.DroneState.EXTINGUISHING);
+            busy.add(drone);
+        }
+        Drone chosen = preemptionPolicy.choose(fire, busy, zones);
+        if (chosen == null) {
+            return;
+        }
+        System.out.println("[Scheduler] Preempting drone " + chosen.getId() + " from its " + chosen.getCurrentMission().getSeverity()
+                + " mission at Zone " + chosen.getCurrentMission().getZoneID() + " for the High fire at Zone " + fire.getZoneID());
+        if (rerouteDrone(chosen.getId(), fire)) {
+            preemptions++;
         }
-        incompleteEvents.add(fireEvent);
-        updateMonitorCounts();
-        notifyAll();
-        assignPendingEvents();
     }
 
     /**
@@ -601,75 +1844,329 @@ public class Scheduler implements Runnable {
      * If there are no fire events available, drone thread is blocked until an event is submitted
      * or until all events are complete
      */
-    public synchronized FireEvent getNextFireEvent() {
+    public FireEvent getNextFireEvent() {
+        lock.lock();
+        try {
 
-        while(incompleteEvents.isEmpty() && !allEventsDone) {
-            try {
-                wait();
-            } catch (InterruptedException e) {
-                e.printStackTrace();
+            while(incompleteEvents.isEmpty() && !allEventsDone) {
+                try {
+                    lock.await(eventAvailable);
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                }
             }
-        }
 
-        if(incompleteEvents.isEmpty()) {
-            return null;
-        }
+            if(incompleteEvents.isEmpty()) {
+                return null;
+            }
 
-        FireEvent nextEvent = incompleteEvents.poll();
-        activeDroneCount++; // A drone has picked up an event
-        notifyAll(); // Wake up the scheduler state machine to process transition
-        return nextEvent;
+            FireEvent nextEvent = incompleteEvents.poll();
+            activeDroneCount++; // A drone has picked up an event
+            journal(SchedulerJournal.Op.ASSIGNED, 0, nextEvent);
+            signalStateChange(); // Wake up the scheduler state machine to process transition
+            return nextEvent;
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
      * Updates the status of a specific drone.
      */
-    public synchronized void updateDroneStatus(int droneID, double x, double y, double agentRemaining) {
+    public void updateDroneStatus(int droneID, double x, double y, double agentRemaining) {
         DroneStatus status = droneStatuses.get(droneID);
         if (status != null) {
             status.currentX = x;
             status.currentY = y;
             status.agentRemaining = agentRemaining;
+            if (status.waitingForEvent) {
+                movedWhileWaiting.add(droneID); // the spatial index is moved by the next dispatch
+            }
             System.out.printf("[Scheduler] Drone %d Status Update - Loc: (%.1f, %.1f), Agent: %.1f%%\n",
                     droneID, x, y, agentRemaining);
         }
     }
 
     /**
-     * Records a fault for a drone and re-queues its mission if needed
-     * @param droneID the id of the drone that faulted
-     * @param fault   the fault types that occurred
+     * Records a fault for a drone and re-queues its mission if needed
+     * @param droneID the id of the drone that faulted
+     * @param fault   the fault types that occurred
+     */
+    public void reportFault(int droneID, FaultType fault) {
+        lock.lock();
+        try {
+            DroneStatus status = droneStatuses.get(droneID);
+            availableDrones.remove(droneID);
+            arrivalTimer.cancel(droneID);
+            if (status != null) {
+                status.currentFault = fault;
+                status.flightPlan = null; // a faulted drone no longer follows its plan
+                System.err.println("[Scheduler] FAULT DETECTED for Drone " + droneID + ": " + fault);
+
+                if (monitor != null) {
+                    monitor.updateDroneStatus(droneID, "FAULT: " + fault, "N/A", "N/A", status.agentRemaining, fault.toString(), status.currentX, status.currentY);
+                    monitor.addFaultLog("Scheduler", droneID, fault.toString(), "Fault detected and drone marked offline");
+                    monitor.setDroneOffline(droneID, status.currentMission.getZoneID());
+                }
+
+                // If the drone was on a mission, requeue the mission so it isn't ignored
+                if (status.currentMission != null) {
+                    System.out.println("[Scheduler] Re-queuing event from failed Drone " + droneID);
+
+                    FireEvent cleanEvent = new FireEvent(
+                            status.currentMission.getTime(),
+                            status.currentMission.getZoneID(),
+                            status.currentMission.getType(),
+                            status.currentMission.getSeverity(),
+                            FireEvent.FaultType.NONE
+                    );
+                    incompleteEvents.requeue(cleanEvent);
+                    journal(SchedulerJournal.Op.REQUEUED, droneID, cleanEvent);
+                    status.currentMission = null;
+                    activeDroneCount--;
+                    signalEventsQueued(1);
+                    assignPendingEvents();
+                }
+                journal(SchedulerJournal.Op.FAULTED, droneID, null, fault);
+                dropPendingCommand(status);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sends a drone in flight to another fire. The fire is taken out of the queue, and the mission the
+     * drone leaves goes back into it with a boost once the drone reports that it turned.
+     * @param droneID id of the drone
+     * @param event   the fire to fly to instead
+     * @return false if the drone is unknown, faulted or has not answered its last command yet
+     */
+    public boolean rerouteDrone(int droneID, FireEvent event) {
+        lock.lock();
+        try {
+            DroneStatus status = commandableDrone(droneID);
+            if (status == null) {
+                return false;
+            }
+            incompleteEvents.remove(event);
+            status.displacedMission = status.currentMission;
+            status.currentMission = event;
+            journal(SchedulerJournal.Op.REROUTED, droneID, event);
+            Zone z = zones.get(event.getZoneID());
+            if (z != null) {
+                double[] position = estimatePosition(status);
+                armArrivalTimer(status, Math.hypot(z.getCenterX() - position[0], z.getCenterY() - position[1]));
+            }
+            metrics.recordDroneAssignment(event.getZoneID(), droneID);
+            System.out.println("[Scheduler] Rerouting drone " + droneID + " to Zone " + event.getZoneID());
+            sendCommand(status, MessageParser.Type.REROUTE, "REROUTE," + event.getTime() + "," + event.getZoneID() + ","
+                    + event.getSeverity() + "," + event.getFaultType());
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Calls a drone in flight back to base. Its mission goes back into the queue with a boost once the
+     * drone reports that it turned.
+     * @param droneID id of the drone
+     * @return false if the drone is unknown, faulted or has not answered its last command yet
+     */
+    public boolean abortMission(int droneID) {
+        lock.lock();
+        try {
+            DroneStatus status = commandableDrone(droneID);
+            if (status == null) {
+                return false;
+            }
+            status.displacedMission = status.currentMission;
+            status.currentMission = null;
+            journal(SchedulerJournal.Op.RECALLED, droneID, null);
+            cancelArrivalTimer(status);
+            System.out.println("[Scheduler] Recalling drone " + droneID + " to base");
+            sendCommand(status, MessageParser.Type.ABORT_AND_RETURN, "ABORT_AND_RETURN,");
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Makes a drone in flight hover where it is until it is resumed or given another command
+     * @param droneID id of the drone
+     * @return false if the drone is unknown, faulted or has not answered its last command yet
+     */
+    public boolean holdDrone(int droneID) {
+        lock.lock();
+        try {
+            DroneStatus status = commandableDrone(droneID);
+            if (status == null) {
+                return false;
+            }
+            cancelArrivalTimer(status); // a hovering drone is not stuck
+            System.out.println("[Scheduler] Holding drone " + droneID);
+            sendCommand(status, MessageParser.Type.HOLD, "HOLD,");
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Lets a holding drone fly on to its target
+     * @param droneID id of the drone
+     * @return false if the drone is unknown, faulted or has not answered its last command yet
+     */
+    public boolean resumeDrone(int droneID) {
+        lock.lock();
+        try {
+            DroneStatus status = commandableDrone(droneID);
+            if (status == null) {
+                return false;
+            }
+            System.out.println("[Scheduler] Resuming drone " + droneID);
+            sendCommand(status, MessageParser.Type.RESUME, "RESUME,");
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param droneID id of the drone
+     * @return the drone's status if it can be sent a command now, otherwise null
+     */
+    private DroneStatus commandableDrone(int droneID) {
+        DroneStatus status = droneStatuses.get(droneID);
+        if (status == null || status.address == null || status.currentFault != FaultType.NONE
+                || status.pendingCommand != null) {
+            return null;
+        }
+        return status;
+    }
+
+    /**
+     * Sends a command to a drone, unlike a reply it answers no request of the drone
+     * @param status  status of the drone
+     * @param command the command type
+     * @param message the command
+     */
+    private void sendCommand(DroneStatus status, MessageParser.Type command, String message) {
+        status.pendingCommand = command;
+        sendToDrone(message, status.droneID, status.address, status.port);
+    }
+
+    /**
+     * Brings the drone's mission in line with what it did with its last command. An applied REROUTE or
+     * ABORT_AND_RETURN puts the mission the drone left back into the queue, a rejected one gives the
+     * drone its mission back.
+     * @param droneID id of the drone
+     * @param command the command the drone reported on
+     * @param applied true if the drone carried the command out
+     */
+    private void commandOutcome(int droneID, MessageParser.Type command, boolean applied) {
+        DroneStatus status = droneStatuses.get(droneID);
+        if (status == null || status.pendingCommand != command) {
+            return; // the drone landed or faulted before it reported
+        }
+        FireEvent displaced = status.displacedMission;
+        status.pendingCommand = null;
+        status.displacedMission = null;
+        if (displaced != null) {
+            journal(SchedulerJournal.Op.COMMAND_SETTLED, droneID, null);
+        }
+        System.out.println("[Scheduler] Drone " + droneID + (applied ? " applied " : " rejected ") + command);
+
+        if (applied && command == MessageParser.Type.RESUME && status.currentMission != null) {
+            Zone z = zones.get(status.currentMission.getZoneID());
+            if (z != null) {
+                double[] position = estimatePosition(status);
+                armArrivalTimer(status, Math.hypot(z.getCenterX() - position[0], z.getCenterY() - position[1]));
+            }
+        } else if (applied && displaced != null) {
+            incompleteEvents.requeue(displaced);
+            journal(SchedulerJournal.Op.REQUEUED, droneID, displaced);
+            signalEventsQueued(1);
+            assignPendingEvents();
+        } else if (!applied && command == MessageParser.Type.REROUTE) {
+            // the drone is past turning, it may already have landed, so its own fault detection takes over
+            cancelArrivalTimer(status);
+            incompleteEvents.requeue(status.currentMission);
+            journal(SchedulerJournal.Op.REQUEUED, droneID, status.currentMission);
+            status.currentMission = displaced;
+            journal(SchedulerJournal.Op.RESTORED, droneID, displaced);
+            signalEventsQueued(1);
+            assignPendingEvents();
+        } else if (!applied && command == MessageParser.Type.ABORT_AND_RETURN) {
+            status.currentMission = displaced;
+            journal(SchedulerJournal.Op.RESTORED, droneID, displaced);
+        }
+    }
+
+    /**
+     * Forgets the command a drone never reported on because it landed or faulted first. A mission the
+     * command displaced goes back into the queue so it is not lost.
+     * @param status status of the drone
+     */
+    private void dropPendingCommand(DroneStatus status) {
+        FireEvent displaced = status.displacedMission;
+        status.pendingCommand = null;
+        status.displacedMission = null;
+        if (displaced != null) {
+            journal(SchedulerJournal.Op.COMMAND_SETTLED, status.droneID, null);
+            incompleteEvents.requeue(displaced);
+            journal(SchedulerJournal.Op.REQUEUED, status.droneID, displaced);
+            signalEventsQueued(1);
+            assignPendingEvents();
+        }
+    }
+
+    /**
+     * Appends a state change to the journal, if one is kept. A journal that cannot be written is dropped,
+     * so dispatch goes on without it.
+     * @param op      the state change
+     * @param droneID id of the drone, 0 if the change is not about one drone
+     * @param event   the fire event, or null
      */
-    public synchronized void reportFault(int droneID, FaultType fault) {
-        DroneStatus status = droneStatuses.get(droneID);
-        if (status != null) {
-            status.currentFault = fault;
-            System.err.println("[Scheduler] FAULT DETECTED for Drone " + droneID + ": " + fault);
+    private void journal(SchedulerJournal.Op op, int droneID, FireEvent event) {
+        journal(op, droneID, event, FaultType.NONE);
+    }
 
-            if (monitor != null) {
-                monitor.updateDroneStatus(droneID, "FAULT: " + fault, "N/A", "N/A", status.agentRemaining, fault.toString(), status.currentX, status.currentY);
-                monitor.addFaultLog("Scheduler", droneID, fault.toString(), "Fault detected and drone marked offline");
-                monitor.setDroneOffline(droneID, status.currentMission.getZoneID());
-            }
-
-            // If the drone was on a mission, requeue the mission so it isn't ignored
-            if (status.currentMission != null) {
-                System.out.println("[Scheduler] Re-queuing event from failed Drone " + droneID);
-
-                FireEvent cleanEvent = new FireEvent(
-                        status.currentMission.getTime(),
-                        status.currentMission.getZoneID(),
-                        status.currentMission.getType(),
-                        status.currentMission.getSeverity(),
-                        FireEvent.FaultType.NONE
-                );
-                incompleteEvents.add(cleanEvent);
-                status.currentMission = null;
-                activeDroneCount--;
-                notifyAll();
-                assignPendingEvents();
-            }
+    /**
+     * Appends a state change to the journal, if one is kept. Every call comes right after the change it
+     * records, so the state can be snapshotted as of that record.
+     * @param op      the state change
+     * @param droneID id of the drone, 0 if the change is not about one drone
+     * @param event   the fire event, or null
+     * @param fault   the drone's fault
+     */
+    private void journal(SchedulerJournal.Op op, int droneID, FireEvent event, FaultType fault) {
+        if (replication != null) {
+            replication.publish(op, droneID, event, fault);
+        }
+        if (journal == null) {
+            return;
         }
+        long lsn;
+        try {
+            lsn = journal.append(op, droneID, event, fault);
+        } catch (IOException e) {
+            System.err.println("[Scheduler] Journal write failed, no longer journaling: " + e.getMessage());
+            journal = null;
+            return;
+        }
+        persistence.recorded(journal, lsn);
+    }
+
+    /**
+     * Stops the STUCK_IN_FLIGHT timer of a drone
+     * @param status status of the drone
+     */
+    private void cancelArrivalTimer(DroneStatus status) {
+        status.expectedArrivalTime = 0;
+        arrivalTimer.cancel(status.droneID);
     }
 
     /**
@@ -677,77 +2174,112 @@ public class Scheduler implements Runnable {
      * @param droneID ID of the drone
      * @param fireEvent The event being serviced
      */
-    public synchronized void droneArrivedAtZone(int droneID, FireEvent fireEvent) {
-        System.out.println("[Scheduler] Notification: Drone " + droneID + " arrived at Zone " + fireEvent.getZoneID());
+    public void droneArrivedAtZone(int droneID, FireEvent fireEvent) {
+        lock.lock();
+        try {
+            System.out.println("[Scheduler] Notification: Drone " + droneID + " arrived at Zone " + fireEvent.getZoneID());
+            journal(SchedulerJournal.Op.ARRIVED, droneID, null);
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public synchronized boolean droneReturnToBase(int droneID){
-        System.out.println("[Scheduler] Notification: Drone " + droneID + " returned to base.");
-        DroneStatus status = droneStatuses.get(droneID);
+    public boolean droneReturnToBase(int droneID){
+        lock.lock();
+        try {
+            System.out.println("[Scheduler] Notification: Drone " + droneID + " returned to base.");
+            DroneStatus status = droneStatuses.get(droneID);
 
-        // drone return to idle tracker
-        metrics.recordDroneStateChange(droneID, "IDLE");
+            // drone return to idle tracker
+            metrics.recordDroneStateChange(droneID, "IDLE");
+            availableDrones.remove(droneID);
+            arrivalTimer.cancel(droneID);
 
-        if (status != null) {
-            status.currentMission = null;
-            status.agentRemaining = 100.0;
-            status.waitingForEvent = false;
-            status.currentFault = FaultType.NONE;
-        }
+            if (status != null) {
+                dropPendingCommand(status);
+                status.currentMission = null;
+                status.agentRemaining = 100.0;
+                status.waitingForEvent = false;
+                status.currentFault = FaultType.NONE;
+            }
 
-        if (activeDroneCount > 0) {
-            activeDroneCount--;
-        }
+            if (activeDroneCount > 0) {
+                activeDroneCount--;
+            }
+            journal(SchedulerJournal.Op.RETURNED, droneID, null);
 
-        notifyAll();
+            signalStateChange();
 
-        return allEventsDone && incompleteEvents.isEmpty() && activeDroneCount == 0;
-        // activeDroneCount--; // Drone is no longer actively working on a mission
-        // notifyAll(); // Wake up the scheduler state machine to evaluate transitions
+            return allEventsDone && incompleteEvents.isEmpty() && activeDroneCount == 0;
+            // activeDroneCount--; // Drone is no longer actively working on a mission
+            // notifyAll(); // Wake up the scheduler state machine to evaluate transitions
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
      * Update boolean when all events are complete
      */
-    public synchronized void updateAllEventsDone() {
-        allEventsDone = true;
-        notifyAll();
+    public void updateAllEventsDone() {
+        lock.lock();
+        try {
+            boolean first = !allEventsDone;
+            allEventsDone = true;
+            if (first) {
+                journal(SchedulerJournal.Op.ALL_EVENTS_DONE, 0, null);
+            }
+            signalAll();
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
      * Completed fire event gets added to the completeEvents list
      * @param fireEvent
      */
-    public synchronized void completeFireEvent(FireEvent fireEvent) {
+    public void completeFireEvent(FireEvent fireEvent) {
+        lock.lock();
+        try {
 
-        // fire extinguished metrics tracker
-        metrics.recordFireExtinguished(fireEvent.getZoneID());
+            // fire extinguished metrics tracker
+            metrics.recordFireExtinguished(fireEvent.getZoneID());
 
-        if (monitor != null) {
-            monitor.removeActiveFire(fireEvent.getZoneID());
-            monitor.addExtinguishedFire(fireEvent.getZoneID());
+            if (monitor != null) {
+                monitor.removeActiveFire(fireEvent.getZoneID());
+                monitor.addExtinguishedFire(fireEvent.getZoneID());
+            }
+            completeEvents.add(fireEvent);
+            journal(SchedulerJournal.Op.COMPLETED, 0, fireEvent);
+            updateMonitorCounts();
+            completionAvailable.signal();
+        } finally {
+            lock.unlock();
         }
-        completeEvents.add(fireEvent);
-        updateMonitorCounts();
-        notifyAll();
     }
 
     /**
      * Retrieving completed fire event
      * @return the next completed fire event or null if simulation is complete
      */
-    public synchronized FireEvent getCompletedEvent() {
-        while(completeEvents.isEmpty() && !(allEventsDone && incompleteEvents.isEmpty())) {
-            try {
-                wait();
-            } catch (InterruptedException e) {
-                e.printStackTrace();
+    public FireEvent getCompletedEvent() {
+        lock.lock();
+        try {
+            while(completeEvents.isEmpty() && !(allEventsDone && incompleteEvents.isEmpty())) {
+                try {
+                    lock.await(completionAvailable);
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                }
             }
+            if(completeEvents.isEmpty() && allEventsDone && incompleteEvents.isEmpty()) {
+                return null;
+            }
+            return completeEvents.poll();
+        } finally {
+            lock.unlock();
         }
-        if(completeEvents.isEmpty() && allEventsDone && incompleteEvents.isEmpty()) {
-            return null;
-        }
-        return completeEvents.poll();
     }
 
     /**
@@ -788,8 +2320,13 @@ public class Scheduler implements Runnable {
         return zones;
     }
 
-    public synchronized int getActiveFireCount() {
-        return incompleteEvents.size();
+    public int getActiveFireCount() {
+        lock.lock();
+        try {
+            return incompleteEvents.size();
+        } finally {
+            lock.unlock();
+        }
     }
 
     public void notifyDroneTransition(Drone.DroneState state) {
@@ -808,6 +2345,485 @@ public class Scheduler implements Runnable {
         return currentState;
     }
 
+    /**
+     * @return how queued events are matched to drones
+     */
+    public DispatchMode getDispatchMode() {
+        lock.lock();
+        try {
+            return dispatchMode;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets how long BATCH_OPTIMAL waits to collect drones and events before matching them
+     * @param batchWindowMillis batch window in milliseconds, 0 matches immediately
+     */
+    public void setBatchWindowMillis(long batchWindowMillis) {
+        lock.lock();
+        try {
+            this.batchWindowMillis = batchWindowMillis;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the policy that decides whether a High fire takes a busy drone off a less severe mission
+     * @param preemptionPolicy the policy, or null to queue every fire until a drone is free
+     */
+    public void setPreemptionPolicy(PreemptionPolicy preemptionPolicy) {
+        lock.lock();
+        try {
+            this.preemptionPolicy = preemptionPolicy;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return number of drones taken off a mission for a more severe fire
+     */
+    public long getPreemptionCount() {
+        lock.lock();
+        try {
+            return preemptions;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Recovers the state recorded in a journal, then records every later state change in it. Must be
+     * called before the UDP server starts and before any fire is reported.
+     *
+     * The newest snapshot in the journal's directory is restored first, with queued events keeping
+     * their boost and the time they had waited, and only the journal records after it are replayed.
+     * Replaying rebuilds the fire queue, with re-queued missions keeping their boost, the completed
+     * events, each drone's mission and fault and the number of active drones. Events queued by replayed
+     * records age again from the time of recovery. A mission displaced by a command the drone never answered is queued
+     * again, and a drone that was still flying to its zone gets a fresh STUCK_IN_FLIGHT deadline, so a
+     * drone that never reports after the restart gives its mission back.
+     * @param journal the journal, shut down with the Scheduler
+     * @throws IOException if the journal cannot be read
+     */
+    public void setJournal(SchedulerJournal journal) throws IOException {
+        lock.lock();
+        try {
+            long start = System.nanoTime();
+            SchedulerPersistence.Recovery recovery = persistence.recover(journal);
+            this.journal = journal;
+            resumeAfterRecovery(recovery.getFlying());
+            long from = recovery.getSnapshotLsn();
+            System.out.printf("[Scheduler] Recovered %s%d journal records in %.1f ms: %d queued, %d completed, %d active drones%n",
+                    from == 0 ? "" : "the snapshot at record " + from + " and ", recovery.getReplayedCount(), (System.nanoTime() - start) / 1e6,
+                    incompleteEvents.size(), completeEvents.size(), activeDroneCount);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Settles the missions of a recovered state: a mission displaced by a command the drone never
+     * answered is queued again and a drone that was flying to its zone gets a fresh STUCK_IN_FLIGHT
+     * deadline
+     * @param flying drones that were flying to their zone
+     */
+    private void resumeAfterRecovery(Set<Integer> flying) {
+        for (DroneStatus status : droneStatuses.values()) {
+            if (status.displacedMission != null) {
+                dropPendingCommand(status);
+            }
+            Zone z = status.currentMission == null ? null : zones.get(status.currentMission.getZoneID());
+            if (flying.contains(status.droneID) && z != null) {
+                armArrivalTimer(status, Math.hypot(z.getCenterX(), z.getCenterY())); // from base, the farthest it can be
+            }
+        }
+        updateMonitorCounts();
+        signalAll();
+    }
+
+    /**
+     * Streams every later state change to a standby SchedulerReplica that connects to the given port.
+     * Must be called before the UDP server starts.
+     * @param port TCP port to listen on for the standby, 0 for any free port
+     * @return the replication server, closed when the Scheduler shuts down
+     * @throws IOException if the port cannot be bound
+     */
+    public ReplicationServer startReplication(int port) throws IOException {
+        lock.lock();
+        try {
+            if (replication != null) {
+                replication.close();
+            }
+            replication = new ReplicationServer(this, port);
+            return replication;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Starts streaming to a standby that just connected, from a snapshot of the current state
+     * @param server the replication server
+     * @param socket connection to the standby
+     */
+    void attachStandby(ReplicationServer server, Socket socket) {
+        lock.lock();
+        try {
+            server.attach(socket, persistence.capture(server.getSequence()));
+            for (DroneStatus status : droneStatuses.values()) {
+                if (status.address != null) {
+                    server.publishDrone(status.droneID, status.address, status.port,
+                            multiplexedPeers.contains(new InetSocketAddress(status.address, status.port)));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Restores the snapshot a primary sent this standby, called once on a fresh Scheduler
+     * @param snapshot the snapshot
+     * @throws IOException if the snapshot cannot be decoded
+     */
+    void restoreReplica(SchedulerSnapshot snapshot) throws IOException {
+        lock.lock();
+        try {
+            replicaRecovery = persistence.newRecovery();
+            replicaRecovery.restore(snapshot);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Applies a state change a primary streamed to this standby, after restoreReplica
+     * @param record the state change
+     */
+    void applyReplicated(SchedulerJournal.Record record) {
+        lock.lock();
+        try {
+            replicaRecovery.apply(record);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records the address of a drone registered with the primary, so this standby can reach it
+     * @param droneID     id of the drone
+     * @param address     address of the drone
+     * @param port        UDP port of the drone
+     * @param multiplexed true if the drone shares its socket with other drones
+     */
+    void registerReplicatedDrone(int droneID, InetAddress address, int port, boolean multiplexed) {
+        lock.lock();
+        try {
+            DroneStatus status = droneStatuses.computeIfAbsent(droneID, DroneStatus::new);
+            status.setAddress(address, port);
+            InetSocketAddress peer = new InetSocketAddress(address, port);
+            if (multiplexed) {
+                multiplexedPeers.add(peer);
+            } else {
+                multiplexedPeers.remove(peer);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Makes this standby the Scheduler in charge of the state it replicated. Every drone it knows the
+     * address of is told to register again by announceFailover.
+     */
+    void takeOver() {
+        lock.lock();
+        try {
+            resumeAfterRecovery(replicaRecovery == null ? Set.of() : replicaRecovery.getFlying());
+            for (DroneStatus status : droneStatuses.values()) {
+                if (status.address != null) {
+                    failoverPending.add(status.droneID);
+                    metrics.registerDrone(status.droneID);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sends FAILOVER to every drone that has not registered with this Scheduler since it took over. The
+     * message is not reliable, so it is sent again until the drones register.
+     * @return number of drones still to register
+     */
+    int announceFailover() {
+        lock.lock();
+        try {
+            for (int droneID : failoverPending) {
+                DroneStatus status = droneStatuses.get(droneID);
+                sendToDrone("FAILOVER," + droneID, droneID, status.address, status.port);
+            }
+            return failoverPending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets a task to run after every ASSIGN_EVENT is sent, on the thread that sent it
+     * @param assignmentListener the task, or null for none
+     */
+    public void setAssignmentListener(Runnable assignmentListener) {
+        this.assignmentListener = assignmentListener;
+    }
+
+    /**
+     * Makes this Scheduler a shard of a cluster, which routes every fire reported to it
+     * @param cluster the cluster
+     */
+    void setCluster(SchedulerCluster cluster) {
+        this.cluster = cluster;
+    }
+
+    /**
+     * @return number of registered drones waiting for an assignment
+     */
+    public int getIdleDroneCount() {
+        lock.lock();
+        try {
+            int idle = 0;
+            for (DroneStatus status : droneStatuses.values()) {
+                if (status.waitingForEvent && status.currentMission == null && status.address != null) {
+                    idle++;
+                }
+            }
+            return idle;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes the highest priority queued fires that this shard's own waiting drones cannot take, so that
+     * another shard with idle drones can service them. They are journaled as lent by confirmLoans.
+     * @param max most fires to take
+     * @return the fires with their waiting credit, highest priority first
+     */
+    List<Loan> lendEvents(int max) {
+        lock.lock();
+        try {
+            int surplus = Math.min(max, incompleteEvents.size() - getIdleDroneCount());
+            List<Loan> loans = new ArrayList<>(Math.max(surplus, 0));
+            long now = clock.millis();
+            for (int i = 0; i < surplus; i++) {
+                FireEvent event = incompleteEvents.peek();
+                long credit = incompleteEvents.getWaitingCredit(event, now);
+                incompleteEvents.poll();
+                loans.add(new Loan(event, credit));
+            }
+            if (!loans.isEmpty()) {
+                updateMonitorCounts();
+                signalStateChange();
+            }
+            return loans;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queues fires lent by another shard and hands them to this shard's waiting drones, returning once
+     * they are durable in this shard's journal
+     * @param loans the fires with the waiting credit they had in the other shard
+     */
+    void borrowEvents(List<Loan> loans) {
+        SchedulerJournal target;
+        long lsn;
+        lock.lock();
+        try {
+            for (Loan loan : loans) {
+                metrics.recordFireStart(loan.event.getZoneID());
+                incompleteEvents.add(loan.event, loan.creditMillis);
+                journal(SchedulerJournal.Op.FIRE_DETECTED, 0, loan.event);
+            }
+            target = journal;
+            lsn = target == null ? 0 : target.getLastLsn();
+            updateMonitorCounts();
+            signalEventsQueued(loans.size());
+            assignPendingEvents();
+        } finally {
+            lock.unlock();
+        }
+        if (target != null) {
+            try {
+                target.awaitDurable(lsn);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Journals fires taken by lendEvents as LENT, once the borrowing shard has journaled them. A crash
+     * before this leaves the fires in this shard's journal too, so recovery may duplicate a lent fire but
+     * never loses one.
+     * @param loans fires returned by lendEvents and queued by the borrowing shard
+     */
+    void confirmLoans(List<Loan> loans) {
+        lock.lock();
+        try {
+            for (Loan loan : loans) {
+                journal(SchedulerJournal.Op.LENT, 0, loan.event);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Snapshots the state now and drops the journal segments the previous snapshot covers, on the
+     * calling thread.
+     * Snapshots are also taken on their own every setSnapshotInterval journal records.
+     * @return LSN of the last journal record the snapshot includes
+     * @throws IOException if the snapshot cannot be written
+     * @throws IllegalStateException if no journal is kept
+     */
+    public long takeSnapshot() throws IOException {
+        SchedulerSnapshot snapshot;
+        SchedulerJournal target;
+        long previous;
+        lock.lock();
+        try {
+            if (journal == null) {
+                throw new IllegalStateException("No journal is kept");
+            }
+            target = journal;
+            previous = persistence.getSnapshotLsn();
+            snapshot = persistence.capture(journal.getLastLsn());
+        } finally {
+            lock.unlock();
+        }
+        try {
+            persistence.store(snapshot, previous, target);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing the snapshot", e);
+        }
+        return snapshot.getLsn();
+    }
+
+    /**
+     * Sets how often the state is snapshotted
+     * @param records journal records between snapshots, 0 to only snapshot through takeSnapshot
+     */
+    public void setSnapshotInterval(int records) {
+        persistence.setSnapshotInterval(records);
+    }
+
+    /**
+     * Sets how many ingest workers handle received messages, must be called before the UDP server starts
+     * @param ingestWorkers number of workers, 0 handles every message on the receive thread
+     */
+    public void setIngestWorkers(int ingestWorkers) {
+        this.ingestWorkers = ingestWorkers;
+    }
+
+    /**
+     * Switches the UDP server to a non-blocking DatagramChannel with a Selector and pooled direct buffers,
+     * must be called before the UDP server starts
+     * @param nioTransport true to use the NIO transport
+     */
+    public void setNioTransport(boolean nioTransport) {
+        this.nioTransport = nioTransport;
+    }
+
+    /**
+     * Sets whether drones that offer the binary WireCodec format at registration are switched to it
+     * @param binaryWire true to accept the binary format
+     */
+    public void setBinaryWire(boolean binaryWire) {
+        this.binaryWire = binaryWire;
+    }
+
+    /**
+     * Sets how often coalesced STATUS_UPDATE messages are applied, must be called before the UDP server starts
+     * @param telemetryTickMillis tick in milliseconds, 0 applies every update as it arrives
+     */
+    public void setTelemetryTickMillis(long telemetryTickMillis) {
+        this.telemetryTickMillis = telemetryTickMillis;
+    }
+
+    /**
+     * Gets where a drone is now, extrapolated from its flight plan while it flies on one
+     * @param droneID id of the drone
+     * @return {x, y} of the drone, or null if the drone never registered
+     */
+    public double[] getEstimatedPosition(int droneID) {
+        DroneStatus status = droneStatuses.get(droneID);
+        return status != null ? estimatePosition(status) : null;
+    }
+
+    /**
+     * @return number of STATUS_UPDATE messages dropped because a newer one from the same drone replaced them
+     */
+    public long getCoalescedTelemetryCount() {
+        return telemetry.getCoalescedCount();
+    }
+
+    /**
+     * @return number of received messages dropped because they could not be parsed
+     */
+    public long getRejectedMessageCount() {
+        return rejectedMessages.get();
+    }
+
+    /**
+     * @return the lock guarding the Scheduler's state, its counters show how long it is held and waited for
+     */
+    public MeasuredLock getLock() {
+        return lock;
+    }
+
+    /**
+     * Changes how queued events are matched to drones
+     * @param dispatchMode new dispatch mode
+     */
+    public void setDispatchMode(DispatchMode dispatchMode) {
+        lock.lock();
+        try {
+            this.dispatchMode = dispatchMode;
+            if (dispatchMode != DispatchMode.FIRST_READY) {
+                for (DroneStatus status : droneStatuses.values()) {
+                    if (status.waitingForEvent && status.currentMission == null) {
+                        availableDrones.update(status.droneID, status.currentX, status.currentY);
+                    }
+                }
+                assignPendingEvents();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes the socket, then stops the ingest pipeline. In that order no datagram can reach a lane that
+     * has already been shut down.
+     */
+    private void closeServer() {
+        DatagramSocket current = socket;
+        if (current != null && !current.isClosed()) {
+            current.close();
+        }
+        UDPIngestPipeline pipeline = ingest;
+        if (pipeline != null) {
+            pipeline.stop();
+        }
+    }
+
     /**
      * Forcefully shuts down the UDP server and closes the socket.
      * Crucial for freeing up the port between JUnit tests.
@@ -815,11 +2831,24 @@ public class Scheduler implements Runnable {
     public void shutdown() {
         this.udpRunning = false;
         this.allEventsDone = true;
-        if (this.socket != null && !this.socket.isClosed()) {
-            this.socket.close();
-        }
-        synchronized (this) {
-            notifyAll(); // Wake up any threads stuck waiting for events
+        arrivalTimer.stop();
+        retransmitTimer.stop();
+        batchTimer.stop();
+        telemetry.stop();
+        closeServer();
+        lock.lock();
+        try {
+            if (journal != null) {
+                journal.close();
+                journal = null;
+            }
+            if (replication != null) {
+                replication.close();
+                replication = null;
+            }
+            signalAll(); // Wake up any threads stuck waiting for events
+        } finally {
+            lock.unlock();
         }
     }
 }
\ No newline at end of file
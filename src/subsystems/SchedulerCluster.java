@@ -0,0 +1,235 @@
+package subsystems;
+
+import model.Clock;
+import model.FireEvent;
+import model.Zone;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SchedulerCluster splits the zone map across several Scheduler shards in one process. Each shard has
+ * its own lock, queue, drone pool and UDP port, so drones working in different parts of the map never
+ * wait on each other.
+ *
+ * The zones are sorted by the x coordinate of their centers and cut into strips of about the same number
+ * of zones, one strip per shard, so the shards on either side of a shard are the ones next to it on the
+ * map. Every shard still knows every zone, a drone can fly anywhere. A fire reported to any shard goes to
+ * the shard that owns its zone, fires in unknown zones go to the first shard. Drones pick a shard by the
+ * port they register on, shard i listens on the base port plus i.
+ *
+ * Every balance interval the cluster looks for a shard with more queued fires than waiting drones next to
+ * a shard with more waiting drones than queued fires. The busy shard lends its highest priority fires, up
+ * to the number of spare drones, and the idle shard queues them with the waiting credit they had and
+ * dispatches its own drones to them. The drone stays registered with its own shard, which is the one it
+ * reports the fire to. ALL_EVENTS_DONE is only passed on to the shards once no shard has queued fires
+ * left, until then idle drones keep waiting so they can still be lent.
+ *
+ * Shards are locked one at a time, a fire is taken from one shard before it is given to the other. Each
+ * shard journals its side of a loan, a crash between the two loses the lent fires.
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class SchedulerCluster implements Runnable {
+
+    /** UDP port of the first shard, which is also where fire incidents are reported by default */
+    public static final int DEFAULT_BASE_PORT = 6000;
+    /** Time between two looks for shards that can lend each other drones */
+    public static final long DEFAULT_BALANCE_MILLIS = 50;
+
+    private final Scheduler[] shards;
+    private final Map<Integer, Integer> zoneOwners = new HashMap<>();
+    private final Clock clock;
+    private long balanceMillis = DEFAULT_BALANCE_MILLIS;
+    private volatile boolean running = true;
+    private volatile boolean allEventsDone = false;
+    private boolean doneForwarded = false;
+    private long lentCount = 0;
+
+    /**
+     * Constructs a cluster on the default ports
+     * @param zoneFilePath path to CSV file containing zones
+     * @param shardCount   number of shards, at most one per zone
+     */
+    public SchedulerCluster(String zoneFilePath, int shardCount) {
+        this(zoneFilePath, shardCount, DEFAULT_BASE_PORT);
+    }
+
+    /**
+     * Constructs a cluster whose shards listen on consecutive UDP ports
+     * @param zoneFilePath path to CSV file containing zones
+     * @param shardCount   number of shards, at most one per zone
+     * @param basePort     UDP port of the first shard
+     */
+    public SchedulerCluster(String zoneFilePath, int shardCount, int basePort) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("shardCount must be at least 1");
+        }
+        shards = new Scheduler[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Scheduler(zoneFilePath);
+            shards[i].schedulerPort = basePort + i;
+            shards[i].setCluster(this);
+        }
+        clock = shards[0].getClock();
+
+        List<Zone> zones = new ArrayList<>(shards[0].getZones().values());
+        if (zones.size() < shardCount) {
+            throw new IllegalArgumentException("shardCount must not exceed the " + zones.size() + " zones");
+        }
+        zones.sort(Comparator.comparingDouble(Zone::getCenterX).thenComparingDouble(Zone::getCenterY)
+                .thenComparingInt(Zone::getZoneID));
+        for (int i = 0; i < zones.size(); i++) {
+            zoneOwners.put(zones.get(i).getZoneID(), (int) ((long) i * shardCount / zones.size()));
+        }
+    }
+
+    /**
+     * Starts every shard on its own thread and lends drones between them until they all finished
+     */
+    @Override
+    public void run() {
+        List<Thread> threads = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            Thread thread = new Thread(shards[i], "Scheduler-Shard-" + i);
+            thread.start();
+            threads.add(thread);
+        }
+        System.out.println("[Cluster] Started " + shards.length + " shards on UDP ports " + shards[0].schedulerPort
+                + " to " + shards[shards.length - 1].schedulerPort);
+        try {
+            while (running && threads.stream().anyMatch(Thread::isAlive)) {
+                balance();
+                clock.sleep(balanceMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("[Cluster] Finished, " + getLentCount() + " fires were lent between shards");
+    }
+
+    /**
+     * Queues a fire on the shard that owns its zone
+     * @param fireEvent the fire
+     */
+    public void newFireEvent(FireEvent fireEvent) {
+        shards[getShardOf(fireEvent.getZoneID())].newFireEvent(fireEvent);
+    }
+
+    /**
+     * Notes that no more fires will be reported, the shards are told once none of them has fires queued
+     */
+    public void updateAllEventsDone() {
+        allEventsDone = true;
+    }
+
+    /**
+     * Lends the queued fires of busy shards to neighbouring shards with idle drones, and passes on
+     * ALL_EVENTS_DONE once no shard has fires queued. Called every balance interval by run().
+     * @return number of fires lent
+     */
+    public synchronized int balance() {
+        int[] idle = new int[shards.length];
+        int[] queued = new int[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            idle[i] = shards[i].getIdleDroneCount();
+            queued[i] = shards[i].getActiveFireCount();
+        }
+
+        int lent = 0;
+        for (int busy = 0; busy < shards.length; busy++) {
+            // the neighbour with more spare drones borrows first
+            int left = busy - 1;
+            int right = busy + 1;
+            boolean rightFirst = right < shards.length && (left < 0 || idle[right] - queued[right] > idle[left] - queued[left]);
+            for (int borrower : rightFirst ? new int[]{right, left} : new int[]{left, right}) {
+                if (queued[busy] <= idle[busy]) {
+                    break; // its own drones take the rest
+                }
+                if (borrower < 0 || borrower >= shards.length || queued[borrower] >= idle[borrower]) {
+                    continue;
+                }
+                List<Scheduler.Loan> loans = shards[busy].lendEvents(idle[borrower] - queued[borrower]);
+                if (loans.isEmpty()) {
+                    break;
+                }
+                // the borrower journals the fires before the lender journals them as lent
+                shards[borrower].borrowEvents(loans);
+                shards[busy].confirmLoans(loans);
+                queued[busy] -= loans.size();
+                queued[borrower] += loans.size();
+                lent += loans.size();
+                System.out.println("[Cluster] Shard " + busy + " lent " + loans.size() + " fires to the idle drones of shard " + borrower);
+            }
+        }
+        lentCount += lent;
+
+        if (allEventsDone && !doneForwarded) {
+            boolean backlog = false;
+            for (int count : queued) {
+                backlog |= count > 0;
+            }
+            if (!backlog) {
+                doneForwarded = true;
+                for (Scheduler shard : shards) {
+                    shard.updateAllEventsDone();
+                }
+            }
+        }
+        return lent;
+    }
+
+    /**
+     * Stops balancing and shuts every shard down
+     */
+    public void shutdown() {
+        running = false;
+        for (Scheduler shard : shards) {
+            shard.shutdown();
+        }
+    }
+
+    /**
+     * @param zoneID id of the zone
+     * @return index of the shard that owns the zone, 0 for a zone that is not in the zone file
+     */
+    public int getShardOf(int zoneID) {
+        return zoneOwners.getOrDefault(zoneID, 0);
+    }
+
+    /**
+     * @param index index of the shard
+     * @return the shard
+     */
+    public Scheduler getShard(int index) {
+        return shards[index];
+    }
+
+    /**
+     * @return number of shards
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * @return number of fires lent between shards so far
+     */
+    public synchronized long getLentCount() {
+        return lentCount;
+    }
+
+    /**
+     * Sets how often run() looks for shards that can lend each other drones
+     * @param balanceMillis interval in milliseconds
+     */
+    public void setBalanceInterval(long balanceMillis) {
+        if (balanceMillis <= 0) {
+            throw new IllegalArgumentException("balanceMillis must be positive");
+        }
+        this.balanceMillis = balanceMillis;
+    }
+}
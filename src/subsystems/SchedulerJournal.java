@@ -0,0 +1,614 @@
+package subsystems;
+
+import model.EnumCodes;
+import model.FireEvent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * SchedulerJournal is an append-only log of the Scheduler's state changes, replayed after a crash to
+ * rebuild its queues and drone table.
+ *
+ * The log is a series of segment files in one directory, each mapped into memory and named after the
+ * sequence number (LSN) of its first record. A segment starts with a 16 byte header, the magic number,
+ * the format version and the first LSN, followed by records. Each record is its payload length, a
+ * CRC32C of the payload and the payload, and a length of 0 marks the end of the log, since a new
+ * segment is all zeros. The length is written last, so a record is either whole or not there.
+ *
+ * An append copies the record into the mapped segment and returns, it never waits for the disk. Once
+ * the bytes are in the mapping they survive a crash of the process, since the operating system writes
+ * the pages back on its own. To survive a crash of the machine as well, a flusher thread forces
+ * everything appended within a group commit window with one msync, so a busy Scheduler pays one
+ * flush per window instead of one per record. awaitDurable() waits for that flush, for callers that
+ * must not go on until a record is on disk.
+ *
+ * When the journal is opened the segments are scanned and appends continue after the last whole
+ * record. A torn or corrupt record ends the log, and whatever follows it is discarded.
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public final class SchedulerJournal implements AutoCloseable {
+
+    /** Size of each segment file in bytes */
+    public static final int DEFAULT_SEGMENT_SIZE = 1 << 20;
+    /** How long the flusher collects appends before it forces them to disk */
+    public static final long DEFAULT_GROUP_COMMIT_MILLIS = 5;
+
+    private static final int MAGIC = 0x534A4E4C; // "SJNL"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_HEADER_SIZE = 8; // length and CRC
+    static final int MAX_PAYLOAD = 512;
+    private static final String PREFIX = "journal-";
+    private static final String SUFFIX = ".seg";
+
+    /**
+     * State changes recorded in the journal
+     */
+    public enum Op {
+        FIRE_DETECTED(0),   // event queued
+        REQUEUED(1),        // event queued again with the re-queue boost
+        ASSIGNED(2),        // event taken from the queue and given to a drone, which becomes active
+        REROUTED(3),        // event taken from the queue, the drone's mission is displaced until it answers
+        RECALLED(4),        // the drone's mission is displaced until it answers
+        RESTORED(5),        // a drone that rejected a command gets its displaced mission back
+        COMMAND_SETTLED(6), // the drone answered its command, nothing is displaced any more
+        ARRIVED(7),         // the drone reached its zone
+        COMPLETED(8),       // event extinguished
+        FAULTED(9),         // the drone faulted and lost its mission
+        RETURNED(10),       // the drone landed, refilled and is no longer active
+        ALL_EVENTS_DONE(11), // no more fires will be reported
+        LENT(12);           // event taken from the queue and handed to another shard of a SchedulerCluster
+
+        /** Byte the op is journaled as, fixed so reordering the constants keeps old journals readable */
+        final byte code;
+
+        Op(int code) {
+            this.code = (byte) code;
+        }
+    }
+
+    private static final Op[] OPS = EnumCodes.byCode(Op.values(), op -> op.code);
+
+    /**
+     * A journal record. Only the fields used by its op are meaningful.
+     */
+    public static class Record {
+        public long lsn;
+        public Op op;
+        public int droneID;
+        public FireEvent event;
+        public Scheduler.FaultType fault = Scheduler.FaultType.NONE;
+    }
+
+    /**
+     * A mapped segment file
+     */
+    private static final class Segment {
+        final long firstLsn;
+        final MappedByteBuffer map;
+        int position = HEADER_SIZE; // end of the last whole record
+        int flushedTo = HEADER_SIZE; // bytes before this are on disk
+
+        Segment(long firstLsn, MappedByteBuffer map) {
+            this.firstLsn = firstLsn;
+            this.map = map;
+        }
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long groupCommitMillis;
+    private final CRC32C crc = new CRC32C();
+    private final ByteBuffer scratch = ByteBuffer.allocate(MAX_PAYLOAD);
+
+    private Segment current;
+    private final List<Segment> sealed = new ArrayList<>(); // full segments not yet forced
+    private long lastLsn;
+    private long durableLsn;
+    private boolean dirty = false;
+    private boolean running = true;
+    private int syncWaiters = 0;
+    private final Thread flusher;
+
+    private long appended = 0;
+    private long bytesAppended = 0;
+    private long forces = 0;
+
+    /**
+     * Opens the journal in a directory with the default segment size and group commit window
+     * @param directory the directory, created if it does not exist
+     * @throws IOException if the directory or a segment cannot be opened
+     */
+    public SchedulerJournal(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_SIZE, DEFAULT_GROUP_COMMIT_MILLIS);
+    }
+
+    /**
+     * Opens the journal in a directory
+     * @param directory         the directory, created if it does not exist
+     * @param segmentSize       size of each segment file in bytes
+     * @param groupCommitMillis how long the flusher collects appends before it forces them, 0 to force
+     *                          as soon as it can
+     * @throws IOException if the directory or a segment cannot be opened, or a segment is not a journal
+     */
+    public SchedulerJournal(Path directory, int segmentSize, long groupCommitMillis) throws IOException {
+        if (segmentSize < HEADER_SIZE + RECORD_HEADER_SIZE + MAX_PAYLOAD) {
+            throw new IllegalArgumentException("Segment size " + segmentSize + " is too small");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.groupCommitMillis = groupCommitMillis;
+        Files.createDirectories(directory);
+
+        Segment last = null;
+        long nextLsn = 1;
+        boolean ended = false;
+        for (Path file : segmentFiles()) {
+            if (ended) {
+                Files.delete(file); // follows the end of the log
+                continue;
+            }
+            Segment segment = map(file, FileChannel.MapMode.READ_WRITE, segmentSize);
+            if (last != null && segment.firstLsn != nextLsn) {
+                System.err.println("[Journal] Discarding " + file + ", the log ended at record " + (nextLsn - 1));
+                Files.delete(file);
+                ended = true;
+                continue;
+            }
+            nextLsn = segment.firstLsn + scan(segment, Long.MAX_VALUE, null, null);
+            last = segment;
+            if (!endsCleanly(segment)) {
+                System.err.println("[Journal] Discarding a torn record after record " + (nextLsn - 1) + " in " + file);
+                clearTail(segment);
+                ended = true;
+            }
+        }
+        lastLsn = nextLsn - 1;
+        durableLsn = lastLsn;
+        current = last != null ? last : create(nextLsn);
+        current.flushedTo = current.position;
+
+        flusher = new Thread(this::flushLoop, "Scheduler-Journal");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Hands every record in the journal to a consumer, oldest first. The record object is reused.
+     * @param consumer receives each record
+     * @return number of records replayed
+     * @throws IOException if a segment cannot be read
+     */
+    public long replay(Consumer<Record> consumer) throws IOException {
+        return replay(0, consumer);
+    }
+
+    /**
+     * Hands the records after an LSN to a consumer, oldest first. Segments that hold only earlier
+     * records are not read. The record object is reused.
+     * @param afterLsn LSN of the last record the caller already has, such as a snapshot's
+     * @param consumer receives each record
+     * @return number of records replayed
+     * @throws IOException if a segment cannot be read
+     */
+    public long replay(long afterLsn, Consumer<Record> consumer) throws IOException {
+        long end;
+        synchronized (this) {
+            end = lastLsn;
+        }
+        List<Path> files = segmentFiles();
+        long[] count = {0};
+        Record record = new Record();
+        Consumer<Record> after = r -> {
+            if (r.lsn > afterLsn) {
+                count[0]++;
+                consumer.accept(r);
+            }
+        };
+        for (int i = 0; i < files.size(); i++) {
+            if (i + 1 < files.size() && firstLsnOf(files.get(i + 1)) <= afterLsn + 1) {
+                continue; // the next segment starts at or before the first record wanted
+            }
+            scan(map(files.get(i), FileChannel.MapMode.READ_ONLY, 0), end, after, record);
+        }
+        return count[0];
+    }
+
+    /**
+     * Deletes the segments that hold only records up to an LSN, normally one a snapshot includes. The
+     * segment being appended to is always kept.
+     * @param lsn LSN of the last record that is no longer needed
+     * @return number of segment files deleted
+     * @throws IOException if the directory cannot be listed or a segment cannot be deleted
+     */
+    public int truncate(long lsn) throws IOException {
+        long currentFirst;
+        synchronized (this) {
+            currentFirst = current.firstLsn;
+        }
+        List<Path> files = segmentFiles();
+        int deleted = 0;
+        for (int i = 0; i + 1 < files.size(); i++) {
+            long nextFirst = firstLsnOf(files.get(i + 1));
+            if (nextFirst > lsn + 1 || firstLsnOf(files.get(i)) >= currentFirst) {
+                break;
+            }
+            Files.delete(files.get(i)); // a sealed segment still being forced stays mapped until it is done
+            deleted++;
+        }
+        return deleted;
+    }
+
+    /**
+     * Appends a record, returning as soon as it is in the mapped segment
+     * @param op      the state change
+     * @param droneID id of the drone, 0 if the change is not about a drone
+     * @param event   the fire event, or null
+     * @param fault   the drone fault, for FAULTED
+     * @return the record's LSN
+     * @throws IOException if the journal is closed or a new segment cannot be created
+     */
+    public synchronized long append(Op op, int droneID, FireEvent event, Scheduler.FaultType fault) throws IOException {
+        if (!running) {
+            throw new IOException("Journal is closed");
+        }
+        ByteBuffer payload = encode(scratch.clear(), op, droneID, event, fault).flip();
+        int length = payload.remaining();
+        if (current.position + RECORD_HEADER_SIZE + length > current.map.capacity()) {
+            if (current.position > current.flushedTo) {
+                sealed.add(current);
+            }
+            current = create(lastLsn + 1);
+        }
+        crc.reset();
+        crc.update(payload.array(), 0, length);
+        MappedByteBuffer map = current.map;
+        int at = current.position;
+        map.putInt(at + 4, (int) crc.getValue());
+        map.put(at + RECORD_HEADER_SIZE, payload.array(), 0, length);
+        map.putInt(at, length); // publishes the record
+        current.position = at + RECORD_HEADER_SIZE + length;
+
+        appended++;
+        bytesAppended += RECORD_HEADER_SIZE + length;
+        if (!dirty) {
+            dirty = true;
+            notifyAll();
+        }
+        return ++lastLsn;
+    }
+
+    /**
+     * Waits until a record has been forced to disk, or the journal is closed
+     * @param lsn LSN returned by append()
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized void awaitDurable(long lsn) throws InterruptedException {
+        syncWaiters++;
+        try {
+            notifyAll(); // cuts the group commit window short
+            while (durableLsn < lsn && flusher.isAlive()) {
+                wait();
+            }
+        } finally {
+            syncWaiters--;
+        }
+    }
+
+    /**
+     * Forces everything appended so far and stops the flusher. Later appends fail.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            running = false;
+            notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Forces appended records to disk, collecting them for one group commit window at a time
+     */
+    private void flushLoop() {
+        try {
+            while (true) {
+                List<Segment> full;
+                Segment segment;
+                int from;
+                int to;
+                long lsn;
+                synchronized (this) {
+                    while (running && !dirty) {
+                        wait();
+                    }
+                    if (!dirty) {
+                        return;
+                    }
+                    long windowEnd = System.nanoTime() + groupCommitMillis * 1_000_000;
+                    long remaining;
+                    while (running && syncWaiters == 0 && (remaining = windowEnd - System.nanoTime()) > 0) {
+                        wait(Math.max(1, remaining / 1_000_000));
+                    }
+                    dirty = false;
+                    full = new ArrayList<>(sealed);
+                    sealed.clear();
+                    segment = current;
+                    from = segment.flushedTo;
+                    to = segment.position;
+                    segment.flushedTo = to;
+                    lsn = lastLsn;
+                }
+                for (Segment s : full) {
+                    s.map.force(s.flushedTo, s.position - s.flushedTo);
+                }
+                if (to > from) {
+                    segment.map.force(from, to - from);
+                }
+                synchronized (this) {
+                    durableLsn = lsn;
+                    forces++;
+                    notifyAll();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (UncheckedIOException e) {
+            System.err.println("[Journal] Flush failed: " + e.getMessage());
+        } finally {
+            synchronized (this) {
+                running = false;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Encodes a record payload, also used for the records streamed to a standby Scheduler
+     * @param out     receives the payload, at least MAX_PAYLOAD bytes must remain
+     * @param op      the state change
+     * @param droneID id of the drone, 0 if the change is not about a drone
+     * @param event   the fire event, or null
+     * @param fault   the drone fault, or null
+     * @return out, positioned after the payload
+     */
+    static ByteBuffer encode(ByteBuffer out, Op op, int droneID, FireEvent event, Scheduler.FaultType fault) {
+        out.put(op.code);
+        out.putInt(droneID);
+        out.put(fault == null ? Scheduler.FaultType.NONE.code : fault.code);
+        out.put((byte) (event == null ? 0 : 1));
+        if (event != null) {
+            byte[] time = event.getTime().getBytes(StandardCharsets.UTF_8);
+            if (time.length > MAX_PAYLOAD - 32) {
+                throw new IllegalArgumentException("Event time is too long to journal");
+            }
+            out.putInt(event.getZoneID());
+            out.put(event.getType().code);
+            out.put(event.getSeverity().code);
+            out.put(event.getFaultType().code);
+            out.putShort((short) time.length);
+            out.put(time);
+        }
+        return out;
+    }
+
+    /**
+     * Decodes a record payload
+     * @param in     the payload between position and limit
+     * @param record filled in with the record
+     * @throws IllegalArgumentException if the payload holds a code this version does not know
+     */
+    static void decode(ByteBuffer in, Record record) {
+        record.op = EnumCodes.lookup(OPS, in.get() & 0xff);
+        record.droneID = in.getInt();
+        record.fault = Scheduler.FaultType.fromCode(in.get() & 0xff);
+        record.event = null;
+        if (record.op == null || record.fault == null) {
+            throw new IllegalArgumentException("Unknown op or fault code");
+        }
+        if (in.get() != 0) {
+            int zoneID = in.getInt();
+            FireEvent.Type type = FireEvent.Type.fromCode(in.get() & 0xff);
+            FireEvent.Severity severity = FireEvent.Severity.fromCode(in.get() & 0xff);
+            FireEvent.FaultType eventFault = FireEvent.FaultType.fromCode(in.get() & 0xff);
+            if (type == null || severity == null || eventFault == null) {
+                throw new IllegalArgumentException("Unknown event code");
+            }
+            byte[] time = new byte[in.getShort()];
+            in.get(time);
+            record.event = new FireEvent(new String(time, StandardCharsets.UTF_8), zoneID, type, severity, eventFault);
+        }
+    }
+
+    /**
+     * Walks the whole records of a segment and leaves its position after the last one
+     * @param segment  the segment
+     * @param end      LSN of the last record to walk
+     * @param consumer receives each record, or null to only validate them
+     * @param record   reused for each record handed to the consumer
+     * @return number of records walked
+     */
+    private static long scan(Segment segment, long end, Consumer<Record> consumer, Record record) {
+        ByteBuffer map = segment.map;
+        CRC32C check = new CRC32C();
+        int at = HEADER_SIZE;
+        long count = 0;
+        while (at + RECORD_HEADER_SIZE <= map.capacity() && segment.firstLsn + count <= end) {
+            int length = map.getInt(at);
+            if (length <= 0 || length > MAX_PAYLOAD || at + RECORD_HEADER_SIZE + length > map.capacity()) {
+                break;
+            }
+            ByteBuffer payload = map.slice(at + RECORD_HEADER_SIZE, length);
+            check.reset();
+            check.update(payload.duplicate());
+            if ((int) check.getValue() != map.getInt(at + 4)) {
+                break;
+            }
+            if (consumer != null) {
+                try {
+                    record.lsn = segment.firstLsn + count;
+                    decode(payload, record);
+                } catch (RuntimeException e) {
+                    break; // a record this version cannot read ends the log
+                }
+                consumer.accept(record);
+            }
+            count++;
+            at += RECORD_HEADER_SIZE + length;
+        }
+        segment.position = at;
+        return count;
+    }
+
+    /**
+     * @return true if nothing but zeros follows the last whole record of a scanned segment
+     */
+    private static boolean endsCleanly(Segment segment) {
+        ByteBuffer map = segment.map;
+        return segment.position + 4 > map.capacity() || map.getInt(segment.position) == 0;
+    }
+
+    /**
+     * Zeros a segment after its last whole record, so appends never sit next to a torn one
+     */
+    private static void clearTail(Segment segment) {
+        MappedByteBuffer map = segment.map;
+        for (int i = segment.position; i < map.capacity(); i++) {
+            map.put(i, (byte) 0);
+        }
+        map.force();
+    }
+
+    /**
+     * Creates and maps a new segment
+     * @param firstLsn LSN of the segment's first record
+     * @return the segment
+     * @throws IOException if the file cannot be created
+     */
+    private Segment create(long firstLsn) throws IOException {
+        Path file = directory.resolve(fileName(firstLsn));
+        MappedByteBuffer map;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // the mapping stays valid after the channel is closed
+            map = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        map.putLong(8, firstLsn);
+        map.putInt(4, VERSION);
+        map.putInt(0, MAGIC);
+        return new Segment(firstLsn, map);
+    }
+
+    /**
+     * Maps an existing segment
+     * @param file the segment file
+     * @param mode READ_ONLY or READ_WRITE
+     * @param size size to map for READ_WRITE, grown to if the file is shorter
+     * @return the segment
+     * @throws IOException if the file cannot be mapped or is not a segment
+     */
+    private static Segment map(Path file, FileChannel.MapMode mode, int size) throws IOException {
+        MappedByteBuffer map;
+        boolean write = mode == FileChannel.MapMode.READ_WRITE;
+        try (FileChannel channel = write
+                ? FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(file, StandardOpenOption.READ)) {
+            map = channel.map(mode, 0, write ? Math.max(size, channel.size()) : channel.size());
+        }
+        if (map.capacity() < HEADER_SIZE || map.getInt(0) != MAGIC || map.getInt(4) != VERSION) {
+            throw new IOException(file + " is not a journal segment");
+        }
+        return new Segment(map.getLong(8), map);
+    }
+
+    /**
+     * @return the segment files in LSN order
+     * @throws IOException if the directory cannot be listed
+     */
+    private List<Path> segmentFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        files.sort(null); // names are zero padded LSNs
+        return files;
+    }
+
+    /**
+     * @param file a segment file
+     * @return LSN of the segment's first record, from its name
+     */
+    private static long firstLsnOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    /**
+     * @param firstLsn LSN of the segment's first record
+     * @return the segment's file name
+     */
+    private static String fileName(long firstLsn) {
+        return String.format("%s%020d%s", PREFIX, firstLsn, SUFFIX);
+    }
+
+    /**
+     * @return the directory holding the segments
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @return LSN of the last record appended, 0 if the journal is empty
+     */
+    public synchronized long getLastLsn() {
+        return lastLsn;
+    }
+
+    /**
+     * @return LSN of the last record known to be on disk
+     */
+    public synchronized long getDurableLsn() {
+        return durableLsn;
+    }
+
+    /**
+     * @return number of records appended since the journal was opened
+     */
+    public synchronized long getAppendedCount() {
+        return appended;
+    }
+
+    /**
+     * @return bytes appended since the journal was opened, record headers included
+     */
+    public synchronized long getBytesAppended() {
+        return bytesAppended;
+    }
+
+    /**
+     * @return number of group commits the flusher forced to disk
+     */
+    public synchronized long getForceCount() {
+        return forces;
+    }
+}
@@ -0,0 +1,391 @@
+package subsystems;
+
+import model.FireEvent;
+import metrics.MetricsTracker;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * SchedulerPersistence snapshots the Scheduler's state and rebuilds it from a snapshot and the journal
+ * or replication records after it. It only sees the state through the narrow State interface, so the
+ * Scheduler itself only appends journal records and decides when recovery runs.
+ *
+ * A snapshot is captured while the Scheduler holds its lock and written on another thread once the
+ * journal records it includes are durable, after which the journal segments the previous snapshot
+ * covers are dropped. The snapshot interval and the LSN of the last snapshot are guarded by this
+ * object's monitor, which the snapshot thread takes without ever taking the Scheduler lock.
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+final class SchedulerPersistence {
+
+    /**
+     * The part of the Scheduler's state that is snapshotted and replayed, only used with its lock held
+     */
+    interface State {
+        /**
+         * @return queue of incomplete events
+         */
+        FireEventQueue getQueue();
+
+        /**
+         * @return completed events
+         */
+        Collection<FireEvent> getCompleted();
+
+        /**
+         * @return status of every known drone by ID
+         */
+        Map<Integer, Scheduler.DroneStatus> getDrones();
+
+        /**
+         * @return metrics whose counters are kept in snapshots
+         */
+        MetricsTracker getMetrics();
+
+        /**
+         * @return time on the Scheduler's clock
+         */
+        long now();
+
+        /**
+         * @return true if no more fires will be reported
+         */
+        boolean isAllEventsDone();
+
+        /**
+         * @param allEventsDone true if no more fires will be reported
+         */
+        void setAllEventsDone(boolean allEventsDone);
+
+        /**
+         * @return number of drones on a mission
+         */
+        int getActiveDroneCount();
+
+        /**
+         * @param activeDroneCount number of drones on a mission
+         */
+        void setActiveDroneCount(int activeDroneCount);
+    }
+
+    /**
+     * One recovery in progress: a snapshot is restored, then the records after it are applied in order.
+     * Queued events are matched by value, since the queue tells events apart by identity, and drones sent
+     * to a zone that have not reported arriving are collected so they can get a fresh arrival deadline.
+     */
+    final class Recovery {
+        private final Map<String, ArrayDeque<FireEvent>> queued = new HashMap<>();
+        private final Set<Integer> flying = new HashSet<>();
+        private long snapshotLsn = 0;
+        private long replayed = 0;
+
+        private Recovery() {
+        }
+
+        /**
+         * Restores the state from a snapshot, before the records after it are applied
+         * @param snapshot the snapshot
+         * @throws IOException if the snapshot cannot be decoded
+         */
+        void restore(SchedulerSnapshot snapshot) throws IOException {
+            try (DataInputStream in = snapshot.open()) {
+                state.setAllEventsDone(in.readBoolean());
+                state.setActiveDroneCount(in.readInt());
+                for (int i = in.readInt(); i > 0; i--) {
+                    FireEvent event = SchedulerSnapshot.readEvent(in);
+                    state.getQueue().add(event, in.readLong());
+                    queued.computeIfAbsent(event.toString(), k -> new ArrayDeque<>()).add(event);
+                }
+                for (int i = in.readInt(); i > 0; i--) {
+                    state.getCompleted().add(SchedulerSnapshot.readEvent(in));
+                }
+                for (int i = in.readInt(); i > 0; i--) {
+                    Scheduler.DroneStatus status = new Scheduler.DroneStatus(in.readInt());
+                    status.currentX = in.readDouble();
+                    status.currentY = in.readDouble();
+                    status.agentRemaining = in.readDouble();
+                    status.currentFault = Scheduler.FaultType.fromCode(in.readUnsignedByte());
+                    if (status.currentFault == null) {
+                        throw new IOException("Unknown fault code in snapshot");
+                    }
+                    status.currentMission = SchedulerSnapshot.readEvent(in);
+                    status.displacedMission = SchedulerSnapshot.readEvent(in);
+                    if (in.readBoolean()) {
+                        flying.add(status.droneID);
+                    }
+                    state.getDrones().put(status.droneID, status);
+                }
+                state.getMetrics().readState(in);
+            }
+            snapshotLsn = snapshot.getLsn();
+            synchronized (SchedulerPersistence.this) {
+                lastSnapshotLsn = snapshotLsn;
+            }
+        }
+
+        /**
+         * Applies one journal or replication record to the state
+         * @param record the record
+         */
+        void apply(SchedulerJournal.Record record) {
+            FireEvent event = record.event;
+            boolean aboutDrone = record.droneID != 0 && record.op != SchedulerJournal.Op.FIRE_DETECTED
+                    && record.op != SchedulerJournal.Op.REQUEUED && record.op != SchedulerJournal.Op.COMPLETED;
+            Scheduler.DroneStatus status = aboutDrone ? state.getDrones().computeIfAbsent(record.droneID, Scheduler.DroneStatus::new) : null;
+            switch (record.op) {
+                case FIRE_DETECTED:
+                case REQUEUED:
+                    if (record.op == SchedulerJournal.Op.FIRE_DETECTED) {
+                        state.getQueue().add(event);
+                    } else {
+                        state.getQueue().requeue(event);
+                    }
+                    queued.computeIfAbsent(event.toString(), k -> new ArrayDeque<>()).add(event);
+                    break;
+                case ASSIGNED:
+                case REROUTED:
+                case RESTORED:
+                case LENT:
+                    ArrayDeque<FireEvent> same = queued.get(event.toString());
+                    FireEvent taken = same == null ? null : same.poll();
+                    if (taken != null) {
+                        state.getQueue().remove(taken);
+                    }
+                    if (record.op == SchedulerJournal.Op.ASSIGNED) {
+                        state.setActiveDroneCount(state.getActiveDroneCount() + 1);
+                    }
+                    if (status != null) {
+                        if (record.op == SchedulerJournal.Op.REROUTED) {
+                            status.displacedMission = status.currentMission;
+                        }
+                        status.currentMission = event;
+                        flying.add(status.droneID);
+                    }
+                    break;
+                case RECALLED:
+                    if (status != null) {
+                        status.displacedMission = status.currentMission;
+                        status.currentMission = null;
+                        flying.remove(status.droneID);
+                    }
+                    break;
+                case COMMAND_SETTLED:
+                    if (status != null) {
+                        status.displacedMission = null;
+                    }
+                    break;
+                case ARRIVED:
+                    flying.remove(record.droneID);
+                    break;
+                case COMPLETED:
+                    state.getCompleted().add(event);
+                    break;
+                case FAULTED:
+                    if (status != null) {
+                        status.currentFault = record.fault;
+                        if (status.currentMission != null) {
+                            status.currentMission = null;
+                            state.setActiveDroneCount(state.getActiveDroneCount() - 1);
+                        }
+                    }
+                    flying.remove(record.droneID);
+                    break;
+                case RETURNED:
+                    if (status != null) {
+                        status.currentMission = null;
+                        status.agentRemaining = 100.0;
+                        status.currentFault = Scheduler.FaultType.NONE;
+                    }
+                    if (state.getActiveDroneCount() > 0) {
+                        state.setActiveDroneCount(state.getActiveDroneCount() - 1);
+                    }
+                    flying.remove(record.droneID);
+                    break;
+                case ALL_EVENTS_DONE:
+                    state.setAllEventsDone(true);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        /**
+         * @return drones that were flying to their zone
+         */
+        Set<Integer> getFlying() {
+            return flying;
+        }
+
+        /**
+         * @return LSN of the restored snapshot, 0 if none was restored
+         */
+        long getSnapshotLsn() {
+            return snapshotLsn;
+        }
+
+        /**
+         * @return number of journal records replayed by recover()
+         */
+        long getReplayedCount() {
+            return replayed;
+        }
+    }
+
+    private final State state;
+    private int snapshotEveryRecords = 50_000; // guarded by this
+    private long lastSnapshotLsn = 0;          // guarded by this
+    private boolean snapshotInProgress = false; // guarded by this
+
+    /**
+     * @param state the Scheduler's state
+     */
+    SchedulerPersistence(State state) {
+        this.state = state;
+    }
+
+    /**
+     * @return a recovery that starts from an empty state
+     */
+    Recovery newRecovery() {
+        return new Recovery();
+    }
+
+    /**
+     * Restores the newest snapshot in a journal's directory, then replays the journal records after it
+     * @param journal the journal
+     * @return the finished recovery
+     * @throws IOException if the journal or snapshot cannot be read
+     */
+    Recovery recover(SchedulerJournal journal) throws IOException {
+        Recovery recovery = new Recovery();
+        SchedulerSnapshot snapshot = SchedulerSnapshot.readLatest(journal.getDirectory());
+        if (snapshot != null) {
+            recovery.restore(snapshot);
+        }
+        recovery.replayed = journal.replay(recovery.getSnapshotLsn(), recovery::apply);
+        return recovery;
+    }
+
+    /**
+     * Copies the state into a snapshot, called with the Scheduler lock held
+     * @param lsn LSN of the last journal record the state includes
+     * @return the snapshot
+     */
+    SchedulerSnapshot capture(long lsn) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeBoolean(state.isAllEventsDone());
+            out.writeInt(state.getActiveDroneCount());
+
+            // queued events keep their place through their waiting credit
+            FireEventQueue queue = state.getQueue();
+            List<FireEvent> queued = queue.toList();
+            long now = state.now();
+            out.writeInt(queued.size());
+            for (FireEvent event : queued) {
+                SchedulerSnapshot.writeEvent(out, event);
+                out.writeLong(queue.getWaitingCredit(event, now));
+            }
+            Collection<FireEvent> completed = state.getCompleted();
+            out.writeInt(completed.size());
+            for (FireEvent event : completed) {
+                SchedulerSnapshot.writeEvent(out, event);
+            }
+
+            List<Scheduler.DroneStatus> statuses = new ArrayList<>(state.getDrones().values());
+            out.writeInt(statuses.size());
+            for (Scheduler.DroneStatus status : statuses) {
+                out.writeInt(status.droneID);
+                out.writeDouble(status.currentX);
+                out.writeDouble(status.currentY);
+                out.writeDouble(status.agentRemaining);
+                out.writeByte(status.currentFault.code);
+                SchedulerSnapshot.writeEvent(out, status.currentMission);
+                SchedulerSnapshot.writeEvent(out, status.displacedMission);
+                out.writeBoolean(status.currentMission != null && status.expectedArrivalTime != 0);
+            }
+            state.getMetrics().writeState(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // a ByteArrayOutputStream does not fail
+        }
+        return new SchedulerSnapshot(lsn, bytes.toByteArray());
+    }
+
+    /**
+     * Starts a snapshot on its own thread if the interval has passed since the last one, called with the
+     * Scheduler lock held right after a record is appended
+     * @param journal the journal the record went to
+     * @param lsn     LSN of the record
+     */
+    synchronized void recorded(SchedulerJournal journal, long lsn) {
+        if (snapshotEveryRecords > 0 && lsn - lastSnapshotLsn >= snapshotEveryRecords && !snapshotInProgress) {
+            snapshotInProgress = true;
+            SchedulerSnapshot snapshot = capture(lsn);
+            long previous = lastSnapshotLsn;
+            new Thread(() -> writeInBackground(snapshot, previous, journal), "Scheduler-Snapshot").start();
+        }
+    }
+
+    /**
+     * Snapshot thread body, see store()
+     */
+    private void writeInBackground(SchedulerSnapshot snapshot, long previous, SchedulerJournal journal) {
+        try {
+            int truncated = store(snapshot, previous, journal);
+            System.out.println("[Scheduler] Snapshot at journal record " + snapshot.getLsn() + " (" + snapshot.getSize()
+                    + " bytes), " + truncated + " journal segments truncated");
+        } catch (IOException | InterruptedException e) {
+            System.err.println("[Scheduler] Snapshot failed: " + e.getMessage());
+        } finally {
+            synchronized (this) {
+                snapshotInProgress = false;
+            }
+        }
+    }
+
+    /**
+     * Writes a snapshot and drops the journal segments the previous snapshot covers. The segments after
+     * the previous snapshot are kept in case the new one is damaged.
+     * @param snapshot the snapshot
+     * @param previous LSN of the previous snapshot, 0 if there is none
+     * @param journal  the journal it was taken from
+     * @return number of journal segments dropped
+     * @throws IOException if the snapshot cannot be written
+     * @throws InterruptedException if interrupted while waiting for the journal
+     */
+    int store(SchedulerSnapshot snapshot, long previous, SchedulerJournal journal) throws IOException, InterruptedException {
+        snapshot.store(journal);
+        int truncated = journal.truncate(previous);
+        synchronized (this) {
+            lastSnapshotLsn = Math.max(lastSnapshotLsn, snapshot.getLsn());
+        }
+        return truncated;
+    }
+
+    /**
+     * @return LSN of the last snapshot written or restored, 0 if there is none
+     */
+    synchronized long getSnapshotLsn() {
+        return lastSnapshotLsn;
+    }
+
+    /**
+     * @param records journal records between snapshots, 0 to only snapshot on request
+     */
+    synchronized void setSnapshotInterval(int records) {
+        this.snapshotEveryRecords = records;
+    }
+}
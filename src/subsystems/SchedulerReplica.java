@@ -0,0 +1,286 @@
+package subsystems;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+
+/**
+ * SchedulerReplica is a hot standby for a primary Scheduler. It follows the primary's ReplicationServer,
+ * keeping a Scheduler of its own in the same state, and takes over when the primary is lost.
+ *
+ * Each connection starts from a fresh Scheduler restored from the primary's snapshot, then applies
+ * every streamed record with the same replay the journal uses. Any frame, heartbeats included, shows
+ * the primary is alive. If nothing arrives for the failover timeout, or the connection breaks and
+ * cannot be made again within it, the primary is taken to be lost. The standby then settles the missions
+ * the same way journal recovery does. It starts its own UDP server on the standby port and sends FAILOVER
+ * to every drone the primary had registered, again until each one registers with it. A drone that can
+ * fail over moves to the next address in its list and registers again.
+ *
+ * A standby that never received a snapshot keeps trying to connect, it has no state to take over with.
+ * The primary is not fenced, one that is only cut off from the standby keeps running too.
+ *
+ * The failover time is measured from the last frame heard from the primary, the latest the primary is
+ * known to have been alive, to the first ASSIGN_EVENT the standby sends.
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class SchedulerReplica implements Runnable {
+
+    /** UDP port a standby serves drones on after taking over */
+    public static final int DEFAULT_STANDBY_PORT = 6001;
+    /** TCP port a primary's ReplicationServer listens on by default */
+    public static final int DEFAULT_REPLICATION_PORT = 6100;
+    /** Silence after which the primary is taken to be lost, ten missed heartbeats */
+    public static final long DEFAULT_FAILOVER_TIMEOUT_MILLIS = 10 * ReplicationServer.HEARTBEAT_MILLIS;
+
+    private static final long RECONNECT_MILLIS = 50;
+    private static final int ANNOUNCE_ATTEMPTS = 50;
+
+    private final String zoneFilePath;
+    private final String primaryHost;
+    private final int replicationPort;
+    private final int standbyPort;
+    private long failoverTimeoutMillis = DEFAULT_FAILOVER_TIMEOUT_MILLIS;
+    private volatile boolean running = true;
+
+    private volatile Scheduler scheduler;
+    private volatile long appliedSequence = -1;
+    private volatile Socket connection;
+
+    private volatile boolean tookOver = false;
+    private volatile long lastHeardNanos;
+    private volatile long detectionMillis = -1;
+    private volatile long failoverMillis = -1;
+    private volatile Runnable takeoverListener;
+
+    /**
+     * @param zoneFilePath    zone file, the same one the primary reads
+     * @param primaryHost     host the primary runs on
+     * @param replicationPort TCP port of the primary's ReplicationServer
+     * @param standbyPort     UDP port to serve drones on after taking over
+     */
+    public SchedulerReplica(String zoneFilePath, String primaryHost, int replicationPort, int standbyPort) {
+        this.zoneFilePath = zoneFilePath;
+        this.primaryHost = primaryHost;
+        this.replicationPort = replicationPort;
+        this.standbyPort = standbyPort;
+    }
+
+    /**
+     * Follows the primary until it is lost, then takes over. Returns once the standby serves drones or
+     * it was stopped.
+     */
+    @Override
+    public void run() {
+        while (running) {
+            boolean connected = false;
+            try (Socket socket = new Socket()) {
+                connection = socket;
+                socket.connect(new InetSocketAddress(primaryHost, replicationPort), (int) failoverTimeoutMillis);
+                socket.setSoTimeout((int) failoverTimeoutMillis);
+                connected = true;
+                System.out.println("[Replica] Following the primary at " + primaryHost + ":" + replicationPort);
+                follow(new DataInputStream(new BufferedInputStream(socket.getInputStream(), 64 * 1024)));
+            } catch (SocketTimeoutException e) {
+                if (connected) {
+                    System.err.println("[Replica] No heartbeat from the primary for " + failoverTimeoutMillis + " ms");
+                }
+            } catch (IOException e) {
+                if (running && connected) { // failed reconnection attempts are not worth a line each
+                    System.err.println("[Replica] Lost the primary: " + e);
+                }
+            } finally {
+                connection = null;
+            }
+            if (!running) {
+                return;
+            }
+            if (appliedSequence >= 0 && (System.nanoTime() - lastHeardNanos) / 1_000_000 >= failoverTimeoutMillis) {
+                takeOver();
+                return;
+            }
+            try {
+                Thread.sleep(RECONNECT_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Applies frames from the primary until the connection ends
+     * @param in the connection
+     * @throws IOException if the connection breaks, times out or a frame is malformed
+     */
+    private void follow(DataInputStream in) throws IOException {
+        SchedulerJournal.Record record = new SchedulerJournal.Record();
+        byte[] payload = new byte[SchedulerJournal.MAX_PAYLOAD + 16];
+        while (running) {
+            byte type = in.readByte();
+            int length = in.readInt();
+            lastHeardNanos = System.nanoTime();
+            switch (type) {
+                case ReplicationServer.SNAPSHOT:
+                    long sequence = in.readLong();
+                    byte[] state = new byte[length - 8];
+                    in.readFully(state);
+                    Scheduler fresh = new Scheduler(zoneFilePath);
+                    fresh.restoreReplica(new SchedulerSnapshot(sequence, state));
+                    Scheduler old = scheduler;
+                    scheduler = fresh;
+                    appliedSequence = sequence;
+                    if (old != null) {
+                        old.shutdown();
+                    }
+                    System.out.println("[Replica] Synced from a snapshot at sequence " + sequence + " (" + state.length + " bytes)");
+                    break;
+                case ReplicationServer.RECORD:
+                    if (length > payload.length || scheduler == null) {
+                        throw new IOException("Unexpected record frame");
+                    }
+                    in.readFully(payload, 0, length);
+                    ByteBuffer buffer = ByteBuffer.wrap(payload, 0, length);
+                    record.lsn = buffer.getLong();
+                    if (record.lsn != appliedSequence + 1) {
+                        throw new IOException("Record " + record.lsn + " does not follow " + appliedSequence);
+                    }
+                    SchedulerJournal.decode(buffer, record);
+                    scheduler.applyReplicated(record);
+                    appliedSequence = record.lsn;
+                    break;
+                case ReplicationServer.DRONE:
+                    if (length > payload.length || scheduler == null) {
+                        throw new IOException("Unexpected drone frame");
+                    }
+                    in.readFully(payload, 0, length);
+                    ByteBuffer drone = ByteBuffer.wrap(payload, 0, length);
+                    int droneID = drone.getInt();
+                    byte[] host = new byte[drone.get()];
+                    drone.get(host);
+                    int port = drone.getInt();
+                    scheduler.registerReplicatedDrone(droneID, InetAddress.getByAddress(host), port, drone.get() != 0);
+                    break;
+                case ReplicationServer.HEARTBEAT:
+                    in.skipNBytes(length);
+                    break;
+                default:
+                    throw new IOException("Unknown frame type " + type);
+            }
+        }
+    }
+
+    /**
+     * Starts serving drones with the replicated state and tells them to register with this standby
+     */
+    private void takeOver() {
+        long takeoverNanos = System.nanoTime();
+        detectionMillis = (takeoverNanos - lastHeardNanos) / 1_000_000;
+        Scheduler standby = scheduler;
+        standby.schedulerPort = standbyPort;
+        standby.setAssignmentListener(() -> {
+            if (failoverMillis < 0) {
+                failoverMillis = (System.nanoTime() - lastHeardNanos) / 1_000_000;
+                System.out.println("[Replica] First ASSIGN_EVENT " + failoverMillis + " ms after the primary was last heard");
+            }
+        });
+        standby.takeOver();
+        tookOver = true;
+        System.out.printf("[Replica] Took over at sequence %d, %d ms after the primary was last heard: %d queued fires%n",
+                appliedSequence, detectionMillis, standby.getActiveFireCount());
+        new Thread(standby::run, "Replica-Scheduler").start();
+
+        Runnable listener = takeoverListener;
+        if (listener != null) {
+            listener.run();
+        }
+        for (int attempt = 0; attempt < ANNOUNCE_ATTEMPTS && running; attempt++) {
+            try {
+                Thread.sleep(RECONNECT_MILLIS * 2); // also gives the UDP server time to bind
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (standby.announceFailover() == 0) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Stops following the primary, or stops the Scheduler if this standby took over
+     */
+    public void stop() {
+        running = false;
+        Socket socket = connection;
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // already closed
+            }
+        }
+        Scheduler current = scheduler;
+        if (current != null) {
+            current.shutdown();
+        }
+    }
+
+    /**
+     * Sets how long the primary may be silent before this standby takes over, must be called before run()
+     * @param failoverTimeoutMillis the timeout, at least two heartbeats
+     */
+    public void setFailoverTimeout(long failoverTimeoutMillis) {
+        if (failoverTimeoutMillis < 2 * ReplicationServer.HEARTBEAT_MILLIS) {
+            throw new IllegalArgumentException("failoverTimeoutMillis must cover at least two heartbeats");
+        }
+        this.failoverTimeoutMillis = failoverTimeoutMillis;
+    }
+
+    /**
+     * Sets a task to run once this standby took over, before the drones are told
+     * @param takeoverListener the task
+     */
+    public void setTakeoverListener(Runnable takeoverListener) {
+        this.takeoverListener = takeoverListener;
+    }
+
+    /**
+     * @return the standby's Scheduler, null until the first snapshot arrived
+     */
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * @return sequence number of the last state change applied, -1 before the first snapshot
+     */
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    /**
+     * @return true once this standby took over from the primary
+     */
+    public boolean hasTakenOver() {
+        return tookOver;
+    }
+
+    /**
+     * @return milliseconds from the last frame heard from the primary to the takeover, -1 before it
+     */
+    public long getDetectionMillis() {
+        return detectionMillis;
+    }
+
+    /**
+     * @return milliseconds from the last frame heard from the primary to the first ASSIGN_EVENT sent
+     * after the takeover, -1 until then
+     */
+    public long getFailoverMillis() {
+        return failoverMillis;
+    }
+}
@@ -0,0 +1,212 @@
+package subsystems;
+
+import model.FireEvent;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * SchedulerSnapshot is a compact binary image of the Scheduler's state as of one journal record, kept
+ * next to the journal so a restart replays only the records after it.
+ *
+ * SchedulerPersistence encodes the Scheduler's state into a byte array while the Scheduler holds its
+ * lock, which is a copy of the queues and drone table and takes far less time than replaying them. Writing the file happens on
+ * another thread. A snapshot file starts with the magic number, the format version, the LSN of the
+ * last journal record it includes, the state's length and a CRC32C of the state. It is written to a
+ * temporary file, forced to disk and renamed into place, so a crash leaves either the old snapshot or
+ * the new one. Once the new one is in place only it and the one before it are kept, so a damaged
+ * snapshot can still be recovered from the previous one and the journal after it.
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public final class SchedulerSnapshot {
+
+    private static final int MAGIC = 0x53534E50; // "SSNP"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 24;
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".snap";
+
+
+    private final long lsn;
+    private final byte[] state;
+
+    /**
+     * @param lsn   LSN of the last journal record included in the state
+     * @param state the encoded state
+     */
+    public SchedulerSnapshot(long lsn, byte[] state) {
+        this.lsn = lsn;
+        this.state = state;
+    }
+
+    /**
+     * @return LSN of the last journal record included in the state
+     */
+    public long getLsn() {
+        return lsn;
+    }
+
+    /**
+     * @return size of the encoded state in bytes
+     */
+    public int getSize() {
+        return state.length;
+    }
+
+    /**
+     * @return a stream reading the encoded state
+     */
+    public DataInputStream open() {
+        return new DataInputStream(new ByteArrayInputStream(state));
+    }
+
+    /**
+     * Writes the snapshot into a directory and deletes the snapshots older than the one before it
+     * @param directory the journal's directory
+     * @throws IOException if the snapshot cannot be written, the older snapshots are kept in that case
+     */
+    public void write(Path directory) throws IOException {
+        CRC32C crc = new CRC32C();
+        crc.update(state);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putLong(lsn).putInt(state.length).putInt((int) crc.getValue()).flip();
+
+        Path file = directory.resolve(String.format("%s%020d%s", PREFIX, lsn, SUFFIX));
+        Path temporary = directory.resolve(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer body = ByteBuffer.wrap(state);
+            while (header.hasRemaining() || body.hasRemaining()) {
+                channel.write(new ByteBuffer[]{header, body});
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        List<Path> older = new ArrayList<>();
+        for (Path other : snapshotFiles(directory)) {
+            if (other.compareTo(file) < 0) {
+                older.add(other);
+            }
+        }
+        for (int i = 0; i < older.size() - 1; i++) {
+            Files.deleteIfExists(older.get(i));
+        }
+    }
+
+    /**
+     * Writes the snapshot next to a journal once the journal records it includes are on disk. Otherwise a
+     * crash could leave a journal that ends before the snapshot, and the records appended after the
+     * restart would reuse LSNs the snapshot already covers.
+     * @param journal the journal it was taken from
+     * @throws IOException if the snapshot cannot be written
+     * @throws InterruptedException if interrupted while waiting for the journal
+     */
+    public void store(SchedulerJournal journal) throws IOException, InterruptedException {
+        journal.awaitDurable(lsn);
+        write(journal.getDirectory());
+    }
+
+    /**
+     * Reads the newest snapshot in a directory that is whole
+     * @param directory the journal's directory
+     * @return the snapshot, or null if there is none
+     * @throws IOException if the directory cannot be listed
+     */
+    public static SchedulerSnapshot readLatest(Path directory) throws IOException {
+        List<Path> files = snapshotFiles(directory);
+        for (int i = files.size() - 1; i >= 0; i--) {
+            try {
+                byte[] bytes = Files.readAllBytes(files.get(i));
+                ByteBuffer in = ByteBuffer.wrap(bytes);
+                if (bytes.length < HEADER_SIZE || in.getInt() != MAGIC || in.getInt() != VERSION) {
+                    continue;
+                }
+                long lsn = in.getLong();
+                int length = in.getInt();
+                int checksum = in.getInt();
+                if (length != bytes.length - HEADER_SIZE) {
+                    continue;
+                }
+                CRC32C crc = new CRC32C();
+                crc.update(bytes, HEADER_SIZE, length);
+                if ((int) crc.getValue() == checksum) {
+                    byte[] state = new byte[length];
+                    in.get(state);
+                    return new SchedulerSnapshot(lsn, state);
+                }
+            } catch (IOException e) {
+                // unreadable, fall back to an older one
+            }
+            System.err.println("[Snapshot] Skipping damaged snapshot " + files.get(i));
+        }
+        return null;
+    }
+
+    /**
+     * Writes a fire event that may be null
+     * @param out   destination
+     * @param event the event, or null
+     * @throws IOException if the destination cannot be written
+     */
+    public static void writeEvent(DataOutput out, FireEvent event) throws IOException {
+        out.writeBoolean(event != null);
+        if (event != null) {
+            out.writeUTF(event.getTime());
+            out.writeInt(event.getZoneID());
+            out.writeByte(event.getType().code);
+            out.writeByte(event.getSeverity().code);
+            out.writeByte(event.getFaultType().code);
+        }
+    }
+
+    /**
+     * Reads a fire event written by writeEvent
+     * @param in source
+     * @return the event, or null
+     * @throws IOException if the source cannot be read or holds an unknown code
+     */
+    public static FireEvent readEvent(DataInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        String time = in.readUTF();
+        int zoneID = in.readInt();
+        FireEvent.Type type = FireEvent.Type.fromCode(in.readUnsignedByte());
+        FireEvent.Severity severity = FireEvent.Severity.fromCode(in.readUnsignedByte());
+        FireEvent.FaultType fault = FireEvent.FaultType.fromCode(in.readUnsignedByte());
+        if (type == null || severity == null || fault == null) {
+            throw new IOException("Unknown event code in snapshot");
+        }
+        return new FireEvent(time, zoneID, type, severity, fault);
+    }
+
+    /**
+     * @return the snapshot files in a directory, oldest first
+     * @throws IOException if the directory cannot be listed
+     */
+    private static List<Path> snapshotFiles(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        files.sort(null); // names are zero padded LSNs
+        return files;
+    }
+}
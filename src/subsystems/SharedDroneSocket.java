@@ -0,0 +1,203 @@
+package subsystems;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.SocketException;
+
+/**
+ * SharedDroneSocket is one UDP socket shared by every drone in a process, so a fleet of thousands of
+ * drones costs one file descriptor and one set of kernel buffers instead of one per drone.
+ *
+ * Each drone talks through a Transport from connect(), which sends on the socket directly. A single
+ * receiver thread reads every reply and drops it in the mailbox of the drone it is for, where the
+ * drone's blocking receive picks it up. To make that possible a drone on a shared socket adds CAPABILITY to its REGISTER_DRONE message and the Scheduler
+ * then addresses every reply to that drone: binary replies carry the drone ID in the WireCodec header
+ * and text replies start with ADDRESS_PREFIX, the drone ID and a comma. REGISTERED_DRONE already names
+ * the drone in its second field. A reply for a drone without a mailbox is counted and dropped.
+ *
+ * The Scheduler picks the wire format per socket, so every drone sharing one should make the same
+ * binary wire choice.
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class SharedDroneSocket implements AutoCloseable {
+
+    /** Token added to REGISTER_DRONE by drones that share a socket */
+    public static final String CAPABILITY = "MUX1";
+    /** First character of a text reply addressed to one drone on a shared socket */
+    public static final char ADDRESS_PREFIX = '@';
+
+    // kernel receive buffer, large enough for a reply to every drone of a big fleet at once
+    private static final int RECEIVE_BUFFER_SIZE = 4 * 1024 * 1024;
+
+    private final DatagramSocket socket;
+    private final DroneMailboxes mailboxes = new DroneMailboxes();
+    private final Thread receiver;
+    private volatile boolean running = true;
+
+    /**
+     * Opens the socket on any free port and starts the receiver thread
+     * @throws SocketException if the socket cannot be opened
+     */
+    public SharedDroneSocket() throws SocketException {
+        socket = new DatagramSocket();
+        try {
+            socket.setReceiveBufferSize(RECEIVE_BUFFER_SIZE);
+        } catch (SocketException e) {
+            // keep the default size
+        }
+        receiver = new Thread(this::receiveLoop, "SharedDroneSocket-" + socket.getLocalPort());
+        receiver.setDaemon(true);
+        receiver.start();
+    }
+
+    /**
+     * Connects a drone to the Scheduler on this host through the shared socket and opens its mailbox
+     * @param droneID id of the drone
+     * @return the drone's transport, closing it closes the mailbox but not the shared socket
+     */
+    public Transport connect(int droneID) {
+        open(droneID);
+        return new Connection(droneID);
+    }
+
+    /**
+     * Opens a mailbox for a drone, replies for it are held there until it receives them
+     * @param droneID id of the drone
+     */
+    public void open(int droneID) {
+        mailboxes.open(droneID);
+    }
+
+    /**
+     * Closes a drone's mailbox, dropping any replies it still holds and waking a pending receive
+     * @param droneID id of the drone
+     */
+    public void close(int droneID) {
+        mailboxes.close(droneID);
+    }
+
+    /**
+     * Sends a datagram from the shared socket
+     * @param data    datagram payload
+     * @param length  payload length
+     * @param address the ip address of the recipient
+     * @param port    the UDP port of the recipient
+     * @throws IOException if sending fails
+     */
+    public void send(byte[] data, int length, InetAddress address, int port) throws IOException {
+        socket.send(new DatagramPacket(data, length, address, port));
+    }
+
+    /**
+     * Waits for the next reply addressed to a drone
+     * @param droneID       id of the drone
+     * @param timeoutMillis longest time to wait, 0 to wait until a reply arrives
+     * @return the reply without its address, or null if the wait timed out
+     * @throws IOException if the drone has no open mailbox or the mailbox was closed while waiting
+     */
+    public byte[] receive(int droneID, long timeoutMillis) throws IOException {
+        return mailboxes.receive(droneID, timeoutMillis);
+    }
+
+    /**
+     * @return the local UDP port every drone on this socket sends from
+     */
+    public int getLocalPort() {
+        return socket.getLocalPort();
+    }
+
+    /**
+     * @return number of drones with an open mailbox
+     */
+    public int getMailboxCount() {
+        return mailboxes.size();
+    }
+
+    /**
+     * @return number of replies dropped because they named no drone with an open mailbox
+     */
+    public long getUnroutedMessageCount() {
+        return mailboxes.getUnroutedMessageCount();
+    }
+
+    /**
+     * Closes the socket and every mailbox
+     */
+    @Override
+    public void close() {
+        running = false;
+        socket.close();
+        mailboxes.closeAll();
+    }
+
+    /**
+     * Reads replies until the socket is closed and routes each one to its drone's mailbox
+     */
+    private void receiveLoop() {
+        byte[] data = new byte[UDPIngestPipeline.MAX_PACKET_SIZE];
+        DatagramPacket packet = new DatagramPacket(data, data.length);
+        while (running) {
+            packet.setData(data);
+            try {
+                socket.receive(packet);
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("[SharedDroneSocket] Receive failed: " + e.getMessage());
+                }
+                continue;
+            }
+            mailboxes.route(data, packet.getLength());
+        }
+    }
+
+    /**
+     * One drone's view of the shared socket
+     */
+    private class Connection implements Transport {
+        private final int droneID;
+        private final WireCodec.Message decoded = new WireCodec.Message();
+        private InetAddress address;
+
+        Connection(int droneID) {
+            this.droneID = droneID;
+        }
+
+        @Override
+        public void send(String message) throws IOException {
+            byte[] bytes = message.getBytes();
+            send(bytes, bytes.length);
+        }
+
+        @Override
+        public void send(byte[] data, int length) throws IOException {
+            if (address == null) {
+                address = InetAddress.getByName(UdpTransport.SCHEDULER_HOST);
+            }
+            SharedDroneSocket.this.send(data, length, address, UdpTransport.SCHEDULER_PORT);
+        }
+
+        @Override
+        public String receive(long timeoutMillis) throws IOException {
+            byte[] reply = SharedDroneSocket.this.receive(droneID, timeoutMillis);
+            return reply == null ? null : UdpTransport.decode(reply, reply.length, decoded);
+        }
+
+        @Override
+        public boolean supportsBinary() {
+            return true;
+        }
+
+        @Override
+        public boolean isMultiplexed() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+            SharedDroneSocket.this.close(droneID);
+        }
+    }
+}
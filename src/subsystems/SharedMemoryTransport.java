@@ -0,0 +1,307 @@
+package subsystems;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * SharedMemoryTransport connects a group of drones in one process to a Scheduler in another process on
+ * the same host through a memory mapped file, so their messages never go through the kernel's network
+ * stack.
+ *
+ * The file holds two MappedRingBuffers: one carries the group's messages to the Scheduler, the other
+ * the Scheduler's replies back. Each drone process group uses a file of its own. On the drone side
+ * connect() gives each drone a Transport: sends from all of them are serialized into the one ring, and a
+ * receiver thread hands every reply to the drone it is addressed to, exactly as on a SharedDroneSocket.
+ * On the Scheduler side serve() starts a thread that delivers the group's messages to the Scheduler and
+ * routes the Scheduler's replies for the group into the reply ring.
+ *
+ * Idle ring readers spin briefly, then yield, then park for a short while, so a quiet ring costs little
+ * CPU while a busy one is read without any system call. A message that finds its ring full for longer
+ * than SEND_TIMEOUT_MILLIS is dropped and counted, as a datagram would be.
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class SharedMemoryTransport implements AutoCloseable {
+
+    /** Size of the data area of each ring, in bytes */
+    public static final int DEFAULT_CAPACITY = 1 << 20;
+    /** Longest time a message waits for room in a full ring before it is dropped */
+    public static final long SEND_TIMEOUT_MILLIS = 1000;
+
+    private static final int MAGIC = 0x52494E47; // "RING"
+    private static final int VERSION = 1;
+    private static final int FILE_HEADER_SIZE = 4096;
+    private static final long MAX_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    // every group served by this process gets its own made up sender port on the unspecified address,
+    // which no datagram can come from
+    private static final AtomicInteger NEXT_GROUP = new AtomicInteger(1);
+
+    private final Path path;
+    private final MappedRingBuffer toScheduler;
+    private final MappedRingBuffer toDrones;
+    private final DroneMailboxes mailboxes = new DroneMailboxes();
+    private final AtomicLong droppedMessages = new AtomicLong();
+    private volatile boolean running = true;
+    private Thread receiver;
+    private Thread server;
+
+    /**
+     * Maps a ring file with the default capacity, creating it if it does not exist yet
+     * @param path the file, normally on a memory backed file system such as /dev/shm
+     * @throws IOException if the file cannot be mapped or was laid out with another capacity
+     */
+    public SharedMemoryTransport(Path path) throws IOException {
+        this(path, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Maps a ring file, creating it if it does not exist yet
+     * @param path     the file, normally on a memory backed file system such as /dev/shm
+     * @param capacity size of the data area of each ring, a power of two
+     * @throws IOException if the file cannot be mapped or was laid out with another capacity
+     */
+    public SharedMemoryTransport(Path path, int capacity) throws IOException {
+        this.path = path;
+        int ringSize = MappedRingBuffer.regionSize(capacity);
+        MappedByteBuffer map;
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // the mapping stays valid after the channel is closed
+            map = file.map(FileChannel.MapMode.READ_WRITE, 0, FILE_HEADER_SIZE + 2L * ringSize);
+        }
+        map.order(ByteOrder.nativeOrder());
+        if (map.getInt(0) == 0) {
+            map.putInt(8, capacity);
+            map.putInt(4, VERSION);
+            map.putInt(0, MAGIC);
+        } else if (map.getInt(0) != MAGIC || map.getInt(4) != VERSION || map.getInt(8) != capacity) {
+            throw new IOException(path + " is not a ring file with a capacity of " + capacity);
+        }
+        toScheduler = new MappedRingBuffer(map.slice(FILE_HEADER_SIZE, ringSize));
+        toDrones = new MappedRingBuffer(map.slice(FILE_HEADER_SIZE + ringSize, ringSize));
+    }
+
+    /**
+     * Connects a drone to the Scheduler through the file and opens its mailbox. The first call starts
+     * the thread that reads the Scheduler's replies.
+     * @param droneID id of the drone
+     * @return the drone's transport, closing it closes the mailbox but not the file
+     */
+    public synchronized Transport connect(int droneID) {
+        mailboxes.open(droneID);
+        if (receiver == null) {
+            receiver = new Thread(this::receiveLoop, "SharedMemoryTransport-" + path.getFileName());
+            receiver.setDaemon(true);
+            receiver.start();
+        }
+        return new Connection(droneID);
+    }
+
+    /**
+     * Starts delivering the group's messages to a Scheduler in this process and sending its replies back
+     * through the file
+     * @param scheduler the scheduler
+     * @return address and port the group's messages are delivered from
+     */
+    public synchronized InetSocketAddress serve(Scheduler scheduler) {
+        InetSocketAddress peer = new InetSocketAddress(unspecifiedAddress(), NEXT_GROUP.getAndIncrement());
+        scheduler.addRoute(peer, message -> offer(toDrones, message));
+        server = new Thread(() -> serveLoop(scheduler, peer), "SharedMemoryServer-" + path.getFileName());
+        server.setDaemon(true);
+        server.start();
+        return peer;
+    }
+
+    /**
+     * @return number of drones with an open mailbox
+     */
+    public int getMailboxCount() {
+        return mailboxes.size();
+    }
+
+    /**
+     * @return number of replies dropped because they named no drone with an open mailbox
+     */
+    public long getUnroutedMessageCount() {
+        return mailboxes.getUnroutedMessageCount();
+    }
+
+    /**
+     * @return number of messages dropped because their ring stayed full
+     */
+    public long getDroppedMessageCount() {
+        return droppedMessages.get();
+    }
+
+    /**
+     * Stops the reader threads and closes every mailbox, the file itself is left in place
+     */
+    @Override
+    public void close() {
+        running = false;
+        mailboxes.closeAll();
+        Thread r;
+        Thread s;
+        synchronized (this) {
+            r = receiver;
+            s = server;
+        }
+        if (r != null) {
+            LockSupport.unpark(r);
+        }
+        if (s != null) {
+            LockSupport.unpark(s);
+        }
+    }
+
+    /**
+     * Appends a message to a ring, waiting for room if it is full. Writers on this side of the ring are
+     * serialized so the ring keeps a single producer.
+     * @param ring    the ring
+     * @param message the message between position and limit
+     */
+    private void offer(MappedRingBuffer ring, ByteBuffer message) {
+        synchronized (ring) {
+            long deadline = 0;
+            for (int idle = 0; !ring.offer(message); idle++) {
+                if (!running) {
+                    return;
+                }
+                if (deadline == 0) {
+                    deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SEND_TIMEOUT_MILLIS);
+                } else if (System.nanoTime() > deadline) {
+                    droppedMessages.incrementAndGet();
+                    return;
+                }
+                idle(idle);
+            }
+        }
+    }
+
+    /**
+     * Reads the Scheduler's replies until closed and routes each one to its drone's mailbox
+     */
+    private void receiveLoop() {
+        ByteBuffer buffer = ByteBuffer.allocate(UDPIngestPipeline.MAX_PACKET_SIZE);
+        int idle = 0;
+        while (running) {
+            buffer.clear();
+            int length = toDrones.poll(buffer);
+            if (length < 0) {
+                idle(idle++);
+                continue;
+            }
+            idle = 0;
+            mailboxes.route(buffer.array(), length);
+        }
+    }
+
+    /**
+     * Reads the group's messages until closed and delivers each one to the Scheduler
+     * @param scheduler the scheduler
+     * @param peer      address and port the messages are delivered from
+     */
+    private void serveLoop(Scheduler scheduler, InetSocketAddress peer) {
+        ByteBuffer buffer = ByteBuffer.allocate(UDPIngestPipeline.MAX_PACKET_SIZE);
+        int idle = 0;
+        while (running) {
+            buffer.clear();
+            if (toScheduler.poll(buffer) < 0) {
+                idle(idle++);
+                continue;
+            }
+            idle = 0;
+            buffer.flip();
+            try {
+                scheduler.deliver(buffer, peer.getAddress(), peer.getPort());
+            } catch (RuntimeException e) {
+                System.err.println("[SharedMemoryTransport] Failed to handle message: " + e.getMessage());
+            }
+        }
+        scheduler.removeRoute(peer);
+    }
+
+    /**
+     * Backs off while a ring stays empty or full: spins first, then yields, then parks for longer and
+     * longer up to MAX_PARK_NANOS
+     * @param idle number of times in a row the ring had nothing to do
+     */
+    private static void idle(int idle) {
+        if (idle < 100) {
+            Thread.onSpinWait();
+        } else if (idle < 200) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(Math.min(MAX_PARK_NANOS, 1000L << Math.min(idle - 200, 8)));
+        }
+    }
+
+    /**
+     * @return the 0.0.0.0 address
+     */
+    private static InetAddress unspecifiedAddress() {
+        try {
+            return InetAddress.getByAddress(new byte[4]);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // cannot happen for a 4 byte address
+        }
+    }
+
+    /**
+     * One drone's view of the ring file
+     */
+    private class Connection implements Transport {
+        private final int droneID;
+        private final WireCodec.Message decoded = new WireCodec.Message();
+
+        Connection(int droneID) {
+            this.droneID = droneID;
+        }
+
+        @Override
+        public void send(String message) throws IOException {
+            byte[] bytes = message.getBytes();
+            send(bytes, bytes.length);
+        }
+
+        @Override
+        public void send(byte[] data, int length) throws IOException {
+            if (!running) {
+                throw new IOException("Transport closed");
+            }
+            offer(toScheduler, ByteBuffer.wrap(data, 0, length));
+        }
+
+        @Override
+        public String receive(long timeoutMillis) throws IOException {
+            byte[] reply = mailboxes.receive(droneID, timeoutMillis);
+            return reply == null ? null : UdpTransport.decode(reply, reply.length, decoded);
+        }
+
+        @Override
+        public boolean supportsBinary() {
+            return true;
+        }
+
+        @Override
+        public boolean isMultiplexed() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+            mailboxes.close(droneID);
+        }
+    }
+}
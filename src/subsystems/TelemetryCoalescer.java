@@ -0,0 +1,245 @@
+package subsystems;
+
+import model.Clock;
+import model.Drone;
+import model.FlightPlan;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TelemetryCoalescer sits between the ingest workers and the Scheduler and keeps only the newest
+ * STATUS_UPDATE of each drone until the next tick.
+ *
+ * Drones report every 100 m step, and with many drones in flight most reports are already stale by the
+ * time the Scheduler would apply them. Each drone has one slot holding its latest report; a newer report
+ * overwrites it and the older one is dropped without touching the drone's status, the metrics or the
+ * monitor. A tick thread applies every dirty slot, and flush() applies a single drone on demand so that
+ * control messages such as DRONE_READY always see the drone's latest position.
+ *
+ * Reports that change the drone's state are applied at once, so state timing is never coalesced away.
+ * The slot also adds up the length of the path through every report it received, and hands that
+ * distance to the sink so travelled distance is the same as if every report had been applied. Drones
+ * fly along the x axis and then the y axis, so the path between two reports is measured the same way,
+ * which also keeps the distance right when a drone on a flight plan reports only now and then. Drones
+ * start at the base at (0, 0), like in DroneStatus and MetricsTracker.
+ *
+ * A tick of 0 applies every report immediately, which matches handling each one in full.
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class TelemetryCoalescer {
+
+    /**
+     * Receives the telemetry that survives coalescing
+     */
+    public interface Sink {
+        /**
+         * @param droneID  id of the drone
+         * @param state    reported drone state
+         * @param x        x coordinate
+         * @param y        y coordinate
+         * @param agent    remaining agent
+         * @param distance path length travelled since the previously applied report
+         */
+        void apply(int droneID, Drone.DroneState state, double x, double y, double agent, double distance);
+    }
+
+    /**
+     * Latest telemetry of a single drone, guarded by its own lock
+     */
+    private static class Slot {
+        boolean dirty;
+        Drone.DroneState state;
+        double x;
+        double y;
+        double agent;
+        double distance;
+
+        double lastX;
+        double lastY;
+        Drone.DroneState appliedState;
+    }
+
+    private final Sink sink;
+    private final Clock clock;
+    private final Map<Integer, Slot> slots = new ConcurrentHashMap<>();
+    private final Queue<Integer> dirtyDrones = new ConcurrentLinkedQueue<>();
+    private volatile long tickMillis = 0;
+    private Thread thread;
+    private Runnable tickListener;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong applied = new AtomicLong();
+
+    /**
+     * Constructs a coalescer that applies every report immediately until start() is called
+     * @param sink destination for applied telemetry
+     */
+    public TelemetryCoalescer(Sink sink) {
+        this(sink, Clock.SYSTEM);
+    }
+
+    /**
+     * Constructs a coalescer that applies every report immediately until start() is called
+     * @param sink  destination for applied telemetry
+     * @param clock clock the ticks are timed on
+     */
+    public TelemetryCoalescer(Sink sink, Clock clock) {
+        this.sink = sink;
+        this.clock = clock;
+    }
+
+    /**
+     * Sets a task run on the tick thread after every tick, must be called before start()
+     * @param tickListener task to run on every tick
+     */
+    public void setTickListener(Runnable tickListener) {
+        this.tickListener = tickListener;
+    }
+
+    /**
+     * Starts the tick thread
+     * @param tickMillis time between ticks in milliseconds, 0 keeps applying every report immediately
+     */
+    public synchronized void start(long tickMillis) {
+        if (thread != null || tickMillis <= 0) {
+            return;
+        }
+        this.tickMillis = tickMillis;
+        thread = new Thread(this::tick, "Scheduler-Telemetry");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the tick thread and applies whatever is still pending
+     */
+    public synchronized void stop() {
+        tickMillis = 0;
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+        flushAll();
+    }
+
+    /**
+     * Accepts a STATUS_UPDATE, called by the ingest workers
+     * @param droneID id of the drone
+     * @param state   reported drone state
+     * @param x       x coordinate
+     * @param y       y coordinate
+     * @param agent   remaining agent
+     */
+    public void submit(int droneID, Drone.DroneState state, double x, double y, double agent) {
+        submitted.incrementAndGet();
+        Slot slot = slots.computeIfAbsent(droneID, id -> new Slot());
+        synchronized (slot) {
+            slot.distance += FlightPlan.pathLength(slot.lastX, slot.lastY, x, y);
+            slot.lastX = x;
+            slot.lastY = y;
+            slot.state = state;
+            slot.x = x;
+            slot.y = y;
+            slot.agent = agent;
+
+            if (tickMillis == 0 || state != slot.appliedState) {
+                apply(droneID, slot);
+            } else if (!slot.dirty) {
+                slot.dirty = true;
+                dirtyDrones.add(droneID);
+            }
+        }
+    }
+
+    /**
+     * Applies the pending report of one drone, if it has one
+     * @param droneID id of the drone
+     */
+    public void flush(int droneID) {
+        Slot slot = slots.get(droneID);
+        if (slot != null) {
+            synchronized (slot) {
+                if (slot.dirty) {
+                    apply(droneID, slot);
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies the pending report of every drone
+     */
+    public void flushAll() {
+        Integer droneID;
+        while ((droneID = dirtyDrones.poll()) != null) {
+            flush(droneID);
+        }
+    }
+
+    /**
+     * @return number of reports received
+     */
+    public long getSubmittedCount() {
+        return submitted.get();
+    }
+
+    /**
+     * @return number of reports dropped because a newer one replaced them
+     */
+    public long getCoalescedCount() {
+        return submitted.get() - applied.get() - pendingCount();
+    }
+
+    /**
+     * Hands a slot's report to the sink, the caller holds the slot's lock
+     */
+    private void apply(int droneID, Slot slot) {
+        double distance = slot.distance;
+        slot.distance = 0;
+        slot.dirty = false;
+        slot.appliedState = slot.state;
+        applied.incrementAndGet();
+        sink.apply(droneID, slot.state, slot.x, slot.y, slot.agent, distance);
+    }
+
+    /**
+     * @return number of drones with a report waiting for the next tick
+     */
+    private int pendingCount() {
+        int pending = 0;
+        for (Slot slot : slots.values()) {
+            synchronized (slot) {
+                if (slot.dirty) {
+                    pending++;
+                }
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * Tick thread body
+     */
+    private void tick() {
+        while (tickMillis > 0) {
+            try {
+                clock.sleep(tickMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            flushAll();
+            if (tickListener != null) {
+                try {
+                    tickListener.run();
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package subsystems;
+
+import java.io.IOException;
+
+/**
+ * Transport carries the messages of one drone or FireIncidentSubsystem to the Scheduler and brings the
+ * Scheduler's replies back.
+ *
+ * UdpTransport sends datagrams from a socket of its own, SharedDroneSocket connects many drones through
+ * one socket and InMemoryTransport hands the message objects straight to a Scheduler in the same process.
+ * A transport is used by one thread at a time, except close(), which may be called from any thread to
+ * wake a pending receive.
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public interface Transport {
+
+    /**
+     * Sends a text message to the Scheduler
+     * @param message the message
+     * @throws IOException if sending fails
+     */
+    void send(String message) throws IOException;
+
+    /**
+     * Sends a binary WireCodec message to the Scheduler, only called if supportsBinary() is true
+     * @param data   encoded message
+     * @param length message length
+     * @throws IOException if sending fails
+     */
+    void send(byte[] data, int length) throws IOException;
+
+    /**
+     * Waits for the next reply from the Scheduler, binary replies are returned in their text form
+     * @param timeoutMillis longest time to wait, 0 to wait until a reply arrives
+     * @return the reply, or null if the wait timed out
+     * @throws MalformedMessageException if a reply arrived but could not be decoded
+     * @throws IOException if receiving fails or the transport was closed
+     */
+    String receive(long timeoutMillis) throws IOException;
+
+    /**
+     * @return true if messages travel as bytes, so the binary WireCodec format is worth negotiating
+     */
+    boolean supportsBinary();
+
+    /**
+     * @return true if replies for several drones arrive at the same address, the Scheduler then has to
+     * address every reply to its drone
+     */
+    default boolean isMultiplexed() {
+        return false;
+    }
+
+    /**
+     * @return true if no message is ever lost on the way, so reliable control messages are not worth
+     * negotiating
+     */
+    default boolean isLossless() {
+        return false;
+    }
+
+    /**
+     * Moves to the next Scheduler in the transport's address list, after a standby announced it took
+     * over from a lost primary. Later messages go to that Scheduler.
+     * @return true if the transport moved, false if it only knows one Scheduler
+     */
+    default boolean failOver() {
+        return false;
+    }
+
+    /**
+     * Releases the transport and wakes a pending receive
+     */
+    void close();
+
+    /**
+     * Thrown by receive() when a reply arrives that cannot be decoded
+     */
+    class MalformedMessageException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * @param message what was wrong with the reply
+         */
+        public MalformedMessageException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,472 @@
+package subsystems;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * UDPIngestPipeline splits the Scheduler's UDP receive loop into stages so that message handling can
+ * use more than one core.
+ *
+ * A single receive thread reads datagrams and only looks at the first two fields to pick a lane. Each
+ * lane is a single worker thread that decodes the payload and hands it to the Scheduler, so messages
+ * from one drone are always handled in the order they arrived while different drones are handled in
+ * parallel. Drone messages are routed by drone ID; anything else (FIRE_DETECTED, ALL_EVENTS_DONE) is
+ * routed by sender port so that one sender's messages also stay in order.
+ *
+ * Each lane queues at most a fixed number of datagrams, so a stalled lane cannot grow the heap without
+ * bound. When a lane is full a STATUS_UPDATE is dropped on the receive thread, since the drone's next
+ * report replaces it anyway, and any other message waits for room so control messages are never lost.
+ *
+ * The pipeline can receive from a blocking DatagramSocket, or from a non-blocking DatagramChannel
+ * driven by a Selector. In channel mode every datagram is read into a pooled direct buffer that travels
+ * to the lane worker and is decoded there straight from the buffer, so no byte array or DatagramPacket
+ * is allocated per packet. Datagrams in the WireCodec binary format skip the String entirely and go to
+ * the binary BufferHandler, and text datagrams go to the text BufferHandler that parses them in place
+ * when one is set. The pipeline tells the two apart by the first byte, so each handler sees one format.
+ *
+ * With zero workers every message is handled on the receive thread, which matches the original loop.
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class UDPIngestPipeline {
+
+    /** Largest datagram the scheduler accepts */
+    public static final int MAX_PACKET_SIZE = 1024;
+    /** Datagrams a lane queues by default before telemetry is dropped */
+    public static final int DEFAULT_LANE_CAPACITY = 1024;
+
+    private static final byte[] STATUS_UPDATE_PREFIX = "STATUS_UPDATE,".getBytes(StandardCharsets.ISO_8859_1);
+
+    /**
+     * Receives decoded messages on a lane worker thread
+     */
+    public interface Handler {
+        /**
+         * @param message the received message contents
+         * @param address the ip address of the sender
+         * @param port    the UDP port of the sender
+         */
+        void handle(String message, InetAddress address, int port);
+    }
+
+    /**
+     * Receives datagrams straight from their buffer on a lane worker thread, either the binary ones or
+     * the text ones in channel mode depending on which setter it was given to
+     */
+    public interface BufferHandler {
+        /**
+         * @param message the datagram between position and limit, only valid during the call
+         * @param address the ip address of the sender
+         * @param port    the UDP port of the sender
+         */
+        void handle(ByteBuffer message, InetAddress address, int port);
+    }
+
+    private final DatagramSocket socket;
+    private final DatagramChannel channel;
+    private final ByteBufferPool pool;
+    private Selector selector;
+    private final Handler handler;
+    private BufferHandler binaryHandler;
+    private BufferHandler textHandler;
+    private final ThreadPoolExecutor[] lanes;
+    private volatile boolean running = true;
+
+    // per thread copy target for decoding out of direct buffers when there is no text BufferHandler
+    private static final ThreadLocal<byte[]> DECODE_SCRATCH = ThreadLocal.withInitial(() -> new byte[MAX_PACKET_SIZE]);
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong handled = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * Constructs the pipeline, call run() to start receiving
+     * @param socket  bound socket to receive from
+     * @param workers number of lane workers, 0 handles messages on the receive thread
+     * @param handler destination for decoded messages
+     */
+    public UDPIngestPipeline(DatagramSocket socket, int workers, Handler handler) {
+        this(socket, null, null, workers, DEFAULT_LANE_CAPACITY, handler);
+    }
+
+    /**
+     * Constructs the pipeline with a given lane capacity, call run() to start receiving
+     * @param socket       bound socket to receive from
+     * @param workers      number of lane workers, 0 handles messages on the receive thread
+     * @param laneCapacity datagrams each lane queues before telemetry is dropped
+     * @param handler      destination for decoded messages
+     */
+    public UDPIngestPipeline(DatagramSocket socket, int workers, int laneCapacity, Handler handler) {
+        this(socket, null, null, workers, laneCapacity, handler);
+    }
+
+    /**
+     * Constructs a pipeline that receives from a channel with a Selector, call run() to start receiving
+     * @param channel bound channel to receive from, it is switched to non-blocking mode
+     * @param pool    pool of receive buffers, each at least MAX_PACKET_SIZE bytes
+     * @param workers number of lane workers, 0 handles messages on the receive thread
+     * @param handler destination for decoded messages
+     */
+    public UDPIngestPipeline(DatagramChannel channel, ByteBufferPool pool, int workers, Handler handler) {
+        this(null, channel, pool, workers, DEFAULT_LANE_CAPACITY, handler);
+    }
+
+    private UDPIngestPipeline(DatagramSocket socket, DatagramChannel channel, ByteBufferPool pool, int workers,
+                              int laneCapacity, Handler handler) {
+        if (workers < 0) {
+            throw new IllegalArgumentException("Worker count must not be negative: " + workers);
+        }
+        if (laneCapacity <= 0) {
+            throw new IllegalArgumentException("Lane capacity must be positive: " + laneCapacity);
+        }
+        this.socket = socket;
+        this.channel = channel;
+        this.pool = pool;
+        this.handler = handler;
+        this.lanes = new ThreadPoolExecutor[workers];
+        for (int i = 0; i < workers; i++) {
+            String name = "Scheduler-Ingest-" + i;
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(laneCapacity), r -> {
+                Thread t = new Thread(r, name);
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    /**
+     * Receive loop, runs on the calling thread until the socket is closed or the pipeline is stopped
+     * @throws IOException if the socket fails while the pipeline is running
+     */
+    public void run() throws IOException {
+        if (channel != null) {
+            runSelector();
+            return;
+        }
+        while (running) {
+            byte[] buffer = new byte[MAX_PACKET_SIZE];
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            socket.receive(packet);
+            received.incrementAndGet();
+
+            int length = packet.getLength();
+            InetAddress address = packet.getAddress();
+            int port = packet.getPort();
+
+            if (lanes.length == 0) {
+                decode(buffer, length, address, port);
+            } else {
+                ByteBuffer payload = ByteBuffer.wrap(buffer, 0, length);
+                ThreadPoolExecutor lane = lane(laneKey(payload, port));
+                if (isFull(lane) && isTelemetry(payload)) {
+                    dropped.incrementAndGet();
+                } else if (!dispatch(lane, () -> decode(buffer, length, address, port))) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Selector receive loop, drains every datagram waiting on the channel each time it becomes readable
+     * @throws IOException if the channel fails while the pipeline is running
+     */
+    private void runSelector() throws IOException {
+        channel.configureBlocking(false);
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            selector = Selector.open();
+        }
+        try {
+            channel.register(selector, SelectionKey.OP_READ);
+            while (running) {
+                selector.select();
+                selector.selectedKeys().clear();
+
+                while (running) {
+                    ByteBuffer buffer = pool.acquire();
+                    InetSocketAddress sender = (InetSocketAddress) channel.receive(buffer);
+                    if (sender == null) {
+                        pool.release(buffer);
+                        break;
+                    }
+                    buffer.flip();
+                    received.incrementAndGet();
+
+                    InetAddress address = sender.getAddress();
+                    int port = sender.getPort();
+                    if (lanes.length == 0) {
+                        decode(buffer, address, port);
+                    } else {
+                        ThreadPoolExecutor lane = lane(laneKey(buffer, port));
+                        if (isFull(lane) && isTelemetry(buffer)) {
+                            dropped.incrementAndGet();
+                            pool.release(buffer);
+                        } else if (!dispatch(lane, () -> decode(buffer, address, port))) {
+                            pool.release(buffer);
+                            return;
+                        }
+                    }
+                }
+            }
+        } catch (ClosedChannelException | ClosedSelectorException e) {
+            if (running) {
+                throw e;
+            }
+        } finally {
+            selector.close();
+        }
+    }
+
+    /**
+     * @param key ordering key from laneKey
+     * @return the lane that handles every datagram with the key
+     */
+    private ThreadPoolExecutor lane(int key) {
+        return lanes[Math.floorMod(key, lanes.length)];
+    }
+
+    /**
+     * Only the receive thread adds to a lane, so a lane that is not full stays that way until it does
+     * @param lane a lane
+     * @return true if the lane's queue has no room left
+     */
+    private static boolean isFull(ThreadPoolExecutor lane) {
+        return lane.getQueue().remainingCapacity() == 0;
+    }
+
+    /**
+     * Hands a datagram to a lane, waiting for room if its queue is full
+     * @param lane lane picked by the datagram's key
+     * @param task decode stage for the datagram
+     * @return false if the lanes were shut down by stop(), the receive loop then ends
+     */
+    private boolean dispatch(ThreadPoolExecutor lane, Runnable task) {
+        try {
+            lane.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            if (!running) {
+                return false;
+            }
+        }
+        // the queue is full and the worker is busy, the receive thread waits for it to catch up
+        try {
+            lane.getQueue().put(task);
+            return running;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Stops the receive loop and the lane workers, messages still queued are dropped. The socket or
+     * channel should be closed first, so that no datagram arrives once the lanes are gone.
+     */
+    public void stop() {
+        synchronized (this) {
+            running = false;
+            if (selector != null) {
+                selector.wakeup();
+            }
+        }
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdownNow();
+        }
+    }
+
+    /**
+     * Sets where binary datagrams go, must be called before run(). Without one they are dropped.
+     * @param binaryHandler destination for binary datagrams
+     */
+    public void setBinaryHandler(BufferHandler binaryHandler) {
+        this.binaryHandler = binaryHandler;
+    }
+
+    /**
+     * Sets where text datagrams go in channel mode, must be called before run(). The handler parses them
+     * straight from the pooled buffer. Without one they are copied into a String for the Handler.
+     * @param textHandler destination for text datagrams in channel mode
+     */
+    public void setTextHandler(BufferHandler textHandler) {
+        this.textHandler = textHandler;
+    }
+
+    /**
+     * @return number of lane workers
+     */
+    public int getWorkerCount() {
+        return lanes.length;
+    }
+
+    /**
+     * @return number of datagrams received
+     */
+    public long getReceivedCount() {
+        return received.get();
+    }
+
+    /**
+     * @return number of messages passed to the handler
+     */
+    public long getHandledCount() {
+        return handled.get();
+    }
+
+    /**
+     * @return number of STATUS_UPDATE datagrams dropped because their lane was full
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Decode stage, turns the payload into a message and passes it to the handler
+     */
+    private void decode(byte[] data, int length, InetAddress address, int port) {
+        if (length > 0 && data[0] == WireCodec.MAGIC) {
+            handleBuffer(binaryHandler, ByteBuffer.wrap(data, 0, length), address, port);
+            return;
+        }
+        String message = new String(data, 0, length);
+        try {
+            handler.handle(message, address, port);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+        handled.incrementAndGet();
+    }
+
+    /**
+     * Decode stage for channel mode, reads the message out of the pooled buffer and returns the buffer
+     */
+    private void decode(ByteBuffer buffer, InetAddress address, int port) {
+        boolean binary = WireCodec.isBinary(buffer);
+        if (binary || textHandler != null) {
+            try {
+                handleBuffer(binary ? binaryHandler : textHandler, buffer, address, port);
+            } finally {
+                pool.release(buffer);
+            }
+            return;
+        }
+        int length = buffer.remaining();
+        byte[] scratch = DECODE_SCRATCH.get();
+        buffer.get(scratch, 0, Math.min(length, scratch.length));
+        pool.release(buffer);
+
+        try {
+            handler.handle(new String(scratch, 0, Math.min(length, scratch.length), StandardCharsets.ISO_8859_1), address, port);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+        handled.incrementAndGet();
+    }
+
+    /**
+     * Decode stage for datagrams read straight from the buffer, a missing handler drops them
+     */
+    private void handleBuffer(BufferHandler target, ByteBuffer buffer, InetAddress address, int port) {
+        if (target != null) {
+            try {
+                target.handle(buffer, address, port);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+        handled.incrementAndGet();
+    }
+
+    /**
+     * @param buffer datagram payload between position and limit
+     * @return true if the datagram is a STATUS_UPDATE, in either format
+     */
+    static boolean isTelemetry(ByteBuffer buffer) {
+        int i = buffer.position();
+        if (WireCodec.isBinary(buffer)) {
+            return buffer.remaining() >= WireCodec.HEADER_SIZE
+                    && (buffer.get(i + 2) & ~WireCodec.REQUEST_ID_FLAG) == WireCodec.Opcode.STATUS_UPDATE.code;
+        }
+        if (buffer.remaining() < STATUS_UPDATE_PREFIX.length) {
+            return false;
+        }
+        for (int j = 0; j < STATUS_UPDATE_PREFIX.length; j++) {
+            if (buffer.get(i + j) != STATUS_UPDATE_PREFIX[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Picks the ordering key of a datagram without decoding it. Binary messages carry the drone ID in the
+     * header and text drone messages as their second field, after the sequence number of a ReliableLink
+     * frame. Any other message is keyed by the sender port.
+     * @param data   datagram payload
+     * @param length payload length
+     * @param port   sender port
+     * @return drone ID, or the sender port for messages that do not carry one
+     */
+    static int laneKey(byte[] data, int length, int port) {
+        return laneKey(ByteBuffer.wrap(data, 0, length), port);
+    }
+
+    /**
+     * Picks the ordering key of a datagram held in a buffer, see laneKey(byte[], int, int)
+     * @param buffer datagram payload between position and limit
+     * @param port   sender port
+     * @return drone ID, or the sender port for messages that do not carry one
+     */
+    static int laneKey(ByteBuffer buffer, int port) {
+        int i = buffer.position();
+        int end = buffer.limit();
+        if (end - i >= WireCodec.HEADER_SIZE && buffer.get(i) == WireCodec.MAGIC) {
+            return buffer.getInt(i + 3);
+        }
+        if (i < end && buffer.get(i) == ReliableLink.FRAME_PREFIX) {
+            while (i < end && buffer.get(i) != ',') {
+                i++;
+            }
+            i++;
+        }
+        while (i < end && buffer.get(i) != ',') {
+            i++;
+        }
+        i++;
+        while (i < end && buffer.get(i) == ' ') {
+            i++;
+        }
+
+        int id = 0;
+        int digits = 0;
+        while (i < end && buffer.get(i) != ',') {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9' && digits < 9) {
+                id = id * 10 + (b - '0');
+                digits++;
+            } else if (b != ' ' && b != '\r' && b != '\n') {
+                return port;
+            }
+            i++;
+        }
+        return digits == 0 ? port : id;
+    }
+}
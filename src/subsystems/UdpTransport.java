@@ -0,0 +1,174 @@
+package subsystems;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+
+/**
+ * UdpTransport talks to the Scheduler's UDP server from a socket of its own. It is the transport every
+ * subsystem uses unless it is given another one.
+ *
+ * It can be given a list of Schedulers, a primary followed by its standbys. Messages go to one of them
+ * at a time, starting with the first, and failOver() moves on to the next. Replies are taken from any
+ * sender.
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class UdpTransport implements Transport {
+
+    /** Host the Scheduler's UDP server runs on */
+    public static final String SCHEDULER_HOST = "localhost";
+    /** Port the Scheduler's UDP server listens on */
+    public static final int SCHEDULER_PORT = 6000;
+
+    private final DatagramSocket socket;
+    private final String[] hosts;
+    private final int[] ports;
+    private int current = 0;
+    private InetAddress address;
+    private DatagramPacket sendPacket;
+    private final DatagramPacket receivePacket =
+            new DatagramPacket(new byte[UDPIngestPipeline.MAX_PACKET_SIZE], UDPIngestPipeline.MAX_PACKET_SIZE);
+    private final WireCodec.Message decoded = new WireCodec.Message();
+    private int timeoutMillis = 0;
+
+    /**
+     * Opens a socket on any free port for talking to the Scheduler on this host, or to the Schedulers
+     * listed in the scheduler.addresses system property
+     * @throws SocketException if the socket cannot be opened
+     */
+    public UdpTransport() throws SocketException {
+        this(System.getProperty("scheduler.addresses", SCHEDULER_HOST + ":" + SCHEDULER_PORT));
+    }
+
+    /**
+     * Opens a socket on any free port for talking to a Scheduler
+     * @param host host the Scheduler runs on
+     * @param port port the Scheduler listens on
+     * @throws SocketException if the socket cannot be opened
+     */
+    public UdpTransport(String host, int port) throws SocketException {
+        this(host + ":" + port);
+    }
+
+    /**
+     * Opens a socket on any free port for talking to a primary Scheduler and its standbys
+     * @param addresses comma separated host:port pairs, the primary first
+     * @throws SocketException if the socket cannot be opened
+     * @throws IllegalArgumentException if an address has no port
+     */
+    public UdpTransport(String addresses) throws SocketException {
+        String[] list = addresses.split(",");
+        hosts = new String[list.length];
+        ports = new int[list.length];
+        for (int i = 0; i < list.length; i++) {
+            int colon = list[i].lastIndexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("Scheduler address without a port: " + list[i]);
+            }
+            hosts[i] = list[i].substring(0, colon).trim();
+            ports[i] = Integer.parseInt(list[i].substring(colon + 1).trim());
+        }
+        this.socket = new DatagramSocket();
+    }
+
+    @Override
+    public void send(String message) throws IOException {
+        byte[] bytes = message.getBytes();
+        send(bytes, bytes.length);
+    }
+
+    @Override
+    public void send(byte[] data, int length) throws IOException {
+        if (sendPacket == null) {
+            sendPacket = new DatagramPacket(data, length, schedulerAddress(), ports[current]);
+        } else {
+            sendPacket.setData(data, 0, length);
+        }
+        socket.send(sendPacket);
+    }
+
+    @Override
+    public String receive(long timeoutMillis) throws IOException {
+        int timeout = (int) Math.min(timeoutMillis, Integer.MAX_VALUE);
+        if (timeout != this.timeoutMillis) {
+            socket.setSoTimeout(timeout);
+            this.timeoutMillis = timeout;
+        }
+        receivePacket.setLength(receivePacket.getData().length);
+        try {
+            socket.receive(receivePacket);
+        } catch (SocketTimeoutException e) {
+            return null;
+        }
+        return decode(receivePacket.getData(), receivePacket.getLength(), decoded);
+    }
+
+    @Override
+    public boolean supportsBinary() {
+        return true;
+    }
+
+    @Override
+    public boolean failOver() {
+        if (hosts.length == 1) {
+            return false;
+        }
+        current = (current + 1) % hosts.length;
+        address = null;
+        sendPacket = null;
+        return true;
+    }
+
+    @Override
+    public void close() {
+        socket.close();
+    }
+
+    /**
+     * @return host and port of the Scheduler messages go to
+     */
+    public String getSchedulerAddress() {
+        return hosts[current] + ":" + ports[current];
+    }
+
+    /**
+     * @return the local UDP port the transport sends from
+     */
+    public int getLocalPort() {
+        return socket.getLocalPort();
+    }
+
+    /**
+     * @return address of the Scheduler, looked up on first use
+     * @throws IOException if the host cannot be resolved
+     */
+    private InetAddress schedulerAddress() throws IOException {
+        if (address == null) {
+            address = InetAddress.getByName(hosts[current]);
+        }
+        return address;
+    }
+
+    /**
+     * Turns a received datagram into the text form of the reply
+     * @param data    datagram payload
+     * @param length  payload length
+     * @param scratch reusable message to decode binary replies into
+     * @return the reply in text form
+     * @throws MalformedMessageException if the datagram is binary but cannot be decoded
+     */
+    static String decode(byte[] data, int length, WireCodec.Message scratch) throws MalformedMessageException {
+        if (length > 0 && data[0] == WireCodec.MAGIC) {
+            if (!WireCodec.decode(ByteBuffer.wrap(data, 0, length), scratch)) {
+                throw new MalformedMessageException("Malformed binary packet");
+            }
+            return WireCodec.toText(scratch);
+        }
+        return new String(data, 0, length).trim();
+    }
+}
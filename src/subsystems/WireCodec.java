@@ -0,0 +1,472 @@
+package subsystems;
+
+import model.Drone;
+import model.EnumCodes;
+import model.FireEvent;
+
+import java.nio.ByteBuffer;
+
+/**
+ * WireCodec is the compact binary alternative to the comma separated text messages exchanged between
+ * the Scheduler and the drones.
+ *
+ * Every binary message starts with a fixed 7 byte header: a magic byte that can never begin a text
+ * message, the codec version, the opcode and the drone ID. The body is a fixed layout per opcode made of
+ * single byte enum codes, 32 bit ints and 32 bit floats, all big endian. Event times travel as
+ * seconds since midnight, so only times in the HH:MM:SS form can be encoded. Opcodes and enums are
+ * written as their explicit code, never their ordinal, so reordering or adding a constant does not
+ * change the encoding of the others.
+ *
+ * A request or reply that carries a RequestCorrelator ID sets REQUEST_ID_FLAG in the opcode byte and
+ * the ID follows the header as a 32 bit int, so negotiating request IDs does not push control messages
+ * back to text. fromText reads the ID from the text prefix and toText writes it back.
+ *
+ * A drone offers the codec by adding CAPABILITY to its REGISTER_DRONE message, and only switches to it
+ * if the Scheduler echoes CAPABILITY in REGISTERED_DRONE. Registration itself and messages from the
+ * FireIncidentSubsystem always stay in text, and either side can fall back to text for any message
+ * the codec cannot represent.
+ *
+ * The encode methods and decode never allocate, callers supply the buffer and a reusable Message.
+ * fromText reads the text form in place with a MessageParser and does not allocate either. toText
+ * rebuilds the text form and is meant for rare control messages.
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public final class WireCodec {
+
+    /** First byte of every binary message, outside the ASCII range used by text messages */
+    public static final byte MAGIC = (byte) 0xB7;
+    /** Codec version carried in every header */
+    public static final byte VERSION = 1;
+    /** Size of the fixed header in bytes */
+    public static final int HEADER_SIZE = 7;
+    /** Set in the opcode byte of a message that carries a request ID after the header */
+    public static final int REQUEST_ID_FLAG = 0x80;
+    /** Token added to REGISTER_DRONE and REGISTERED_DRONE to negotiate the codec */
+    public static final String CAPABILITY = "BIN" + VERSION;
+
+    /**
+     * Message types understood by the codec, their code in the opcode byte, the body layout they use
+     * and whether they are a Scheduler reply, which carries no drone ID in its text form
+     */
+    public enum Opcode {
+        DRONE_READY(0, Layout.EMPTY, false),
+        DRONE_RETURN_TO_BASE(1, Layout.EMPTY, false),
+        STATUS_UPDATE(2, Layout.STATUS, false),
+        DRONE_ARRIVE_TO_ZONE(3, Layout.EVENT, false),
+        DRONE_COMPLETE_EVENT(4, Layout.EVENT, false),
+        REQUEUE_EVENT(5, Layout.EVENT, false),
+        REQUEST_NEXT_MISSION(6, Layout.AGENT, false),
+        HARD_FAULT(7, Layout.FAULT, false),
+        DRONE_SHUTDOWN(8, Layout.FAULT, false),
+        ASSIGN_EVENT(9, Layout.ASSIGN, true),
+        RETURN_TO_BASE(10, Layout.EMPTY, true),
+        RETURN_CONFIRMED(11, Layout.EMPTY, true),
+        ALL_EVENTS_COMPLETE(12, Layout.EMPTY, true);
+
+        /** Opcode byte without REQUEST_ID_FLAG, below 0x80 */
+        public final byte code;
+        final Layout layout;
+        final boolean reply;
+
+        Opcode(int code, Layout layout, boolean reply) {
+            this.code = (byte) code;
+            this.layout = layout;
+            this.reply = reply;
+        }
+
+        private static final Opcode[] VALUES = values();
+        private static final Opcode[] BY_CODE = EnumCodes.byCode(VALUES, op -> op.code);
+
+        /**
+         * @param code opcode byte without REQUEST_ID_FLAG
+         * @return matching opcode, or null if no opcode has the code
+         */
+        public static Opcode fromCode(int code) {
+            return EnumCodes.lookup(BY_CODE, code);
+        }
+
+        /**
+         * @param name text message type
+         * @return matching opcode, or null if the message type has no binary form
+         */
+        public static Opcode fromName(String name) {
+            for (Opcode op : VALUES) {
+                if (op.name().equals(name)) {
+                    return op;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Body layouts, each with its size in bytes
+     */
+    enum Layout {
+        EMPTY(0),
+        STATUS(1 + 4 + 4 + 4),  // state, x, y, agent
+        EVENT(4 + 4 + 1),       // time, zone, severity
+        ASSIGN(4 + 4 + 1 + 1),  // time, zone, severity, fault
+        AGENT(4),               // agent
+        FAULT(1 + 4);           // scheduler fault, zone
+
+        final int size;
+
+        Layout(int size) {
+            this.size = size;
+        }
+    }
+
+    /**
+     * A decoded message. Only the fields used by the opcode's layout are meaningful.
+     */
+    public static class Message {
+        public Opcode opcode;
+        public int droneID;
+        public int requestID; // 0 if the message carries none
+        public Drone.DroneState state;
+        public float x;
+        public float y;
+        public float agent;
+        public int timeSeconds;
+        public int zoneID;
+        public FireEvent.Severity severity;
+        public FireEvent.FaultType eventFault;
+        public Scheduler.FaultType droneFault;
+
+        /**
+         * @return event time in HH:MM:SS form
+         */
+        public String getTime() {
+            return formatTime(timeSeconds);
+        }
+    }
+
+    private static final Opcode[] OPCODES = Opcode.values();
+    // names for parsing the text form, the binary form uses each enum's fromCode
+    private static final Drone.DroneState[] STATES = Drone.DroneState.values();
+    private static final FireEvent.Severity[] SEVERITIES = FireEvent.Severity.values();
+    private static final FireEvent.FaultType[] EVENT_FAULTS = FireEvent.FaultType.values();
+    private static final Scheduler.FaultType[] DRONE_FAULTS = Scheduler.FaultType.values();
+    // text messages are converted with one parser per thread
+    private static final ThreadLocal<MessageParser> PARSER = ThreadLocal.withInitial(MessageParser::new);
+
+    private WireCodec() {
+    }
+
+    /**
+     * @param buffer received datagram, between position and limit
+     * @return true if the datagram starts with the binary magic byte
+     */
+    public static boolean isBinary(ByteBuffer buffer) {
+        return buffer.remaining() > 0 && buffer.get(buffer.position()) == MAGIC;
+    }
+
+    /**
+     * Writes a message header
+     * @param out     destination buffer
+     * @param opcode  message type
+     * @param droneID id of the drone the message is from or for, 0 if none
+     */
+    public static void encodeHeader(ByteBuffer out, Opcode opcode, int droneID) {
+        out.put(MAGIC).put(VERSION).put(opcode.code).putInt(droneID);
+    }
+
+    /**
+     * Writes a message header followed by the request ID the message carries
+     * @param out       destination buffer
+     * @param opcode    message type
+     * @param droneID   id of the drone the message is from or for, 0 if none
+     * @param requestID ID of the request, 0 to write a plain header
+     */
+    public static void encodeHeader(ByteBuffer out, Opcode opcode, int droneID, int requestID) {
+        if (requestID == 0) {
+            encodeHeader(out, opcode, droneID);
+            return;
+        }
+        out.put(MAGIC).put(VERSION).put((byte) (opcode.code | REQUEST_ID_FLAG)).putInt(droneID).putInt(requestID);
+    }
+
+    /**
+     * Writes a STATUS_UPDATE message
+     * @param out     destination buffer
+     * @param droneID id of the drone
+     * @param state   current drone state
+     * @param x       x coordinate
+     * @param y       y coordinate
+     * @param agent   remaining agent percentage
+     */
+    public static void encodeStatus(ByteBuffer out, int droneID, Drone.DroneState state, double x, double y, double agent) {
+        encodeHeader(out, Opcode.STATUS_UPDATE, droneID);
+        out.put(state.code).putFloat((float) x).putFloat((float) y).putFloat((float) agent);
+    }
+
+    /**
+     * Writes a message that refers to a fire event
+     * @param out      destination buffer
+     * @param opcode   an EVENT or ASSIGN layout opcode
+     * @param droneID  id of the drone
+     * @param event    the fire event
+     * @return false if the event time is not in HH:MM:SS form, nothing is written in that case
+     */
+    public static boolean encodeEvent(ByteBuffer out, Opcode opcode, int droneID, FireEvent event) {
+        int seconds = parseTime(event.getTime());
+        if (seconds < 0 || (opcode.layout != Layout.EVENT && opcode.layout != Layout.ASSIGN)) {
+            return false;
+        }
+        encodeHeader(out, opcode, droneID);
+        out.putInt(seconds).putInt(event.getZoneID()).put(event.getSeverity().code);
+        if (opcode.layout == Layout.ASSIGN) {
+            out.put(event.getFaultType().code);
+        }
+        return true;
+    }
+
+    /**
+     * Converts a text message into its binary form
+     * @param message text message
+     * @param out     destination buffer
+     * @return false if the message has no binary form, nothing is written in that case
+     */
+    public static boolean fromText(String message, ByteBuffer out) {
+        return fromText(message, 0, out);
+    }
+
+    /**
+     * Converts a text message into its binary form, addressing a reply to one drone
+     * @param message      text message, with or without a request ID prefix
+     * @param replyDroneID id of the drone a reply is for, drone messages carry their own ID
+     * @param out          destination buffer
+     * @return false if the message has no binary form, nothing is written in that case
+     */
+    public static boolean fromText(String message, int replyDroneID, ByteBuffer out) {
+        // a request ID travels in text as a prefix, REQUEST_PREFIX or REPLY_PREFIX, digits and a comma
+        int requestID = 0;
+        int offset = 0;
+        if (message.length() > 0 && (message.charAt(0) == RequestCorrelator.REQUEST_PREFIX
+                || message.charAt(0) == RequestCorrelator.REPLY_PREFIX)) {
+            long id = 0;
+            offset = 1;
+            while (offset < message.length() && message.charAt(offset) >= '0' && message.charAt(offset) <= '9' && id <= Integer.MAX_VALUE) {
+                id = id * 10 + (message.charAt(offset++) - '0');
+            }
+            if (id <= 0 || id > Integer.MAX_VALUE || offset == message.length() || message.charAt(offset) != ',') {
+                return false;
+            }
+            requestID = (int) id;
+            offset++;
+        }
+        MessageParser parser = PARSER.get().reset(message, offset);
+        Opcode opcode = parser.nextEnum(OPCODES);
+        if (opcode == null) {
+            return false;
+        }
+        int start = out.position();
+        boolean reply = opcode.reply;
+        int droneID = reply ? replyDroneID : parser.nextInt();
+        if (!parser.ok() || out.remaining() < HEADER_SIZE + (requestID == 0 ? 0 : 4) + opcode.layout.size) {
+            return false;
+        }
+        encodeHeader(out, opcode, droneID, requestID);
+
+        switch (opcode.layout) {
+            case STATUS:
+                Drone.DroneState state = parser.nextEnum(STATES);
+                float x = (float) parser.nextDouble();
+                float y = (float) parser.nextDouble();
+                float agent = (float) parser.nextDouble();
+                if (parser.ok()) {
+                    out.put(state.code).putFloat(x).putFloat(y).putFloat(agent);
+                }
+                break;
+            case EVENT:
+            case ASSIGN:
+                int seconds = parser.nextTimeOfDay();
+                int zoneID = parser.nextInt();
+                FireEvent.Severity severity = parser.nextEnum(SEVERITIES);
+                FireEvent.FaultType fault = opcode.layout == Layout.ASSIGN ? parser.nextEnum(EVENT_FAULTS, FireEvent.FaultType.NONE) : null;
+                if (parser.ok()) {
+                    out.putInt(seconds).putInt(zoneID).put(severity.code);
+                    if (fault != null) {
+                        out.put(fault.code);
+                    }
+                }
+                break;
+            case AGENT:
+                float remaining = (float) parser.nextDouble();
+                if (parser.ok()) {
+                    out.putFloat(remaining);
+                }
+                break;
+            case FAULT:
+                Scheduler.FaultType droneFault = parser.nextEnum(DRONE_FAULTS);
+                int zone = parser.hasNext() ? parser.nextInt() : 0;
+                if (parser.ok()) {
+                    out.put(droneFault.code).putInt(zone);
+                }
+                break;
+            default:
+                break;
+        }
+        if (!parser.ok()) {
+            // unknown enum names, bad numbers or missing fields stay in text
+            out.position(start);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Reads a binary message without allocating
+     * @param in  received datagram between position and limit, the position is advanced past the message
+     * @param out message to fill in
+     * @return false if the datagram is not a valid message for this codec version
+     */
+    public static boolean decode(ByteBuffer in, Message out) {
+        if (in.remaining() < HEADER_SIZE || in.get() != MAGIC || in.get() != VERSION) {
+            return false;
+        }
+        int op = in.get() & 0xff;
+        boolean tagged = (op & REQUEST_ID_FLAG) != 0;
+        op &= ~REQUEST_ID_FLAG;
+        Opcode opcode = Opcode.fromCode(op);
+        if (opcode == null) {
+            return false;
+        }
+        if (in.remaining() < 4 + (tagged ? 4 : 0) + opcode.layout.size) {
+            return false;
+        }
+        out.opcode = opcode;
+        out.droneID = in.getInt();
+        out.requestID = tagged ? in.getInt() : 0;
+        if (tagged && out.requestID <= 0) {
+            return false;
+        }
+
+        switch (opcode.layout) {
+            case STATUS:
+                out.state = Drone.DroneState.fromCode(in.get() & 0xff);
+                if (out.state == null) {
+                    return false;
+                }
+                out.x = in.getFloat();
+                out.y = in.getFloat();
+                out.agent = in.getFloat();
+                break;
+            case EVENT:
+            case ASSIGN:
+                out.timeSeconds = in.getInt();
+                out.zoneID = in.getInt();
+                out.severity = FireEvent.Severity.fromCode(in.get() & 0xff);
+                if (out.severity == null || out.timeSeconds < 0 || out.timeSeconds >= 24 * 3600) {
+                    return false;
+                }
+                if (opcode.layout == Layout.ASSIGN) {
+                    out.eventFault = FireEvent.FaultType.fromCode(in.get() & 0xff);
+                    if (out.eventFault == null) {
+                        return false;
+                    }
+                }
+                break;
+            case AGENT:
+                out.agent = in.getFloat();
+                break;
+            case FAULT:
+                out.droneFault = Scheduler.FaultType.fromCode(in.get() & 0xff);
+                if (out.droneFault == null) {
+                    return false;
+                }
+                out.zoneID = in.getInt();
+                break;
+            default:
+                break;
+        }
+        return true;
+    }
+
+    /**
+     * Rebuilds the text form of a decoded message, with its request ID prefix if it carries one
+     * @param message decoded message
+     * @return the equivalent comma separated message
+     */
+    public static String toText(Message message) {
+        StringBuilder sb = new StringBuilder(48);
+        boolean reply = message.opcode.reply;
+        if (message.requestID != 0) {
+            sb.append(reply ? RequestCorrelator.REPLY_PREFIX : RequestCorrelator.REQUEST_PREFIX).append(message.requestID).append(',');
+        }
+        sb.append(message.opcode.name()).append(',');
+        if (!reply) {
+            sb.append(message.droneID);
+        }
+        switch (message.opcode.layout) {
+            case STATUS:
+                sb.append(',').append(message.state).append(',').append(message.x).append(',')
+                        .append(message.y).append(',').append(message.agent);
+                break;
+            case EVENT:
+            case ASSIGN:
+                if (!reply) {
+                    sb.append(',');
+                }
+                sb.append(message.getTime()).append(',').append(message.zoneID).append(',').append(message.severity);
+                if (message.opcode.layout == Layout.ASSIGN) {
+                    sb.append(',').append(message.eventFault);
+                }
+                break;
+            case AGENT:
+                sb.append(',').append(message.agent);
+                break;
+            case FAULT:
+                sb.append(',').append(message.droneFault).append(',').append(message.zoneID);
+                break;
+            default:
+                break;
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @param time time in HH:MM:SS form
+     * @return seconds since midnight, or -1 if the time is not in HH:MM:SS form
+     */
+    static int parseTime(String time) {
+        if (time.length() != 8 || time.charAt(2) != ':' || time.charAt(5) != ':') {
+            return -1;
+        }
+        int h = twoDigits(time, 0);
+        int m = twoDigits(time, 3);
+        int s = twoDigits(time, 6);
+        if (h < 0 || h > 23 || m < 0 || m > 59 || s < 0 || s > 59) {
+            return -1;
+        }
+        return h * 3600 + m * 60 + s;
+    }
+
+    /**
+     * @param seconds seconds since midnight
+     * @return time in HH:MM:SS form
+     */
+    static String formatTime(int seconds) {
+        char[] c = {'0', '0', ':', '0', '0', ':', '0', '0'};
+        int[] parts = {seconds / 3600, (seconds / 60) % 60, seconds % 60};
+        for (int i = 0; i < 3; i++) {
+            c[i * 3] = (char) ('0' + parts[i] / 10);
+            c[i * 3 + 1] = (char) ('0' + parts[i] % 10);
+        }
+        return new String(c);
+    }
+
+    /**
+     * @return value of two decimal digits at an offset, or -1 if they are not digits
+     */
+    private static int twoDigits(String s, int offset) {
+        char a = s.charAt(offset);
+        char b = s.charAt(offset + 1);
+        if (a < '0' || a > '9' || b < '0' || b > '9') {
+            return -1;
+        }
+        return (a - '0') * 10 + (b - '0');
+    }
+}
@@ -62,8 +62,9 @@ public class DroneSwarmMonitor extends JFrame {
         launchButton.addActionListener(e -> {
             int droneCount = (int) droneCountSpinner.getValue();
             
-            // Create scheduler with monitor
+            // Create scheduler with monitor, everything runs in this process so messages skip the network
             scheduler = new Scheduler("Final_zone_file_w26.csv", this);
+            InMemoryTransport transport = new InMemoryTransport(scheduler);
             
             // Start scheduler thread
             Thread schedulerThread = new Thread(scheduler, "Scheduler-Thread");
@@ -71,12 +72,13 @@ public class DroneSwarmMonitor extends JFrame {
             
             // Create and start drone threads
             for (int i = 1; i <= droneCount; i++) {
-                Thread droneThread = new Thread(new DroneSubsystem(scheduler, i), "Drone-" + i);
+                DroneSubsystem drone = new DroneSubsystem(scheduler, i, scheduler.getClock(), transport.connect());
+                Thread droneThread = new Thread(drone, "Drone-" + i);
                 droneThread.start();
             }
             
             // Start fire incident subsystem
-            Thread fireIncidentThread = new Thread(new FireIncidentSubsystem("Final_event_file_w26.csv"), "FireIncident-Thread");
+            Thread fireIncidentThread = new Thread(new FireIncidentSubsystem("Final_event_file_w26.csv", transport.connect()), "FireIncident-Thread");
             fireIncidentThread.start();
             
             launchButton.setEnabled(false);
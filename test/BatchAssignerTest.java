@@ -0,0 +1,91 @@
+import subsystems.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+/**
+ * Unit tests for the BatchAssigner class.
+ * Tests the minimum total ETA assignment against greedy matching and brute force.
+ *
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class BatchAssignerTest {
+
+    @Test
+    @DisplayName("Test optimal assignment beats greedy nearest drone matching")
+    public void testBeatsGreedy() {
+        // Greedy would give event 0 to drone 1 (2.5s) and leave event 1 for drone 0 (10.5s)
+        double[][] eta = {
+                {3.5, 2.5},
+                {10.5, 4.5}
+        };
+
+        int[] assignment = BatchAssigner.solve(eta);
+
+        assertArrayEquals(new int[]{0, 1}, assignment);
+        assertEquals(8.0, BatchAssigner.totalCost(eta, assignment), 0.001);
+    }
+
+    @Test
+    @DisplayName("Test more drones than events leaves extra drones unassigned")
+    public void testRectangular() {
+        double[][] eta = {
+                {9, 1, 7, 8},
+                {2, 6, 3, 9}
+        };
+
+        int[] assignment = BatchAssigner.solve(eta);
+
+        assertEquals(1, assignment[0]);
+        assertEquals(0, assignment[1]);
+    }
+
+    @Test
+    @DisplayName("Test empty batch and more events than drones")
+    public void testEdgeCases() {
+        assertEquals(0, BatchAssigner.solve(new double[0][0]).length);
+        assertThrows(IllegalArgumentException.class, () -> BatchAssigner.solve(new double[][]{{1}, {2}}));
+    }
+
+    @Test
+    @DisplayName("Test assignment matches brute force on random batches")
+    public void testMatchesBruteForce() {
+        Random random = new Random(7);
+        for (int trial = 0; trial < 50; trial++) {
+            int events = 1 + random.nextInt(5);
+            int drones = events + random.nextInt(3);
+            double[][] eta = new double[events][drones];
+            for (int i = 0; i < events; i++) {
+                for (int j = 0; j < drones; j++) {
+                    eta[i][j] = random.nextDouble() * 200;
+                }
+            }
+
+            int[] assignment = BatchAssigner.solve(eta);
+            boolean[] usedDrones = new boolean[drones];
+            for (int j : assignment) {
+                assertFalse(usedDrones[j], "Drone assigned twice");
+                usedDrones[j] = true;
+            }
+            assertEquals(bruteForce(eta, 0, new boolean[drones]), BatchAssigner.totalCost(eta, assignment), 0.0001);
+        }
+    }
+
+    private double bruteForce(double[][] eta, int event, boolean[] used) {
+        if (event == eta.length) {
+            return 0;
+        }
+        double best = Double.MAX_VALUE;
+        for (int j = 0; j < used.length; j++) {
+            if (!used[j]) {
+                used[j] = true;
+                best = Math.min(best, eta[event][j] + bruteForce(eta, event + 1, used));
+                used[j] = false;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,59 @@
+import subsystems.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Unit tests for the ByteBufferPool class.
+ * Tests that buffers are reused, cleared on release and that the idle pool stays bounded.
+ *
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class ByteBufferPoolTest {
+
+    @Test
+    @DisplayName("Test released buffers are cleared and reused")
+    public void testReuse() {
+        ByteBufferPool pool = new ByteBufferPool(64, 4);
+        ByteBuffer first = pool.acquire();
+        assertTrue(first.isDirect());
+        assertEquals(64, first.capacity());
+
+        first.put((byte) 1).put((byte) 2).flip();
+        pool.release(first);
+        ByteBuffer second = pool.acquire();
+
+        assertSame(first, second);
+        assertEquals(0, second.position());
+        assertEquals(64, second.limit());
+        assertEquals(1, pool.getAllocatedCount());
+    }
+
+    @Test
+    @DisplayName("Test the pool keeps at most maxPooled idle buffers")
+    public void testBounded() {
+        ByteBufferPool pool = new ByteBufferPool(64, 2);
+        ByteBuffer[] buffers = new ByteBuffer[5];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = pool.acquire();
+        }
+        for (ByteBuffer buffer : buffers) {
+            pool.release(buffer);
+        }
+
+        assertEquals(5, pool.getAllocatedCount());
+        assertEquals(2, pool.getIdleCount());
+    }
+
+    @Test
+    @DisplayName("Test buffers of the wrong size are not pooled")
+    public void testForeignBuffer() {
+        ByteBufferPool pool = new ByteBufferPool(64, 2);
+        pool.release(ByteBuffer.allocateDirect(32));
+
+        assertEquals(0, pool.getIdleCount());
+    }
+}
@@ -0,0 +1,103 @@
+import model.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Unit tests for the SystemClock, ScaledClock and ManualClock classes.
+ * Tests that each clock sleeps and waits for the right amount of its own time.
+ *
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class ClockTest {
+
+    @Test
+    @DisplayName("Test the system clock follows the wall clock")
+    public void testSystemClock() throws InterruptedException {
+        long start = System.currentTimeMillis();
+        Clock.SYSTEM.sleep(50);
+        assertTrue(Clock.SYSTEM.millis() - start >= 50);
+    }
+
+    @Test
+    @DisplayName("Test a scaled clock sleeps a fraction of the real time")
+    public void testScaledClock() throws InterruptedException {
+        ScaledClock clock = new ScaledClock(10);
+        long realStart = System.currentTimeMillis();
+        long clockStart = clock.millis();
+
+        clock.sleep(1000);
+
+        long real = System.currentTimeMillis() - realStart;
+        assertTrue(real >= 100 && real < 600, "Slept " + real + " ms");
+        assertTrue(clock.millis() - clockStart >= 1000);
+        assertThrows(IllegalArgumentException.class, () -> new ScaledClock(0));
+    }
+
+    @Test
+    @DisplayName("Test a manual clock only moves when advanced")
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    public void testManualClockSleep() throws InterruptedException {
+        ManualClock clock = new ManualClock(100);
+        AtomicBoolean woke = new AtomicBoolean();
+        Thread sleeper = new Thread(() -> {
+            try {
+                clock.sleep(1000);
+                woke.set(true);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        sleeper.start();
+        while (sleeper.getState() != Thread.State.WAITING) {
+            Thread.sleep(1); // the sleep is measured from when it starts
+        }
+
+        clock.advance(999);
+        sleeper.join(200);
+        assertFalse(woke.get());
+
+        clock.advance(1);
+        sleeper.join(1000);
+        assertTrue(woke.get());
+        assertEquals(1100, clock.millis());
+
+        clock.setMillis(50); // never moves backwards
+        assertEquals(1100, clock.millis());
+    }
+
+    @Test
+    @DisplayName("Test a timed wait on a manual clock ends when the clock reaches the deadline")
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    public void testManualClockWaitUntil() throws InterruptedException {
+        ManualClock clock = new ManualClock();
+        Object monitor = new Object();
+        AtomicBoolean woke = new AtomicBoolean();
+        Thread waiter = new Thread(() -> {
+            synchronized (monitor) {
+                try {
+                    while (clock.millis() < 500) {
+                        clock.waitUntil(monitor, 500);
+                    }
+                    woke.set(true);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        waiter.start();
+
+        clock.advance(300);
+        waiter.join(200);
+        assertFalse(woke.get());
+
+        clock.advance(200);
+        waiter.join(1000);
+        assertTrue(woke.get());
+    }
+}
@@ -0,0 +1,123 @@
+import model.*;
+import subsystems.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Unit tests for the DeadlineTimer class.
+ * Tests that deadlines expire on time and that cancelled or replaced deadlines never fire.
+ *
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class DeadlineTimerTest {
+
+    private DeadlineTimer timer;
+    private List<long[]> expired;
+
+    @BeforeEach
+    public void setUp() {
+        expired = new CopyOnWriteArrayList<>();
+        timer = new DeadlineTimer("Test-Timer", (key, deadline) ->
+                expired.add(new long[]{key, deadline, System.currentTimeMillis()}));
+        timer.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        timer.stop();
+    }
+
+    @Test
+    @DisplayName("Test deadline fires shortly after it passes")
+    public void testExpiry() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 200;
+        timer.arm(1, deadline);
+        assertTrue(timer.isArmed(1));
+
+        Thread.sleep(400);
+
+        assertEquals(1, expired.size());
+        assertEquals(1, expired.get(0)[0]);
+        assertEquals(deadline, expired.get(0)[1]);
+        assertTrue(expired.get(0)[2] >= deadline);
+        assertTrue(expired.get(0)[2] - deadline < 100, "Deadline fired late");
+        assertFalse(timer.isArmed(1));
+    }
+
+    @Test
+    @DisplayName("Test cancelled deadline never fires")
+    public void testCancel() throws InterruptedException {
+        timer.arm(1, System.currentTimeMillis() + 100);
+        assertTrue(timer.cancel(1));
+        assertFalse(timer.cancel(1));
+
+        Thread.sleep(300);
+
+        assertTrue(expired.isEmpty());
+        assertEquals(0, timer.size());
+    }
+
+    @Test
+    @DisplayName("Test re-arming replaces the previous deadline")
+    public void testRearm() throws InterruptedException {
+        timer.arm(1, System.currentTimeMillis() + 100);
+        long later = System.currentTimeMillis() + 300;
+        timer.arm(1, later);
+
+        Thread.sleep(200);
+        assertTrue(expired.isEmpty());
+
+        Thread.sleep(300);
+        assertEquals(1, expired.size());
+        assertEquals(later, expired.get(0)[1]);
+    }
+
+    @Test
+    @DisplayName("Test deadlines of different keys fire in deadline order")
+    public void testOrdering() throws InterruptedException {
+        long now = System.currentTimeMillis();
+        timer.arm(3, now + 250);
+        timer.arm(1, now + 50);
+        timer.arm(2, now + 150);
+
+        Thread.sleep(450);
+
+        assertEquals(3, expired.size());
+        assertEquals(1, expired.get(0)[0]);
+        assertEquals(2, expired.get(1)[0]);
+        assertEquals(3, expired.get(2)[0]);
+    }
+
+    @Test
+    @DisplayName("Test deadlines on a manual clock expire only when the clock passes them")
+    public void testManualClock() throws InterruptedException {
+        ManualClock clock = new ManualClock(1000);
+        List<Integer> manualExpired = new CopyOnWriteArrayList<>();
+        DeadlineTimer manual = new DeadlineTimer("Test-Manual", (key, deadline) -> manualExpired.add(key), clock);
+        manual.start();
+        try {
+            manual.arm(1, 60_000);
+            manual.arm(2, 5_000);
+
+            Thread.sleep(100);
+            assertTrue(manualExpired.isEmpty());
+
+            clock.advance(4_000);
+            Thread.sleep(100);
+            assertEquals(List.of(2), manualExpired);
+
+            clock.advance(100_000);
+            Thread.sleep(100);
+            assertEquals(List.of(2, 1), manualExpired);
+        } finally {
+            manual.stop();
+        }
+    }
+}
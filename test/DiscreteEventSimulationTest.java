@@ -0,0 +1,120 @@
+import model.*;
+import subsystems.*;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for the DiscreteEventSimulation class.
+ * Tests that real drones work through fires in virtual time against the real Scheduler logic.
+ *
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class DiscreteEventSimulationTest {
+
+    private String testZoneFilePath;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        testZoneFilePath = "test/test_simulation_zones.csv";
+        try (FileWriter writer = new FileWriter(testZoneFilePath)) {
+            writer.write("1,(0;0),(700;600)\n");
+            writer.write("2,(0;600),(650;1500)\n");
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        new File(testZoneFilePath).delete();
+    }
+
+    @Test
+    @DisplayName("Test the full event file finishes in virtual time")
+    @Timeout(value = 20, unit = TimeUnit.SECONDS)
+    public void testFullEventFile() {
+        DiscreteEventSimulation simulation = new DiscreteEventSimulation("Final_zone_file_w26.csv", 5);
+        simulation.loadEvents("Final_event_file_w26.csv");
+
+        long start = System.currentTimeMillis();
+        long end = simulation.run();
+
+        assertTrue(simulation.getFireEventCount() > 0);
+        assertEquals(simulation.getFireEventCount(), simulation.getCompletedEventCount());
+        // hours of operations in well under the time a single threaded mission takes
+        assertTrue(end > TimeUnit.HOURS.toMillis(1), "Simulated " + end + " ms");
+        assertTrue(System.currentTimeMillis() - start < 10000);
+    }
+
+    @Test
+    @DisplayName("Test a mission takes its flight, drop and refill time in virtual time")
+    public void testMissionTiming() {
+        DiscreteEventSimulation simulation = new DiscreteEventSimulation(testZoneFilePath, 1);
+        simulation.addFireEvent(new FireEvent("00:00:10", 1, FireEvent.Type.FIRE_DETECTED,
+                FireEvent.Severity.Low, FireEvent.FaultType.NONE));
+        simulation.allEventsAdded();
+
+        long end = simulation.run();
+
+        // zone 1 center is (350, 300): 650 m out loaded, drop 10% with the doors, 650 m back unloaded, refill
+        double seconds = 10 + 650 / Drone.CRUISE_SPEED_LOADED + 2 * Drone.NOZZLE_DOORS + 10 / Drone.DROP_RATE
+                + 650 / Drone.CRUISE_SPEED_UNLOADED + Drone.REFILL_TIME;
+        // the drone waits out each 100 m step, drop and the refill in whole clock milliseconds, 100 simulated
+        // ms each: 7 steps out, 3 waits at the fire, 7 steps back and the refill
+        int waits = 7 + 3 + 7 + 1;
+        assertEquals(Math.round(seconds * 1000), end, waits * 1000 / FlightPlan.MILLIS_PER_SECOND);
+        assertEquals(1, simulation.getCompletedEventCount());
+        assertEquals(Drone.DroneState.REFILLING, simulation.getDroneState(1));
+        assertFalse(simulation.isDroneRunning(1), "Drone should be told all events are complete");
+    }
+
+    @Test
+    @DisplayName("Test a jammed drone shuts down and another drone takes over its fire")
+    public void testNozzleJammedFault() {
+        DiscreteEventSimulation simulation = new DiscreteEventSimulation(testZoneFilePath, 2);
+        simulation.addFireEvent(new FireEvent("00:00:10", 2, FireEvent.Type.FIRE_DETECTED,
+                FireEvent.Severity.High, FireEvent.FaultType.NOZZLE_JAMMED));
+        simulation.allEventsAdded();
+
+        simulation.run();
+
+        assertEquals(1, simulation.getCompletedEventCount());
+        int jammed = simulation.getDroneState(1) == Drone.DroneState.FAULTED ? 1 : 2;
+        assertEquals(Drone.DroneState.FAULTED, simulation.getDroneState(jammed));
+        assertFalse(simulation.isDroneRunning(jammed));
+    }
+
+    @Test
+    @DisplayName("Test a drone flying to a Low fire is diverted to a High fire it passes")
+    public void testPreemption() {
+        DiscreteEventSimulation simulation = new DiscreteEventSimulation(testZoneFilePath, 1);
+        simulation.addFireEvent(new FireEvent("00:00:10", 2, FireEvent.Type.FIRE_DETECTED,
+                FireEvent.Severity.Low, FireEvent.FaultType.NONE));
+        simulation.addFireEvent(new FireEvent("00:00:20", 1, FireEvent.Type.FIRE_DETECTED,
+                FireEvent.Severity.High, FireEvent.FaultType.NONE));
+        simulation.allEventsAdded();
+
+        simulation.run();
+
+        assertEquals(1, simulation.getScheduler().getPreemptionCount());
+        assertEquals(2, simulation.getCompletedEventCount());
+        assertFalse(simulation.isDroneRunning(1), "Drone should be told all events are complete");
+    }
+
+    @Test
+    @DisplayName("Test runs are repeatable")
+    public void testDeterministic() {
+        long[] ends = new long[2];
+        for (int i = 0; i < ends.length; i++) {
+            DiscreteEventSimulation simulation = new DiscreteEventSimulation("Final_zone_file_w26.csv", 3);
+            simulation.loadEvents("Final_event_file_w26.csv");
+            ends[i] = simulation.run();
+        }
+        assertEquals(ends[0], ends[1]);
+    }
+}
@@ -0,0 +1,99 @@
+import subsystems.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+/**
+ * Unit tests for the DroneSpatialIndex class.
+ * Tests nearest drone lookups, moves and removals against a brute force search.
+ *
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class DroneSpatialIndexTest {
+
+    private DroneSpatialIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new DroneSpatialIndex(100.0);
+    }
+
+    @Test
+    @DisplayName("Test empty index has no nearest drone")
+    public void testEmptyIndex() {
+        assertTrue(index.isEmpty());
+        assertEquals(-1, index.nearest(0, 0));
+    }
+
+    @Test
+    @DisplayName("Test nearest drone is returned for a zone center")
+    public void testNearest() {
+        index.update(1, 0, 0);
+        index.update(2, 1000, 1000);
+        index.update(3, 400, 300);
+
+        assertEquals(3, index.nearest(350, 300));
+        assertEquals(2, index.nearest(1200, 900));
+        assertEquals(1, index.nearest(-50, 20));
+    }
+
+    @Test
+    @DisplayName("Test drones at the same distance are ordered by ID")
+    public void testTieBreak() {
+        index.update(5, 0, 0);
+        index.update(2, 0, 0);
+
+        assertEquals(2, index.nearest(500, 500));
+    }
+
+    @Test
+    @DisplayName("Test moving and removing drones updates the index")
+    public void testMoveAndRemove() {
+        index.update(1, 0, 0);
+        index.update(2, 900, 900);
+        assertEquals(1, index.nearest(100, 100));
+
+        index.update(2, 120, 120);
+        assertEquals(2, index.nearest(100, 100));
+
+        index.move(3, 100, 100); // not indexed, ignored
+        assertFalse(index.contains(3));
+
+        assertTrue(index.remove(2));
+        assertFalse(index.remove(2));
+        assertEquals(1, index.nearest(100, 100));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    @DisplayName("Test grid search matches a brute force search")
+    public void testMatchesBruteForce() {
+        Random random = new Random(42);
+        double[][] positions = new double[300][2];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i][0] = random.nextDouble() * 3000;
+            positions[i][1] = random.nextDouble() * 3000;
+            index.update(i, positions[i][0], positions[i][1]);
+        }
+
+        for (int q = 0; q < 200; q++) {
+            double x = random.nextDouble() * 3500 - 250;
+            double y = random.nextDouble() * 3500 - 250;
+
+            int expected = -1;
+            double bestDist = Double.MAX_VALUE;
+            for (int i = 0; i < positions.length; i++) {
+                double d = Math.pow(positions[i][0] - x, 2) + Math.pow(positions[i][1] - y, 2);
+                if (d < bestDist) {
+                    bestDist = d;
+                    expected = i;
+                }
+            }
+            assertEquals(expected, index.nearest(x, y));
+        }
+    }
+}
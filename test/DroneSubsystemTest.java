@@ -8,6 +8,8 @@ import static org.junit.jupiter.api.Assertions.*;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BooleanSupplier;
@@ -23,6 +25,9 @@ public class DroneSubsystemTest {
 
     private Scheduler scheduler;
     private String testZoneFilePath;
+    // every drone a test creates is stopped afterwards, so none of them talks to the next test's scheduler
+    private final List<DroneSubsystem> drones = new ArrayList<>();
+    private final List<Thread> droneThreads = new ArrayList<>();
 
     @BeforeEach
     public void setup() throws IOException, InterruptedException {
@@ -48,13 +53,37 @@ public class DroneSubsystemTest {
     }
 
     @AfterEach
-    public void tearDown() throws IOException {
+    public void tearDown() throws IOException, InterruptedException {
+        for (DroneSubsystem drone : drones) {
+            drone.stop();
+        }
+        for (Thread thread : droneThreads) {
+            thread.join(5000);
+        }
         cleanupTestFiles();
         if (scheduler != null) {
             scheduler.shutdown();
         }
     }
 
+    /**
+     * Helper method to create a drone that is stopped after the test
+     */
+    private DroneSubsystem newDrone(int droneID) {
+        DroneSubsystem drone = new DroneSubsystem(scheduler, droneID);
+        drones.add(drone);
+        return drone;
+    }
+
+    /**
+     * Helper method to create the thread of a drone, joined after the test
+     */
+    private Thread newThread(DroneSubsystem drone) {
+        Thread thread = new Thread(drone);
+        droneThreads.add(thread);
+        return thread;
+    }
+
     /**
      * Helper method to clean up test files
      */
@@ -68,15 +97,15 @@ public class DroneSubsystemTest {
     @Test
     @DisplayName("Test DroneSubsystem creation with valid parameters")
     public void testDroneSubsystemCreation() {
-        assertNotNull(new DroneSubsystem(scheduler, 1));
+        assertNotNull(newDrone(1));
     }
 
     @Test
     @DisplayName("Test DroneSubsustem with multiple drone IDs")
     public void testMultipleDroneIDs() {
-        DroneSubsystem drone1 = new DroneSubsystem(scheduler, 1);
-        DroneSubsystem drone2 = new DroneSubsystem(scheduler, 2);
-        DroneSubsystem drone3 = new DroneSubsystem(scheduler, 3);
+        DroneSubsystem drone1 = newDrone(1);
+        DroneSubsystem drone2 = newDrone(2);
+        DroneSubsystem drone3 = newDrone(3);
 
         assertNotNull(drone1);
         assertNotNull(drone2);
@@ -90,8 +119,8 @@ public class DroneSubsystemTest {
         FireEvent event = new FireEvent("14:03:15", 1, FireEvent.Type.FIRE_DETECTED,
                 FireEvent.Severity.Low, FireEvent.FaultType.NONE);
 
-        DroneSubsystem drone = new DroneSubsystem(scheduler, 1);
-        Thread droneThread = new Thread(drone);
+        DroneSubsystem drone = newDrone(1);
+        Thread droneThread = newThread(drone);
 
         scheduler.newFireEvent(event);
         scheduler.updateAllEventsDone();
@@ -116,8 +145,8 @@ public class DroneSubsystemTest {
         scheduler.newFireEvent(event2);
         scheduler.updateAllEventsDone();
 
-        DroneSubsystem drone = new DroneSubsystem(scheduler, 1);
-        Thread droneThread = new Thread(drone);
+        DroneSubsystem drone = newDrone(1);
+        Thread droneThread = newThread(drone);
         droneThread.start();
         
         // Wait for drone to process both events and return to idle
@@ -138,10 +167,10 @@ public class DroneSubsystemTest {
         scheduler.newFireEvent(event2);
         scheduler.updateAllEventsDone();
 
-        DroneSubsystem drone1 = new DroneSubsystem(scheduler, 1);
-        DroneSubsystem drone2 = new DroneSubsystem(scheduler, 2);
-        Thread drone1Thread = new Thread(drone1);
-        Thread drone2Thread = new Thread(drone2);
+        DroneSubsystem drone1 = newDrone(1);
+        DroneSubsystem drone2 = newDrone(2);
+        Thread drone1Thread = newThread(drone1);
+        Thread drone2Thread = newThread(drone2);
 
         drone1Thread.start();
         drone2Thread.start();
@@ -170,8 +199,8 @@ public class DroneSubsystemTest {
         scheduler.newFireEvent(eventHigh);
         scheduler.updateAllEventsDone();
 
-        DroneSubsystem drone = new DroneSubsystem(scheduler, 1);
-        Thread droneThread = new Thread(drone);
+        DroneSubsystem drone = newDrone(1);
+        Thread droneThread = newThread(drone);
         droneThread.start();
         
         // Wait for drone to process all three events
@@ -308,8 +337,8 @@ public class DroneSubsystemTest {
         scheduler.newFireEvent(stuckEvent);
         scheduler.updateAllEventsDone();
 
-        DroneSubsystem drone = new DroneSubsystem(scheduler, 1);
-        Thread t = new Thread(drone);
+        DroneSubsystem drone = newDrone(1);
+        Thread t = newThread(drone);
         t.start();
 
         waitUntil(() -> drone.getState() == Drone.DroneState.FAULTED, 8000);
@@ -330,8 +359,8 @@ public class DroneSubsystemTest {
         scheduler.newFireEvent(nozzleEvent);
         scheduler.updateAllEventsDone();
 
-        DroneSubsystem drone = new DroneSubsystem(scheduler, 1);
-        Thread t = new Thread(drone);
+        DroneSubsystem drone = newDrone(1);
+        Thread t = newThread(drone);
         t.start();
         
         // Drone should detect NOZZLE_JAMMED fault during extinguishing phase
@@ -354,8 +383,8 @@ public class DroneSubsystemTest {
         scheduler.newFireEvent(commEvent);
         scheduler.updateAllEventsDone();
 
-        DroneSubsystem drone = new DroneSubsystem(scheduler, 1);
-        Thread t = new Thread(drone);
+        DroneSubsystem drone = newDrone(1);
+        Thread t = newThread(drone);
         t.start();
         
         // Drone should detect COMMUNICATION_LOST via timing or packet verification
@@ -377,8 +406,8 @@ public class DroneSubsystemTest {
         scheduler.newFireEvent(stuckEvent);
         scheduler.updateAllEventsDone();
 
-        DroneSubsystem drone = new DroneSubsystem(scheduler, 1);
-        Thread t = new Thread(drone);
+        DroneSubsystem drone = newDrone(1);
+        Thread t = newThread(drone);
         t.start();
         
         // Wait for fault to be detected
@@ -400,17 +429,168 @@ public class DroneSubsystemTest {
         scheduler.newFireEvent(normalEvent);
         scheduler.updateAllEventsDone();
 
-        DroneSubsystem drone = new DroneSubsystem(scheduler, 1);
-        Thread t = new Thread(drone);
+        DroneSubsystem drone = newDrone(1);
+        Thread t = newThread(drone);
         t.start();
 
         t.join(25000);
         assertFalse(t.isAlive(), "Drone thread should complete normal mission successfully");
     }
 
+    @Test
+    @DisplayName("Test missions complete over both the binary and the text wire format")
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    public void testBinaryAndTextWireFormats() throws InterruptedException {
+        scheduler.newFireEvent(new FireEvent("14:03:15", 1, FireEvent.Type.FIRE_DETECTED,
+                FireEvent.Severity.Low, FireEvent.FaultType.NONE));
+        scheduler.newFireEvent(new FireEvent("14:04:00", 2, FireEvent.Type.FIRE_DETECTED,
+                FireEvent.Severity.Low, FireEvent.FaultType.NONE));
+        scheduler.updateAllEventsDone();
+
+        DroneSubsystem binaryDrone = newDrone(1);
+        DroneSubsystem textDrone = newDrone(2);
+        textDrone.setBinaryWire(false);
+        Thread t1 = newThread(binaryDrone);
+        Thread t2 = newThread(textDrone);
+        t1.start();
+        t2.start();
+
+        t1.join(25000);
+        t2.join(25000);
+        assertTrue(binaryDrone.isBinaryNegotiated());
+        assertFalse(textDrone.isBinaryNegotiated());
+        assertFalse(t1.isAlive(), "Binary drone should complete its mission");
+        assertFalse(t2.isAlive(), "Text drone should complete its mission");
+        assertNotNull(scheduler.getCompletedEvent());
+        assertNotNull(scheduler.getCompletedEvent());
+    }
+
+    @Test
+    @DisplayName("Test dead reckoning sends far fewer telemetry messages than step by step reporting")
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    public void testDeadReckoningTelemetry() throws InterruptedException {
+        scheduler.newFireEvent(new FireEvent("14:03:15", 2, FireEvent.Type.FIRE_DETECTED,
+                FireEvent.Severity.Low, FireEvent.FaultType.NONE));
+        scheduler.newFireEvent(new FireEvent("14:04:00", 2, FireEvent.Type.FIRE_DETECTED,
+                FireEvent.Severity.Low, FireEvent.FaultType.NONE));
+        scheduler.updateAllEventsDone();
+
+        DroneSubsystem plannedDrone = newDrone(1);
+        DroneSubsystem steppedDrone = newDrone(2);
+        steppedDrone.setDeadReckoning(false);
+        Thread t1 = newThread(plannedDrone);
+        Thread t2 = newThread(steppedDrone);
+        t1.start();
+        t2.start();
+
+        t1.join(25000);
+        t2.join(25000);
+        assertFalse(t1.isAlive(), "Dead reckoning drone should complete its mission");
+        assertFalse(t2.isAlive(), "Step by step drone should complete its mission");
+        assertTrue(plannedDrone.getTelemetryMessageCount() * 3 < steppedDrone.getTelemetryMessageCount(),
+                plannedDrone.getTelemetryMessageCount() + " vs " + steppedDrone.getTelemetryMessageCount());
+    }
+
+    @Test
+    @DisplayName("Test a drone rerouted mid-flight fights the new fire first and its old mission is queued again")
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    public void testRerouteMidFlight() throws InterruptedException {
+        scheduler.setPreemptionPolicy(null); // the reroute is sent by hand below
+        scheduler.newFireEvent(new FireEvent("14:03:15", 2, FireEvent.Type.FIRE_DETECTED,
+                FireEvent.Severity.Low, FireEvent.FaultType.NONE));
+        DroneSubsystem drone = newDrone(1);
+        Thread t = newThread(drone);
+        t.start();
+        waitUntil(drone::isInFlight, 5000);
+
+        FireEvent high = new FireEvent("14:05:00", 1, FireEvent.Type.FIRE_DETECTED,
+                FireEvent.Severity.High, FireEvent.FaultType.NONE);
+        scheduler.newFireEvent(high);
+        assertTrue(scheduler.rerouteDrone(1, high));
+        assertFalse(scheduler.rerouteDrone(1, high), "only one command is outstanding at a time");
+        scheduler.updateAllEventsDone();
+
+        t.join(25000);
+        assertFalse(t.isAlive(), "Drone should complete both missions");
+        assertEquals(1, drone.getAppliedCommandCount());
+        assertEquals(1, scheduler.getCompletedEvent().getZoneID());
+        assertEquals(2, scheduler.getCompletedEvent().getZoneID());
+    }
+
+    @Test
+    @DisplayName("Test a drone holds in place until it is resumed")
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    public void testHoldAndResume() throws InterruptedException {
+        scheduler.newFireEvent(new FireEvent("14:03:15", 2, FireEvent.Type.FIRE_DETECTED,
+                FireEvent.Severity.Low, FireEvent.FaultType.NONE));
+        scheduler.updateAllEventsDone();
+        DroneSubsystem drone = newDrone(1);
+        Thread t = newThread(drone);
+        t.start();
+        waitUntil(drone::isInFlight, 5000);
+
+        assertTrue(scheduler.holdDrone(1));
+        waitUntil(() -> drone.getAppliedCommandCount() == 1, 3000);
+        double[] held = scheduler.getEstimatedPosition(1);
+        Thread.sleep(500);
+        double[] later = scheduler.getEstimatedPosition(1);
+        assertEquals(held[0], later[0], 0.001);
+        assertEquals(held[1], later[1], 0.001);
+        assertEquals(Drone.DroneState.EN_ROUTE, drone.getState());
+
+        assertTrue(scheduler.resumeDrone(1));
+        t.join(25000);
+        assertFalse(t.isAlive(), "Drone should complete its mission after resuming");
+        assertEquals(2, drone.getAppliedCommandCount());
+        assertNotNull(scheduler.getCompletedEvent());
+    }
+
+    @Test
+    @DisplayName("Test an aborted mission is queued again and flown after the drone refills")
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    public void testAbortAndReturn() throws InterruptedException {
+        scheduler.newFireEvent(new FireEvent("14:03:15", 2, FireEvent.Type.FIRE_DETECTED,
+                FireEvent.Severity.Low, FireEvent.FaultType.NONE));
+        scheduler.updateAllEventsDone();
+        DroneSubsystem drone = newDrone(1);
+        Thread t = newThread(drone);
+        t.start();
+        waitUntil(drone::isInFlight, 5000);
+
+        assertTrue(scheduler.abortMission(1));
+        waitUntil(() -> drone.getState() == Drone.DroneState.REFILLING, 5000);
+        assertEquals(1, drone.getAppliedCommandCount());
+
+        t.join(25000);
+        assertFalse(t.isAlive(), "Drone should fly the mission again after refilling");
+        assertEquals(2, scheduler.getCompletedEvent().getZoneID());
+    }
+
+    @Test
+    @DisplayName("Test a drone that is not flying rejects commands")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testCommandRejectedOnTheGround() throws InterruptedException {
+        DroneSubsystem drone = newDrone(1);
+        Thread t = newThread(drone);
+        t.start();
+        waitUntil(() -> scheduler.getIdleDroneCount() == 1, 3000);
+
+        assertTrue(scheduler.holdDrone(1));
+        waitUntil(() -> drone.getRejectedCommandCount() == 1, 3000);
+        assertEquals(1, drone.getRejectedCommandCount());
+        // a rejected command no longer blocks the next one once the scheduler has heard the rejection
+        waitUntil(() -> scheduler.abortMission(1), 3000);
+        waitUntil(() -> drone.getRejectedCommandCount() == 2, 3000);
+        assertEquals(2, drone.getRejectedCommandCount());
+        assertEquals(Drone.DroneState.IDLE, drone.getState());
+
+        drone.stop();
+        t.join(5000);
+    }
+
 
     /**
-     * helper function
+     * helper function, waits for a condition and fails the test if it does not hold in time
      * @param condition
      * @param timeout
      */
@@ -426,6 +606,7 @@ public class DroneSubsystemTest {
                 e.printStackTrace();
             }
         }
+        assertTrue(condition.get(), "Condition not met within " + timeout + " ms");
     }
 
     /**
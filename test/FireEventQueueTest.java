@@ -0,0 +1,126 @@
+import model.*;
+import subsystems.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the FireEventQueue class.
+ * Tests severity ordering, aging, re-queue boosts and indexed updates.
+ *
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class FireEventQueueTest {
+
+    private long now;
+    private FireEventQueue queue;
+
+    @BeforeEach
+    public void setUp() {
+        now = 0;
+        queue = new FireEventQueue(() -> now);
+    }
+
+    private FireEvent event(int zoneID, FireEvent.Severity severity) {
+        return new FireEvent("14:00:00", zoneID, FireEvent.Type.FIRE_DETECTED, severity, FireEvent.FaultType.NONE);
+    }
+
+    @Test
+    @DisplayName("Test High severity event is dispatched before older Low severity events")
+    public void testSeverityOrder() {
+        for (int i = 1; i <= 20; i++) {
+            queue.add(event(i, FireEvent.Severity.Low));
+        }
+        FireEvent high = event(21, FireEvent.Severity.High);
+        queue.add(high);
+
+        assertEquals(21, queue.size());
+        assertSame(high, queue.peek());
+        assertSame(high, queue.poll());
+        assertEquals(1, queue.poll().getZoneID());
+    }
+
+    @Test
+    @DisplayName("Test events of equal severity are dispatched in FIFO order")
+    public void testFIFOWithinSeverity() {
+        FireEvent first = event(1, FireEvent.Severity.Moderate);
+        FireEvent second = event(2, FireEvent.Severity.Moderate);
+        queue.add(first);
+        queue.add(second);
+
+        assertSame(first, queue.poll());
+        assertSame(second, queue.poll());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    @DisplayName("Test a Low severity event that waited long enough overtakes a new High severity event")
+    public void testAging() {
+        FireEvent low = event(1, FireEvent.Severity.Low);
+        queue.add(low);
+
+        now += 2 * FireEventQueue.SEVERITY_WEIGHT_MS + 1;
+        FireEvent high = event(2, FireEvent.Severity.High);
+        queue.add(high);
+
+        assertSame(low, queue.poll());
+        assertSame(high, queue.poll());
+    }
+
+    @Test
+    @DisplayName("Test re-queued event is boosted ahead of a newer event of the same severity")
+    public void testRequeueBoost() {
+        FireEvent fresh = event(1, FireEvent.Severity.Moderate);
+        queue.add(fresh);
+
+        now += 1000;
+        FireEvent failed = event(2, FireEvent.Severity.Moderate);
+        queue.requeue(failed);
+
+        assertSame(failed, queue.poll());
+        assertSame(fresh, queue.poll());
+    }
+
+    @Test
+    @DisplayName("Test boosting and removing queued events by index")
+    public void testIndexedUpdates() {
+        FireEvent a = event(1, FireEvent.Severity.High);
+        FireEvent b = event(2, FireEvent.Severity.Low);
+        FireEvent c = event(3, FireEvent.Severity.Moderate);
+        queue.add(a);
+        queue.add(b);
+        queue.add(c);
+
+        assertTrue(queue.boost(b, 3 * FireEventQueue.SEVERITY_WEIGHT_MS));
+        assertSame(b, queue.peek());
+
+        assertTrue(queue.remove(a));
+        assertFalse(queue.contains(a));
+        assertFalse(queue.remove(a));
+        assertFalse(queue.add(b));
+
+        assertSame(b, queue.poll());
+        assertSame(c, queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test priority reports effective waiting time")
+    public void testPriority() {
+        FireEvent high = event(1, FireEvent.Severity.High);
+        queue.add(high);
+        now += 500;
+
+        assertEquals(2 * FireEventQueue.SEVERITY_WEIGHT_MS + 500, queue.getPriority(high));
+        assertEquals(500, queue.getWaitingCredit(high, now));
+        assertEquals(0, queue.getEnqueuedAt(high));
+        assertEquals(-1, queue.getPriority(event(2, FireEvent.Severity.Low)));
+
+        // the credit carries the event's place over to another queue
+        FireEventQueue other = new FireEventQueue(() -> now);
+        other.add(high, queue.getWaitingCredit(high, now));
+        assertEquals(queue.getPriority(high), other.getPriority(high));
+    }
+}
@@ -118,7 +118,7 @@ public class FireIncidentSubsystemTest {
     }
 
     @Test
-    @DisplayName("Test FireIncidentSubsystem reads multiple events from CSV in order")
+    @DisplayName("Test FireIncidentSubsystem reads multiple events from CSV and they are dispatched by severity")
     public void testReadMultipleEvents() throws Exception {
         createTestEventFile(testEventFilePath,
                 "14:03:15,1,FIRE_DETECTED,Low",
@@ -129,13 +129,19 @@ public class FireIncidentSubsystemTest {
         FireIncidentSubsystem fireSubsystem = new FireIncidentSubsystem(testEventFilePath);
         loadCSVOnly(fireSubsystem, testEventFilePath);
 
-        // Verify events are in correct order
+        // Wait for the scheduler to receive every event before draining the queue
+        long deadline = System.currentTimeMillis() + 2000;
+        while (scheduler.getActiveFireCount() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // Verify events come out High -> Moderate -> Low
         FireEvent event1 = scheduler.getNextFireEvent();
         assertNotNull(event1);
-        assertEquals("14:03:15", event1.getTime());
-        assertEquals(1, event1.getZoneID());
+        assertEquals("14:15:30", event1.getTime());
+        assertEquals(3, event1.getZoneID());
         assertEquals(FireEvent.Type.FIRE_DETECTED, event1.getType());
-        assertEquals(FireEvent.Severity.Low, event1.getSeverity());
+        assertEquals(FireEvent.Severity.High, event1.getSeverity());
 
         FireEvent event2 = scheduler.getNextFireEvent();
         assertNotNull(event2);
@@ -146,10 +152,10 @@ public class FireIncidentSubsystemTest {
 
         FireEvent event3 = scheduler.getNextFireEvent();
         assertNotNull(event3);
-        assertEquals("14:15:30", event3.getTime());
-        assertEquals(3, event3.getZoneID());
+        assertEquals("14:03:15", event3.getTime());
+        assertEquals(1, event3.getZoneID());
         assertEquals(FireEvent.Type.FIRE_DETECTED, event3.getType());
-        assertEquals(FireEvent.Severity.High, event3.getSeverity());
+        assertEquals(FireEvent.Severity.Low, event3.getSeverity());
     }
 
     @Test
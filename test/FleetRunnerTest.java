@@ -0,0 +1,87 @@
+import subsystems.*;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for the FleetRunner class.
+ * Tests that a large in-process fleet registers with the Scheduler and can be stopped.
+ *
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class FleetRunnerTest {
+
+    private Scheduler scheduler;
+    private String testZoneFilePath;
+
+    @BeforeEach
+    public void setup() throws IOException, InterruptedException {
+        testZoneFilePath = "test/test_fleet_zones.csv";
+        try (FileWriter writer = new FileWriter(testZoneFilePath)) {
+            writer.write("1,(0;0),(700;600)\n");
+            writer.write("2,(0;600),(650;1500)\n");
+        }
+        scheduler = new Scheduler(testZoneFilePath);
+        Thread udpThread = new Thread(() -> scheduler.startUDPServer());
+        udpThread.setDaemon(true);
+        udpThread.start();
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        new File(testZoneFilePath).delete();
+        scheduler.shutdown();
+    }
+
+    @Test
+    @DisplayName("Test every drone in the fleet registers with the scheduler")
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    public void testFleetRegistration() throws InterruptedException {
+        FleetRunner fleet = new FleetRunner(scheduler, 101, 600);
+        assertEquals(500, fleet.size());
+
+        fleet.start();
+        long millis = fleet.awaitRegistration(20, TimeUnit.SECONDS);
+        try {
+            assertTrue(millis >= 0, "Only " + fleet.getRegisteredCount() + " drones registered");
+            assertEquals(500, fleet.getRegisteredCount());
+            for (int id = 101; id <= 600; id++) {
+                assertNotNull(scheduler.getEstimatedPosition(id), "Drone " + id + " is unknown to the scheduler");
+            }
+            assertNull(scheduler.getEstimatedPosition(100));
+            assertNotNull(fleet.getSharedSocket());
+            assertEquals(500, fleet.getSharedSocket().getMailboxCount());
+        } finally {
+            fleet.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Test a fleet can still give each drone its own socket")
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    public void testOwnSockets() throws InterruptedException {
+        FleetRunner fleet = new FleetRunner(scheduler, 1, 20);
+        fleet.setShareSocket(false);
+
+        fleet.start();
+        try {
+            assertTrue(fleet.awaitRegistration(20, TimeUnit.SECONDS) >= 0);
+            assertNull(fleet.getSharedSocket());
+        } finally {
+            fleet.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Test an empty ID range is rejected")
+    public void testInvalidRange() {
+        assertThrows(IllegalArgumentException.class, () -> new FleetRunner(scheduler, 10, 9));
+    }
+}
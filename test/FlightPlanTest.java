@@ -0,0 +1,44 @@
+import model.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the FlightPlan class.
+ * Tests that positions are extrapolated along the x axis first, then the y axis, and stop at the target.
+ *
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class FlightPlanTest {
+
+    @Test
+    @DisplayName("Test the drone flies along x first, then y")
+    public void testPositionAt() {
+        // 10 m/s at 10 ms per simulated second covers 1 m per millisecond
+        FlightPlan plan = new FlightPlan(Drone.DroneState.EN_ROUTE, 0, 0, 300, -200, 10.0, 1000);
+
+        assertArrayEquals(new double[]{0, 0}, plan.positionAt(1000), 0.001);
+        assertArrayEquals(new double[]{150, 0}, plan.positionAt(1150), 0.001);
+        assertArrayEquals(new double[]{300, 0}, plan.positionAt(1300), 0.001);
+        assertArrayEquals(new double[]{300, -100}, plan.positionAt(1400), 0.001);
+        assertFalse(plan.isComplete(1400));
+    }
+
+    @Test
+    @DisplayName("Test the drone stays at the target once the flight is over")
+    public void testComplete() {
+        FlightPlan plan = new FlightPlan(Drone.DroneState.RETURNING, 300, 200, 0, 0, 15.0, 0);
+
+        assertTrue(plan.isComplete(400));
+        assertArrayEquals(new double[]{0, 0}, plan.positionAt(10_000), 0.001);
+        assertArrayEquals(new double[]{300, 200}, plan.positionAt(-50), 0.001);
+    }
+
+    @Test
+    @DisplayName("Test path length follows the x then y route")
+    public void testPathLength() {
+        assertEquals(700.0, FlightPlan.pathLength(0, 0, 300, 400), 0.001);
+        assertEquals(0.0, FlightPlan.pathLength(5, 5, 5, 5), 0.001);
+    }
+}
@@ -0,0 +1,116 @@
+import subsystems.*;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for the MappedRingBuffer class.
+ * Tests message framing, wrap around, a full ring and a producer and consumer on separate threads.
+ *
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class MappedRingBufferTest {
+
+    private static MappedRingBuffer newRing(int capacity) {
+        return new MappedRingBuffer(ByteBuffer.allocateDirect(MappedRingBuffer.regionSize(capacity)));
+    }
+
+    private static ByteBuffer text(String message) {
+        return ByteBuffer.wrap(message.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static String poll(MappedRingBuffer ring) {
+        ByteBuffer out = ByteBuffer.allocate(256);
+        int length = ring.poll(out);
+        return length < 0 ? null : new String(out.array(), 0, length, StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    @DisplayName("Test messages come out whole and in order")
+    public void testOfferAndPoll() {
+        MappedRingBuffer ring = newRing(256);
+        assertTrue(ring.isEmpty());
+        assertTrue(ring.offer(text("DRONE_READY,1")));
+        assertTrue(ring.offer(text("REQUEST_NEXT_MISSION,1,55.0")));
+        assertFalse(ring.isEmpty());
+
+        assertEquals("DRONE_READY,1", poll(ring));
+        assertEquals("REQUEST_NEXT_MISSION,1,55.0", poll(ring));
+        assertNull(poll(ring));
+        assertTrue(ring.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test a message that does not fit before the end wraps to the start")
+    public void testWrapAround() {
+        MappedRingBuffer ring = newRing(64);
+        for (int i = 0; i < 20; i++) {
+            String message = "MSG," + i + ",ABCDEFGHIJ".substring(0, i % 10);
+            assertTrue(ring.offer(text(message)), "offer " + i);
+            assertEquals(message, poll(ring));
+        }
+        assertTrue(ring.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test a full ring refuses messages until the consumer frees room")
+    public void testFullRing() {
+        MappedRingBuffer ring = newRing(64);
+        int accepted = 0;
+        while (ring.offer(text("0123456789AB"))) {
+            accepted++;
+        }
+        assertEquals(4, accepted); // 16 bytes each with the length
+        assertEquals("0123456789AB", poll(ring));
+        assertTrue(ring.offer(text("0123456789AB")));
+        assertThrows(IllegalArgumentException.class, () -> ring.offer(ByteBuffer.allocate(40)));
+    }
+
+    @Test
+    @DisplayName("Test a producer and a consumer thread pass every message in order")
+    @Timeout(value = 20, unit = TimeUnit.SECONDS)
+    public void testConcurrentProducerConsumer() throws InterruptedException {
+        MappedRingBuffer ring = newRing(1024);
+        int count = 200_000;
+        Thread producer = new Thread(() -> {
+            ByteBuffer message = ByteBuffer.allocate(8);
+            for (int i = 0; i < count; i++) {
+                message.clear();
+                message.putInt(i).putInt(i % 7 == 0 ? -i : i).flip();
+                message.limit(i % 3 == 0 ? 4 : 8); // mix message sizes so the ring wraps unevenly
+                while (!ring.offer(message)) {
+                    Thread.onSpinWait();
+                }
+            }
+        });
+        producer.start();
+
+        ByteBuffer out = ByteBuffer.allocate(16);
+        for (int i = 0; i < count; i++) {
+            out.clear();
+            int length;
+            while ((length = ring.poll(out)) < 0) {
+                Thread.onSpinWait();
+            }
+            assertEquals(i % 3 == 0 ? 4 : 8, length);
+            assertEquals(i, out.getInt(0));
+            if (length == 8) {
+                assertEquals(i % 7 == 0 ? -i : i, out.getInt(4));
+            }
+        }
+        producer.join();
+        assertTrue(ring.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test a data area that is not a power of two is rejected")
+    public void testInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new MappedRingBuffer(ByteBuffer.allocateDirect(MappedRingBuffer.HEADER_SIZE + 100)));
+    }
+}
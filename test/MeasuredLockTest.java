@@ -0,0 +1,125 @@
+import subsystems.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+
+/**
+ * Unit tests for the MeasuredLock class.
+ * Tests counting acquisitions, timing waits only when another thread held the lock and leaving time
+ * spent in await() out of the hold time.
+ *
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class MeasuredLockTest {
+
+    @Test
+    @DisplayName("Test uncontended and reentrant acquisitions are counted but never timed as waiting")
+    public void testUncontended() {
+        MeasuredLock lock = new MeasuredLock();
+        for (int i = 0; i < 3; i++) {
+            lock.lock();
+            try {
+                lock.lock(); // reentrant
+                lock.unlock();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        assertEquals(6, lock.getAcquisitions());
+        assertEquals(0, lock.getContendedAcquisitions());
+        assertEquals(0, lock.getWaitNanos());
+        assertTrue(lock.getHoldNanos() >= lock.getMaxHoldNanos());
+
+        lock.resetCounters();
+        assertEquals(0, lock.getAcquisitions());
+        assertEquals(0, lock.getWaitNanos());
+    }
+
+    @Test
+    @DisplayName("Test a thread that finds the lock held is counted as contended and its wait is timed")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testContended() throws InterruptedException {
+        MeasuredLock lock = new MeasuredLock();
+        CountDownLatch held = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            lock.lock();
+            try {
+                held.countDown();
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                lock.unlock();
+            }
+        });
+        holder.start();
+        held.await();
+
+        lock.lock();
+        lock.unlock();
+        holder.join();
+
+        assertEquals(2, lock.getAcquisitions());
+        assertEquals(1, lock.getContendedAcquisitions());
+        assertTrue(lock.getWaitNanos() >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertTrue(lock.getMaxHoldNanos() >= TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    @DisplayName("Test time spent waiting on a condition is not counted as holding the lock")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testAwaitReleasesHold() throws InterruptedException {
+        MeasuredLock lock = new MeasuredLock();
+        Condition condition = lock.newCondition();
+        Thread signaller = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            lock.lock();
+            try {
+                condition.signal();
+            } finally {
+                lock.unlock();
+            }
+        });
+        lock.lock();
+        try {
+            signaller.start();
+            lock.await(condition);
+        } finally {
+            lock.unlock();
+        }
+        signaller.join();
+
+        assertTrue(lock.getHoldNanos() < TimeUnit.MILLISECONDS.toNanos(150));
+        assertFalse(lock.isLocked());
+    }
+
+    @Test
+    @DisplayName("Test tryLock and lockInterruptibly are counted and timed like lock")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testOtherAcquisitions() throws InterruptedException {
+        MeasuredLock lock = new MeasuredLock();
+        Thread.sleep(100); // a hold measured from construction would be at least this long
+
+        assertTrue(lock.tryLock());
+        lock.unlock();
+        lock.lockInterruptibly();
+        lock.unlock();
+        assertTrue(lock.tryLock(1, TimeUnit.SECONDS));
+        lock.unlock();
+
+        assertEquals(3, lock.getAcquisitions());
+        assertEquals(0, lock.getContendedAcquisitions());
+        assertTrue(lock.getHoldNanos() < TimeUnit.MILLISECONDS.toNanos(50));
+    }
+}
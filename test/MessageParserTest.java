@@ -0,0 +1,113 @@
+import model.*;
+import subsystems.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Unit tests for the MessageParser class.
+ * Tests that fields are read in place from text and buffers and that malformed input is reported as an error.
+ *
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class MessageParserTest {
+
+    @Test
+    @DisplayName("Test a status update is parsed field by field")
+    public void testStatusUpdate() {
+        MessageParser parser = new MessageParser().reset("STATUS_UPDATE, 3 ,EN_ROUTE,350.0,-300.25,85.5");
+
+        assertEquals(MessageParser.Type.STATUS_UPDATE, parser.nextType());
+        assertEquals(3, parser.peekInt());
+        assertEquals(3, parser.nextInt());
+        assertEquals(Drone.DroneState.EN_ROUTE, parser.nextEnum(Drone.DroneState.values()));
+        assertEquals(350.0, parser.nextDouble());
+        assertEquals(-300.25, parser.nextDouble());
+        assertEquals(85.5, parser.nextDouble());
+        assertTrue(parser.ok());
+        assertFalse(parser.hasNext());
+    }
+
+    @Test
+    @DisplayName("Test doubles match Double.parseDouble")
+    public void testDoubles() {
+        MessageParser parser = new MessageParser();
+        String[] values = {"0.0", "0.1", "100.0", "1.0E7", "3.0E-5", "-0.05", "0.30000000000000004", "123456789.123456789"};
+        for (String value : values) {
+            assertEquals(Double.parseDouble(value), parser.reset(value).nextDouble(), value);
+            assertTrue(parser.ok(), value);
+        }
+    }
+
+    @Test
+    @DisplayName("Test an assignment is read from a buffer with an optional fault")
+    public void testBuffer() {
+        ByteBuffer buffer = ByteBuffer.wrap("ASSIGN_EVENT,14:00:00,2,High".getBytes());
+        MessageParser parser = new MessageParser().reset(buffer);
+
+        assertEquals(MessageParser.Type.ASSIGN_EVENT, parser.nextType());
+        assertEquals("14:00:00", parser.nextString());
+        assertEquals(2, parser.nextInt());
+        assertEquals(FireEvent.Severity.High, parser.nextEnum(FireEvent.Severity.values()));
+        assertEquals(FireEvent.FaultType.NONE, parser.nextEnum(FireEvent.FaultType.values(), FireEvent.FaultType.NONE));
+        assertTrue(parser.ok());
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    @DisplayName("Test malformed input is reported as an error code")
+    public void testErrors() {
+        MessageParser parser = new MessageParser();
+
+        parser.reset("BOGUS,1").nextType();
+        assertEquals(MessageParser.Error.UNKNOWN_TYPE, parser.getError());
+
+        parser.reset("DRONE_READY").nextType();
+        parser.nextInt();
+        assertEquals(MessageParser.Error.MISSING_FIELD, parser.getError());
+
+        parser.reset("DRONE_READY,2147483648").nextType();
+        parser.nextInt();
+        assertEquals(MessageParser.Error.BAD_NUMBER, parser.getError());
+
+        parser.reset("REQUEST_NEXT_MISSION,1,5e").nextType();
+        parser.nextInt();
+        parser.nextDouble();
+        assertEquals(MessageParser.Error.BAD_NUMBER, parser.getError());
+
+        // the first error sticks and later reads return defaults
+        parser.reset("HARD_FAULT,1,MELTED,2").nextType();
+        assertEquals(1, parser.nextInt());
+        assertNull(parser.nextEnum(Scheduler.FaultType.values()));
+        assertEquals(0, parser.nextInt());
+        assertEquals(MessageParser.Error.BAD_ENUM, parser.getError());
+        assertFalse(parser.ok());
+
+        parser.reset("RETURN_TO_BASE,");
+        assertEquals(MessageParser.Type.RETURN_TO_BASE, parser.nextType());
+        assertFalse(parser.hasNext());
+        assertTrue(parser.ok());
+    }
+
+    @Test
+    @DisplayName("Test event times are read as seconds since midnight")
+    public void testTimeOfDay() {
+        MessageParser parser = new MessageParser();
+        parser.reset("ASSIGN_EVENT, 14:03:15 ,23:59:59,00:00:00").nextType();
+        assertEquals(14 * 3600 + 3 * 60 + 15, parser.nextTimeOfDay());
+        assertEquals(24 * 3600 - 1, parser.nextTimeOfDay());
+        assertEquals(0, parser.nextTimeOfDay());
+        assertTrue(parser.ok());
+
+        parser.reset("ASSIGN_EVENT,9:30").nextType();
+        assertEquals(-1, parser.nextTimeOfDay());
+        assertEquals(MessageParser.Error.BAD_NUMBER, parser.getError());
+
+        parser.reset("ASSIGN_EVENT,24:00:00").nextType();
+        assertEquals(-1, parser.nextTimeOfDay());
+        assertFalse(parser.ok());
+    }
+}
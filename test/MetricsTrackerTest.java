@@ -1,9 +1,15 @@
 import metrics.MetricsTracker;
+import model.ManualClock;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+
 public class MetricsTrackerTest {
     private MetricsTracker tracker;
 
@@ -31,6 +37,15 @@ public class MetricsTrackerTest {
         assertEquals(10.0, metrics.getTotalDistanceTravelled(), 0.01);
     }
 
+    @Test
+    @DisplayName("Test combined movement adds the measured path instead of the straight line")
+    public void testDroneMovementDistance() {
+        tracker.recordDroneMovement(1, 100, 100, 200);
+        tracker.recordDroneLocation(1, 100, 200);
+
+        assertEquals(300.0, tracker.getDroneMetrics(1).getTotalDistanceTravelled(), 0.01);
+    }
+
     @Test
     @DisplayName("Test averages return 0 safely when no events have occurred")
     public void testAverageTimeWithNoEventsReturnsZero() {
@@ -86,4 +101,64 @@ public class MetricsTrackerTest {
         assertTrue(metrics.getTotalIdleTimeSeconds() > 0.04);
         assertTrue(metrics.getTotalFlightTimeSeconds() > 0.09);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Test state and response times are measured on the tracker's clock")
+    public void testManualClockTiming() {
+        ManualClock clock = new ManualClock();
+        MetricsTracker manual = new MetricsTracker(clock);
+        manual.registerDrone(1);
+        manual.recordFireStart(4);
+
+        clock.advance(2_000);
+        manual.recordDroneAssignment(4, 1);
+        manual.recordDroneStateChange(1, "EN_ROUTE");
+
+        clock.advance(3_000);
+        manual.recordDroneStateChange(1, "IDLE");
+        manual.recordFireExtinguished(4);
+        manual.finalizeMetrics();
+
+        MetricsTracker.DroneMetrics metrics = manual.getDroneMetrics(1);
+        assertEquals(2.0, metrics.getTotalIdleTimeSeconds(), 0.0001);
+        assertEquals(3.0, metrics.getTotalFlightTimeSeconds(), 0.0001);
+        assertEquals(2_000, manual.getAverageResponseTime(), 0.0001);
+        assertEquals(5_000, manual.getAverageExtinguishTime(), 0.0001);
+    }
+
+    @Test
+    @DisplayName("Test the tracker's state survives being written and read back")
+    public void testWriteAndReadState() throws Exception {
+        ManualClock clock = new ManualClock();
+        MetricsTracker original = new MetricsTracker(clock);
+        original.registerDrone(1);
+        original.recordFireStart(4);
+        clock.advance(2_000);
+        original.recordDroneAssignment(4, 1);
+        original.recordDroneStateChange(1, "EN_ROUTE");
+        original.recordDroneLocation(1, 0, 0);
+        original.recordDroneLocation(1, 3, 4);
+        clock.advance(3_000);
+        original.recordDroneStateChange(1, "IDLE");
+        original.recordFireExtinguished(4);
+        original.recordFireStart(5);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        original.writeState(new DataOutputStream(bytes));
+        MetricsTracker restored = new MetricsTracker(clock);
+        restored.readState(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(2, restored.getTotalFireEvents());
+        assertEquals(1, restored.getTotalExtinguishedFires());
+        assertEquals(2_000, restored.getAverageResponseTime(), 0.0001);
+        assertEquals(5_000, restored.getAverageExtinguishTime(), 0.0001);
+        assertEquals(5.0, restored.getDroneMetrics(1).getTotalDistanceTravelled(), 0.0001);
+        assertEquals(3.0, restored.getDroneMetrics(1).getTotalFlightTimeSeconds(), 0.0001);
+
+        // the fire that was still burning is extinguished on the restored tracker
+        clock.advance(1_000);
+        restored.recordDroneAssignment(5, 1);
+        restored.recordFireExtinguished(5);
+        assertEquals(2, restored.getTotalExtinguishedFires());
+    }
+}
@@ -0,0 +1,189 @@
+import model.*;
+import subsystems.*;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.SocketTimeoutException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for the PreemptionPolicy class.
+ * Tests when a High fire takes a busy drone off a less severe mission, and the Scheduler rerouting the
+ * drone and queueing its mission again.
+ *
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class PreemptionPolicyTest {
+
+    private Scheduler scheduler;
+    private String testZoneFilePath;
+    private final Map<Integer, Zone> zones = new HashMap<>();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        testZoneFilePath = "test/test_preemption_zones.csv";
+        try (FileWriter writer = new FileWriter(testZoneFilePath)) {
+            writer.write("1,(0;0),(700;600)\n");
+            writer.write("2,(0;600),(650;1500)\n");
+            writer.write("3,(700;0),(1400;600)\n");
+        }
+        scheduler = new Scheduler(testZoneFilePath);
+        zones.put(1, new Zone(1, 0, 0, 700, 600));       // center (350, 300)
+        zones.put(2, new Zone(2, 0, 600, 650, 1500));    // center (325, 1050)
+        zones.put(3, new Zone(3, 700, 0, 1400, 600));    // center (1050, 300)
+    }
+
+    @AfterEach
+    public void tearDown() {
+        scheduler.shutdown();
+        new File(testZoneFilePath).delete();
+    }
+
+    @Test
+    @DisplayName("Test a drone flying to a Low fire is diverted when that saves enough time")
+    public void testDivertsWhenWorthIt() {
+        Drone drone = busyDrone(1, 100, 100, 100.0, fire(2, FireEvent.Severity.Low), Drone.DroneState.EN_ROUTE);
+        FireEvent high = fire(3, FireEvent.Severity.High);
+
+        // finishing first means flying to zone 2, dropping and flying on to zone 3
+        double finishFirst = PreemptionPolicy.timeToReachAfterMission(drone, high, zones.get(3), zones);
+        assertEquals(97.6 + 6.0 + 104.3, finishFirst, 0.5);
+        assertSame(drone, new PreemptionPolicy().choose(high, List.of(drone), zones));
+        assertNull(new PreemptionPolicy(finishFirst).choose(high, List.of(drone), zones),
+                "a gain below the minimum displaces nothing");
+    }
+
+    @Test
+    @DisplayName("Test no drone is diverted when another one reaches the fire soon anyway")
+    public void testNoDiversionWhenAnotherDroneIsClose() {
+        Drone flying = busyDrone(1, 100, 100, 100.0, fire(2, FireEvent.Severity.Low), Drone.DroneState.EN_ROUTE);
+        Drone dropping = busyDrone(2, 1050, 300, 100.0, fire(3, FireEvent.Severity.Moderate), Drone.DroneState.EXTINGUISHING);
+        assertNull(new PreemptionPolicy().choose(fire(3, FireEvent.Severity.High), List.of(flying, dropping), zones));
+    }
+
+    @Test
+    @DisplayName("Test only High fires preempt, and only drones on less severe missions with enough agent")
+    public void testCandidates() {
+        PreemptionPolicy policy = new PreemptionPolicy();
+        FireEvent high = fire(3, FireEvent.Severity.High);
+        assertNull(policy.choose(fire(3, FireEvent.Severity.Moderate),
+                List.of(busyDrone(1, 100, 100, 100.0, fire(2, FireEvent.Severity.Low), Drone.DroneState.EN_ROUTE)), zones));
+        assertNull(policy.choose(high,
+                List.of(busyDrone(1, 100, 100, 100.0, fire(2, FireEvent.Severity.High), Drone.DroneState.EN_ROUTE)), zones));
+        assertNull(policy.choose(high,
+                List.of(busyDrone(1, 100, 100, 20.0, fire(2, FireEvent.Severity.Low), Drone.DroneState.EN_ROUTE)), zones));
+        assertNull(policy.choose(high,
+                List.of(busyDrone(1, 325, 1050, 100.0, fire(2, FireEvent.Severity.Low), Drone.DroneState.EXTINGUISHING)), zones));
+        assertNull(policy.choose(fire(9, FireEvent.Severity.High),
+                List.of(busyDrone(1, 100, 100, 100.0, fire(2, FireEvent.Severity.Low), Drone.DroneState.EN_ROUTE)), zones));
+        assertThrows(IllegalArgumentException.class, () -> new PreemptionPolicy(-1));
+    }
+
+    @Test
+    @DisplayName("Test a drone short of agent for the fire is expected to refill at base first")
+    public void testRefillBeforeReachingFire() {
+        FireEvent high = fire(3, FireEvent.Severity.High);
+        Drone full = busyDrone(1, 100, 100, 100.0, fire(2, FireEvent.Severity.Low), Drone.DroneState.EN_ROUTE);
+        Drone low = busyDrone(2, 100, 100, 35.0, fire(2, FireEvent.Severity.Low), Drone.DroneState.EN_ROUTE);
+        double direct = PreemptionPolicy.timeToReachAfterMission(full, high, zones.get(3), zones);
+        double viaBase = PreemptionPolicy.timeToReachAfterMission(low, high, zones.get(3), zones);
+        assertTrue(viaBase > direct + Drone.REFILL_TIME, direct + " vs " + viaBase);
+
+        Drone returning = busyDrone(3, 0, 0, 0.0, null, Drone.DroneState.RETURNING);
+        assertEquals(Drone.REFILL_TIME + 109.2, PreemptionPolicy.timeToReachAfterMission(returning, high, zones.get(3), zones), 0.5);
+    }
+
+    @Test
+    @DisplayName("Test the Scheduler reroutes a busy drone to a High fire and queues its Low mission again")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testSchedulerPreempts() throws Exception {
+        new Thread(scheduler::startUDPServer).start();
+        Thread.sleep(500); // Give the server a moment to bind to the port
+
+        InetAddress address = InetAddress.getByName("localhost");
+        try (DatagramSocket drone = new DatagramSocket()) {
+            drone.setSoTimeout(3000);
+            send(drone, address, "REGISTER_DRONE,1");
+            assertEquals("REGISTERED_DRONE,1", receive(drone));
+            send(drone, address, "DRONE_READY,1");
+            Thread.sleep(200);
+            scheduler.newFireEvent(fire(2, FireEvent.Severity.Low));
+            assertEquals("ASSIGN_EVENT,14:00:00,2,Low,NONE", receive(drone));
+
+            // another Low fire only waits in the queue
+            scheduler.newFireEvent(fire(1, FireEvent.Severity.Low));
+            scheduler.newFireEvent(fire(3, FireEvent.Severity.High));
+            assertEquals("REROUTE,14:00:00,3,High,NONE", receive(drone));
+            send(drone, address, "COMMAND_APPLIED,1,REROUTE");
+            Thread.sleep(200);
+            assertEquals(1, scheduler.getPreemptionCount());
+
+            // the displaced Low mission is boosted ahead of the Low fire that arrived after it
+            assertEquals(2, scheduler.getNextFireEvent().getZoneID());
+            assertEquals(1, scheduler.getNextFireEvent().getZoneID());
+        }
+        scheduler.updateAllEventsDone();
+    }
+
+    @Test
+    @DisplayName("Test a Scheduler without a preemption policy only queues the High fire")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testPreemptionDisabled() throws Exception {
+        scheduler.setPreemptionPolicy(null);
+        new Thread(scheduler::startUDPServer).start();
+        Thread.sleep(500); // Give the server a moment to bind to the port
+
+        InetAddress address = InetAddress.getByName("localhost");
+        try (DatagramSocket drone = new DatagramSocket()) {
+            drone.setSoTimeout(3000);
+            send(drone, address, "REGISTER_DRONE,1");
+            assertEquals("REGISTERED_DRONE,1", receive(drone));
+            send(drone, address, "DRONE_READY,1");
+            Thread.sleep(200);
+            scheduler.newFireEvent(fire(2, FireEvent.Severity.Low));
+            assertEquals("ASSIGN_EVENT,14:00:00,2,Low,NONE", receive(drone));
+
+            scheduler.newFireEvent(fire(3, FireEvent.Severity.High));
+            drone.setSoTimeout(500);
+            assertThrows(SocketTimeoutException.class, () -> receive(drone));
+            assertEquals(0, scheduler.getPreemptionCount());
+            assertEquals(3, scheduler.getNextFireEvent().getZoneID());
+        }
+        scheduler.updateAllEventsDone();
+    }
+
+    private static FireEvent fire(int zoneID, FireEvent.Severity severity) {
+        return new FireEvent("14:00:00", zoneID, FireEvent.Type.FIRE_DETECTED, severity, FireEvent.FaultType.NONE);
+    }
+
+    private static Drone busyDrone(int id, double x, double y, double agent, FireEvent mission, Drone.DroneState state) {
+        Drone drone = new Drone(id);
+        drone.setLocation(x, y);
+        drone.setAgentLevel(agent);
+        drone.setCurrentMission(mission);
+        drone.setState(state);
+        return drone;
+    }
+
+    private static void send(DatagramSocket socket, InetAddress address, String message) throws IOException {
+        socket.send(new DatagramPacket(message.getBytes(), message.length(), address, 6000));
+    }
+
+    private static String receive(DatagramSocket socket) throws IOException {
+        byte[] buffer = new byte[1024];
+        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+        socket.receive(packet);
+        return new String(packet.getData(), 0, packet.getLength());
+    }
+}
@@ -0,0 +1,252 @@
+import model.*;
+import subsystems.*;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for the ReliableLink class.
+ * Tests framing, duplicate suppression, retransmission with backoff and control messages between the
+ * Scheduler and drones surviving lost datagrams.
+ *
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class ReliableLinkTest {
+
+    private Scheduler scheduler;
+    private String testZoneFilePath;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        testZoneFilePath = "test/test_reliable_zones.csv";
+        try (FileWriter writer = new FileWriter(testZoneFilePath)) {
+            writer.write("1,(0;0),(700;600)\n");
+            writer.write("2,(0;600),(650;1500)\n");
+            writer.write("3,(700;0),(1400;600)\n");
+        }
+        scheduler = new Scheduler(testZoneFilePath);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        scheduler.shutdown();
+        new File(testZoneFilePath).delete();
+    }
+
+    @Test
+    @DisplayName("Test frames carry a sequence number in front of the message")
+    public void testFraming() {
+        ReliableLink link = new ReliableLink();
+        String first = link.frame("DRONE_READY,1", 0);
+        String second = link.frame("DRONE_RETURN_TO_BASE,1", 0);
+        assertEquals("#1,DRONE_READY,1", first);
+        assertEquals("#2,DRONE_RETURN_TO_BASE,1", second);
+
+        assertTrue(ReliableLink.isFrame(first));
+        assertFalse(ReliableLink.isFrame("DRONE_READY,1"));
+        assertEquals(2, ReliableLink.sequenceOf(second));
+        assertEquals("DRONE_RETURN_TO_BASE,1", ReliableLink.payloadOf(second));
+        assertEquals(-1, ReliableLink.sequenceOf("#x1,DRONE_READY,1"));
+        assertEquals(-1, ReliableLink.sequenceOf("#12"));
+        assertEquals(-1, ReliableLink.sequenceOf("#,DRONE_READY,1"));
+        assertEquals(2, link.getUnacknowledgedCount());
+    }
+
+    @Test
+    @DisplayName("Test each sequence number is handed on once, even out of order")
+    public void testDuplicateSuppression() {
+        ReliableLink link = new ReliableLink();
+        assertTrue(link.accept(1));
+        assertFalse(link.accept(1));
+        assertTrue(link.accept(3));
+        assertTrue(link.accept(2));
+        assertFalse(link.accept(3));
+        assertFalse(link.accept(2));
+        assertTrue(link.accept(4));
+        assertEquals(3, link.getDuplicateCount());
+    }
+
+    @Test
+    @DisplayName("Test unacknowledged frames are sent again with a doubling timeout until they run out of attempts")
+    public void testRetransmitBackoff() {
+        ReliableLink link = new ReliableLink();
+        List<String> resent = new ArrayList<>();
+        String frame = link.frame("ASSIGN_EVENT,14:03:15,1,Low,NONE", 0);
+        assertEquals(ReliableLink.INITIAL_TIMEOUT_MILLIS, link.nextDue());
+
+        link.retransmitDue(ReliableLink.INITIAL_TIMEOUT_MILLIS - 1, resent::add);
+        assertTrue(resent.isEmpty());
+
+        long now = ReliableLink.INITIAL_TIMEOUT_MILLIS;
+        long timeout = ReliableLink.INITIAL_TIMEOUT_MILLIS;
+        for (int attempt = 2; attempt <= ReliableLink.MAX_ATTEMPTS; attempt++) {
+            link.retransmitDue(now, resent::add);
+            assertEquals(attempt - 1, resent.size());
+            assertEquals(frame, resent.get(attempt - 2));
+            timeout = Math.min(timeout * 2, ReliableLink.MAX_TIMEOUT_MILLIS);
+            assertEquals(now + timeout, link.nextDue());
+            now = link.nextDue();
+        }
+        link.retransmitDue(now, resent::add);
+        assertEquals(ReliableLink.MAX_ATTEMPTS - 1, resent.size());
+        assertEquals(1, link.getAbandonedCount());
+        assertEquals(Long.MAX_VALUE, link.nextDue());
+
+        // an acknowledged frame is never sent again
+        link.frame("RETURN_TO_BASE,", now);
+        assertTrue(link.acknowledge(2));
+        assertFalse(link.acknowledge(2));
+        link.retransmitDue(now + ReliableLink.MAX_TIMEOUT_MILLIS, resent::add);
+        assertEquals(ReliableLink.MAX_ATTEMPTS - 1, resent.size());
+        assertEquals(ReliableLink.MAX_ATTEMPTS - 1, link.getRetransmissionCount());
+    }
+
+    @Test
+    @DisplayName("Test the Scheduler acknowledges drone frames and sends an unacknowledged assignment again")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testSchedulerRetransmitsAssignment() throws Exception {
+        new Thread(scheduler::startUDPServer).start();
+        Thread.sleep(500); // Give the server a moment to bind to the port
+
+        InetAddress address = InetAddress.getByName("localhost");
+        try (DatagramSocket drone = new DatagramSocket()) {
+            drone.setSoTimeout(3000);
+            send(drone, address, "REGISTER_DRONE,1," + ReliableLink.CAPABILITY);
+            assertEquals("REGISTERED_DRONE,1," + ReliableLink.CAPABILITY, receive(drone));
+
+            send(drone, address, "#1,DRONE_READY,1");
+            assertEquals("ACK,1", receive(drone));
+
+            scheduler.newFireEvent(new FireEvent("15:00:00", 3, FireEvent.Type.FIRE_DETECTED,
+                    FireEvent.Severity.High, FireEvent.FaultType.NONE));
+            String assignment = receive(drone);
+            assertEquals("#1,ASSIGN_EVENT,15:00:00,3,High,NONE", assignment);
+            assertEquals(assignment, receive(drone), "the assignment is sent again until acknowledged");
+
+            send(drone, address, "ACK,1,1");
+            drone.setSoTimeout((int) ReliableLink.MAX_TIMEOUT_MILLIS);
+            assertThrows(SocketTimeoutException.class, () -> receive(drone));
+
+            // a repeated frame is acknowledged again but handled only once
+            send(drone, address, "#2,DRONE_ARRIVE_TO_ZONE,1,15:00:00,3,High");
+            send(drone, address, "#2,DRONE_ARRIVE_TO_ZONE,1,15:00:00,3,High");
+            drone.setSoTimeout(3000);
+            assertEquals("ACK,2", receive(drone));
+            assertEquals("ACK,2", receive(drone));
+        }
+        scheduler.updateAllEventsDone();
+    }
+
+    @Test
+    @DisplayName("Test a drone completes its mission when its assignment and arrival report are lost once")
+    @Timeout(value = 40, unit = TimeUnit.SECONDS)
+    public void testMissionOverLossyTransport() throws Exception {
+        new Thread(scheduler::startUDPServer).start();
+        Thread.sleep(500); // Give the server a moment to bind to the port
+        scheduler.newFireEvent(new FireEvent("14:03:15", 1, FireEvent.Type.FIRE_DETECTED,
+                FireEvent.Severity.Low, FireEvent.FaultType.NONE));
+        scheduler.updateAllEventsDone();
+
+        LossyTransport transport = new LossyTransport(new UdpTransport());
+        DroneSubsystem drone = new DroneSubsystem(scheduler, 1, scheduler.getClock(), transport);
+        Thread t = new Thread(drone);
+        t.start();
+
+        t.join(35000);
+        assertFalse(t.isAlive(), "Drone should complete its mission despite the lost messages");
+        assertTrue(drone.isReliableNegotiated());
+        assertTrue(transport.droppedAssignment && transport.droppedArrival);
+        assertTrue(drone.getRetransmissionCount() >= 1);
+        assertNotNull(scheduler.getCompletedEvent());
+    }
+
+    @Test
+    @DisplayName("Test a drone on a lossless transport does not offer reliable control messages")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testLosslessTransportSkipsReliability() throws Exception {
+        InMemoryTransport inMemory = new InMemoryTransport(scheduler);
+        Transport transport = inMemory.connect();
+        assertTrue(transport.isLossless());
+        assertFalse(new UdpTransport().isLossless());
+
+        DroneSubsystem drone = new DroneSubsystem(scheduler, 1, scheduler.getClock(), transport);
+        drone.setRegistrationListener(drone::stop);
+        Thread t = new Thread(drone);
+        t.start();
+        t.join(5000);
+        assertFalse(t.isAlive());
+        assertFalse(drone.isReliableNegotiated());
+    }
+
+    private static void send(DatagramSocket socket, InetAddress address, String message) throws IOException {
+        socket.send(new DatagramPacket(message.getBytes(), message.length(), address, 6000));
+    }
+
+    private static String receive(DatagramSocket socket) throws IOException {
+        byte[] buffer = new byte[1024];
+        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+        socket.receive(packet);
+        return new String(packet.getData(), 0, packet.getLength());
+    }
+
+    /**
+     * Loses the first assignment sent to the drone and the first arrival report it sends
+     */
+    private static class LossyTransport implements Transport {
+        private final Transport delegate;
+        volatile boolean droppedAssignment = false;
+        volatile boolean droppedArrival = false;
+
+        LossyTransport(Transport delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void send(String message) throws IOException {
+            if (!droppedArrival && ReliableLink.isFrame(message) && message.contains("DRONE_ARRIVE_TO_ZONE")) {
+                droppedArrival = true;
+                return;
+            }
+            delegate.send(message);
+        }
+
+        @Override
+        public void send(byte[] data, int length) throws IOException {
+            delegate.send(data, length);
+        }
+
+        @Override
+        public String receive(long timeoutMillis) throws IOException {
+            while (true) {
+                String reply = delegate.receive(timeoutMillis);
+                if (!droppedAssignment && reply != null && reply.contains("ASSIGN_EVENT")) {
+                    droppedAssignment = true;
+                    continue;
+                }
+                return reply;
+            }
+        }
+
+        @Override
+        public boolean supportsBinary() {
+            return delegate.supportsBinary();
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,272 @@
+import model.*;
+import subsystems.*;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Unit tests for the RequestCorrelator class.
+ * Tests matching replies to requests by ID, per-request timeouts, stray messages and the Scheduler
+ * echoing request IDs, in text and in the binary header, while several requests are in flight.
+ *
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class RequestCorrelatorTest {
+
+    private Scheduler scheduler;
+    private String testZoneFilePath;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        testZoneFilePath = "test/test_rpc_zones.csv";
+        try (FileWriter writer = new FileWriter(testZoneFilePath)) {
+            writer.write("1,(0;0),(700;600)\n");
+            writer.write("2,(0;600),(650;1500)\n");
+            writer.write("3,(700;0),(1400;600)\n");
+        }
+        scheduler = new Scheduler(testZoneFilePath);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        scheduler.shutdown();
+        new File(testZoneFilePath).delete();
+    }
+
+    @Test
+    @DisplayName("Test replies complete the request with their ID, in any order")
+    public void testOutOfOrderReplies() throws Exception {
+        RequestCorrelator calls = new RequestCorrelator();
+        calls.setCorrelated(true);
+        int first = calls.begin(Long.MAX_VALUE);
+        int second = calls.begin(Long.MAX_VALUE);
+        assertEquals("?" + first + ",DRONE_COMPLETE_EVENT,1", calls.tag(first, "DRONE_COMPLETE_EVENT,1"));
+        assertEquals(2, calls.getPendingCount());
+
+        CompletableFuture<String> firstReply = calls.reply(first);
+        CompletableFuture<String> secondReply = calls.reply(second);
+        assertTrue(calls.complete("=" + second + ",RETURN_TO_BASE,"));
+        assertFalse(firstReply.isDone());
+        assertEquals("RETURN_TO_BASE,", secondReply.get());
+
+        assertTrue(calls.complete("=" + first + ",ASSIGN_EVENT,14:03:15,1,Low,NONE"));
+        assertEquals("ASSIGN_EVENT,14:03:15,1,Low,NONE", firstReply.get());
+        assertEquals(0, calls.getPendingCount());
+    }
+
+    @Test
+    @DisplayName("Test messages that answer no pending request are counted as strays")
+    public void testStrayMessages() {
+        RequestCorrelator calls = new RequestCorrelator();
+        calls.setCorrelated(true);
+        int requestID = calls.begin(Long.MAX_VALUE);
+
+        assertFalse(calls.complete("ALL_EVENTS_COMPLETE,"));
+        assertFalse(calls.complete("=" + (requestID + 1) + ",RETURN_TO_BASE,"));
+        assertFalse(calls.complete("=x,RETURN_TO_BASE,"));
+        assertEquals(3, calls.getStrayMessageCount());
+        assertFalse(calls.reply(requestID).isDone());
+
+        // without request IDs a reply answers the oldest request, as before
+        RequestCorrelator legacy = new RequestCorrelator();
+        assertEquals("DRONE_READY,1", legacy.tag(legacy.begin(Long.MAX_VALUE), "DRONE_READY,1"));
+        int newer = legacy.begin(Long.MAX_VALUE);
+        assertTrue(legacy.complete("ASSIGN_EVENT,14:03:15,1,Low,NONE"));
+        assertFalse(legacy.reply(newer).isDone());
+        assertEquals(1, legacy.getPendingCount());
+    }
+
+    @Test
+    @DisplayName("Test each request fails on its own deadline")
+    public void testTimeouts() {
+        RequestCorrelator calls = new RequestCorrelator();
+        calls.setCorrelated(true);
+        int early = calls.begin(100);
+        int late = calls.begin(300);
+        int unbounded = calls.begin(Long.MAX_VALUE);
+        CompletableFuture<String> earlyReply = calls.reply(early);
+        assertEquals(100, calls.nextDeadline());
+
+        calls.expire(99);
+        assertFalse(earlyReply.isDone());
+        calls.expire(100);
+        ExecutionException e = assertThrows(ExecutionException.class, earlyReply::get);
+        assertTrue(e.getCause() instanceof TimeoutException);
+        assertFalse(calls.reply(late).isDone());
+        assertEquals(300, calls.nextDeadline());
+
+        // a reply after the deadline is a stray
+        assertFalse(calls.complete("=" + early + ",RETURN_TO_BASE,"));
+        calls.expire(1000);
+        assertEquals(2, calls.getTimedOutCount());
+        assertFalse(calls.reply(unbounded).isDone());
+        assertEquals(Long.MAX_VALUE, calls.nextDeadline());
+    }
+
+    @Test
+    @DisplayName("Test the Scheduler answers each request with its ID")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testSchedulerEchoesRequestIDs() throws Exception {
+        new Thread(scheduler::startUDPServer).start();
+        Thread.sleep(500); // Give the server a moment to bind to the port
+
+        InetAddress address = InetAddress.getByName("localhost");
+        try (DatagramSocket drone = new DatagramSocket()) {
+            drone.setSoTimeout(3000);
+            send(drone, address, "REGISTER_DRONE,1," + RequestCorrelator.CAPABILITY);
+            assertEquals("REGISTERED_DRONE,1," + RequestCorrelator.CAPABILITY, receive(drone));
+
+            // the assignment comes later but still answers DRONE_READY
+            send(drone, address, "?41,DRONE_READY,1");
+            Thread.sleep(200);
+            scheduler.newFireEvent(new FireEvent("15:00:00", 3, FireEvent.Type.FIRE_DETECTED,
+                    FireEvent.Severity.High, FireEvent.FaultType.NONE));
+            assertEquals("=41,ASSIGN_EVENT,15:00:00,3,High,NONE", receive(drone));
+
+            send(drone, address, "DRONE_COMPLETE_EVENT,1,15:00:00,3,High");
+            send(drone, address, "?42,REQUEST_NEXT_MISSION,1,80.0");
+            assertEquals("=42,RETURN_TO_BASE,", receive(drone));
+
+            send(drone, address, "?x,DRONE_READY,1");
+            Thread.sleep(200);
+            assertEquals(1, scheduler.getRejectedMessageCount());
+        }
+        scheduler.updateAllEventsDone();
+    }
+
+    @Test
+    @DisplayName("Test a request waiting for its reply keeps its ID while the drone sends others")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testRequestsInFlight() throws Exception {
+        new Thread(scheduler::startUDPServer).start();
+        Thread.sleep(500); // Give the server a moment to bind to the port
+
+        InetAddress address = InetAddress.getByName("localhost");
+        try (DatagramSocket drone = new DatagramSocket()) {
+            drone.setSoTimeout(3000);
+            send(drone, address, "REGISTER_DRONE,1," + RequestCorrelator.CAPABILITY);
+            assertEquals("REGISTERED_DRONE,1," + RequestCorrelator.CAPABILITY, receive(drone));
+
+            send(drone, address, "?51,DRONE_READY,1");
+            send(drone, address, "?52,STATUS_UPDATE,1,IDLE,0.0,0.0,100.0"); // gets no reply
+            Thread.sleep(200);
+            scheduler.newFireEvent(new FireEvent("15:00:00", 3, FireEvent.Type.FIRE_DETECTED,
+                    FireEvent.Severity.High, FireEvent.FaultType.NONE));
+            assertEquals("=51,ASSIGN_EVENT,15:00:00,3,High,NONE", receive(drone));
+
+            // the return confirmation answers the return request, not the older mission request
+            send(drone, address, "?53,REQUEST_NEXT_MISSION,1,80.0");
+            send(drone, address, "?54,DRONE_RETURN_TO_BASE,1");
+            assertEquals("=53,RETURN_TO_BASE,", receive(drone));
+            assertEquals("=54,RETURN_CONFIRMED,", receive(drone));
+        }
+        scheduler.updateAllEventsDone();
+    }
+
+    @Test
+    @DisplayName("Test a drone using the binary codec gets binary replies carrying its request IDs")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testBinaryRequestIDs() throws Exception {
+        new Thread(scheduler::startUDPServer).start();
+        Thread.sleep(500); // Give the server a moment to bind to the port
+
+        InetAddress address = InetAddress.getByName("localhost");
+        try (DatagramSocket drone = new DatagramSocket()) {
+            drone.setSoTimeout(3000);
+            send(drone, address, "REGISTER_DRONE,1," + WireCodec.CAPABILITY + "," + RequestCorrelator.CAPABILITY);
+            assertEquals("REGISTERED_DRONE,1," + WireCodec.CAPABILITY + "," + RequestCorrelator.CAPABILITY, receive(drone));
+
+            ByteBuffer request = ByteBuffer.allocate(64);
+            assertTrue(WireCodec.fromText("?61,DRONE_READY,1", request));
+            request.flip();
+            drone.send(new DatagramPacket(request.array(), request.limit(), address, 6000));
+            Thread.sleep(200);
+            scheduler.newFireEvent(new FireEvent("15:00:00", 3, FireEvent.Type.FIRE_DETECTED,
+                    FireEvent.Severity.High, FireEvent.FaultType.NONE));
+
+            byte[] buffer = new byte[1024];
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            drone.receive(packet);
+            ByteBuffer reply = ByteBuffer.wrap(packet.getData(), 0, packet.getLength());
+            assertTrue(WireCodec.isBinary(reply));
+            WireCodec.Message message = new WireCodec.Message();
+            assertTrue(WireCodec.decode(reply, message));
+            assertEquals(61, message.requestID);
+            assertEquals("=61,ASSIGN_EVENT,15:00:00,3,High,NONE", WireCodec.toText(message));
+            assertEquals(0, scheduler.getRejectedMessageCount());
+        }
+        scheduler.updateAllEventsDone();
+    }
+
+    @Test
+    @DisplayName("Test a repeated reliable request is acknowledged again and handled once")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testReliableRequest() throws Exception {
+        new Thread(scheduler::startUDPServer).start();
+        Thread.sleep(500); // Give the server a moment to bind to the port
+
+        InetAddress address = InetAddress.getByName("localhost");
+        try (DatagramSocket drone = new DatagramSocket()) {
+            drone.setSoTimeout(3000);
+            send(drone, address, "REGISTER_DRONE,1," + ReliableLink.CAPABILITY + "," + RequestCorrelator.CAPABILITY);
+            assertEquals("REGISTERED_DRONE,1," + ReliableLink.CAPABILITY + "," + RequestCorrelator.CAPABILITY, receive(drone));
+
+            send(drone, address, "#1,?7,DRONE_READY,1");
+            send(drone, address, "#1,?7,DRONE_READY,1");
+            assertEquals("ACK,1", receive(drone));
+            assertEquals("ACK,1", receive(drone));
+
+            scheduler.newFireEvent(new FireEvent("15:00:00", 3, FireEvent.Type.FIRE_DETECTED,
+                    FireEvent.Severity.High, FireEvent.FaultType.NONE));
+            assertEquals("#1,=7,ASSIGN_EVENT,15:00:00,3,High,NONE", receive(drone));
+            send(drone, address, "ACK,1,1");
+            assertEquals(0, scheduler.getRejectedMessageCount());
+        }
+        scheduler.updateAllEventsDone();
+    }
+
+    @Test
+    @DisplayName("Test a drone flies a mission with request IDs and no stray replies")
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    public void testMission() throws Exception {
+        new Thread(scheduler::startUDPServer).start();
+        Thread.sleep(500); // Give the server a moment to bind to the port
+        scheduler.newFireEvent(new FireEvent("14:03:15", 1, FireEvent.Type.FIRE_DETECTED,
+                FireEvent.Severity.Low, FireEvent.FaultType.NONE));
+        scheduler.updateAllEventsDone();
+
+        DroneSubsystem drone = new DroneSubsystem(scheduler, 1);
+        Thread t = new Thread(drone);
+        t.start();
+
+        t.join(25000);
+        assertFalse(t.isAlive(), "Drone should complete its mission");
+        assertTrue(drone.isCorrelated());
+        assertEquals(0, drone.getStrayMessageCount());
+        assertNotNull(scheduler.getCompletedEvent());
+    }
+
+    private static void send(DatagramSocket socket, InetAddress address, String message) throws IOException {
+        socket.send(new DatagramPacket(message.getBytes(), message.length(), address, 6000));
+    }
+
+    private static String receive(DatagramSocket socket) throws IOException {
+        byte[] buffer = new byte[1024];
+        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+        socket.receive(packet);
+        return new String(packet.getData(), 0, packet.getLength());
+    }
+}
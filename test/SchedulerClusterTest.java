@@ -0,0 +1,172 @@
+import model.*;
+import subsystems.*;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Unit tests for the SchedulerCluster class.
+ * Tests splitting the zones into strips, routing reported fires to the shard that owns their zone,
+ * lending a busy shard's fires to the idle drones of its neighbour and holding ALL_EVENTS_DONE back
+ * until no shard has fires queued.
+ *
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class SchedulerClusterTest {
+
+    private SchedulerCluster cluster;
+    private String testZoneFilePath;
+    private final BlockingQueue<String> replies = new LinkedBlockingQueue<>();
+    private final InetAddress address = InetAddress.getLoopbackAddress();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        testZoneFilePath = "test/test_cluster_zones.csv";
+        try (FileWriter writer = new FileWriter(testZoneFilePath)) {
+            writer.write("1,(0;0),(700;600)\n");
+            writer.write("2,(0;600),(650;1500)\n");
+            writer.write("3,(700;0),(1400;600)\n");
+            writer.write("4,(1400;0),(2100;600)\n");
+        }
+        cluster = new SchedulerCluster(testZoneFilePath, 2);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        cluster.shutdown();
+        new File(testZoneFilePath).delete();
+    }
+
+    @Test
+    @DisplayName("Test the zones are split into strips by the x coordinate of their centers")
+    public void testPartition() {
+        assertEquals(2, cluster.getShardCount());
+        assertEquals(0, cluster.getShardOf(2)); // center x 325
+        assertEquals(0, cluster.getShardOf(1)); // center x 350
+        assertEquals(1, cluster.getShardOf(3)); // center x 1050
+        assertEquals(1, cluster.getShardOf(4)); // center x 1750
+        assertEquals(0, cluster.getShardOf(99));
+        assertEquals(6000, cluster.getShard(0).schedulerPort);
+        assertEquals(6001, cluster.getShard(1).schedulerPort);
+    }
+
+    @Test
+    @DisplayName("Test a shard count of zero or more than the zone count is rejected")
+    public void testInvalidShardCount() {
+        assertThrows(IllegalArgumentException.class, () -> new SchedulerCluster(testZoneFilePath, 0));
+        assertThrows(IllegalArgumentException.class, () -> new SchedulerCluster(testZoneFilePath, 5));
+    }
+
+    @Test
+    @DisplayName("Test fires reported to any shard are queued on the shard that owns their zone")
+    public void testRoutesFires() {
+        Scheduler west = cluster.getShard(0);
+        Scheduler east = cluster.getShard(1);
+        cluster.newFireEvent(fire(4, FireEvent.Severity.Low));
+        west.deliver("FIRE_DETECTED,14:00:00,3,High,NONE", address, 7000);
+        east.deliver("FIRE_DETECTED,14:00:00,1,Moderate,NONE", address, 7000);
+        west.deliver("FIRE_DETECTED,14:00:00,3", address, 7000);
+
+        assertEquals(1, west.getActiveFireCount());
+        assertEquals(2, east.getActiveFireCount());
+        assertEquals(1, west.getRejectedMessageCount());
+    }
+
+    @Test
+    @DisplayName("Test a busy shard lends its highest priority fire to the idle drone of its neighbour")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testLendsToIdleDrone() throws InterruptedException {
+        Scheduler west = cluster.getShard(0);
+        Scheduler east = cluster.getShard(1);
+        readyDrone(east, 7);
+
+        cluster.newFireEvent(fire(1, FireEvent.Severity.Low));
+        cluster.newFireEvent(fire(2, FireEvent.Severity.High));
+        assertEquals(1, east.getIdleDroneCount());
+        assertEquals(1, cluster.balance());
+
+        assertEquals("ASSIGN_EVENT,14:00:00,2,High,NONE", replies.poll(3, TimeUnit.SECONDS));
+        assertEquals(1, west.getActiveFireCount());
+        assertEquals(0, east.getActiveFireCount());
+        assertEquals(0, east.getIdleDroneCount());
+        assertEquals(0, cluster.balance()); // no drone is left to lend
+        assertEquals(1, cluster.getLentCount());
+    }
+
+    @Test
+    @DisplayName("Test ALL_EVENTS_DONE reaches the shards only once every queued fire has been dispatched")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testAllEventsDoneWaitsForBacklog() throws InterruptedException {
+        Scheduler east = cluster.getShard(1);
+        cluster.newFireEvent(fire(1, FireEvent.Severity.Moderate));
+        east.deliver("ALL_EVENTS_DONE", address, 7000);
+        assertEquals(0, cluster.balance());
+
+        // the drone is kept waiting instead of being told every event is complete
+        readyDrone(east, 7);
+        assertEquals(1, cluster.balance());
+        assertEquals("ASSIGN_EVENT,14:00:00,1,Moderate,NONE", replies.poll(3, TimeUnit.SECONDS));
+
+        east.deliver("DRONE_COMPLETE_EVENT,7,14:00:00,1,Moderate", address, 5007);
+        east.deliver("DRONE_RETURN_TO_BASE,7", address, 5007);
+        assertEquals("RETURN_CONFIRMED,", replies.poll(3, TimeUnit.SECONDS));
+        assertEquals(0, cluster.balance());
+        east.deliver("DRONE_READY,7", address, 5007);
+        assertEquals("ALL_EVENTS_COMPLETE,", replies.poll(3, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Test fires lent away are not queued again when the lending shard recovers from its journal")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testLentFiresAreJournaled() throws Exception {
+        Path directory = Files.createTempDirectory("cluster");
+        try {
+            Scheduler west = cluster.getShard(0);
+            west.setJournal(new SchedulerJournal(directory));
+            readyDrone(cluster.getShard(1), 7);
+            cluster.newFireEvent(fire(1, FireEvent.Severity.Low));
+            cluster.newFireEvent(fire(2, FireEvent.Severity.High));
+            assertEquals(1, cluster.balance());
+            west.shutdown();
+
+            Scheduler recovered = new Scheduler(testZoneFilePath);
+            recovered.setJournal(new SchedulerJournal(directory));
+            assertEquals(1, recovered.getActiveFireCount());
+            assertEquals(1, recovered.getNextFireEvent().getZoneID());
+            recovered.shutdown();
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Registers a drone with a shard in process and tells it the drone is waiting for an assignment
+     */
+    private void readyDrone(Scheduler shard, int droneID) throws InterruptedException {
+        shard.setReplyListener((message, to, port) -> replies.add(message));
+        shard.deliver("REGISTER_DRONE," + droneID, address, 5000 + droneID);
+        assertEquals("REGISTERED_DRONE," + droneID, replies.poll(3, TimeUnit.SECONDS));
+        shard.deliver("DRONE_READY," + droneID, address, 5000 + droneID);
+    }
+
+    private static FireEvent fire(int zoneID, FireEvent.Severity severity) {
+        return new FireEvent("14:00:00", zoneID, FireEvent.Type.FIRE_DETECTED, severity, FireEvent.FaultType.NONE);
+    }
+}
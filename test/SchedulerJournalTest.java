@@ -0,0 +1,214 @@
+import model.*;
+import subsystems.*;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Unit tests for the SchedulerJournal class.
+ * Tests appending and replaying records across segments, torn records, group commit and a Scheduler
+ * recovering its queues from the journal after it stops.
+ *
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class SchedulerJournalTest {
+
+    private Scheduler scheduler;
+    private String testZoneFilePath;
+    private Path directory;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        testZoneFilePath = "test/test_journal_zones.csv";
+        try (FileWriter writer = new FileWriter(testZoneFilePath)) {
+            writer.write("1,(0;0),(700;600)\n");
+            writer.write("2,(0;600),(650;1500)\n");
+            writer.write("3,(700;0),(1400;600)\n");
+        }
+        scheduler = new Scheduler(testZoneFilePath);
+        directory = Files.createTempDirectory("journal");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        scheduler.shutdown();
+        new File(testZoneFilePath).delete();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test records are replayed in order after the journal is opened again")
+    public void testAppendAndReplay() throws Exception {
+        try (SchedulerJournal journal = new SchedulerJournal(directory)) {
+            assertEquals(1, journal.append(SchedulerJournal.Op.FIRE_DETECTED, 0, fire(2, FireEvent.Severity.Low), Scheduler.FaultType.NONE));
+            assertEquals(2, journal.append(SchedulerJournal.Op.ASSIGNED, 4, fire(2, FireEvent.Severity.Low), Scheduler.FaultType.NONE));
+            assertEquals(3, journal.append(SchedulerJournal.Op.FAULTED, 4, null, Scheduler.FaultType.NOZZLE_JAMMED));
+        }
+
+        try (SchedulerJournal journal = new SchedulerJournal(directory)) {
+            assertEquals(3, journal.getLastLsn());
+            List<String> replayed = new ArrayList<>();
+            assertEquals(3, journal.replay(r -> replayed.add(r.lsn + " " + r.op + " " + r.droneID + " " + r.event + " " + r.fault)));
+            assertEquals(List.of(
+                    "1 FIRE_DETECTED 0 " + fire(2, FireEvent.Severity.Low) + " NONE",
+                    "2 ASSIGNED 4 " + fire(2, FireEvent.Severity.Low) + " NONE",
+                    "3 FAULTED 4 null NOZZLE_JAMMED"), replayed);
+            assertEquals(4, journal.append(SchedulerJournal.Op.RETURNED, 4, null, Scheduler.FaultType.NONE));
+        }
+    }
+
+    @Test
+    @DisplayName("Test the journal rolls over to new segments and replays all of them")
+    public void testSegments() throws Exception {
+        try (SchedulerJournal journal = new SchedulerJournal(directory, 4096, 1)) {
+            for (int i = 0; i < 1000; i++) {
+                journal.append(SchedulerJournal.Op.COMPLETED, 0, fire(1 + i % 3, FireEvent.Severity.High), Scheduler.FaultType.NONE);
+            }
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(8, files.count()); // 127 records of 32 bytes fit after each 16 byte header
+        }
+        try (SchedulerJournal journal = new SchedulerJournal(directory, 4096, 1)) {
+            long[] next = {1};
+            assertEquals(1000, journal.replay(r -> assertEquals(next[0]++, r.lsn)));
+            assertEquals(1001, journal.append(SchedulerJournal.Op.ALL_EVENTS_DONE, 0, null, Scheduler.FaultType.NONE));
+        }
+    }
+
+    @Test
+    @DisplayName("Test a torn record ends the log and is written over")
+    public void testTornRecord() throws Exception {
+        try (SchedulerJournal journal = new SchedulerJournal(directory)) {
+            for (int zone = 1; zone <= 3; zone++) {
+                journal.append(SchedulerJournal.Op.FIRE_DETECTED, 0, fire(zone, FireEvent.Severity.Moderate), Scheduler.FaultType.NONE);
+            }
+        }
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            // the third record starts after the 16 byte header and two records of the same size, each a
+            // length, a CRC and 16 bytes of fields before the time
+            int recordSize = 8 + 16 + "14:00:00".length();
+            long third = 16 + 2L * recordSize;
+            file.seek(third + 8 + 7);
+            file.write(0x7F); // corrupts the zone ID
+        }
+
+        try (SchedulerJournal journal = new SchedulerJournal(directory)) {
+            assertEquals(2, journal.getLastLsn());
+            assertEquals(3, journal.append(SchedulerJournal.Op.FIRE_DETECTED, 0, fire(3, FireEvent.Severity.High), Scheduler.FaultType.NONE));
+        }
+        try (SchedulerJournal journal = new SchedulerJournal(directory)) {
+            List<FireEvent.Severity> severities = new ArrayList<>();
+            assertEquals(3, journal.replay(r -> severities.add(r.event.getSeverity())));
+            assertEquals(List.of(FireEvent.Severity.Moderate, FireEvent.Severity.Moderate, FireEvent.Severity.High), severities);
+        }
+    }
+
+    @Test
+    @DisplayName("Test appends are forced to disk in groups, not one at a time")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testGroupCommit() throws Exception {
+        try (SchedulerJournal journal = new SchedulerJournal(directory, SchedulerJournal.DEFAULT_SEGMENT_SIZE, 20)) {
+            long last = 0;
+            for (int i = 0; i < 20_000; i++) {
+                last = journal.append(SchedulerJournal.Op.REQUEUED, i, fire(1, FireEvent.Severity.Low), Scheduler.FaultType.NONE);
+            }
+            journal.awaitDurable(last);
+            assertEquals(last, journal.getDurableLsn());
+            assertEquals(20_000, journal.getAppendedCount());
+            assertTrue(journal.getForceCount() < 200, "forced " + journal.getForceCount() + " times");
+        }
+    }
+
+    @Test
+    @DisplayName("Test a Scheduler recovers its queued and completed fires from the journal")
+    public void testSchedulerRecovery() throws Exception {
+        scheduler.setJournal(new SchedulerJournal(directory));
+        scheduler.newFireEvent(fire(1, FireEvent.Severity.Low));
+        scheduler.newFireEvent(fire(2, FireEvent.Severity.High));
+        scheduler.newFireEvent(fire(3, FireEvent.Severity.Moderate));
+        FireEvent taken = scheduler.getNextFireEvent();
+        assertEquals(2, taken.getZoneID());
+        scheduler.completeFireEvent(taken);
+        scheduler.shutdown();
+
+        scheduler = new Scheduler(testZoneFilePath);
+        scheduler.setJournal(new SchedulerJournal(directory));
+        assertEquals(2, scheduler.getActiveFireCount());
+        assertEquals(2, scheduler.getCompletedEvent().getZoneID());
+        assertEquals(3, scheduler.getNextFireEvent().getZoneID());
+        assertEquals(1, scheduler.getNextFireEvent().getZoneID());
+
+        // the recovered Scheduler keeps journaling where the last one stopped
+        scheduler.shutdown();
+        scheduler = new Scheduler(testZoneFilePath);
+        scheduler.setJournal(new SchedulerJournal(directory));
+        assertEquals(0, scheduler.getActiveFireCount());
+    }
+
+    @Test
+    @DisplayName("Test a mission displaced by an unanswered reroute is queued again after recovery")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testRecoveryRequeuesDisplacedMission() throws Exception {
+        scheduler.setJournal(new SchedulerJournal(directory));
+        new Thread(scheduler::startUDPServer).start();
+        Thread.sleep(500); // Give the server a moment to bind to the port
+
+        InetAddress address = InetAddress.getByName("localhost");
+        try (DatagramSocket drone = new DatagramSocket()) {
+            drone.setSoTimeout(3000);
+            send(drone, address, "REGISTER_DRONE,1");
+            assertEquals("REGISTERED_DRONE,1", receive(drone));
+            send(drone, address, "DRONE_READY,1");
+            Thread.sleep(200);
+            scheduler.newFireEvent(fire(2, FireEvent.Severity.Low));
+            assertEquals("ASSIGN_EVENT,14:00:00,2,Low,NONE", receive(drone));
+            scheduler.newFireEvent(fire(3, FireEvent.Severity.High));
+            assertEquals("REROUTE,14:00:00,3,High,NONE", receive(drone));
+        }
+        scheduler.shutdown(); // before the drone answers
+
+        scheduler = new Scheduler(testZoneFilePath);
+        scheduler.setJournal(new SchedulerJournal(directory));
+        assertEquals(1, scheduler.getActiveFireCount());
+        assertEquals(2, scheduler.getNextFireEvent().getZoneID());
+    }
+
+    private static FireEvent fire(int zoneID, FireEvent.Severity severity) {
+        return new FireEvent("14:00:00", zoneID, FireEvent.Type.FIRE_DETECTED, severity, FireEvent.FaultType.NONE);
+    }
+
+    private static void send(DatagramSocket socket, InetAddress address, String message) throws IOException {
+        socket.send(new DatagramPacket(message.getBytes(), message.length(), address, 6000));
+    }
+
+    private static String receive(DatagramSocket socket) throws IOException {
+        byte[] buffer = new byte[1024];
+        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+        socket.receive(packet);
+        return new String(packet.getData(), 0, packet.getLength());
+    }
+}
@@ -0,0 +1,165 @@
+import model.*;
+import subsystems.*;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Unit tests for the SchedulerReplica class.
+ * Tests a standby following the primary's replication stream, staying passive while heartbeats arrive,
+ * and taking over when the primary is lost, with drones moving to it and getting their next assignment.
+ *
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class SchedulerReplicaTest {
+
+    private Scheduler primary;
+    private SchedulerReplica replica;
+    private ReplicationServer replication;
+    private String testZoneFilePath;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        testZoneFilePath = "test/test_replica_zones.csv";
+        try (FileWriter writer = new FileWriter(testZoneFilePath)) {
+            writer.write("1,(0;0),(700;600)\n");
+            writer.write("2,(0;600),(650;1500)\n");
+            writer.write("3,(700;0),(1400;600)\n");
+        }
+        primary = new Scheduler(testZoneFilePath);
+        replication = primary.startReplication(0);
+        replica = new SchedulerReplica(testZoneFilePath, "localhost", replication.getPort(), SchedulerReplica.DEFAULT_STANDBY_PORT);
+        replica.setFailoverTimeout(300);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        replica.stop();
+        primary.shutdown();
+        new File(testZoneFilePath).delete();
+    }
+
+    @Test
+    @DisplayName("Test the standby holds the primary's queue from the snapshot and the records after it")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testReplicatesState() throws Exception {
+        primary.newFireEvent(fire(1, FireEvent.Severity.Low));
+        primary.newFireEvent(fire(2, FireEvent.Severity.High));
+        new Thread(replica).start();
+        awaitCondition(() -> replica.getAppliedSequence() == 2);
+
+        primary.newFireEvent(fire(3, FireEvent.Severity.Moderate));
+        primary.completeFireEvent(primary.getNextFireEvent());
+        awaitCondition(() -> replica.getAppliedSequence() == replication.getSequence());
+
+        Scheduler standby = replica.getScheduler();
+        assertEquals(2, standby.getActiveFireCount());
+        assertEquals(2, standby.getCompletedEvent().getZoneID());
+        assertEquals(3, standby.getNextFireEvent().getZoneID());
+        assertEquals(1, standby.getNextFireEvent().getZoneID());
+        assertFalse(replica.hasTakenOver());
+    }
+
+    @Test
+    @DisplayName("Test heartbeats keep the standby passive while the primary has nothing to send")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testHeartbeatsKeepStandbyPassive() throws Exception {
+        new Thread(replica).start();
+        awaitCondition(() -> replica.getAppliedSequence() == 0);
+        Thread.sleep(1000); // more than three failover timeouts without a state change
+        assertFalse(replica.hasTakenOver());
+        assertTrue(replication.getFramesSent() >= 5, "frames sent: " + replication.getFramesSent());
+    }
+
+    @Test
+    @DisplayName("Test the standby takes over a lost primary and assigns its queued fire to a drone")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testTakeover() throws Exception {
+        new Thread(primary::startUDPServer).start();
+        new Thread(replica).start();
+        Thread.sleep(500); // Give the server a moment to bind to the port
+
+        InetAddress address = InetAddress.getByName("localhost");
+        try (DatagramSocket drone = new DatagramSocket()) {
+            drone.setSoTimeout(3000);
+            send(drone, address, 6000, "REGISTER_DRONE,1");
+            assertEquals("REGISTERED_DRONE,1", receive(drone));
+            primary.newFireEvent(fire(2, FireEvent.Severity.High)); // the drone never said it is ready
+            awaitCondition(() -> replica.getAppliedSequence() == replication.getSequence());
+
+            primary.shutdown();
+            assertEquals("FAILOVER,1", receive(drone));
+            assertTrue(replica.hasTakenOver());
+            assertTrue(replica.getDetectionMillis() >= 300, "detected after " + replica.getDetectionMillis() + " ms");
+
+            send(drone, address, SchedulerReplica.DEFAULT_STANDBY_PORT, "REGISTER_DRONE,1");
+            assertEquals("REGISTERED_DRONE,1", receive(drone));
+            send(drone, address, SchedulerReplica.DEFAULT_STANDBY_PORT, "DRONE_READY,1");
+            assertEquals("ASSIGN_EVENT,14:00:00,2,High,NONE", receive(drone));
+        }
+        awaitCondition(() -> replica.getFailoverMillis() >= 0);
+        assertTrue(replica.getFailoverMillis() >= replica.getDetectionMillis());
+    }
+
+    @Test
+    @DisplayName("Test a drone with an address list registers with the standby after the takeover")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testDroneFailsOver() throws Exception {
+        new Thread(primary::startUDPServer).start();
+        new Thread(replica).start();
+        Thread.sleep(500); // Give the server a moment to bind to the port
+
+        UdpTransport transport = new UdpTransport("localhost:6000,localhost:" + SchedulerReplica.DEFAULT_STANDBY_PORT);
+        DroneSubsystem drone = new DroneSubsystem(primary, 1, primary.getClock(), transport);
+        CountDownLatch registered = new CountDownLatch(2);
+        drone.setRegistrationListener(registered::countDown);
+        new Thread(drone).start();
+        try {
+            awaitCondition(() -> registered.getCount() == 1);
+            Thread.sleep(200); // the drone is waiting for an assignment from the primary
+
+            primary.shutdown();
+            assertTrue(registered.await(3, TimeUnit.SECONDS));
+            assertEquals(1, drone.getFailoverCount());
+            assertEquals("localhost:" + SchedulerReplica.DEFAULT_STANDBY_PORT, transport.getSchedulerAddress());
+
+            Thread.sleep(200); // the drone asks the standby for an assignment
+            replica.getScheduler().newFireEvent(fire(1, FireEvent.Severity.Low));
+            awaitCondition(() -> drone.getState() != Drone.DroneState.IDLE);
+        } finally {
+            drone.stop();
+        }
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        while (!condition.getAsBoolean()) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static FireEvent fire(int zoneID, FireEvent.Severity severity) {
+        return new FireEvent("14:00:00", zoneID, FireEvent.Type.FIRE_DETECTED, severity, FireEvent.FaultType.NONE);
+    }
+
+    private static void send(DatagramSocket socket, InetAddress address, int port, String message) throws IOException {
+        socket.send(new DatagramPacket(message.getBytes(), message.length(), address, port));
+    }
+
+    private static String receive(DatagramSocket socket) throws IOException {
+        byte[] buffer = new byte[1024];
+        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+        socket.receive(packet);
+        return new String(packet.getData(), 0, packet.getLength());
+    }
+}
@@ -0,0 +1,198 @@
+import model.*;
+import subsystems.*;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Unit tests for the SchedulerSnapshot class.
+ * Tests writing and reading snapshot files, falling back past a damaged one to the journal, and a Scheduler recovering
+ * from a snapshot and the journal records after it, with the segments the snapshot covers deleted.
+ *
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class SchedulerSnapshotTest {
+
+    private Scheduler scheduler;
+    private String testZoneFilePath;
+    private Path directory;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        testZoneFilePath = "test/test_snapshot_zones.csv";
+        try (FileWriter writer = new FileWriter(testZoneFilePath)) {
+            writer.write("1,(0;0),(700;600)\n");
+            writer.write("2,(0;600),(650;1500)\n");
+            writer.write("3,(700;0),(1400;600)\n");
+        }
+        scheduler = new Scheduler(testZoneFilePath);
+        directory = Files.createTempDirectory("snapshot");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        scheduler.shutdown();
+        new File(testZoneFilePath).delete();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test a snapshot is read back as written and only the one before it is kept")
+    public void testWriteAndReadLatest() throws Exception {
+        assertNull(SchedulerSnapshot.readLatest(directory));
+        new SchedulerSnapshot(5, new byte[]{1, 2, 3}).write(directory);
+        new SchedulerSnapshot(7, new byte[]{1}).write(directory);
+        new SchedulerSnapshot(9, new byte[]{4, 5}).write(directory);
+        assertEquals(List.of("snapshot-00000000000000000007.snap", "snapshot-00000000000000000009.snap"), fileNames("snapshot-"));
+
+        SchedulerSnapshot latest = SchedulerSnapshot.readLatest(directory);
+        assertEquals(9, latest.getLsn());
+        assertEquals(2, latest.getSize());
+        DataInputStream in = latest.open();
+        assertEquals(4, in.readByte());
+        assertEquals(5, in.readByte());
+    }
+
+    @Test
+    @DisplayName("Test a damaged snapshot is skipped for the one before it and the journal after that")
+    public void testDamagedSnapshot() throws Exception {
+        scheduler.setSnapshotInterval(0);
+        scheduler.setJournal(new SchedulerJournal(directory, 4096, 1));
+        for (int i = 0; i < 300; i++) {
+            scheduler.newFireEvent(fire(i, FireEvent.Severity.Moderate));
+            if (i == 149) {
+                assertEquals(150, scheduler.takeSnapshot());
+            }
+        }
+        assertEquals(300, scheduler.takeSnapshot());
+        scheduler.shutdown();
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve("snapshot-00000000000000000300.snap").toFile(), "rw")) {
+            file.seek(100);
+            file.write(0x7F);
+        }
+
+        scheduler = new Scheduler(testZoneFilePath);
+        scheduler.setJournal(new SchedulerJournal(directory, 4096, 1));
+        assertEquals(300, scheduler.getActiveFireCount());
+        assertEquals("14:00:00", scheduler.getNextFireEvent().getTime());
+    }
+
+    @Test
+    @DisplayName("Test fire events, with and without a value, survive being written and read back")
+    public void testEventEncoding() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        FireEvent event = new FireEvent("09:30:15", 3, FireEvent.Type.DRONE_REQUEST, FireEvent.Severity.Moderate, FireEvent.FaultType.NOZZLE_JAMMED);
+        SchedulerSnapshot.writeEvent(out, event);
+        SchedulerSnapshot.writeEvent(out, null);
+
+        DataInputStream in = new SchedulerSnapshot(1, bytes.toByteArray()).open();
+        assertEquals(event.toString(), SchedulerSnapshot.readEvent(in).toString());
+        assertNull(SchedulerSnapshot.readEvent(in));
+    }
+
+    @Test
+    @DisplayName("Test a Scheduler recovers from a snapshot and the records after it in the same order")
+    public void testRecoveryFromSnapshot() throws Exception {
+        scheduler.setSnapshotInterval(0);
+        scheduler.setJournal(new SchedulerJournal(directory, 4096, 1));
+        FireEvent.Severity[] severities = {FireEvent.Severity.High, FireEvent.Severity.Moderate, FireEvent.Severity.Low};
+        for (int i = 0; i < 300; i++) {
+            scheduler.newFireEvent(fire(i, severities[i % 3]));
+        }
+        scheduler.completeFireEvent(scheduler.getNextFireEvent());
+        assertEquals(302, scheduler.takeSnapshot()); // 300 fires, one assignment and one completion
+        assertEquals(3, fileNames("journal-").size()); // kept until the next snapshot
+        scheduler.newFireEvent(fire(300, FireEvent.Severity.Low));
+        assertEquals(303, scheduler.takeSnapshot());
+        assertEquals(1, fileNames("journal-").size(), "segments left: " + fileNames("journal-"));
+
+        // records after the snapshot are replayed on top of it
+        FireEvent second = scheduler.getNextFireEvent();
+        assertEquals("14:00:03", second.getTime());
+        scheduler.completeFireEvent(second);
+        scheduler.shutdown();
+
+        scheduler = new Scheduler(testZoneFilePath);
+        scheduler.setJournal(new SchedulerJournal(directory, 4096, 1));
+        assertEquals(299, scheduler.getActiveFireCount());
+        assertEquals("14:00:00", scheduler.getCompletedEvent().getTime());
+        assertEquals("14:00:03", scheduler.getCompletedEvent().getTime());
+
+        // High fires first, oldest first within a severity, the Low fire reported last comes last
+        List<String> expected = new ArrayList<>();
+        for (int severity = 0; severity < 3; severity++) {
+            for (int i = severity; i < 300; i += 3) {
+                if (i != 0 && i != 3) {
+                    expected.add(fire(i, severities[i % 3]).getTime());
+                }
+            }
+        }
+        expected.add(fire(300, FireEvent.Severity.Low).getTime());
+        List<String> recovered = new ArrayList<>();
+        for (int i = 0; i < 299; i++) {
+            recovered.add(scheduler.getNextFireEvent().getTime());
+        }
+        assertEquals(expected, recovered);
+    }
+
+    @Test
+    @DisplayName("Test snapshots are taken every interval of journal records and bound the replay")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testAutomaticSnapshot() throws Exception {
+        scheduler.setSnapshotInterval(100);
+        scheduler.setJournal(new SchedulerJournal(directory, 4096, 1));
+        for (int i = 0; i < 1000; i++) {
+            scheduler.newFireEvent(fire(i, FireEvent.Severity.Low));
+        }
+        while (fileNames("snapshot-").isEmpty()) {
+            Thread.sleep(10);
+        }
+        // a snapshot only truncates what the one before it covers, so two more are taken synchronously
+        // instead of racing the background snapshot thread
+        scheduler.takeSnapshot();
+        scheduler.takeSnapshot();
+        scheduler.shutdown();
+        assertTrue(fileNames("journal-").size() < 8, "segments left: " + fileNames("journal-"));
+
+        scheduler = new Scheduler(testZoneFilePath);
+        scheduler.setJournal(new SchedulerJournal(directory, 4096, 1));
+        assertEquals(1000, scheduler.getActiveFireCount());
+    }
+
+    private List<String> fileNames(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(f -> f.getFileName().toString()).filter(n -> n.startsWith(prefix) && !n.endsWith(".tmp")).sorted().toList();
+        }
+    }
+
+    /**
+     * @param second   seconds after 14:00:00 the fire is reported, which tells the fires apart
+     * @param severity severity of the fire
+     * @return a fire in one of the three zones
+     */
+    private static FireEvent fire(int second, FireEvent.Severity severity) {
+        String time = String.format("14:%02d:%02d", second / 60, second % 60);
+        return new FireEvent(time, 1 + second % 3, FireEvent.Type.FIRE_DETECTED, severity, FireEvent.FaultType.NONE);
+    }
+}
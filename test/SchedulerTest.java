@@ -14,6 +14,7 @@ import java.net.DatagramPacket;
 import java.net.DatagramSocket;
 import java.net.InetAddress;
 import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
 
 /**
  * Unit tests for the Scheduler class.
@@ -387,15 +388,16 @@ public class SchedulerTest {
         scheduler.newFireEvent(event1);
         scheduler.newFireEvent(event2);
 
+        // High severity event is dispatched first even though it arrived second
         FireEvent first = scheduler.getNextFireEvent();
         assertNotNull(first);
-        assertEquals(1, first.getZoneID());
+        assertEquals(2, first.getZoneID());
 
         scheduler.droneReturnToBase(1);
 
         FireEvent second = scheduler.getNextFireEvent();
         assertNotNull(second);
-        assertEquals(2, second.getZoneID());
+        assertEquals(1, second.getZoneID());
 
     }
 
@@ -409,20 +411,23 @@ public class SchedulerTest {
     }
 
     @Test
-    @DisplayName("Test FIFO still holds")
+    @DisplayName("Test higher severity events are dispatched first, FIFO within a severity")
     @Timeout(value = 5, unit = TimeUnit.SECONDS)
-    public void testFIFOStillHolds() {
+    public void testSeverityPriorityOrder() {
         FireEvent event1 = new FireEvent("14:00:00", 1, FireEvent.Type.FIRE_DETECTED, FireEvent.Severity.Moderate, FireEvent.FaultType.NONE);
         FireEvent event2 = new FireEvent("14:10:15", 2, FireEvent.Type.FIRE_DETECTED, FireEvent.Severity.High, FireEvent.FaultType.NONE);
         FireEvent event3 = new FireEvent("14:25:00", 3, FireEvent.Type.FIRE_DETECTED, FireEvent.Severity.Low, FireEvent.FaultType.NONE);
+        FireEvent event4 = new FireEvent("14:30:00", 1, FireEvent.Type.FIRE_DETECTED, FireEvent.Severity.Moderate, FireEvent.FaultType.NONE);
 
         scheduler.newFireEvent(event1);
         scheduler.newFireEvent(event2);
         scheduler.newFireEvent(event3);
+        scheduler.newFireEvent(event4);
 
-        assertEquals(1, scheduler.getNextFireEvent().getZoneID());
-        assertEquals(2, scheduler.getNextFireEvent().getZoneID());
-        assertEquals(3, scheduler.getNextFireEvent().getZoneID());
+        assertSame(event2, scheduler.getNextFireEvent());
+        assertSame(event1, scheduler.getNextFireEvent());
+        assertSame(event4, scheduler.getNextFireEvent());
+        assertSame(event3, scheduler.getNextFireEvent());
     }
 
     @Test
@@ -596,5 +601,332 @@ public class SchedulerTest {
         scheduler.updateAllEventsDone();
     }
 
+    @Test
+    @DisplayName("Test nearest waiting drone is dispatched to a new fire")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testNearestDroneDispatch() throws Exception {
+        Thread.sleep(500); // Give the server a moment to bind to the port
+        assertEquals(Scheduler.DispatchMode.NEAREST_DRONE, scheduler.getDispatchMode());
+
+        InetAddress address = InetAddress.getByName("localhost");
+        DatagramSocket drone1 = new DatagramSocket();
+        DatagramSocket drone2 = new DatagramSocket();
+        drone1.setSoTimeout(1000);
+        drone2.setSoTimeout(3000);
+        byte[] buffer = new byte[1024];
+
+        // Drone 1 waits at base, drone 2 waits next to zone 3 (center 1050, 300)
+        String[][] messages = {
+                {"REGISTER_DRONE,1", "STATUS_UPDATE,1,IDLE,0.0,0.0,100.0", "DRONE_READY,1"},
+                {"REGISTER_DRONE,2", "STATUS_UPDATE,2,IDLE,1000.0,300.0,100.0", "DRONE_READY,2"}
+        };
+        DatagramSocket[] sockets = {drone1, drone2};
+        for (int i = 0; i < sockets.length; i++) {
+            for (String message : messages[i]) {
+                sockets[i].send(new DatagramPacket(message.getBytes(), message.length(), address, 6000));
+                Thread.sleep(100);
+            }
+            DatagramPacket reg = new DatagramPacket(buffer, buffer.length);
+            sockets[i].receive(reg);
+            assertTrue(new String(reg.getData(), 0, reg.getLength()).startsWith("REGISTERED_DRONE"));
+        }
+
+        scheduler.newFireEvent(new FireEvent("15:00:00", 3, FireEvent.Type.FIRE_DETECTED,
+                FireEvent.Severity.High, FireEvent.FaultType.NONE));
+
+        DatagramPacket assign = new DatagramPacket(buffer, buffer.length);
+        drone2.receive(assign);
+        assertTrue(new String(assign.getData(), 0, assign.getLength()).startsWith("ASSIGN_EVENT,15:00:00,3"));
+
+        DatagramPacket none = new DatagramPacket(buffer, buffer.length);
+        assertThrows(java.net.SocketTimeoutException.class, () -> drone1.receive(none));
+
+        drone1.close();
+        drone2.close();
+        scheduler.updateAllEventsDone();
+    }
+
+    @Test
+    @DisplayName("Test batch dispatch minimizes the total ETA of waiting drones")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testBatchOptimalDispatch() throws Exception {
+        Thread.sleep(500); // Give the server a moment to bind to the port
+        scheduler.setDispatchMode(Scheduler.DispatchMode.BATCH_OPTIMAL);
+        scheduler.setBatchWindowMillis(1000);
+
+        // Zone 1 (center 350, 300) has the higher priority, zone 3 (center 1050, 300) the lower
+        scheduler.newFireEvent(new FireEvent("15:00:00", 1, FireEvent.Type.FIRE_DETECTED,
+                FireEvent.Severity.High, FireEvent.FaultType.NONE));
+        scheduler.newFireEvent(new FireEvent("15:00:05", 3, FireEvent.Type.FIRE_DETECTED,
+                FireEvent.Severity.Moderate, FireEvent.FaultType.NONE));
+
+        InetAddress address = InetAddress.getByName("localhost");
+        DatagramSocket drone1 = new DatagramSocket();
+        DatagramSocket drone2 = new DatagramSocket();
+        drone1.setSoTimeout(3000);
+        drone2.setSoTimeout(3000);
+        byte[] buffer = new byte[1024];
+
+        // Greedy nearest dispatch would send drone 2 to zone 1 and drone 1 all the way to zone 3
+        String[][] messages = {
+                {"REGISTER_DRONE,1", "STATUS_UPDATE,1,IDLE,0.0,300.0,100.0", "DRONE_READY,1"},
+                {"REGISTER_DRONE,2", "STATUS_UPDATE,2,IDLE,600.0,300.0,100.0", "DRONE_READY,2"}
+        };
+        DatagramSocket[] sockets = {drone1, drone2};
+        for (int i = 0; i < sockets.length; i++) {
+            for (String message : messages[i]) {
+                sockets[i].send(new DatagramPacket(message.getBytes(), message.length(), address, 6000));
+                Thread.sleep(100);
+            }
+            DatagramPacket reg = new DatagramPacket(buffer, buffer.length);
+            sockets[i].receive(reg);
+            assertTrue(new String(reg.getData(), 0, reg.getLength()).startsWith("REGISTERED_DRONE"));
+        }
+
+        DatagramPacket assign1 = new DatagramPacket(buffer, buffer.length);
+        drone1.receive(assign1);
+        assertTrue(new String(assign1.getData(), 0, assign1.getLength()).startsWith("ASSIGN_EVENT,15:00:00,1"));
+
+        DatagramPacket assign2 = new DatagramPacket(buffer, buffer.length);
+        drone2.receive(assign2);
+        assertTrue(new String(assign2.getData(), 0, assign2.getLength()).startsWith("ASSIGN_EVENT,15:00:05,3"));
+
+        drone1.close();
+        drone2.close();
+        scheduler.updateAllEventsDone();
+    }
+
+    @Test
+    @DisplayName("Test drone that misses its arrival deadline is faulted and its event re-queued")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testArrivalDeadlineExpires() throws Exception {
+        Thread.sleep(500); // Give the server a moment to bind to the port
 
-}
\ No newline at end of file
+        InetAddress address = InetAddress.getByName("localhost");
+        DatagramSocket drone1 = new DatagramSocket();
+        drone1.setSoTimeout(3000);
+        byte[] buffer = new byte[1024];
+
+        // Drone waits on the center of zone 1, so its deadline is only the 3 second grace period
+        for (String message : new String[]{"REGISTER_DRONE,1", "STATUS_UPDATE,1,IDLE,350.0,300.0,100.0", "DRONE_READY,1"}) {
+            drone1.send(new DatagramPacket(message.getBytes(), message.length(), address, 6000));
+            Thread.sleep(100);
+        }
+        drone1.receive(new DatagramPacket(buffer, buffer.length));
+
+        scheduler.newFireEvent(new FireEvent("15:00:00", 1, FireEvent.Type.FIRE_DETECTED,
+                FireEvent.Severity.High, FireEvent.FaultType.NONE));
+        DatagramPacket assign = new DatagramPacket(buffer, buffer.length);
+        drone1.receive(assign);
+        long assignedAt = System.currentTimeMillis();
+        assertTrue(new String(assign.getData(), 0, assign.getLength()).startsWith("ASSIGN_EVENT,15:00:00,1"));
+        assertEquals(0, scheduler.getActiveFireCount());
+
+        // The drone never reports DRONE_ARRIVE_TO_ZONE
+        while (scheduler.getActiveFireCount() == 0) {
+            Thread.sleep(10);
+        }
+        long detectedAfter = System.currentTimeMillis() - assignedAt;
+        assertTrue(detectedAfter >= 2900 && detectedAfter < 3500, "Detected after " + detectedAfter + " ms");
+
+        drone1.close();
+        scheduler.updateAllEventsDone();
+    }
+
+    @Test
+    @DisplayName("Test the NIO transport registers and dispatches drones")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testNioTransport() throws Exception {
+        Thread.sleep(500); // Give the default server a moment to bind before replacing it
+        scheduler.shutdown();
+        scheduler = new Scheduler(testZoneFilePath);
+        scheduler.setNioTransport(true);
+        new Thread(() -> scheduler.startUDPServer()).start();
+        Thread.sleep(500);
+
+        InetAddress address = InetAddress.getByName("localhost");
+        DatagramSocket drone1 = new DatagramSocket();
+        drone1.setSoTimeout(3000);
+        byte[] buffer = new byte[1024];
+
+        for (String message : new String[]{"REGISTER_DRONE,1", "STATUS_UPDATE,1,IDLE,0.0,0.0,100.0", "DRONE_READY,1"}) {
+            drone1.send(new DatagramPacket(message.getBytes(), message.length(), address, 6000));
+            Thread.sleep(100);
+        }
+        DatagramPacket reg = new DatagramPacket(buffer, buffer.length);
+        drone1.receive(reg);
+        assertEquals("REGISTERED_DRONE,1", new String(reg.getData(), 0, reg.getLength()));
+
+        scheduler.newFireEvent(new FireEvent("15:00:00", 2, FireEvent.Type.FIRE_DETECTED,
+                FireEvent.Severity.Low, FireEvent.FaultType.NONE));
+        DatagramPacket assign = new DatagramPacket(buffer, buffer.length);
+        drone1.receive(assign);
+        assertEquals("ASSIGN_EVENT,15:00:00,2,Low,NONE", new String(assign.getData(), 0, assign.getLength()));
+
+        drone1.close();
+        scheduler.updateAllEventsDone();
+    }
+
+    @Test
+    @DisplayName("Test a drone that offers the binary codec is switched to it")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    @SuppressWarnings("unchecked")
+    public void testBinaryWireNegotiation() throws Exception {
+        Thread.sleep(500); // Give the server a moment to bind to the port
+
+        InetAddress address = InetAddress.getByName("localhost");
+        DatagramSocket drone1 = new DatagramSocket();
+        drone1.setSoTimeout(3000);
+        byte[] buffer = new byte[1024];
+
+        String register = "REGISTER_DRONE,1," + WireCodec.CAPABILITY;
+        drone1.send(new DatagramPacket(register.getBytes(), register.length(), address, 6000));
+        DatagramPacket reg = new DatagramPacket(buffer, buffer.length);
+        drone1.receive(reg);
+        assertEquals("REGISTERED_DRONE,1," + WireCodec.CAPABILITY, new String(reg.getData(), 0, reg.getLength()));
+
+        ByteBuffer out = ByteBuffer.allocate(64);
+        WireCodec.encodeStatus(out, 1, Drone.DroneState.IDLE, 600.0, 300.0, 90.0);
+        drone1.send(new DatagramPacket(out.array(), out.position(), address, 6000));
+        out.clear();
+        WireCodec.encodeHeader(out, WireCodec.Opcode.DRONE_READY, 1);
+        drone1.send(new DatagramPacket(out.array(), out.position(), address, 6000));
+        Thread.sleep(300);
+
+        Field statusesField = Scheduler.class.getDeclaredField("droneStatuses");
+        statusesField.setAccessible(true);
+        Map<Integer, Object> statuses = (Map<Integer, Object>) statusesField.get(scheduler);
+        Object status = statuses.get(1);
+        assertEquals(600.0, status.getClass().getField("currentX").getDouble(status));
+        assertEquals(90.0, status.getClass().getField("agentRemaining").getDouble(status));
+
+        scheduler.newFireEvent(new FireEvent("15:00:00", 3, FireEvent.Type.FIRE_DETECTED,
+                FireEvent.Severity.High, FireEvent.FaultType.NONE));
+        DatagramPacket assign = new DatagramPacket(buffer, buffer.length);
+        drone1.receive(assign);
+        assertEquals(WireCodec.MAGIC, assign.getData()[0]);
+
+        WireCodec.Message message = new WireCodec.Message();
+        assertTrue(WireCodec.decode(ByteBuffer.wrap(assign.getData(), 0, assign.getLength()), message));
+        assertEquals("ASSIGN_EVENT,15:00:00,3,High,NONE", WireCodec.toText(message));
+
+        drone1.close();
+        scheduler.updateAllEventsDone();
+    }
+
+    @Test
+    @DisplayName("Test malformed messages are counted and do not change state")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testMalformedMessagesRejected() throws Exception {
+        Thread.sleep(500); // Give the server a moment to bind to the port
+
+        InetAddress address = InetAddress.getByName("localhost");
+        DatagramSocket sender = new DatagramSocket();
+        String[] messages = {
+                "FIRE_DETECTED,14:00:00,abc,High",
+                "FIRE_DETECTED,14:00:00,1,Extreme",
+                "STATUS_UPDATE,1,IDLE,1.0.0,0.0,100.0",
+                "DRONE_READY",
+                "NOT_A_MESSAGE,1"
+        };
+        for (String message : messages) {
+            sender.send(new DatagramPacket(message.getBytes(), message.length(), address, 6000));
+        }
+        String valid = "FIRE_DETECTED,14:00:00,1,High";
+        sender.send(new DatagramPacket(valid.getBytes(), valid.length(), address, 6000));
+
+        while (scheduler.getRejectedMessageCount() < messages.length || scheduler.getActiveFireCount() < 1) {
+            Thread.sleep(10);
+        }
+        assertEquals(messages.length, scheduler.getRejectedMessageCount());
+        assertEquals(1, scheduler.getActiveFireCount());
+
+        sender.close();
+        scheduler.updateAllEventsDone();
+    }
+
+    @Test
+    @DisplayName("Test positions are extrapolated from a reported flight plan")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testFlightPlanExtrapolation() throws Exception {
+        Thread.sleep(500); // Give the server a moment to bind to the port
+
+        InetAddress address = InetAddress.getByName("localhost");
+        DatagramSocket drone1 = new DatagramSocket();
+        String register = "REGISTER_DRONE,1";
+        drone1.send(new DatagramPacket(register.getBytes(), register.length(), address, 6000));
+        Thread.sleep(100);
+
+        // 10 m/s covers 1 m per wall clock millisecond
+        String plan = "FLIGHT_PLAN,1,EN_ROUTE,0.0,0.0,100.0,500.0,500.0,10.0";
+        drone1.send(new DatagramPacket(plan.getBytes(), plan.length(), address, 6000));
+        Thread.sleep(250);
+
+        double[] position = scheduler.getEstimatedPosition(1);
+        assertTrue(position[0] > 150 && position[0] < 450, "Estimated x " + position[0]);
+        assertEquals(0.0, position[1]);
+
+        Thread.sleep(1000);
+        position = scheduler.getEstimatedPosition(1);
+        assertEquals(500.0, position[0]);
+        assertEquals(500.0, position[1]);
+
+        // a plain status update ends the plan
+        String status = "STATUS_UPDATE,1,EXTINGUISHING,500.0,500.0,100.0";
+        drone1.send(new DatagramPacket(status.getBytes(), status.length(), address, 6000));
+        Thread.sleep(200);
+        position = scheduler.getEstimatedPosition(1);
+        assertEquals(500.0, position[0]);
+        assertEquals(500.0, position[1]);
+
+        drone1.close();
+        scheduler.updateAllEventsDone();
+    }
+
+    @Test
+    @DisplayName("Test a rejected reroute gives the drone its mission back and an applied one queues it again")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testRerouteOutcome() throws Exception {
+        Thread.sleep(500); // Give the server a moment to bind to the port
+
+        InetAddress address = InetAddress.getByName("localhost");
+        DatagramSocket drone1 = new DatagramSocket();
+        drone1.setSoTimeout(3000);
+        byte[] buffer = new byte[1024];
+        for (String message : new String[]{"REGISTER_DRONE,1", "DRONE_READY,1"}) {
+            drone1.send(new DatagramPacket(message.getBytes(), message.length(), address, 6000));
+            Thread.sleep(100);
+        }
+        DatagramPacket reply = new DatagramPacket(buffer, buffer.length);
+        drone1.receive(reply);
+        assertTrue(new String(reply.getData(), 0, reply.getLength()).startsWith("REGISTERED_DRONE"));
+
+        scheduler.newFireEvent(new FireEvent("15:00:00", 1, FireEvent.Type.FIRE_DETECTED,
+                FireEvent.Severity.Low, FireEvent.FaultType.NONE));
+        drone1.receive(reply);
+        assertEquals("ASSIGN_EVENT,15:00:00,1,Low,NONE", new String(reply.getData(), 0, reply.getLength()));
+
+        FireEvent high = new FireEvent("15:01:00", 3, FireEvent.Type.FIRE_DETECTED,
+                FireEvent.Severity.High, FireEvent.FaultType.NONE);
+        scheduler.newFireEvent(high);
+        assertTrue(scheduler.rerouteDrone(1, high));
+        drone1.receive(reply);
+        assertEquals("REROUTE,15:01:00,3,High,NONE", new String(reply.getData(), 0, reply.getLength()));
+
+        // the drone had already landed, the High fire goes back into the queue
+        String rejected = "COMMAND_REJECTED,1,REROUTE";
+        drone1.send(new DatagramPacket(rejected.getBytes(), rejected.length(), address, 6000));
+        Thread.sleep(200);
+        assertEquals(3, scheduler.getNextFireEvent().getZoneID());
+
+        // this time the drone turns, its Low fire goes back into the queue
+        assertTrue(scheduler.rerouteDrone(1, high));
+        String applied = "COMMAND_APPLIED,1,REROUTE";
+        drone1.send(new DatagramPacket(applied.getBytes(), applied.length(), address, 6000));
+        Thread.sleep(200);
+        assertEquals(1, scheduler.getNextFireEvent().getZoneID());
+
+        drone1.close();
+        scheduler.updateAllEventsDone();
+    }
+}
@@ -0,0 +1,147 @@
+import subsystems.*;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for the SharedDroneSocket class.
+ * Tests that replies are routed to the mailbox of the drone they are addressed to.
+ *
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class SharedDroneSocketTest {
+
+    private SharedDroneSocket shared;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        shared = new SharedDroneSocket();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        shared.close();
+    }
+
+    /**
+     * Sends a datagram to the shared socket from another socket
+     */
+    private void sendToShared(byte[] data, int length) throws IOException {
+        try (DatagramSocket sender = new DatagramSocket()) {
+            sender.send(new DatagramPacket(data, length, InetAddress.getLoopbackAddress(), shared.getLocalPort()));
+        }
+    }
+
+    private void sendToShared(String message) throws IOException {
+        byte[] data = message.getBytes();
+        sendToShared(data, data.length);
+    }
+
+    @Test
+    @DisplayName("Test addressed text, binary and registration replies reach the right mailbox")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testRouting() throws IOException {
+        shared.open(1);
+        shared.open(2);
+        assertEquals(2, shared.getMailboxCount());
+
+        sendToShared("@2,RETURN_CONFIRMED,");
+        assertEquals("RETURN_CONFIRMED,", new String(shared.receive(2, 2000)));
+
+        sendToShared("REGISTERED_DRONE,1,BIN1");
+        assertEquals("REGISTERED_DRONE,1,BIN1", new String(shared.receive(1, 2000)));
+
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        assertTrue(WireCodec.fromText("RETURN_TO_BASE,", 1, buffer));
+        sendToShared(buffer.array(), buffer.position());
+        WireCodec.Message decoded = new WireCodec.Message();
+        assertTrue(WireCodec.decode(ByteBuffer.wrap(shared.receive(1, 2000)), decoded));
+        assertEquals(WireCodec.Opcode.RETURN_TO_BASE, decoded.opcode);
+        assertEquals(1, decoded.droneID);
+
+        assertNull(shared.receive(2, 100));
+        assertEquals(0, shared.getUnroutedMessageCount());
+    }
+
+    @Test
+    @DisplayName("Test replies without an open mailbox are counted and dropped")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testUnroutedReplies() throws IOException, InterruptedException {
+        shared.open(1);
+        sendToShared("@7,RETURN_CONFIRMED,");
+        sendToShared("ALL_EVENTS_COMPLETE,");
+        sendToShared("@x,RETURN_CONFIRMED,");
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (shared.getUnroutedMessageCount() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(3, shared.getUnroutedMessageCount());
+        assertNull(shared.receive(1, 100));
+    }
+
+    @Test
+    @DisplayName("Test closing a mailbox wakes a drone waiting on it")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testCloseMailbox() throws InterruptedException {
+        shared.open(3);
+        Thread closer = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                return;
+            }
+            shared.close(3);
+        });
+        closer.start();
+        assertThrows(IOException.class, () -> shared.receive(3, 0));
+        closer.join();
+        assertEquals(0, shared.getMailboxCount());
+        assertThrows(IOException.class, () -> shared.receive(3, 100));
+    }
+
+    @Test
+    @DisplayName("Test the scheduler addresses its replies to drones sharing one socket")
+    @Timeout(value = 20, unit = TimeUnit.SECONDS)
+    public void testSchedulerReplies() throws IOException, InterruptedException {
+        String zoneFile = "test/test_shared_socket_zones.csv";
+        try (FileWriter writer = new FileWriter(zoneFile)) {
+            writer.write("1,(0;0),(700;600)\n");
+        }
+        Scheduler scheduler = new Scheduler(zoneFile);
+        Thread udpThread = new Thread(scheduler::startUDPServer);
+        udpThread.setDaemon(true);
+        udpThread.start();
+        Thread.sleep(500);
+        try {
+            InetAddress schedulerAddress = InetAddress.getLoopbackAddress();
+            shared.open(4);
+            shared.open(5);
+            for (int id = 4; id <= 5; id++) {
+                byte[] register = ("REGISTER_DRONE," + id + "," + SharedDroneSocket.CAPABILITY).getBytes();
+                shared.send(register, register.length, schedulerAddress, 6000);
+                assertEquals("REGISTERED_DRONE," + id, new String(shared.receive(id, 5000)));
+            }
+
+            byte[] returned = "DRONE_RETURN_TO_BASE,5".getBytes();
+            shared.send(returned, returned.length, schedulerAddress, 6000);
+            String reply = new String(shared.receive(5, 5000));
+            assertTrue(reply.equals("RETURN_CONFIRMED,") || reply.equals("ALL_EVENTS_COMPLETE,"), reply);
+            assertNull(shared.receive(4, 200));
+            assertEquals(0, shared.getUnroutedMessageCount());
+        } finally {
+            scheduler.shutdown();
+            new File(zoneFile).delete();
+        }
+    }
+}
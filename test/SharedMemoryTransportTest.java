@@ -0,0 +1,103 @@
+import model.*;
+import subsystems.*;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for the SharedMemoryTransport class.
+ * Tests drones talking to a Scheduler through a memory mapped ring file instead of UDP.
+ *
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class SharedMemoryTransportTest {
+
+    private Scheduler scheduler;
+    private String testZoneFilePath;
+    private Path ringFile;
+    private SharedMemoryTransport schedulerSide;
+    private SharedMemoryTransport droneSide;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        testZoneFilePath = "test/test_ring_zones.csv";
+        try (FileWriter writer = new FileWriter(testZoneFilePath)) {
+            writer.write("1,(0;0),(700;600)\n");
+            writer.write("2,(0;600),(650;1500)\n");
+        }
+        scheduler = new Scheduler(testZoneFilePath);
+        ringFile = Files.createTempFile("drones", ".ring");
+        // each side maps the file on its own, as two processes would
+        schedulerSide = new SharedMemoryTransport(ringFile, 1 << 16);
+        droneSide = new SharedMemoryTransport(ringFile, 1 << 16);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        droneSide.close();
+        schedulerSide.close();
+        scheduler.shutdown();
+        Files.deleteIfExists(ringFile);
+        new File(testZoneFilePath).delete();
+    }
+
+    @Test
+    @DisplayName("Test drones register through the ring file and get only their own replies")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testRegistration() throws IOException {
+        InetSocketAddress peer = schedulerSide.serve(scheduler);
+        assertTrue(peer.getAddress().isAnyLocalAddress());
+
+        Transport first = droneSide.connect(1);
+        Transport second = droneSide.connect(2);
+        assertTrue(first.supportsBinary());
+        assertTrue(first.isMultiplexed());
+        assertEquals(2, droneSide.getMailboxCount());
+
+        first.send("REGISTER_DRONE,1," + WireCodec.CAPABILITY + "," + SharedDroneSocket.CAPABILITY);
+        assertEquals("REGISTERED_DRONE,1," + WireCodec.CAPABILITY, first.receive(2000));
+        second.send("REGISTER_DRONE,2," + WireCodec.CAPABILITY + "," + SharedDroneSocket.CAPABILITY);
+        assertEquals("REGISTERED_DRONE,2," + WireCodec.CAPABILITY, second.receive(2000));
+
+        second.send("DRONE_RETURN_TO_BASE,2");
+        String reply = second.receive(2000);
+        assertTrue("RETURN_CONFIRMED,".equals(reply) || "ALL_EVENTS_COMPLETE,".equals(reply), reply);
+        assertNull(first.receive(200));
+        assertEquals(0, droneSide.getUnroutedMessageCount());
+        assertEquals(0, droneSide.getDroppedMessageCount());
+    }
+
+    @Test
+    @DisplayName("Test a drone flies a whole mission over the ring file")
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    public void testMission() throws InterruptedException {
+        schedulerSide.serve(scheduler);
+        scheduler.newFireEvent(new FireEvent("14:03:15", 1, FireEvent.Type.FIRE_DETECTED,
+                FireEvent.Severity.Low, FireEvent.FaultType.NONE));
+        scheduler.updateAllEventsDone();
+
+        DroneSubsystem drone = new DroneSubsystem(scheduler, 1, scheduler.getClock(), droneSide.connect(1));
+        Thread t = new Thread(drone);
+        t.start();
+
+        t.join(25000);
+        assertFalse(t.isAlive(), "Drone should complete its mission over the ring");
+        assertTrue(drone.isBinaryNegotiated());
+        assertNotNull(scheduler.getCompletedEvent());
+    }
+
+    @Test
+    @DisplayName("Test a ring file laid out with another capacity is rejected")
+    public void testCapacityMismatch() {
+        assertThrows(IOException.class, () -> new SharedMemoryTransport(ringFile, 1 << 12));
+    }
+}
@@ -0,0 +1,90 @@
+import model.*;
+import subsystems.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for the TelemetryCoalescer class.
+ * Tests that only the newest update per drone is applied, that state changes are never coalesced and
+ * that the distance of dropped updates is carried into the applied one.
+ *
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class TelemetryCoalescerTest {
+
+    private final List<double[]> applied = new ArrayList<>();
+    private final List<Drone.DroneState> states = new ArrayList<>();
+
+    /**
+     * Helper sink that records every applied update as {droneID, x, y, agent, distance}
+     */
+    private void record(int droneID, Drone.DroneState state, double x, double y, double agent, double distance) {
+        applied.add(new double[]{droneID, x, y, agent, distance});
+        states.add(state);
+    }
+
+    @Test
+    @DisplayName("Test only the newest update per drone is applied on flush")
+    public void testCoalescing() {
+        TelemetryCoalescer coalescer = new TelemetryCoalescer(this::record);
+        coalescer.start(60_000); // ticks never fire during the test, flushAll stands in for them
+
+        coalescer.submit(1, Drone.DroneState.EN_ROUTE, 100, 0, 100);
+        coalescer.submit(1, Drone.DroneState.EN_ROUTE, 200, 0, 100);
+        coalescer.submit(1, Drone.DroneState.EN_ROUTE, 200, 100, 100);
+        coalescer.submit(2, Drone.DroneState.EN_ROUTE, 0, 100, 90);
+        assertEquals(2, applied.size()); // first update of each drone is a state change
+
+        coalescer.flushAll();
+        assertEquals(3, applied.size());
+        double[] last = applied.get(2);
+        assertEquals(1, last[0]);
+        assertEquals(200, last[1]);
+        assertEquals(100, last[2]);
+        assertEquals(200, last[4], 0.001); // the L-shaped path, not the 141 m diagonal
+        assertEquals(1, coalescer.getCoalescedCount());
+
+        coalescer.flushAll();
+        assertEquals(3, applied.size());
+        coalescer.stop();
+    }
+
+    @Test
+    @DisplayName("Test state changes are applied immediately and flush applies one drone")
+    public void testStateChangeAndFlush() {
+        TelemetryCoalescer coalescer = new TelemetryCoalescer(this::record);
+        coalescer.start(60_000);
+
+        coalescer.submit(1, Drone.DroneState.EN_ROUTE, 100, 0, 100);
+        coalescer.submit(1, Drone.DroneState.EN_ROUTE, 200, 0, 100);
+        coalescer.submit(1, Drone.DroneState.EXTINGUISHING, 300, 0, 100);
+        assertEquals(2, applied.size());
+        assertEquals(Drone.DroneState.EXTINGUISHING, states.get(1));
+        assertEquals(200, applied.get(1)[4], 0.001);
+
+        coalescer.submit(1, Drone.DroneState.EXTINGUISHING, 300, 0, 60);
+        coalescer.flush(2);
+        assertEquals(2, applied.size());
+        coalescer.flush(1);
+        assertEquals(3, applied.size());
+        assertEquals(60, applied.get(2)[3]);
+        coalescer.stop();
+    }
+
+    @Test
+    @DisplayName("Test without a tick every update is applied as it arrives")
+    public void testImmediate() {
+        TelemetryCoalescer coalescer = new TelemetryCoalescer(this::record);
+        coalescer.submit(1, Drone.DroneState.EN_ROUTE, 100, 0, 100);
+        coalescer.submit(1, Drone.DroneState.EN_ROUTE, 200, 0, 100);
+
+        assertEquals(2, applied.size());
+        assertEquals(100, applied.get(1)[4], 0.001);
+        assertEquals(0, coalescer.getCoalescedCount());
+    }
+}
@@ -0,0 +1,192 @@
+import model.*;
+import subsystems.*;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for the Transport implementations.
+ * Tests the UDP transport, its failover between schedulers, and the in-memory transport that skips
+ * the network in a single process.
+ *
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class TransportTest {
+
+    private Scheduler scheduler;
+    private String testZoneFilePath;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        testZoneFilePath = "test/test_transport_zones.csv";
+        try (FileWriter writer = new FileWriter(testZoneFilePath)) {
+            writer.write("1,(0;0),(700;600)\n");
+            writer.write("2,(0;600),(650;1500)\n");
+        }
+        scheduler = new Scheduler(testZoneFilePath);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        new File(testZoneFilePath).delete();
+        scheduler.shutdown();
+    }
+
+    @Test
+    @DisplayName("Test the in-memory transport registers a drone without a UDP server")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testInMemoryRegistration() throws IOException {
+        InMemoryTransport hub = new InMemoryTransport(scheduler);
+        Transport first = hub.connect();
+        Transport second = hub.connect();
+        assertEquals(2, hub.getConnectionCount());
+        assertFalse(first.supportsBinary());
+
+        first.send("REGISTER_DRONE,1");
+        assertEquals("REGISTERED_DRONE,1", first.receive(1000));
+        assertNull(second.receive(100));
+
+        second.send("REGISTER_DRONE,2");
+        assertEquals("REGISTERED_DRONE,2", second.receive(1000));
+        assertNotNull(scheduler.getEstimatedPosition(2));
+    }
+
+    @Test
+    @DisplayName("Test the in-memory transport delivers binary messages in their text form")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testInMemoryBinarySend() throws IOException {
+        InMemoryTransport hub = new InMemoryTransport(scheduler);
+        Transport transport = hub.connect();
+        transport.send("REGISTER_DRONE,4");
+        assertEquals("REGISTERED_DRONE,4", transport.receive(1000));
+
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        WireCodec.encodeHeader(buffer, WireCodec.Opcode.DRONE_RETURN_TO_BASE, 4);
+        transport.send(buffer.array(), buffer.position());
+        assertEquals("RETURN_CONFIRMED,", transport.receive(1000));
+
+        byte[] garbage = {WireCodec.MAGIC, 0};
+        assertThrows(Transport.MalformedMessageException.class, () -> transport.send(garbage, garbage.length));
+    }
+
+    @Test
+    @DisplayName("Test closing an in-memory transport wakes its receive and drops later replies")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testInMemoryClose() throws InterruptedException, IOException {
+        InMemoryTransport hub = new InMemoryTransport(scheduler);
+        Transport transport = hub.connect();
+        transport.send("REGISTER_DRONE,3");
+        assertEquals("REGISTERED_DRONE,3", transport.receive(1000));
+
+        Thread closer = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                return;
+            }
+            transport.close();
+        });
+        closer.start();
+        assertThrows(IOException.class, () -> transport.receive(0));
+        closer.join();
+        assertEquals(0, hub.getConnectionCount());
+        assertThrows(IOException.class, () -> transport.send("DRONE_RETURN_TO_BASE,3"));
+
+        hub.reply("RETURN_CONFIRMED,", InetAddress.getLoopbackAddress(), 1);
+        assertEquals(1, hub.getUndeliveredReplyCount());
+    }
+
+    @Test
+    @DisplayName("Test a drone and the fire incident subsystem complete a mission in memory")
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    public void testInMemoryMission() throws InterruptedException, IOException {
+        InMemoryTransport hub = new InMemoryTransport(scheduler);
+        Transport incidents = hub.connect();
+        incidents.send("FIRE_DETECTED,14:03:15,1,Low,NONE");
+        incidents.send("ALL_EVENTS_DONE");
+
+        DroneSubsystem drone = new DroneSubsystem(scheduler, 1, scheduler.getClock(), hub.connect());
+        Thread t = new Thread(drone);
+        t.start();
+
+        t.join(25000);
+        assertFalse(t.isAlive(), "Drone should complete its mission in memory");
+        assertFalse(drone.isBinaryNegotiated());
+        FireEvent completed = scheduler.getCompletedEvent();
+        assertNotNull(completed);
+        assertEquals(1, completed.getZoneID());
+    }
+
+    @Test
+    @DisplayName("Test the UDP transport sends text and decodes binary replies")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testUdpTransport() throws IOException {
+        try (DatagramSocket server = new DatagramSocket(0)) {
+            UdpTransport transport = new UdpTransport("localhost", server.getLocalPort());
+            try {
+                assertTrue(transport.supportsBinary());
+                assertFalse(transport.isMultiplexed());
+                transport.send("DRONE_READY,4");
+
+                DatagramPacket packet = new DatagramPacket(new byte[256], 256);
+                server.receive(packet);
+                assertEquals("DRONE_READY,4", new String(packet.getData(), 0, packet.getLength()));
+                InetAddress address = packet.getAddress();
+                int port = packet.getPort();
+
+                ByteBuffer buffer = ByteBuffer.allocate(64);
+                assertTrue(WireCodec.fromText("RETURN_CONFIRMED,", buffer));
+                server.send(new DatagramPacket(buffer.array(), buffer.position(), address, port));
+                assertEquals("RETURN_CONFIRMED,", transport.receive(2000));
+
+                byte[] bad = {WireCodec.MAGIC, 0};
+                server.send(new DatagramPacket(bad, bad.length, address, port));
+                assertThrows(Transport.MalformedMessageException.class, () -> transport.receive(2000));
+
+                assertNull(transport.receive(100));
+            } finally {
+                transport.close();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test the UDP transport moves through its list of schedulers on failover")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testUdpTransportFailover() throws IOException {
+        try (DatagramSocket primary = new DatagramSocket(0); DatagramSocket standby = new DatagramSocket(0)) {
+            UdpTransport transport = new UdpTransport("localhost:" + primary.getLocalPort() + ",localhost:" + standby.getLocalPort());
+            try {
+                DatagramPacket packet = new DatagramPacket(new byte[256], 256);
+                transport.send("DRONE_READY,4");
+                primary.receive(packet);
+                assertEquals("DRONE_READY,4", new String(packet.getData(), 0, packet.getLength()));
+
+                assertTrue(transport.failOver());
+                assertEquals("localhost:" + standby.getLocalPort(), transport.getSchedulerAddress());
+                transport.send("REGISTER_DRONE,4");
+                standby.receive(packet);
+                assertEquals("REGISTER_DRONE,4", new String(packet.getData(), 0, packet.getLength()));
+
+                assertTrue(transport.failOver()); // back to the first one
+                assertEquals("localhost:" + primary.getLocalPort(), transport.getSchedulerAddress());
+            } finally {
+                transport.close();
+            }
+        }
+        UdpTransport single = new UdpTransport("localhost", 6000);
+        assertFalse(single.failOver());
+        single.close();
+        assertThrows(IllegalArgumentException.class, () -> new UdpTransport("localhost"));
+    }
+}
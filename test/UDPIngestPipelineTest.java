@@ -0,0 +1,317 @@
+import subsystems.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.DatagramChannel;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Unit tests for the UDPIngestPipeline class.
+ * Tests per-drone message ordering, that a slow drone does not hold up the others, that a full lane
+ * drops telemetry only and that a datagram arriving after the lanes were stopped ends the receive loop
+ * quietly.
+ *
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class UDPIngestPipelineTest {
+
+    private DatagramSocket serverSocket;
+    private DatagramChannel serverChannel;
+    private UDPIngestPipeline pipeline;
+
+    /**
+     * Helper method to start a pipeline on a free port
+     */
+    private void startPipeline(int workers, UDPIngestPipeline.Handler handler) throws Exception {
+        serverSocket = new DatagramSocket(0);
+        pipeline = new UDPIngestPipeline(serverSocket, workers, handler);
+        Thread receiver = new Thread(() -> {
+            try {
+                pipeline.run();
+            } catch (Exception e) {
+                // socket closed by tearDown
+            }
+        });
+        receiver.setDaemon(true);
+        receiver.start();
+    }
+
+    /**
+     * Helper method to start a pipeline on a NIO channel bound to a free port
+     */
+    private void startChannelPipeline(int workers, ByteBufferPool pool, UDPIngestPipeline.Handler handler) throws Exception {
+        startChannelPipeline(workers, pool, handler, null);
+    }
+
+    /**
+     * Helper method to start a pipeline on a NIO channel that hands text datagrams to a text handler
+     */
+    private void startChannelPipeline(int workers, ByteBufferPool pool, UDPIngestPipeline.Handler handler,
+                                      UDPIngestPipeline.BufferHandler textHandler) throws Exception {
+        serverChannel = DatagramChannel.open();
+        serverChannel.bind(new InetSocketAddress(0));
+        serverSocket = serverChannel.socket();
+        pipeline = new UDPIngestPipeline(serverChannel, pool, workers, handler);
+        pipeline.setTextHandler(textHandler);
+        Thread receiver = new Thread(() -> {
+            try {
+                pipeline.run();
+            } catch (Exception e) {
+                // channel closed by tearDown
+            }
+        });
+        receiver.setDaemon(true);
+        receiver.start();
+    }
+
+    /**
+     * Helper method to send one message to the pipeline
+     */
+    private void send(DatagramSocket client, String message) throws Exception {
+        client.send(new DatagramPacket(message.getBytes(), message.length(),
+                InetAddress.getByName("localhost"), serverSocket.getLocalPort()));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (pipeline != null) {
+            pipeline.stop();
+        }
+        if (serverSocket != null) {
+            serverSocket.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Test messages from each drone are handled in the order they were sent")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testPerDroneOrdering() throws Exception {
+        int drones = 8;
+        int perDrone = 50;
+        Map<Integer, List<Integer>> seen = new ConcurrentHashMap<>();
+        CountDownLatch done = new CountDownLatch(drones * perDrone);
+        startPipeline(4, (message, address, port) -> {
+            String[] parts = message.split(",");
+            seen.computeIfAbsent(Integer.parseInt(parts[1]), k -> new CopyOnWriteArrayList<>())
+                    .add(Integer.parseInt(parts[2]));
+            done.countDown();
+        });
+
+        try (DatagramSocket client = new DatagramSocket()) {
+            for (int seq = 0; seq < perDrone; seq++) {
+                for (int drone = 1; drone <= drones; drone++) {
+                    send(client, "STATUS_UPDATE," + drone + "," + seq);
+                }
+                Thread.sleep(1); // keep the loopback buffer from overflowing
+            }
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS), "Not every message was handled");
+        for (int drone = 1; drone <= drones; drone++) {
+            List<Integer> sequence = seen.get(drone);
+            for (int seq = 0; seq < perDrone; seq++) {
+                assertEquals(seq, sequence.get(seq), "Drone " + drone + " handled out of order");
+            }
+        }
+        assertEquals(drones * perDrone, pipeline.getHandledCount());
+    }
+
+    @Test
+    @DisplayName("Test a blocked drone does not delay messages from other drones")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testLanesRunInParallel() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch otherHandled = new CountDownLatch(1);
+        startPipeline(4, (message, address, port) -> {
+            try {
+                if (message.startsWith("HARD_FAULT,1")) {
+                    release.await();
+                } else {
+                    otherHandled.countDown();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        try (DatagramSocket client = new DatagramSocket()) {
+            send(client, "HARD_FAULT,1,NOZZLE_JAMMED");
+            send(client, "DRONE_READY,2");
+        }
+
+        assertTrue(otherHandled.await(2, TimeUnit.SECONDS), "Drone 2 was blocked behind drone 1");
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("Test a full lane drops telemetry but waits for room for control messages")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testBoundedLanes() throws Exception {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(4);
+        List<String> handled = new CopyOnWriteArrayList<>();
+        serverSocket = new DatagramSocket(0);
+        pipeline = new UDPIngestPipeline(serverSocket, 1, 2, (message, address, port) -> {
+            handled.add(message);
+            if (message.startsWith("HARD_FAULT")) {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            done.countDown();
+        });
+        Thread receiver = new Thread(() -> {
+            try {
+                pipeline.run();
+            } catch (Exception e) {
+                // socket closed by tearDown
+            }
+        });
+        receiver.setDaemon(true);
+        receiver.start();
+
+        try (DatagramSocket client = new DatagramSocket()) {
+            send(client, "HARD_FAULT,1,NOZZLE_JAMMED");
+            assertTrue(blocked.await(2, TimeUnit.SECONDS));
+            for (int seq = 0; seq < 5; seq++) {
+                send(client, "STATUS_UPDATE,1," + seq);
+            }
+            send(client, "DRONE_READY,1");
+        }
+
+        // the receive thread reads every datagram, then waits for room for DRONE_READY
+        long deadline = System.currentTimeMillis() + 2000;
+        while (pipeline.getReceivedCount() < 7 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(7, pipeline.getReceivedCount());
+        assertEquals(3, pipeline.getDroppedCount());
+
+        release.countDown();
+        assertTrue(done.await(2, TimeUnit.SECONDS), "Not every queued message was handled");
+        assertEquals(List.of("HARD_FAULT,1,NOZZLE_JAMMED", "STATUS_UPDATE,1,0", "STATUS_UPDATE,1,1", "DRONE_READY,1"), handled);
+    }
+
+    @Test
+    @DisplayName("Test zero workers handles messages on the receive thread")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testInlineHandling() throws Exception {
+        List<String> threads = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(2);
+        startPipeline(0, (message, address, port) -> {
+            threads.add(Thread.currentThread().getName());
+            done.countDown();
+        });
+
+        try (DatagramSocket client = new DatagramSocket()) {
+            send(client, "FIRE_DETECTED,14:00:00,1,High,NONE");
+            send(client, "ALL_EVENTS_DONE");
+        }
+
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertEquals(0, pipeline.getWorkerCount());
+        assertEquals(threads.get(0), threads.get(1));
+        assertFalse(threads.get(0).startsWith("Scheduler-Ingest"));
+        assertEquals(2, pipeline.getReceivedCount());
+    }
+
+    @Test
+    @DisplayName("Test channel mode keeps per-drone order and reuses pooled buffers")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testChannelMode() throws Exception {
+        int messages = 300;
+        ByteBufferPool pool = new ByteBufferPool(UDPIngestPipeline.MAX_PACKET_SIZE, 64);
+        List<Integer> seen = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(messages);
+        startChannelPipeline(2, pool, (message, address, port) -> {
+            seen.add(Integer.parseInt(message.split(",")[2]));
+            done.countDown();
+        });
+        Thread.sleep(200); // Give the selector a moment to register
+
+        try (DatagramSocket client = new DatagramSocket()) {
+            for (int seq = 0; seq < messages; seq++) {
+                send(client, "STATUS_UPDATE,7," + seq);
+                if (seq % 10 == 0) {
+                    Thread.sleep(1);
+                }
+            }
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS), "Not every message was handled");
+        for (int seq = 0; seq < messages; seq++) {
+            assertEquals(seq, seen.get(seq));
+        }
+        assertTrue(pool.getAllocatedCount() < messages, "Receive buffers were not reused");
+    }
+
+    @Test
+    @DisplayName("Test channel mode hands text datagrams to a text handler to be parsed in place")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testTextHandler() throws Exception {
+        ByteBufferPool pool = new ByteBufferPool(UDPIngestPipeline.MAX_PACKET_SIZE, 8);
+        List<Integer> droneIDs = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(2);
+        startChannelPipeline(1, pool, (message, address, port) -> fail("Decoded into a String: " + message),
+                (buffer, address, port) -> {
+                    MessageParser parser = new MessageParser().reset(buffer);
+                    assertEquals(MessageParser.Type.DRONE_READY, parser.nextType());
+                    droneIDs.add(parser.nextInt());
+                    done.countDown();
+                });
+        Thread.sleep(200); // Give the selector a moment to register
+
+        try (DatagramSocket client = new DatagramSocket()) {
+            send(client, "DRONE_READY,4");
+            send(client, "DRONE_READY,9");
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS), "Not every message was handled");
+        assertEquals(List.of(4, 9), droneIDs);
+    }
+
+    @Test
+    @DisplayName("Test a datagram received after stop() ends the receive loop instead of failing")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testDatagramAfterStop() throws Exception {
+        serverSocket = new DatagramSocket(0);
+        pipeline = new UDPIngestPipeline(serverSocket, 2, (message, address, port) -> { });
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread receiver = new Thread(() -> {
+            try {
+                pipeline.run();
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        receiver.start();
+        Thread.sleep(100); // let the receive thread block on the socket
+
+        pipeline.stop();
+        try (DatagramSocket client = new DatagramSocket()) {
+            send(client, "DRONE_READY,1");
+        }
+
+        receiver.join(2000);
+        assertFalse(receiver.isAlive(), "The receive loop kept running");
+        assertNull(failure.get());
+    }
+}
@@ -0,0 +1,177 @@
+import model.*;
+import subsystems.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Unit tests for the WireCodec class.
+ * Tests that binary messages round trip to the same text form and that malformed input is rejected.
+ *
+ * @author Jordan Grewal, Nolan Kisser, Celina Yang
+ * @version October 16, 2026
+ */
+public class WireCodecTest {
+
+    /**
+     * Helper method to encode a text message and decode it back to text
+     */
+    private String roundTrip(String text) {
+        ByteBuffer buffer = ByteBuffer.allocate(UDPIngestPipeline.MAX_PACKET_SIZE);
+        assertTrue(WireCodec.fromText(text, buffer), "No binary form for " + text);
+        buffer.flip();
+        assertTrue(WireCodec.isBinary(buffer));
+
+        WireCodec.Message message = new WireCodec.Message();
+        assertTrue(WireCodec.decode(buffer, message));
+        assertFalse(buffer.hasRemaining());
+        return WireCodec.toText(message);
+    }
+
+    @Test
+    @DisplayName("Test every binary message type round trips to its text form")
+    public void testRoundTrip() {
+        String[] messages = {
+                "DRONE_READY,3",
+                "DRONE_RETURN_TO_BASE,3",
+                "STATUS_UPDATE,3,EN_ROUTE,350.0,300.0,85.5",
+                "DRONE_ARRIVE_TO_ZONE,3,14:03:15,2,High",
+                "DRONE_COMPLETE_EVENT,3,14:03:15,2,High",
+                "REQUEUE_EVENT,3,00:00:00,5,Low",
+                "REQUEST_NEXT_MISSION,3,62.5",
+                "HARD_FAULT,3,NOZZLE_JAMMED,2",
+                "ASSIGN_EVENT,23:59:59,4,Moderate,STUCK_IN_FLIGHT",
+                "RETURN_TO_BASE,",
+                "RETURN_CONFIRMED,",
+                "ALL_EVENTS_COMPLETE,"
+        };
+        for (String message : messages) {
+            assertEquals(message, roundTrip(message));
+        }
+    }
+
+    @Test
+    @DisplayName("Test status updates are encoded directly and are smaller than text")
+    public void testStatusEncoding() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        WireCodec.encodeStatus(buffer, 12, Drone.DroneState.RETURNING, 1200.0, 650.0, 40.0);
+        int size = buffer.position();
+        buffer.flip();
+
+        WireCodec.Message message = new WireCodec.Message();
+        assertTrue(WireCodec.decode(buffer, message));
+        assertEquals(WireCodec.Opcode.STATUS_UPDATE, message.opcode);
+        assertEquals(12, message.droneID);
+        assertEquals(Drone.DroneState.RETURNING, message.state);
+        assertEquals(1200.0, message.x);
+        assertEquals(650.0, message.y);
+        assertEquals(40.0, message.agent);
+        assertTrue(size < "STATUS_UPDATE,12,RETURNING,1200.0,650.0,40.0".length() / 2);
+    }
+
+    @Test
+    @DisplayName("Test assignment encoding from a fire event")
+    public void testEventEncoding() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        FireEvent event = new FireEvent("09:30:05", 3, FireEvent.Type.FIRE_DETECTED,
+                FireEvent.Severity.High, FireEvent.FaultType.NOZZLE_JAMMED);
+        assertTrue(WireCodec.encodeEvent(buffer, WireCodec.Opcode.ASSIGN_EVENT, 1, event));
+        buffer.flip();
+
+        WireCodec.Message message = new WireCodec.Message();
+        assertTrue(WireCodec.decode(buffer, message));
+        assertEquals("09:30:05", message.getTime());
+        assertEquals(3, message.zoneID);
+        assertEquals(FireEvent.Severity.High, message.severity);
+        assertEquals(FireEvent.FaultType.NOZZLE_JAMMED, message.eventFault);
+
+        FireEvent oddTime = new FireEvent("9:30", 3, FireEvent.Type.FIRE_DETECTED,
+                FireEvent.Severity.High, FireEvent.FaultType.NONE);
+        buffer.clear();
+        assertFalse(WireCodec.encodeEvent(buffer, WireCodec.Opcode.ASSIGN_EVENT, 1, oddTime));
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    @DisplayName("Test messages without a binary form stay in text")
+    public void testTextOnly() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        assertFalse(WireCodec.fromText("REGISTER_DRONE,1,BIN1", buffer));
+        assertFalse(WireCodec.fromText("FIRE_DETECTED,14:00:00,1,High,NONE", buffer));
+        assertFalse(WireCodec.fromText("HARD_FAULT,1,UNKNOWN,2", buffer));
+        assertFalse(WireCodec.fromText("STATUS_UPDATE,1,IDLE,abc,0.0,100.0", buffer));
+        assertFalse(WireCodec.fromText("ASSIGN_EVENT,9:30,1,High,NONE", buffer));
+        assertFalse(WireCodec.fromText("DRONE_COMPLETE_EVENT,1,14:00:00", buffer));
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    @DisplayName("Test request IDs travel in the binary header and come back as their text prefix")
+    public void testRequestIDs() {
+        assertEquals("?12,DRONE_READY,3", roundTrip("?12,DRONE_READY,3"));
+        assertEquals("?13,REQUEST_NEXT_MISSION,3,42.5", roundTrip("?13,REQUEST_NEXT_MISSION,3,42.5"));
+        assertEquals("=7,ASSIGN_EVENT,23:59:59,4,Moderate,NONE", roundTrip("=7,ASSIGN_EVENT,23:59:59,4,Moderate,NONE"));
+        assertEquals("=9,RETURN_CONFIRMED,", roundTrip("=9,RETURN_CONFIRMED,"));
+
+        ByteBuffer plain = ByteBuffer.allocate(64);
+        ByteBuffer tagged = ByteBuffer.allocate(64);
+        WireCodec.fromText("DRONE_READY,3", plain);
+        WireCodec.fromText("?12,DRONE_READY,3", tagged);
+        assertEquals(plain.position() + 4, tagged.position());
+
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        assertFalse(WireCodec.fromText("?x,DRONE_READY,3", buffer));
+        assertFalse(WireCodec.fromText("?0,DRONE_READY,3", buffer));
+        assertFalse(WireCodec.fromText("?12DRONE_READY,3", buffer));
+        assertFalse(WireCodec.fromText("?99999999999,DRONE_READY,3", buffer));
+        assertEquals(0, buffer.position());
+
+        ByteBuffer zeroID = ByteBuffer.allocate(64);
+        WireCodec.encodeHeader(zeroID, WireCodec.Opcode.DRONE_READY, 3, 12);
+        zeroID.putInt(7, 0).flip();
+        assertFalse(WireCodec.decode(zeroID, new WireCodec.Message()));
+    }
+
+    @Test
+    @DisplayName("Test malformed binary messages are rejected")
+    public void testMalformed() {
+        WireCodec.Message message = new WireCodec.Message();
+
+        ByteBuffer truncated = ByteBuffer.allocate(64);
+        WireCodec.encodeStatus(truncated, 1, Drone.DroneState.IDLE, 0, 0, 100);
+        truncated.flip().limit(truncated.limit() - 1);
+        assertFalse(WireCodec.decode(truncated, message));
+
+        ByteBuffer badVersion = ByteBuffer.allocate(64);
+        WireCodec.encodeHeader(badVersion, WireCodec.Opcode.DRONE_READY, 1);
+        badVersion.put(1, (byte) 99).flip();
+        assertFalse(WireCodec.decode(badVersion, message));
+
+        ByteBuffer badOpcode = ByteBuffer.allocate(64);
+        WireCodec.encodeHeader(badOpcode, WireCodec.Opcode.DRONE_READY, 1);
+        badOpcode.put(2, (byte) 120).flip();
+        assertFalse(WireCodec.decode(badOpcode, message));
+
+        assertFalse(WireCodec.decode(ByteBuffer.wrap("DRONE_READY,1".getBytes()), message));
+    }
+
+    @Test
+    @DisplayName("Test opcodes and enums are encoded by their fixed codes, not their declaration order")
+    public void testExplicitCodes() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        WireCodec.encodeStatus(buffer, 4, Drone.DroneState.FAULTED, 1, 2, 3);
+        assertEquals(WireCodec.Opcode.STATUS_UPDATE.code, buffer.get(2));
+        assertEquals(Drone.DroneState.FAULTED.code, buffer.get(WireCodec.HEADER_SIZE));
+
+        for (WireCodec.Opcode op : WireCodec.Opcode.values()) {
+            assertSame(op, WireCodec.Opcode.fromCode(op.code));
+        }
+        assertNull(WireCodec.Opcode.fromCode(0x7f));
+
+        // a state code no DroneState has is rejected rather than read as a neighbouring constant
+        buffer.put(WireCodec.HEADER_SIZE, (byte) 99).flip();
+        assertFalse(WireCodec.decode(buffer, new WireCodec.Message()));
+    }
+}